@@ -0,0 +1,97 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.domainobject.DomainObject;
+import com.infomaximum.database.domainobject.DomainObjectSource;
+import com.infomaximum.database.domainobject.Transaction;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.maintenance.ChangeMode;
+import com.infomaximum.database.maintenance.DomainService;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.rocksdb.RocksDBProvider;
+import com.infomaximum.rocksdb.RocksDataBaseBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Database in temporary directory which is deleted by closing.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private final Path path;
+    private final RocksDBProvider provider;
+    private final DomainObjectSource domainObjectSource;
+
+    public BenchmarkDatabase() throws IOException, DatabaseException {
+        this.path = Files.createTempDirectory("rocksdb-benchmark");
+        this.provider = new RocksDataBaseBuilder().withPath(path).build();
+        this.domainObjectSource = new DomainObjectSource(provider);
+    }
+
+    public RocksDBProvider getProvider() {
+        return provider;
+    }
+
+    public DomainObjectSource getDomainObjectSource() {
+        return domainObjectSource;
+    }
+
+    public void createDomain(Class<? extends DomainObject> clazz) throws DatabaseException {
+        new Schema.Builder().withDomain(clazz).build();
+        new DomainService(provider)
+                .setChangeMode(ChangeMode.CREATION)
+                .setValidationMode(true)
+                .setDomain(Schema.getEntity(clazz))
+                .execute();
+    }
+
+    /**
+     * Saves records of {@link #populate(BenchmarkRecord, long, int)} by one transaction.
+     */
+    public void fill(Class<? extends BenchmarkRecord> clazz, int recordCount, int groupCount) throws DatabaseException {
+        try (Transaction transaction = domainObjectSource.buildTransaction()) {
+            save(transaction, clazz, 0, recordCount, groupCount);
+            transaction.commit();
+        }
+    }
+
+    public static void save(Transaction transaction, Class<? extends BenchmarkRecord> clazz,
+                            long firstNumber, int recordCount, int groupCount) throws DatabaseException {
+        for (long i = firstNumber; i < firstNumber + recordCount; ++i) {
+            BenchmarkRecord record = transaction.create(clazz);
+            populate(record, i, groupCount);
+            transaction.save(record);
+        }
+    }
+
+    /**
+     * Records are split into groups by number modulo groupCount, so each group is matched by filters
+     * with selectivity 1 / groupCount: hash and interval filters by 0 of FIELD_LONG_0,
+     * prefix filter by {@link #groupLexeme(long)} of 0, range filter by [0, 1).
+     */
+    public static void populate(BenchmarkRecord record, long number, int groupCount) {
+        final long group = number % groupCount;
+        for (int i = 0; i < BenchmarkRecord.STRING_FIELD_COUNT; ++i) {
+            record.setString(i, groupLexeme(group) + " text" + i + " word" + (number % 97));
+        }
+        for (int i = 0; i < BenchmarkRecord.LONG_FIELD_COUNT; ++i) {
+            record.setLong(i, group);
+        }
+        record.setRange(group * 10, group * 10 + 5);
+    }
+
+    public static String groupLexeme(long group) {
+        return String.format("g%06d", group);
+    }
+
+    @Override
+    public void close() throws IOException {
+        provider.close();
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
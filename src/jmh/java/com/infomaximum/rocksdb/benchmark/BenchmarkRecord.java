@@ -0,0 +1,41 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.domainobject.DomainObject;
+import com.infomaximum.database.domainobject.DomainObjectEditable;
+
+/**
+ * Fields of entities of {@link IndexedRecords}.
+ */
+public abstract class BenchmarkRecord extends DomainObject implements DomainObjectEditable {
+
+    public final static int FIELD_STRING_0 = 0;
+    public final static int FIELD_STRING_1 = 1;
+    public final static int FIELD_STRING_2 = 2;
+    public final static int FIELD_STRING_3 = 3;
+    public final static int FIELD_LONG_0 = 4;
+    public final static int FIELD_LONG_1 = 5;
+    public final static int FIELD_LONG_2 = 6;
+    public final static int FIELD_LONG_3 = 7;
+    public final static int FIELD_BEGIN = 8;
+    public final static int FIELD_END = 9;
+
+    public final static int STRING_FIELD_COUNT = 4;
+    public final static int LONG_FIELD_COUNT = 4;
+
+    public BenchmarkRecord(long id) {
+        super(id);
+    }
+
+    public void setString(int index, String value) {
+        set(FIELD_STRING_0 + index, value);
+    }
+
+    public void setLong(int index, long value) {
+        set(FIELD_LONG_0 + index, value);
+    }
+
+    public void setRange(long begin, long end) {
+        set(FIELD_BEGIN, begin);
+        set(FIELD_END, end);
+    }
+}
@@ -0,0 +1,75 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.domainobject.filter.*;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by each type of index, selectivity is a part of all records matched by filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FindBenchmark {
+
+    @Param({"HASH", "PREFIX", "INTERVAL", "RANGE"})
+    public IndexedRecords.IndexType indexType;
+
+    @Param({"0.0001", "0.01", "0.1"})
+    public double selectivity;
+
+    @Param({"100000"})
+    public int recordCount;
+
+    private BenchmarkDatabase database;
+    private Filter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase();
+        database.createDomain(IndexedRecords.AllIndexed.class);
+        database.fill(IndexedRecords.AllIndexed.class, recordCount, (int) Math.round(1 / selectivity));
+        filter = buildFilter(indexType);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public int find(Blackhole blackhole) throws Exception {
+        int count = 0;
+        try (IteratorEntity<IndexedRecords.AllIndexed> iterator = database.getDomainObjectSource().find(IndexedRecords.AllIndexed.class, filter)) {
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return filter which matches the first group of records
+     */
+    private static Filter buildFilter(IndexedRecords.IndexType indexType) {
+        switch (indexType) {
+            case HASH:
+                return new HashFilter(BenchmarkRecord.FIELD_LONG_0, 0L);
+            case PREFIX:
+                return new PrefixFilter(BenchmarkRecord.FIELD_STRING_0, BenchmarkDatabase.groupLexeme(0));
+            case INTERVAL:
+                return new IntervalFilter(BenchmarkRecord.FIELD_LONG_0, 0L, 0L);
+            case RANGE:
+                return new RangeFilter(new RangeFilter.IndexedField(BenchmarkRecord.FIELD_BEGIN, BenchmarkRecord.FIELD_END), 0L, 1L);
+            default:
+                throw new IllegalArgumentException(indexType.name());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import com.infomaximum.database.utils.IdSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdSet against sets which were used for ids of removed and processed objects.
+ * Memory is measured by profiler: gradle jmh -Pjmh.include=IdSetBenchmark -Pjmh.prof=gc,
+ * gc.alloc.rate.norm of fill is bytes allocated to build the set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdSetBenchmark {
+
+    public enum Implementation {
+
+        ID_SET, TREE_RANGE_SET, HASH_SET
+    }
+
+    /**
+     * SEQUENTIAL is removeAll of entity, SPARSE is every 16th object on average.
+     */
+    public enum Distribution {
+
+        SEQUENTIAL, SPARSE
+    }
+
+    private interface LongSet {
+
+        void add(long id);
+        boolean contains(long id);
+    }
+
+    @Param({"ID_SET", "TREE_RANGE_SET", "HASH_SET"})
+    public Implementation implementation;
+
+    @Param({"SEQUENTIAL", "SPARSE"})
+    public Distribution distribution;
+
+    @Param({"1000000"})
+    public int idCount;
+
+    private long[] ids;
+    private long[] probes;
+    private LongSet filledSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        ids = new long[idCount];
+        long id = 0;
+        for (int i = 0; i < idCount; ++i) {
+            id += distribution == Distribution.SEQUENTIAL ? 1 : 1 + random.nextInt(31);
+            ids[i] = id;
+        }
+
+        probes = new long[idCount];
+        for (int i = 0; i < idCount; ++i) {
+            probes[i] = 1 + (long) (random.nextDouble() * id);
+        }
+
+        filledSet = (LongSet) fill();
+    }
+
+    @Benchmark
+    public Object fill() {
+        LongSet set = createSet();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public int contains() {
+        int count = 0;
+        for (long id : probes) {
+            if (filledSet.contains(id)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private LongSet createSet() {
+        switch (implementation) {
+            case ID_SET:
+                IdSet idSet = new IdSet();
+                return new LongSet() {
+                    @Override
+                    public void add(long id) {
+                        idSet.add(id);
+                    }
+
+                    @Override
+                    public boolean contains(long id) {
+                        return idSet.contains(id);
+                    }
+                };
+            case TREE_RANGE_SET:
+                RangeSet<Long> rangeSet = TreeRangeSet.create();
+                return new LongSet() {
+                    @Override
+                    public void add(long id) {
+                        rangeSet.add(Range.closedOpen(id, id + 1));
+                    }
+
+                    @Override
+                    public boolean contains(long id) {
+                        return rangeSet.contains(id);
+                    }
+                };
+            case HASH_SET:
+                Set<Long> hashSet = new HashSet<>();
+                return new LongSet() {
+                    @Override
+                    public void add(long id) {
+                        hashSet.add(id);
+                    }
+
+                    @Override
+                    public boolean contains(long id) {
+                        return hashSet.contains(id);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException(implementation.toString());
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.anotation.*;
+
+/**
+ * Entities with the same fields and different sets of indexes.
+ */
+public final class IndexedRecords {
+
+    public enum IndexType {
+
+        HASH, PREFIX, INTERVAL, RANGE
+    }
+
+    private static final Class[][] RECORDS = {
+            {Hash1.class, Hash2.class, Hash3.class, Hash4.class},
+            {Prefix1.class, Prefix2.class, Prefix3.class, Prefix4.class},
+            {Interval1.class, Interval2.class, Interval3.class, Interval4.class},
+            {Range1.class, Range2.class, Range3.class, Range4.class}
+    };
+
+    private IndexedRecords() {
+    }
+
+    /**
+     * @return entity with indexCount indexes of the type
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends BenchmarkRecord> of(IndexType indexType, int indexCount) {
+        if (indexCount == 0) {
+            return NotIndexed.class;
+        }
+        return RECORDS[indexType.ordinal()][indexCount - 1];
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "not_indexed",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            }
+    )
+    public static class NotIndexed extends BenchmarkRecord {
+
+        public NotIndexed(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "hash1",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            hashIndexes = {
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_0})
+            }
+    )
+    public static class Hash1 extends BenchmarkRecord {
+
+        public Hash1(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "hash2",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            hashIndexes = {
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_0}),
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_1})
+            }
+    )
+    public static class Hash2 extends BenchmarkRecord {
+
+        public Hash2(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "hash3",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            hashIndexes = {
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_0}),
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_1}),
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_2})
+            }
+    )
+    public static class Hash3 extends BenchmarkRecord {
+
+        public Hash3(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "hash4",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            hashIndexes = {
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_0}),
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_1}),
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_2}),
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_3})
+            }
+    )
+    public static class Hash4 extends BenchmarkRecord {
+
+        public Hash4(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "prefix1",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            prefixIndexes = {
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_0})
+            }
+    )
+    public static class Prefix1 extends BenchmarkRecord {
+
+        public Prefix1(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "prefix2",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            prefixIndexes = {
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_0}),
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_1})
+            }
+    )
+    public static class Prefix2 extends BenchmarkRecord {
+
+        public Prefix2(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "prefix3",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            prefixIndexes = {
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_0}),
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_1}),
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_2})
+            }
+    )
+    public static class Prefix3 extends BenchmarkRecord {
+
+        public Prefix3(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "prefix4",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            prefixIndexes = {
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_0}),
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_1}),
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_2}),
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_3})
+            }
+    )
+    public static class Prefix4 extends BenchmarkRecord {
+
+        public Prefix4(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "interval1",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            intervalIndexes = {
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_0)
+            }
+    )
+    public static class Interval1 extends BenchmarkRecord {
+
+        public Interval1(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "interval2",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            intervalIndexes = {
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_0),
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_1)
+            }
+    )
+    public static class Interval2 extends BenchmarkRecord {
+
+        public Interval2(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "interval3",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            intervalIndexes = {
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_0),
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_1),
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_2)
+            }
+    )
+    public static class Interval3 extends BenchmarkRecord {
+
+        public Interval3(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "interval4",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            intervalIndexes = {
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_0),
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_1),
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_2),
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_3)
+            }
+    )
+    public static class Interval4 extends BenchmarkRecord {
+
+        public Interval4(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "range1",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            rangeIndexes = {
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END)
+            }
+    )
+    public static class Range1 extends BenchmarkRecord {
+
+        public Range1(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "range2",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            rangeIndexes = {
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END),
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END, hashedFields = {BenchmarkRecord.FIELD_LONG_0})
+            }
+    )
+    public static class Range2 extends BenchmarkRecord {
+
+        public Range2(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "range3",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            rangeIndexes = {
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END),
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END, hashedFields = {BenchmarkRecord.FIELD_LONG_0}),
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END, hashedFields = {BenchmarkRecord.FIELD_LONG_0, BenchmarkRecord.FIELD_LONG_1})
+            }
+    )
+    public static class Range3 extends BenchmarkRecord {
+
+        public Range3(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "range4",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            rangeIndexes = {
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END),
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END, hashedFields = {BenchmarkRecord.FIELD_LONG_0}),
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END, hashedFields = {BenchmarkRecord.FIELD_LONG_0, BenchmarkRecord.FIELD_LONG_1}),
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END, hashedFields = {BenchmarkRecord.FIELD_LONG_0, BenchmarkRecord.FIELD_LONG_1, BenchmarkRecord.FIELD_LONG_2})
+            }
+    )
+    public static class Range4 extends BenchmarkRecord {
+
+        public Range4(long id) {
+            super(id);
+        }
+    }
+
+    @Entity(
+            namespace = "com.infomaximum.benchmark",
+            name = "all_indexed",
+            fields = {
+                    @Field(number = BenchmarkRecord.FIELD_STRING_0, name = "str0", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_1, name = "str1", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_2, name = "str2", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_STRING_3, name = "str3", type = String.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_0, name = "lng0", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_1, name = "lng1", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_2, name = "lng2", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_LONG_3, name = "lng3", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_BEGIN, name = "begin", type = Long.class),
+                    @Field(number = BenchmarkRecord.FIELD_END, name = "end", type = Long.class)
+            },
+            hashIndexes = {
+                    @HashIndex(fields = {BenchmarkRecord.FIELD_LONG_0})
+            },
+            prefixIndexes = {
+                    @PrefixIndex(fields = {BenchmarkRecord.FIELD_STRING_0})
+            },
+            intervalIndexes = {
+                    @IntervalIndex(indexedField = BenchmarkRecord.FIELD_LONG_0)
+            },
+            rangeIndexes = {
+                    @RangeIndex(beginField = BenchmarkRecord.FIELD_BEGIN, endField = BenchmarkRecord.FIELD_END)
+            }
+    )
+    public static class AllIndexed extends BenchmarkRecord {
+
+        public AllIndexed(long id) {
+            super(id);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.maintenance.ChangeMode;
+import com.infomaximum.database.maintenance.DomainService;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building of all indexes of entity by {@link DomainService}, indexes are dropped before each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReindexBenchmark {
+
+    @Param({"100000"})
+    public int recordCount;
+
+    private BenchmarkDatabase database;
+    private StructEntity entity;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase();
+        database.createDomain(IndexedRecords.AllIndexed.class);
+        database.fill(IndexedRecords.AllIndexed.class, recordCount, 100);
+        entity = Schema.getEntity(IndexedRecords.AllIndexed.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void dropIndexes() throws Exception {
+        database.getProvider().dropColumnFamily(entity.getIndexColumnFamily());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public void reindex() throws Exception {
+        new DomainService(database.getProvider())
+                .setChangeMode(ChangeMode.CREATION)
+                .setValidationMode(true)
+                .setDomain(entity)
+                .execute();
+    }
+}
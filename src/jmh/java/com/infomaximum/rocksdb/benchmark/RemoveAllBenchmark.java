@@ -0,0 +1,52 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removing of all records of entity with and without indexes, records are saved before each invocation.
+ * Records are either truncated by range deletes or marked for deletion one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RemoveAllBenchmark {
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    @Param({"false", "true"})
+    public boolean truncate;
+
+    @Param({"10000", "100000"})
+    public int recordCount;
+
+    private BenchmarkDatabase database;
+    private Class<? extends BenchmarkRecord> recordClass;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase();
+        recordClass = indexed ? IndexedRecords.AllIndexed.class : IndexedRecords.NotIndexed.class;
+        database.createDomain(recordClass);
+    }
+
+    @Setup(Level.Invocation)
+    public void fill() throws Exception {
+        database.fill(recordClass, recordCount, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public void removeAll() throws Exception {
+        database.getDomainObjectSource().executeTransactional(transaction -> transaction.removeAll(recordClass, truncate));
+    }
+}
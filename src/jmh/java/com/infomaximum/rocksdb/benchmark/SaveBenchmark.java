@@ -0,0 +1,53 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.domainobject.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating and saving of records with 0-4 indexes of each type, each invocation commits one batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaveBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int GROUP_COUNT = 100;
+
+    @Param({"HASH", "PREFIX", "INTERVAL", "RANGE"})
+    public IndexedRecords.IndexType indexType;
+
+    @Param({"0", "1", "2", "3", "4"})
+    public int indexCount;
+
+    private BenchmarkDatabase database;
+    private Class<? extends BenchmarkRecord> recordClass;
+    private long nextNumber = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase();
+        recordClass = IndexedRecords.of(indexType, indexCount);
+        database.createDomain(recordClass);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createAndSave() throws Exception {
+        try (Transaction transaction = database.getDomainObjectSource().buildTransaction()) {
+            BenchmarkDatabase.save(transaction, recordClass, nextNumber, BATCH_SIZE, GROUP_COUNT);
+            transaction.commit();
+        }
+        nextNumber += BATCH_SIZE;
+    }
+}
@@ -0,0 +1,68 @@
+package com.infomaximum.rocksdb.benchmark;
+
+import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scan of entity with all fields, one field and without fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    public enum LoadingFields {
+
+        ALL, ONE, NONE
+    }
+
+    @Param({"ALL", "ONE", "NONE"})
+    public LoadingFields loadingFields;
+
+    @Param({"100000"})
+    public int recordCount;
+
+    private BenchmarkDatabase database;
+    private Set<Integer> fields;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase();
+        database.createDomain(IndexedRecords.NotIndexed.class);
+        database.fill(IndexedRecords.NotIndexed.class, recordCount, 100);
+        switch (loadingFields) {
+            case ALL:
+                fields = null;
+                break;
+            case ONE:
+                fields = Collections.singleton(BenchmarkRecord.FIELD_LONG_0);
+                break;
+            case NONE:
+                fields = Collections.emptySet();
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) throws Exception {
+        try (IteratorEntity<IndexedRecords.NotIndexed> iterator = database.getDomainObjectSource().find(IndexedRecords.NotIndexed.class, EmptyFilter.INSTANCE, fields)) {
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+}
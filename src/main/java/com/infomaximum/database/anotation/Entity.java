@@ -10,9 +10,23 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Retention(RUNTIME)
 public @interface Entity {
 
+    enum Storage {
+
+        /**
+         * Every field is stored by separate key.
+         */
+        KEY_PER_FIELD,
+
+        /**
+         * Whole object is stored as one value by key of object id.
+         */
+        PACKED
+    }
+
     String namespace();
     String name();
     Field[] fields();
+    Storage storage() default Storage.KEY_PER_FIELD;
 
     HashIndex[] hashIndexes() default {};
     PrefixIndex[] prefixIndexes() default {};
@@ -0,0 +1,412 @@
+package com.infomaximum.database.domainobject;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.exception.runtime.ClosedObjectException;
+import com.infomaximum.database.exception.runtime.IllegalTypeException;
+import com.infomaximum.database.provider.DBBulkWriter;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBProvider;
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.schema.*;
+import com.infomaximum.database.utils.HashIndexUtils;
+import com.infomaximum.database.utils.IntervalIndexUtils;
+import com.infomaximum.database.utils.PackedObjectUtils;
+import com.infomaximum.database.utils.PrefixIndexBlock;
+import com.infomaximum.database.utils.PrefixIndexUtils;
+import com.infomaximum.database.utils.TypeConvert;
+import com.infomaximum.database.utils.key.FieldKey;
+import com.infomaximum.database.utils.key.HashIndexKey;
+import com.infomaximum.database.utils.key.IntervalIndexKey;
+import com.infomaximum.database.utils.key.PrefixIndexKey;
+import com.infomaximum.database.utils.key.RangeIndexKey;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Loads new objects into empty entities bypassing transactions.
+ * Data and index keys are collected into sorted runs, runs are written by {@link DBBulkWriter}
+ * when memory limit is exceeded and are added to database by commit.
+ * Objects must be saved in order of creation, values of foreign fields are not validated.
+ */
+public class BulkLoader implements AutoCloseable {
+
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    private static final int ID_BLOCK_SIZE = 1024;
+    private static final int KEY_VALUE_OVERHEAD = 64;
+    private static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    private final DBProvider dbProvider;
+    private final long memoryLimit;
+    private final Map<String, EntityLoader> entities = new HashMap<>();
+    private final Map<String, List<KeyValue>> runs = new HashMap<>();
+    private long runSize = 0;
+    private DBBulkWriter writer = null;
+    private boolean closed = false;
+
+    BulkLoader(DBProvider dbProvider, long memoryLimit) {
+        this.dbProvider = dbProvider;
+        this.memoryLimit = memoryLimit;
+    }
+
+    public <T extends DomainObject & DomainObjectEditable> T create(final Class<T> clazz) throws DatabaseException {
+        ensureOpen();
+
+        StructEntity entity = Schema.getEntity(clazz);
+        long id = getEntityLoader(entity).nextId();
+
+        T domainObject;
+        try {
+            domainObject = DomainObject.getConstructor(clazz).newInstance(id);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalTypeException(e);
+        }
+        domainObject._setAsJustCreated();
+        for (Field field : entity.getFields()) {
+            domainObject.set(field.getNumber(), null);
+        }
+        return domainObject;
+    }
+
+    public <T extends DomainObject & DomainObjectEditable> void save(final T object) throws DatabaseException {
+        ensureOpen();
+
+        if (!object._isJustCreated()) {
+            throw new IllegalArgumentException("Object " + object + " is not created by bulk loader or is already saved.");
+        }
+
+        getEntityLoader(object.getStructEntity()).add(object.getId(), object.getNewValues());
+        object._flushNewValues();
+    }
+
+    public <T extends DomainObject & DomainObjectEditable> void save(Stream<T> objects) throws DatabaseException {
+        for (Iterator<T> i = objects.iterator(); i.hasNext(); ) {
+            save(i.next());
+        }
+    }
+
+    public void commit() throws DatabaseException {
+        ensureOpen();
+
+        for (EntityLoader loader : entities.values()) {
+            loader.flush();
+        }
+        spill();
+
+        if (writer != null) {
+            writer.commit();
+        }
+        close();
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        closed = true;
+        runs.clear();
+        entities.clear();
+        if (writer != null) {
+            DBBulkWriter w = writer;
+            writer = null;
+            w.close();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ClosedObjectException(this.getClass());
+        }
+    }
+
+    private EntityLoader getEntityLoader(StructEntity entity) throws DatabaseException {
+        EntityLoader loader = entities.get(entity.getColumnFamily());
+        if (loader == null) {
+            checkEmpty(entity.getColumnFamily());
+            checkEmpty(entity.getIndexColumnFamily());
+            loader = new EntityLoader(entity);
+            entities.put(entity.getColumnFamily(), loader);
+        }
+        return loader;
+    }
+
+    private void checkEmpty(String columnFamily) throws DatabaseException {
+        if (!dbProvider.containsColumnFamily(columnFamily)) {
+            return;
+        }
+
+        try (DBIterator iterator = dbProvider.createIterator(columnFamily)) {
+            if (iterator.seek(null) != null) {
+                throw new DatabaseException("Column family " + columnFamily + " is not empty, bulk loading is supported only into empty entities.");
+            }
+        }
+    }
+
+    private void put(String columnFamily, byte[] key, byte[] value) throws DatabaseException {
+        runs.computeIfAbsent(columnFamily, s -> new ArrayList<>()).add(new KeyValue(key, value));
+        runSize += key.length + value.length + KEY_VALUE_OVERHEAD;
+        if (runSize > memoryLimit) {
+            spill();
+        }
+    }
+
+    private void spill() throws DatabaseException {
+        if (runSize == 0) {
+            return;
+        }
+
+        if (writer == null) {
+            writer = dbProvider.beginBulkWrite();
+        }
+
+        for (Map.Entry<String, List<KeyValue>> entry : runs.entrySet()) {
+            List<KeyValue> run = entry.getValue();
+            run.sort((left, right) -> KEY_COMPARATOR.compare(left.getKey(), right.getKey()));
+            writer.write(entry.getKey(), run);
+            run.clear();
+        }
+        runSize = 0;
+    }
+
+    private class EntityLoader {
+
+        private final StructEntity entity;
+        private final Map<PrefixIndex, Map<String, IdBlock>> prefixBlocks = new HashMap<>();
+        private final Map<RangeIndex, List<Range>> ranges = new HashMap<>();
+        private long nextId = 0;
+        private long maxReservedId = 0;
+        private long lastSavedId = 0;
+
+        EntityLoader(StructEntity entity) {
+            this.entity = entity;
+            for (PrefixIndex index : entity.getPrefixIndexes()) {
+                prefixBlocks.put(index, new HashMap<>());
+            }
+            for (RangeIndex index : entity.getRangeIndexes()) {
+                ranges.put(index, new ArrayList<>());
+            }
+        }
+
+        long nextId() throws DatabaseException {
+            if (nextId == maxReservedId) {
+                try (DBTransaction transaction = dbProvider.beginTransaction()) {
+                    nextId = transaction.nextIds(entity.getColumnFamily(), ID_BLOCK_SIZE);
+                }
+                maxReservedId = nextId + ID_BLOCK_SIZE;
+            }
+            return nextId++;
+        }
+
+        void add(long id, Value<Serializable>[] values) throws DatabaseException {
+            if (id <= lastSavedId) {
+                throw new IllegalArgumentException("Objects must be saved in order of creation, id " + id + " is saved after " + lastSavedId);
+            }
+            lastSavedId = id;
+
+            for (HashIndex index : entity.getHashIndexes()) {
+                HashIndexKey indexKey = new HashIndexKey(id, index);
+                HashIndexUtils.setHashValues(index.sortedFields, values, indexKey.getFieldValues());
+                put(index.columnFamily, indexKey.pack(), TypeConvert.EMPTY_BYTE_ARRAY);
+            }
+
+            for (PrefixIndex index : entity.getPrefixIndexes()) {
+                addPrefixIndexedValue(index, id, values);
+            }
+
+            for (IntervalIndex index : entity.getIntervalIndexes()) {
+                List<Field> hashedFields = index.getHashedFields();
+                IntervalIndexKey indexKey = new IntervalIndexKey(id, new long[hashedFields.size()], index);
+                HashIndexUtils.setHashValues(hashedFields, values, indexKey.getHashedValues());
+                indexKey.setIndexedValue(getValue(index.getIndexedField(), values));
+                put(index.columnFamily, indexKey.pack(), TypeConvert.EMPTY_BYTE_ARRAY);
+            }
+
+            for (RangeIndex index : entity.getRangeIndexes()) {
+                Object begin = getValue(index.getBeginIndexedField(), values);
+                Object end = getValue(index.getEndIndexedField(), values);
+                if (begin == null || end == null) {
+                    continue;
+                }
+
+                Range range = new Range(id, new long[index.getHashedFields().size()],
+                        IntervalIndexUtils.castToLong(begin), IntervalIndexUtils.castToLong(end));
+                IntervalIndexUtils.checkInterval(range.begin, range.end);
+                HashIndexUtils.setHashValues(index.getHashedFields(), values, range.hashedValues);
+                ranges.get(index).add(range);
+            }
+
+            if (entity.isPackedStorage()) {
+                byte[][] packedValues = new byte[values.length][];
+                for (Field field : entity.getFields()) {
+                    Object value = getValue(field, values);
+                    if (value != null) {
+                        packedValues[field.getNumber()] = pack(field, value);
+                    }
+                }
+                put(entity.getColumnFamily(), new FieldKey(id).pack(), PackedObjectUtils.pack(packedValues));
+            } else {
+                put(entity.getColumnFamily(), new FieldKey(id).pack(), TypeConvert.EMPTY_BYTE_ARRAY);
+                for (Field field : entity.getFields()) {
+                    Object value = getValue(field, values);
+                    if (value != null) {
+                        put(entity.getColumnFamily(), new FieldKey(id, field.getNumber()).pack(), pack(field, value));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes not completed blocks of prefix indexes and all keys of range indexes.
+         */
+        void flush() throws DatabaseException {
+            for (Map.Entry<PrefixIndex, Map<String, IdBlock>> entry : prefixBlocks.entrySet()) {
+                for (Map.Entry<String, IdBlock> block : entry.getValue().entrySet()) {
+                    block.getValue().write(entry.getKey(), block.getKey());
+                }
+                entry.getValue().clear();
+            }
+
+            for (Map.Entry<RangeIndex, List<Range>> entry : ranges.entrySet()) {
+                writeRanges(entry.getKey(), entry.getValue());
+                entry.getValue().clear();
+            }
+        }
+
+        /**
+         * Ids are increasing, so full blocks are final and are written immediately.
+         */
+        private void addPrefixIndexedValue(PrefixIndex index, long id, Value<Serializable>[] values) throws DatabaseException {
+            SortedSet<String> lexemes = PrefixIndexUtils.buildSortedSet();
+            for (Field field : index.sortedFields) {
+                PrefixIndexUtils.splitIndexingTextIntoLexemes((String) getValue(field, values), lexemes);
+            }
+
+            Map<String, IdBlock> blocks = prefixBlocks.get(index);
+            for (String lexeme : lexemes) {
+                IdBlock block = blocks.computeIfAbsent(lexeme, s -> new IdBlock());
+                block.add(id);
+                if (block.size == PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK) {
+                    block.write(index, lexeme);
+                    block.next();
+                }
+            }
+        }
+
+        /**
+         * Every range is split by all begins and ends of ranges with the same hashed values,
+         * as insertion of ranges one by one does.
+         */
+        private void writeRanges(RangeIndex index, List<Range> ranges) throws DatabaseException {
+            ranges.sort(Range::compareHashedValues);
+
+            for (int groupBegin = 0, groupEnd; groupBegin < ranges.size(); groupBegin = groupEnd) {
+                groupEnd = groupBegin + 1;
+                while (groupEnd < ranges.size() && ranges.get(groupBegin).compareHashedValues(ranges.get(groupEnd)) == 0) {
+                    ++groupEnd;
+                }
+
+                long[] points = new long[(groupEnd - groupBegin) * 2];
+                for (int i = groupBegin, j = 0; i < groupEnd; ++i) {
+                    points[j++] = ranges.get(i).begin;
+                    points[j++] = ranges.get(i).end;
+                }
+                Arrays.sort(points);
+                int pointCount = 0;
+                for (int j = 0; j < points.length; ++j) {
+                    if (j == 0 || points[j] != points[j - 1]) {
+                        points[pointCount++] = points[j];
+                    }
+                }
+
+                for (int i = groupBegin; i < groupEnd; ++i) {
+                    Range range = ranges.get(i);
+                    RangeIndexKey key = new RangeIndexKey(range.id, range.hashedValues, index);
+                    key.setBeginRangeValue(range.begin);
+                    if (range.begin == range.end) {
+                        key.setIndexedValue(range.begin);
+                        key.setType(RangeIndexKey.Type.DOT);
+                        put(index.columnFamily, key.pack(), TypeConvert.EMPTY_BYTE_ARRAY);
+                        continue;
+                    }
+
+                    key.setType(RangeIndexKey.Type.BEGIN);
+                    for (int p = Arrays.binarySearch(points, 0, pointCount, range.begin); points[p] < range.end; ++p) {
+                        key.setIndexedValue(points[p]);
+                        put(index.columnFamily, key.pack(), TypeConvert.EMPTY_BYTE_ARRAY);
+                    }
+
+                    key.setIndexedValue(range.end);
+                    key.setType(RangeIndexKey.Type.END);
+                    put(index.columnFamily, key.pack(), TypeConvert.EMPTY_BYTE_ARRAY);
+                }
+            }
+        }
+    }
+
+    private class IdBlock {
+
+        private int number = 0;
+        private long[] ids = new long[4];
+        private int size = 0;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(size * 2, PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK));
+            }
+            ids[size++] = id;
+        }
+
+        void next() {
+            ++number;
+            size = 0;
+        }
+
+        void write(PrefixIndex index, String lexeme) throws DatabaseException {
+            if (size == 0) {
+                return;
+            }
+
+            put(index.columnFamily, new PrefixIndexKey(lexeme, number, index).pack(), PrefixIndexBlock.pack(ids, size));
+        }
+    }
+
+    private static class Range {
+
+        final long id;
+        final long[] hashedValues;
+        final long begin;
+        final long end;
+
+        Range(long id, long[] hashedValues, long begin, long end) {
+            this.id = id;
+            this.hashedValues = hashedValues;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        int compareHashedValues(Range other) {
+            for (int i = 0; i < hashedValues.length; ++i) {
+                int res = Long.compare(hashedValues[i], other.hashedValues[i]);
+                if (res != 0) {
+                    return res;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static Object getValue(Field field, Value<Serializable>[] values) {
+        Value<Serializable> value = values[field.getNumber()];
+        return value != null ? value.getValue() : null;
+    }
+
+    /**
+     * Converter of field is declared raw, but it is built for the type of field and value type is checked by {@link DomainObject#set}.
+     */
+    @SuppressWarnings("unchecked")
+    private static byte[] pack(Field field, Object value) {
+        return TypeConvert.pack(field.getType(), value, field.getConverter());
+    }
+}
@@ -14,20 +14,25 @@ import com.infomaximum.database.utils.key.FieldKey;
 import com.infomaximum.database.exception.DatabaseException;
 import com.infomaximum.database.exception.UnexpectedEndObjectException;
 import com.infomaximum.database.exception.runtime.IllegalTypeException;
+import com.infomaximum.database.utils.PackedObjectUtils;
 import com.infomaximum.database.utils.TypeConvert;
 
 import java.lang.reflect.Constructor;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class DataEnumerable {
 
     public static class NextState {
 
         private long nextId = -1;
+        private byte[] nextValue = null;
 
-        private NextState(long recordId) {
-            this.nextId = recordId;
+        private NextState(KeyValue keyValue, StructEntity entity) {
+            set(keyValue, entity);
         }
 
         public boolean isEmpty() {
@@ -40,24 +45,77 @@ public abstract class DataEnumerable {
 
         public void reset() {
             nextId = -1;
+            nextValue = null;
+        }
+
+        /**
+         * Value of beginning key is kept only for packed objects, other objects have empty one.
+         */
+        private void set(KeyValue keyValue, StructEntity entity) {
+            if (keyValue != null) {
+                nextId = FieldKey.unpackId(keyValue.getKey());
+                nextValue = entity.isPackedStorage() ? keyValue.getValue() : null;
+            } else {
+                reset();
+            }
         }
     }
 
     private final DBProvider dbProvider;
+    private final OperationTimers operationTimers;
 
     DataEnumerable(DBProvider dbProvider) {
+        this(dbProvider, null);
+    }
+
+    /**
+     * @param operationTimers null if operations are not timed
+     */
+    DataEnumerable(DBProvider dbProvider, OperationTimers operationTimers) {
         this.dbProvider = dbProvider;
+        this.operationTimers = operationTimers;
     }
 
     public DBProvider getDbProvider() {
         return dbProvider;
     }
 
+    /**
+     * @return null if operations are not timed
+     */
+    public OperationTimers getOperationTimers() {
+        return operationTimers;
+    }
+
     public abstract DBIterator createIterator(String columnFamily) throws DatabaseException;
 
+    public abstract byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException;
+
     public abstract boolean isMarkedForDeletion(StructEntity entity, long objId);
 
+    /**
+     * @return true if iterators can be created and used by several threads concurrently
+     */
+    protected abstract boolean isConcurrentReadable();
+
     public <T extends DomainObject> T get(final Class<T> clazz, long id, final Set<Integer> loadingFields) throws DatabaseException {
+        if (operationTimers == null) {
+            return getObject(clazz, id, loadingFields);
+        }
+
+        final long startNanos = System.nanoTime();
+        try {
+            return getObject(clazz, id, loadingFields);
+        } finally {
+            operationTimers.record(Schema.getEntity(clazz), OperationTimers.Operation.GET, startNanos);
+        }
+    }
+
+    public <T extends DomainObject> T get(final Class<T> clazz, long id) throws DatabaseException {
+        return get(clazz, id, null);
+    }
+
+    <T extends DomainObject> T getObject(final Class<T> clazz, long id, final Set<Integer> loadingFields) throws DatabaseException {
         StructEntity entity = Schema.getEntity(clazz);
 
         if (isMarkedForDeletion(entity, id)) {
@@ -65,15 +123,25 @@ public abstract class DataEnumerable {
         }
 
         try (DBIterator iterator = createIterator(entity.getColumnFamily())) {
-            return seekObject(DomainObject.getConstructor(clazz), loadingFields, iterator, FieldKey.buildKeyPattern(id, entity.getFieldNames(loadingFields)));
+            iterator.setCursorMode(true);
+            return seekObject(DomainObject.getConstructor(clazz), loadingFields, iterator, FieldKey.buildKeyPattern(id, loadingFields));
         }
     }
 
-    public <T extends DomainObject> T get(final Class<T> clazz, long id) throws DatabaseException {
-        return get(clazz, id, null);
+    public <T extends DomainObject> IteratorEntity<T> find(final Class<T> clazz, Filter filter, final Set<Integer> loadingFields) throws DatabaseException {
+        if (operationTimers == null) {
+            return createIteratorEntity(clazz, filter, loadingFields);
+        }
+
+        final long startNanos = System.nanoTime();
+        return new TimedIteratorEntity<>(createIteratorEntity(clazz, filter, loadingFields), Schema.getEntity(clazz), operationTimers, startNanos);
     }
 
-    public <T extends DomainObject> IteratorEntity<T> find(final Class<T> clazz, Filter filter, final Set<Integer> loadingFields) throws DatabaseException {
+    public <T extends DomainObject> IteratorEntity<T> find(final Class<T> clazz, Filter filter) throws DatabaseException {
+        return find(clazz, filter, null);
+    }
+
+    private <T extends DomainObject> IteratorEntity<T> createIteratorEntity(final Class<T> clazz, Filter filter, final Set<Integer> loadingFields) throws DatabaseException {
         if (filter instanceof EmptyFilter) {
             return new AllIterator<>(this, clazz, loadingFields);
         } else if (filter instanceof HashFilter) {
@@ -91,8 +159,31 @@ public abstract class DataEnumerable {
         throw new IllegalArgumentException("Unknown filter type " + filter.getClass());
     }
 
-    public <T extends DomainObject> IteratorEntity<T> find(final Class<T> clazz, Filter filter) throws DatabaseException {
-        return find(clazz, filter, null);
+    /**
+     * Lazy stream of found objects. Database iterators are closed when the stream is exhausted or closed,
+     * so the stream must be closed if it may be not exhausted (limit, findFirst etc.).
+     * Full scan and scan by ids are split by ranges of ids, other filters are split by batches of found objects.
+     * Failures of database are thrown as {@link com.infomaximum.database.exception.runtime.DatabaseRuntimeException}.
+     */
+    public <T extends DomainObject> Stream<T> stream(final Class<T> clazz, Filter filter, final Set<Integer> loadingFields) throws DatabaseException {
+        if (filter instanceof EmptyFilter || filter instanceof IdFilter) {
+            long fromId = 0;
+            long toId = Long.MAX_VALUE;
+            if (filter instanceof IdFilter) {
+                fromId = ((IdFilter) filter).getFromId();
+                toId = ((IdFilter) filter).getToId();
+            }
+            int partitionCount = isConcurrentReadable() ? Runtime.getRuntime().availableProcessors() * 4 : 1;
+            ScanSpliterator<T> spliterator = ScanSpliterator.create(this, clazz, loadingFields, fromId, toId, partitionCount);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        }
+
+        IteratorEntitySpliterator<T> spliterator = new IteratorEntitySpliterator<>(find(clazz, filter, loadingFields));
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    public <T extends DomainObject> Stream<T> stream(final Class<T> clazz, Filter filter) throws DatabaseException {
+        return stream(clazz, filter, null);
     }
 
     public <T extends DomainObject> T buildDomainObject(final Constructor<T> constructor, long id, Collection<Integer> preInitializedFields) {
@@ -124,8 +215,7 @@ public abstract class DataEnumerable {
         }
 
         T obj = buildDomainObject(constructor, state.nextId, preInitializedFields);
-        state.nextId = readObject(obj, iterator);
-        state.nextId = getNextNotMarkedForDeletion(entity, state.nextId, iterator);
+        state.set(getNextNotMarkedForDeletion(entity, readObject(obj, state.nextValue, preInitializedFields, iterator), iterator), entity);
         return obj;
     }
 
@@ -141,53 +231,147 @@ public abstract class DataEnumerable {
         }
 
         T obj = buildDomainObject(constructor, FieldKey.unpackId(keyValue.getKey()), preInitializedFields);
-        readObject(obj, iterator);
+        readObject(obj, keyValue.getValue(), preInitializedFields, iterator);
         return obj;
     }
 
+    /**
+     * Loads objects by one multi-get request. Missing objects are added to destination as null.
+     * @param ids in any order, destination keeps the same order
+     * @param loadingFields fields which are read from database, must contain preInitializedFields
+     */
+    public <T extends DomainObject> void loadObjects(final Constructor<T> constructor, Collection<Integer> preInitializedFields,
+                                                     long[] ids, int count, List<Field> loadingFields, StructEntity entity,
+                                                     List<T> destination) throws DatabaseException {
+        if (entity.isPackedStorage()) {
+            loadPackedObjects(constructor, preInitializedFields, ids, count, loadingFields, entity, destination);
+            return;
+        }
+
+        final int keysPerObject = loadingFields.size() + 1;
+        byte[][] keys = new byte[count * keysPerObject][];
+        for (int i = 0, k = 0; i < count; ++i) {
+            keys[k++] = new FieldKey(ids[i]).pack();
+            for (Field field : loadingFields) {
+                keys[k++] = new FieldKey(ids[i], field.getNumber()).pack();
+            }
+        }
+
+        byte[][] values = getValues(entity.getColumnFamily(), keys);
+        for (int i = 0, k = 0; i < count; ++i, k += keysPerObject) {
+            if (values[k] == null) {
+                destination.add(null);
+                continue;
+            }
+
+            T obj = buildDomainObject(constructor, ids[i], preInitializedFields);
+            for (int j = 0; j < loadingFields.size(); ++j) {
+                Field field = loadingFields.get(j);
+                obj._setLoadedField(field.getNumber(), TypeConvert.unpack(field.getType(), values[k + j + 1], field.getConverter()));
+            }
+            destination.add(obj);
+        }
+    }
+
+    private <T extends DomainObject> void loadPackedObjects(final Constructor<T> constructor, Collection<Integer> preInitializedFields,
+                                                            long[] ids, int count, List<Field> loadingFields, StructEntity entity,
+                                                            List<T> destination) throws DatabaseException {
+        byte[][] keys = new byte[count][];
+        for (int i = 0; i < count; ++i) {
+            keys[i] = new FieldKey(ids[i]).pack();
+        }
+
+        byte[][] values = getValues(entity.getColumnFamily(), keys);
+        byte[][] fieldValues = new byte[entity.getFields().length][];
+        for (int i = 0; i < count; ++i) {
+            if (values[i] == null) {
+                destination.add(null);
+                continue;
+            }
+
+            T obj = buildDomainObject(constructor, ids[i], preInitializedFields);
+            PackedObjectUtils.unpack(values[i], fieldValues);
+            for (Field field : loadingFields) {
+                setLoadedField(obj, field, fieldValues[field.getNumber()]);
+            }
+            destination.add(obj);
+        }
+    }
+
     public NextState seek(DBIterator iterator, KeyPattern pattern, StructEntity entity) throws DatabaseException {
         KeyValue keyValue = iterator.seek(pattern);
         if (keyValue == null) {
-            return new NextState(-1);
+            return new NextState(null, entity);
         }
 
         if (!FieldKey.unpackBeginningObject(keyValue.getKey())) {
-            return new NextState(-1);
+            return new NextState(null, entity);
         }
 
-        long objId = FieldKey.unpackId(keyValue.getKey());
-        return new NextState(getNextNotMarkedForDeletion(entity, objId, iterator));
+        return new NextState(getNextNotMarkedForDeletion(entity, keyValue, iterator), entity);
     }
 
-    private <T extends DomainObject> long readObject(T obj, DBIterator iterator) throws DatabaseException {
+    /**
+     * @param value value of beginning key of object
+     * @param loadingFields fields which are read from packed value, null for all fields
+     * @return beginning key of next object or null
+     */
+    private <T extends DomainObject> KeyValue readObject(T obj, byte[] value, Collection<Integer> loadingFields, DBIterator iterator) throws DatabaseException {
+        final StructEntity entity = obj.getStructEntity();
+        if (entity.isPackedStorage()) {
+            readPackedObject(obj, value, loadingFields);
+
+            KeyValue keyValue = iterator.next();
+            if (keyValue != null && !FieldKey.unpackBeginningObject(keyValue.getKey())) {
+                throw new UnexpectedEndObjectException(obj.getId(), FieldKey.unpackId(keyValue.getKey()), FieldKey.unpackFieldNumber(keyValue.getKey()));
+            }
+            return keyValue;
+        }
+
         KeyValue keyValue;
         while ((keyValue = iterator.next()) != null) {
             long id = FieldKey.unpackId(keyValue.getKey());
             if (id != obj.getId()) {
                 if (!FieldKey.unpackBeginningObject(keyValue.getKey())) {
-                    throw new UnexpectedEndObjectException(obj.getId(), id, FieldKey.unpackFieldName(keyValue.getKey()));
+                    throw new UnexpectedEndObjectException(obj.getId(), id, FieldKey.unpackFieldNumber(keyValue.getKey()));
                 }
-                return id;
+                return keyValue;
             }
-            Field field = obj.getStructEntity().getField(new StructEntity.ByteArray(keyValue.getKey(), FieldKey.ID_BYTE_SIZE, keyValue.getKey().length));
+            Field field = entity.getField(FieldKey.unpackFieldNumber(keyValue.getKey()));
             obj._setLoadedField(field.getNumber(), TypeConvert.unpack(field.getType(), keyValue.getValue(), field.getConverter()));
         }
 
-        return -1;
+        return null;
+    }
+
+    private static <T extends DomainObject> void readPackedObject(T obj, byte[] value, Collection<Integer> loadingFields) {
+        final Field[] fields = obj.getStructEntity().getFields();
+        byte[][] fieldValues = new byte[fields.length][];
+        PackedObjectUtils.unpack(value, fieldValues);
+        if (loadingFields == null) {
+            for (Field field : fields) {
+                setLoadedField(obj, field, fieldValues[field.getNumber()]);
+            }
+        } else {
+            for (Integer number : loadingFields) {
+                setLoadedField(obj, fields[number], fieldValues[number]);
+            }
+        }
+    }
+
+    private static <T extends DomainObject> void setLoadedField(T obj, Field field, byte[] value) {
+        obj._setLoadedField(field.getNumber(), TypeConvert.unpack(field.getType(), value, field.getConverter()));
     }
 
-    private long getNextNotMarkedForDeletion(StructEntity entity, long startObjId, DBIterator iterator) throws DatabaseException {
-        while (startObjId != -1 && isMarkedForDeletion(entity, startObjId)) {
-            KeyValue keyValue;
+    private KeyValue getNextNotMarkedForDeletion(StructEntity entity, KeyValue keyValue, DBIterator iterator) throws DatabaseException {
+        while (keyValue != null && isMarkedForDeletion(entity, FieldKey.unpackId(keyValue.getKey()))) {
             while ((keyValue = iterator.next()) != null) {
                 if (FieldKey.unpackBeginningObject(keyValue.getKey())) {
                     break;
                 }
             }
-
-            startObjId = keyValue != null ? FieldKey.unpackId(keyValue.getKey()) : -1;
         }
 
-        return startObjId;
+        return keyValue;
     }
 }
@@ -1,11 +1,17 @@
 package com.infomaximum.database.domainobject;
 
+import com.infomaximum.database.domainobject.iterator.ScanSpliterator;
 import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.provider.DBProvider;
 
 import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.schema.Schema;
 import com.infomaximum.database.schema.StructEntity;
 
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public class DomainObjectSource extends DataEnumerable {
 
     @FunctionalInterface
@@ -19,8 +25,29 @@ public class DomainObjectSource extends DataEnumerable {
         void action(final Transaction transaction) throws Exception;
     }
 
+    private final ObjectCache objectCache;
+
     public DomainObjectSource(DBProvider dbProvider) {
-        super(dbProvider);
+        this(dbProvider, null);
+    }
+
+    /**
+     * @param objectCache is used by get and is invalidated by commits of transactions of the source, can be null
+     */
+    public DomainObjectSource(DBProvider dbProvider, ObjectCache objectCache) {
+        this(dbProvider, objectCache, null);
+    }
+
+    /**
+     * @param operationTimers records latencies of operations of the source, its transactions and read sessions, can be null
+     */
+    public DomainObjectSource(DBProvider dbProvider, ObjectCache objectCache, OperationTimers operationTimers) {
+        super(dbProvider, operationTimers);
+        this.objectCache = objectCache;
+    }
+
+    public ObjectCache getObjectCache() {
+        return objectCache;
     }
 
     public void executeTransactional(final Monad operation) throws Exception {
@@ -31,7 +58,57 @@ public class DomainObjectSource extends DataEnumerable {
     }
 
     public Transaction buildTransaction() {
-        return new Transaction(getDbProvider());
+        return new Transaction(getDbProvider(), objectCache, getOperationTimers());
+    }
+
+    /**
+     * Session must be closed to release snapshot and iterators.
+     */
+    public ReadSession buildReadSession() throws DatabaseException {
+        return new ReadSession(getDbProvider(), getOperationTimers());
+    }
+
+    public BulkLoader buildBulkLoader() {
+        return buildBulkLoader(BulkLoader.DEFAULT_MEMORY_LIMIT);
+    }
+
+    /**
+     * @param memoryLimit approximate size of keys and values collected before writing them to disk
+     */
+    public BulkLoader buildBulkLoader(long memoryLimit) {
+        return new BulkLoader(getDbProvider(), memoryLimit);
+    }
+
+    /**
+     * Reads all objects of entity from one snapshot by partitions of ids on common fork-join pool.
+     * Ordered operations of the stream keep order of ids. The stream must be closed to release the snapshot.
+     * @param partitionCount count of ranges of ids which are read in parallel
+     */
+    public <T extends DomainObject> Stream<T> parallelScan(final Class<T> clazz, final Set<Integer> loadingFields, int partitionCount) throws DatabaseException {
+        ScanSpliterator<T> spliterator = ScanSpliterator.create(this, getDbProvider().createSnapshot(), clazz, loadingFields, partitionCount);
+        return StreamSupport.stream(spliterator, true).onClose(spliterator::close);
+    }
+
+    public <T extends DomainObject> Stream<T> parallelScan(final Class<T> clazz, final Set<Integer> loadingFields) throws DatabaseException {
+        return parallelScan(clazz, loadingFields, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @Override
+    <T extends DomainObject> T getObject(final Class<T> clazz, long id, final Set<Integer> loadingFields) throws DatabaseException {
+        ObjectCache.Region region = objectCache != null ? objectCache.getRegion(Schema.getEntity(clazz)) : null;
+        if (region == null) {
+            return super.getObject(clazz, id, loadingFields);
+        }
+
+        T obj = region.get(this, DomainObject.getConstructor(clazz), id, loadingFields);
+        if (obj == null) {
+            long invalidationCount = region.getInvalidationCount();
+            obj = super.getObject(clazz, id, loadingFields);
+            if (obj != null) {
+                region.put(obj, loadingFields, invalidationCount);
+            }
+        }
+        return obj;
     }
 
     @Override
@@ -39,8 +116,18 @@ public class DomainObjectSource extends DataEnumerable {
         return getDbProvider().createIterator(columnFamily);
     }
 
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        return getDbProvider().getValues(columnFamily, keys);
+    }
+
     @Override
     public boolean isMarkedForDeletion(StructEntity entity, long objId) {
         return false;
     }
+
+    @Override
+    protected boolean isConcurrentReadable() {
+        return true;
+    }
 }
@@ -0,0 +1,251 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.schema.Field;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps committed field values of objects of chosen entities, each entity has own LRU region bounded by count of objects.
+ * Entries are invalidated by commit of {@link Transaction} which saved or removed objects,
+ * writes made by other ways (DBTransaction, DomainService) are not tracked.
+ * Values of fields are shared between objects taken from cache, so returned byte arrays must not be modified.
+ */
+public class ObjectCache {
+
+    public static class Builder {
+
+        private final Map<String, Integer> sizes = new HashMap<>();
+
+        /**
+         * @param maxObjectCount max count of cached objects of the entity
+         */
+        public Builder withEntity(Class<? extends DomainObject> clazz, int maxObjectCount) {
+            if (maxObjectCount < 1) {
+                throw new IllegalArgumentException("Max object count must be positive, " + maxObjectCount);
+            }
+            sizes.put(Schema.getEntity(clazz).getColumnFamily(), maxObjectCount);
+            return this;
+        }
+
+        public ObjectCache build() {
+            return new ObjectCache(sizes);
+        }
+    }
+
+    public static class Statistics {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long objectCount;
+
+        Statistics(long hitCount, long missCount, long evictionCount, long objectCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.objectCount = objectCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getObjectCount() {
+            return objectCount;
+        }
+
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount != 0 ? (double) hitCount / requestCount : 0;
+        }
+    }
+
+    private static class Entry {
+
+        final Serializable[] values;
+        final BitSet loadedFields;
+
+        Entry(Serializable[] values, BitSet loadedFields) {
+            this.values = values;
+            this.loadedFields = loadedFields;
+        }
+    }
+
+    /**
+     * Values read from database are added only if the region was not invalidated since the reading began,
+     * otherwise they may be older than committed ones.
+     */
+    class Region {
+
+        private final int maxObjectCount;
+        private final LinkedHashMap<Long, Entry> entries;
+        private long invalidationCount = 0;
+
+        private final LongAdder hitCount = new LongAdder();
+        private final LongAdder missCount = new LongAdder();
+        private final LongAdder evictionCount = new LongAdder();
+
+        Region(int maxObjectCount) {
+            this.maxObjectCount = maxObjectCount;
+            this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() > Region.this.maxObjectCount) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * @param loadingFields null for all fields
+         * @return null if the object is not cached or some of the fields are not loaded
+         */
+        <T extends DomainObject> T get(DataEnumerable dataEnumerable, Constructor<T> constructor, long id, Set<Integer> loadingFields) {
+            Entry entry;
+            synchronized (this) {
+                entry = entries.get(id);
+            }
+            if (entry == null || !containsAll(entry, loadingFields)) {
+                missCount.increment();
+                return null;
+            }
+
+            hitCount.increment();
+            T obj = dataEnumerable.buildDomainObject(constructor, id, loadingFields);
+            if (loadingFields == null) {
+                for (int i = 0; i < entry.values.length; ++i) {
+                    obj._setLoadedField(i, entry.values[i]);
+                }
+            } else {
+                for (Integer field : loadingFields) {
+                    obj._setLoadedField(field, entry.values[field]);
+                }
+            }
+            return obj;
+        }
+
+        synchronized long getInvalidationCount() {
+            return invalidationCount;
+        }
+
+        /**
+         * Merges loaded fields of the object with fields of cached one.
+         * @param invalidationCount value of {@link #getInvalidationCount()} before reading of the object
+         */
+        synchronized void put(DomainObject obj, Set<Integer> loadingFields, long invalidationCount) {
+            if (this.invalidationCount != invalidationCount) {
+                return;
+            }
+
+            final Field[] fields = obj.getStructEntity().getFields();
+            Entry prev = entries.get(obj.getId());
+            Serializable[] values = prev != null ? prev.values.clone() : new Serializable[fields.length];
+            BitSet loadedFields = prev != null ? (BitSet) prev.loadedFields.clone() : new BitSet(fields.length);
+            if (loadingFields == null) {
+                for (Field field : fields) {
+                    values[field.getNumber()] = obj.get(field.getNumber());
+                }
+                loadedFields.set(0, fields.length);
+            } else {
+                for (Integer field : loadingFields) {
+                    values[field] = obj.get(field);
+                    loadedFields.set(field);
+                }
+            }
+            entries.put(obj.getId(), new Entry(values, loadedFields));
+        }
+
+        synchronized void invalidate(long id) {
+            ++invalidationCount;
+            entries.remove(id);
+        }
+
+        synchronized void invalidateAll() {
+            ++invalidationCount;
+            entries.clear();
+        }
+
+        Statistics getStatistics() {
+            int objectCount;
+            synchronized (this) {
+                objectCount = entries.size();
+            }
+            return new Statistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), objectCount);
+        }
+
+        int getMaxObjectCount() {
+            return maxObjectCount;
+        }
+
+        private boolean containsAll(Entry entry, Set<Integer> loadingFields) {
+            if (loadingFields == null) {
+                return entry.loadedFields.cardinality() == entry.values.length;
+            }
+
+            for (Integer field : loadingFields) {
+                if (!entry.loadedFields.get(field)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Map<String, Region> regions = new HashMap<>();
+
+    private ObjectCache(Map<String, Integer> sizes) {
+        for (Map.Entry<String, Integer> entry : sizes.entrySet()) {
+            regions.put(entry.getKey(), new Region(entry.getValue()));
+        }
+    }
+
+    public Statistics getStatistics() {
+        long hitCount = 0, missCount = 0, evictionCount = 0, objectCount = 0;
+        for (Region region : regions.values()) {
+            Statistics statistics = region.getStatistics();
+            hitCount += statistics.getHitCount();
+            missCount += statistics.getMissCount();
+            evictionCount += statistics.getEvictionCount();
+            objectCount += statistics.getObjectCount();
+        }
+        return new Statistics(hitCount, missCount, evictionCount, objectCount);
+    }
+
+    /**
+     * @return null if objects of the entity are not cached
+     */
+    public Statistics getStatistics(Class<? extends DomainObject> clazz) {
+        Region region = getRegion(Schema.getEntity(clazz));
+        return region != null ? region.getStatistics() : null;
+    }
+
+    public void invalidateAll() {
+        for (Region region : regions.values()) {
+            region.invalidateAll();
+        }
+    }
+
+    /**
+     * @return null if objects of the entity are not cached
+     */
+    Region getRegion(StructEntity entity) {
+        return regions.get(entity.getColumnFamily());
+    }
+}
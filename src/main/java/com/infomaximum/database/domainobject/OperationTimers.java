@@ -0,0 +1,206 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latencies of operations of domain layer by entities. Operations are timed only if timers are passed
+ * to {@link DomainObjectSource}, otherwise hooks are skipped by null check without reading of clock.
+ */
+public class OperationTimers {
+
+    public enum Operation {
+
+        /**
+         * Whole {@link Transaction#save(DomainObject)}.
+         */
+        SAVE,
+        SAVE_HASH_INDEX,
+        SAVE_PREFIX_INDEX,
+        SAVE_INTERVAL_INDEX,
+        SAVE_RANGE_INDEX,
+
+        /**
+         * Writing of fields of saved object.
+         */
+        SAVE_DATA,
+
+        /**
+         * Validation and marking of object for deletion, indexes and data are deleted by commit.
+         */
+        REMOVE,
+
+        /**
+         * Deleting of indexes and data of marked objects of entity by commit.
+         */
+        COMMIT_DELETE_OBJECTS,
+
+        /**
+         * Deleting of data and indexes of all objects of entity by ranges in {@link Transaction#removeAll(Class, boolean)}.
+         */
+        TRUNCATE,
+
+        /**
+         * Commit of database transaction including sync of WAL and compaction of deleted ranges.
+         * Recorded without entity.
+         */
+        COMMIT_NATIVE,
+
+        /**
+         * Whole {@link Transaction#commit()}, recorded without entity.
+         */
+        COMMIT,
+        GET,
+
+        /**
+         * Time from opening to closing of {@link com.infomaximum.database.domainobject.iterator.IteratorEntity}.
+         */
+        ITERATE
+    }
+
+    /**
+     * Histogram with buckets by powers of two of nanoseconds, so percentiles are precise up to twice.
+     */
+    public static class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; ++i) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            buckets[Long.SIZE - Long.numberOfLeadingZeros(nanos)].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public double getMeanNanos() {
+            long count = getCount();
+            return count != 0 ? (double) getTotalNanos() / count : 0;
+        }
+
+        /**
+         * @param percentile from 0 to 100
+         * @return upper bound of bucket which contains the percentile
+         */
+        public long getPercentileNanos(double percentile) {
+            long rank = (long) Math.ceil(getCount() * percentile / 100.0);
+            long passed = 0;
+            for (int i = 0; i < buckets.length; ++i) {
+                passed += buckets[i].sum();
+                if (passed >= rank && passed != 0) {
+                    return Math.min((1L << i) - 1, getMaxNanos());
+                }
+            }
+            return getMaxNanos();
+        }
+    }
+
+    public static class IteratorStatistics {
+
+        private final LongAdder iteratorCount = new LongAdder();
+        private final LongAdder producedCount = new LongAdder();
+        private final LongAdder scannedKeyCount = new LongAdder();
+        private final LongAdder matchedKeyCount = new LongAdder();
+
+        public long getIteratorCount() {
+            return iteratorCount.sum();
+        }
+
+        /**
+         * @return count of objects returned by iterators
+         */
+        public long getProducedCount() {
+            return producedCount.sum();
+        }
+
+        /**
+         * @return count of read keys of indexes or objects
+         */
+        public long getScannedKeyCount() {
+            return scannedKeyCount.sum();
+        }
+
+        /**
+         * @return count of read keys which are matched by filters
+         */
+        public long getMatchedKeyCount() {
+            return matchedKeyCount.sum();
+        }
+    }
+
+    private static final String NO_ENTITY = "";
+
+    private final ConcurrentMap<String, Histogram[]> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, IteratorStatistics> iteratorStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * @param clazz null for operations recorded without entity
+     * @return null if the operation was not recorded
+     */
+    public Histogram getHistogram(Class<? extends DomainObject> clazz, Operation operation) {
+        Histogram[] entityHistograms = histograms.get(clazz != null ? Schema.getEntity(clazz).getColumnFamily() : NO_ENTITY);
+        return entityHistograms != null ? entityHistograms[operation.ordinal()] : null;
+    }
+
+    /**
+     * @return null if objects of the entity were not iterated
+     */
+    public IteratorStatistics getIteratorStatistics(Class<? extends DomainObject> clazz) {
+        return iteratorStatistics.get(Schema.getEntity(clazz).getColumnFamily());
+    }
+
+    /**
+     * @param entity null for operations without entity
+     */
+    void record(StructEntity entity, Operation operation, long startNanos) {
+        final long nanos = System.nanoTime() - startNanos;
+        Histogram[] entityHistograms = histograms.computeIfAbsent(entity != null ? entity.getColumnFamily() : NO_ENTITY,
+                key -> new Histogram[Operation.values().length]);
+        Histogram histogram = entityHistograms[operation.ordinal()];
+        if (histogram == null) {
+            synchronized (entityHistograms) {
+                histogram = entityHistograms[operation.ordinal()];
+                if (histogram == null) {
+                    histogram = new Histogram();
+                    entityHistograms[operation.ordinal()] = histogram;
+                }
+            }
+        }
+        histogram.record(nanos);
+    }
+
+    void recordIterator(StructEntity entity, long startNanos, long producedCount, long scannedKeyCount, long matchedKeyCount) {
+        record(entity, Operation.ITERATE, startNanos);
+
+        IteratorStatistics statistics = iteratorStatistics.computeIfAbsent(entity.getColumnFamily(), key -> new IteratorStatistics());
+        statistics.iteratorCount.increment();
+        statistics.producedCount.add(producedCount);
+        statistics.scannedKeyCount.add(scannedKeyCount);
+        statistics.matchedKeyCount.add(matchedKeyCount);
+    }
+}
@@ -0,0 +1,144 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.exception.runtime.ClosedObjectException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBProvider;
+import com.infomaximum.database.provider.DBSnapshot;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.schema.StructEntity;
+
+import java.util.*;
+
+/**
+ * Reads consistent state of database pinned by snapshot at creation of the session.
+ * Closed iterators are returned to the session and reused by next get/find for the same column family,
+ * so many lookups do not create native iterators. The session is not thread-safe.
+ */
+public class ReadSession extends DataEnumerable implements AutoCloseable {
+
+    private final DBSnapshot snapshot;
+    private final Map<String, ArrayDeque<DBIterator>> freeIterators = new HashMap<>();
+    private final List<DBIterator> iterators = new ArrayList<>();
+    private boolean closed = false;
+
+    /**
+     * @param operationTimers null if operations are not timed
+     */
+    ReadSession(DBProvider dbProvider, OperationTimers operationTimers) throws DatabaseException {
+        super(dbProvider, operationTimers);
+        this.snapshot = dbProvider.createSnapshot();
+    }
+
+    @Override
+    public DBIterator createIterator(String columnFamily) throws DatabaseException {
+        ensureOpen();
+
+        ArrayDeque<DBIterator> free = freeIterators.get(columnFamily);
+        DBIterator iterator = free != null ? free.pollLast() : null;
+        if (iterator == null) {
+            iterator = snapshot.createIterator(columnFamily);
+            iterators.add(iterator);
+        }
+        return new SessionIterator(columnFamily, iterator);
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        ensureOpen();
+
+        return snapshot.getValues(columnFamily, keys);
+    }
+
+    @Override
+    public boolean isMarkedForDeletion(StructEntity entity, long objId) {
+        return false;
+    }
+
+    @Override
+    protected boolean isConcurrentReadable() {
+        return false;
+    }
+
+    /**
+     * Closes all native iterators and releases the snapshot.
+     */
+    @Override
+    public void close() throws DatabaseException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            for (DBIterator iterator : iterators) {
+                iterator.close();
+            }
+        } finally {
+            iterators.clear();
+            freeIterators.clear();
+            snapshot.close();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ClosedObjectException(this.getClass());
+        }
+    }
+
+    private class SessionIterator implements DBIterator {
+
+        private final String columnFamily;
+        private DBIterator iterator;
+
+        SessionIterator(String columnFamily, DBIterator iterator) {
+            this.columnFamily = columnFamily;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public KeyValue seek(KeyPattern pattern) throws DatabaseException {
+            return getIterator().seek(pattern);
+        }
+
+        @Override
+        public KeyValue next() throws DatabaseException {
+            return getIterator().next();
+        }
+
+        @Override
+        public KeyValue step(StepDirection direction) throws DatabaseException {
+            return getIterator().step(direction);
+        }
+
+        @Override
+        public void setCursorMode(boolean value) {
+            getIterator().setCursorMode(value);
+        }
+
+        /**
+         * Returns native iterator to the session, it is positioned by seek of the next user.
+         */
+        @Override
+        public void close() {
+            if (iterator == null) {
+                return;
+            }
+
+            iterator.setCursorMode(false);
+            if (!closed) {
+                freeIterators.computeIfAbsent(columnFamily, s -> new ArrayDeque<>()).addLast(iterator);
+            }
+            iterator = null;
+        }
+
+        private DBIterator getIterator() {
+            if (iterator == null) {
+                throw new ClosedObjectException(DBIterator.class);
+            }
+            return iterator;
+        }
+    }
+}
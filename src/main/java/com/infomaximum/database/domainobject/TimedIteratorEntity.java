@@ -0,0 +1,57 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.iterator.BaseIndexIterator;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.schema.StructEntity;
+
+/**
+ * Records lifetime of iterator and counts of its objects to {@link OperationTimers} on the first closing.
+ * Iterators which read objects without index scan only matched keys.
+ */
+class TimedIteratorEntity<E extends DomainObject> implements IteratorEntity<E> {
+
+    private final IteratorEntity<E> iterator;
+    private final StructEntity entity;
+    private final OperationTimers operationTimers;
+    private final long startNanos;
+    private long producedCount = 0;
+    private boolean closed = false;
+
+    TimedIteratorEntity(IteratorEntity<E> iterator, StructEntity entity, OperationTimers operationTimers, long startNanos) {
+        this.iterator = iterator;
+        this.entity = entity;
+        this.operationTimers = operationTimers;
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNext();
+    }
+
+    @Override
+    public E next() throws DatabaseException {
+        E obj = iterator.next();
+        ++producedCount;
+        return obj;
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        try {
+            iterator.close();
+        } finally {
+            if (!closed) {
+                closed = true;
+                long scannedKeyCount = producedCount;
+                long matchedKeyCount = producedCount;
+                if (iterator instanceof BaseIndexIterator) {
+                    scannedKeyCount = ((BaseIndexIterator<E>) iterator).getScannedKeyCount();
+                    matchedKeyCount = ((BaseIndexIterator<E>) iterator).getMatchedKeyCount();
+                }
+                operationTimers.recordIterator(entity, startNanos, producedCount, scannedKeyCount, matchedKeyCount);
+            }
+        }
+    }
+}
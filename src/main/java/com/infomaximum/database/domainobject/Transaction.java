@@ -1,8 +1,5 @@
 package com.infomaximum.database.domainobject;
 
-import com.google.common.collect.Range;
-import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 import com.infomaximum.database.domainobject.filter.EmptyFilter;
 import com.infomaximum.database.domainobject.iterator.IteratorEntity;
 import com.infomaximum.database.exception.DatabaseException;
@@ -10,7 +7,10 @@ import com.infomaximum.database.exception.ForeignDependencyException;
 import com.infomaximum.database.exception.runtime.ClosedObjectException;
 import com.infomaximum.database.provider.*;
 import com.infomaximum.database.schema.*;
+import com.infomaximum.database.utils.ByteUtils;
 import com.infomaximum.database.utils.HashIndexUtils;
+import com.infomaximum.database.utils.IdSet;
+import com.infomaximum.database.utils.PackedObjectUtils;
 import com.infomaximum.database.utils.PrefixIndexUtils;
 import com.infomaximum.database.utils.RangeIndexUtils;
 import com.infomaximum.database.utils.TypeConvert;
@@ -24,13 +24,38 @@ import java.util.*;
 
 public class Transaction extends DataEnumerable implements AutoCloseable {
 
+    /**
+     * Key of object with id 0 which never exists, truncation of entity deletes it and writers of objects read it
+     * for update, so they conflict with concurrent truncation instead of leaving parts of objects behind it.
+     */
+    private static final byte[] TRUNCATION_KEY = FieldKey.buildKeyPrefix(0);
+
     private DBTransaction transaction = null;
     private boolean closed = false;
     private boolean foreignFieldEnabled = true;
     private final Map<String, Objects> deletingObjects = new HashMap<>();
+    private final ObjectCache objectCache;
+    private final Map<ObjectCache.Region, IdSet> savedCachedIds = new HashMap<>();
+    private final Set<String> truncationLockedColumnFamilies = new HashSet<>();
 
     protected Transaction(DBProvider dbProvider) {
-        super(dbProvider);
+        this(dbProvider, null);
+    }
+
+    /**
+     * @param objectCache is invalidated by commit for saved and removed objects, can be null
+     */
+    protected Transaction(DBProvider dbProvider, ObjectCache objectCache) {
+        this(dbProvider, objectCache, null);
+    }
+
+    /**
+     * @param objectCache is invalidated by commit for saved and removed objects, can be null
+     * @param operationTimers null if operations are not timed
+     */
+    protected Transaction(DBProvider dbProvider, ObjectCache objectCache, OperationTimers operationTimers) {
+        super(dbProvider, operationTimers);
+        this.objectCache = objectCache;
     }
 
     public boolean isForeignFieldEnabled() {
@@ -72,42 +97,78 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
 
         ensureTransaction();
 
-        final String columnFamily = object.getStructEntity().getColumnFamily();
+        final StructEntity entity = object.getStructEntity();
+        Objects deletingObjs = deletingObjects.get(entity.getColumnFamily());
+        if (deletingObjs != null && deletingObjs.isTruncated(object.getId())) {
+            // keys of object are deleted by ranges already, written keys would survive without the rest of object
+            throw new IllegalArgumentException("Object " + object + " is truncated by removeAll and can not be saved.");
+        }
+
+        final long saveStartNanos = startTiming();
+        lockTruncation(entity);
         final Value<Serializable>[] loadedValues = object.getLoadedValues();
 
+        ObjectCache.Region cacheRegion = objectCache != null ? objectCache.getRegion(entity) : null;
+        if (cacheRegion != null) {
+            savedCachedIds.computeIfAbsent(cacheRegion, r -> new IdSet()).add(object.getId());
+        }
+
         // update hash-indexed values
-        for (HashIndex index: object.getStructEntity().getHashIndexes()) {
+        for (HashIndex index: entity.getHashIndexes()) {
             if (anyChanged(index.sortedFields, newValues)) {
-                tryLoadFields(columnFamily, object, index.sortedFields, loadedValues);
+                final long startNanos = startTiming();
+                tryLoadFields(entity, object, index.sortedFields, loadedValues);
                 updateIndexedValue(index, object, loadedValues, newValues, transaction);
+                stopTiming(entity, OperationTimers.Operation.SAVE_HASH_INDEX, startNanos);
             }
         }
 
         // update prefix-indexed values
-        for (PrefixIndex index: object.getStructEntity().getPrefixIndexes()) {
+        for (PrefixIndex index: entity.getPrefixIndexes()) {
             if (anyChanged(index.sortedFields, newValues)) {
-                tryLoadFields(columnFamily, object, index.sortedFields, loadedValues);
+                final long startNanos = startTiming();
+                tryLoadFields(entity, object, index.sortedFields, loadedValues);
                 updateIndexedValue(index, object, loadedValues, newValues, transaction);
+                stopTiming(entity, OperationTimers.Operation.SAVE_PREFIX_INDEX, startNanos);
             }
         }
 
         // update interval-indexed values
-        for (IntervalIndex index: object.getStructEntity().getIntervalIndexes()) {
+        for (IntervalIndex index: entity.getIntervalIndexes()) {
             if (anyChanged(index.sortedFields, newValues)) {
-                tryLoadFields(columnFamily, object, index.sortedFields, loadedValues);
+                final long startNanos = startTiming();
+                tryLoadFields(entity, object, index.sortedFields, loadedValues);
                 updateIndexedValue(index, object, loadedValues, newValues, transaction);
+                stopTiming(entity, OperationTimers.Operation.SAVE_INTERVAL_INDEX, startNanos);
             }
         }
 
         // update range-indexed values
-        for (RangeIndex index: object.getStructEntity().getRangeIndexes()) {
+        for (RangeIndex index: entity.getRangeIndexes()) {
             if (anyChanged(index.sortedFields, newValues)) {
-                tryLoadFields(columnFamily, object, index.sortedFields, loadedValues);
+                final long startNanos = startTiming();
+                tryLoadFields(entity, object, index.sortedFields, loadedValues);
                 updateIndexedValue(index, object, loadedValues, newValues, transaction);
+                stopTiming(entity, OperationTimers.Operation.SAVE_RANGE_INDEX, startNanos);
             }
         }
 
         // update self-object
+        final long dataStartNanos = startTiming();
+        if (entity.isPackedStorage()) {
+            savePackedObject(object, loadedValues, newValues);
+        } else {
+            saveFields(object, newValues);
+        }
+        stopTiming(entity, OperationTimers.Operation.SAVE_DATA, dataStartNanos);
+
+        object._flushNewValues();
+        stopTiming(entity, OperationTimers.Operation.SAVE, saveStartNanos);
+    }
+
+    private void saveFields(DomainObject object, Value<Serializable>[] newValues) throws DatabaseException {
+        final String columnFamily = object.getStructEntity().getColumnFamily();
+
         if (object._isJustCreated()) {
             transaction.put(columnFamily, new FieldKey(object.getId()).pack(), TypeConvert.EMPTY_BYTE_ARRAY);
         }
@@ -125,74 +186,121 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
                 continue;
             }
 
-            byte[] key = new FieldKey(object.getId(), field.getNameBytes()).pack();
+            byte[] key = new FieldKey(object.getId(), field.getNumber()).pack();
             byte[] bValue = TypeConvert.pack(field.getType(), value, field.getConverter());
             transaction.put(columnFamily, key, bValue);
         }
+    }
 
-        object._flushNewValues();
+    private void savePackedObject(DomainObject object, Value<Serializable>[] loadedValues, Value<Serializable>[] newValues) throws DatabaseException {
+        final StructEntity entity = object.getStructEntity();
+        final Field[] fields = entity.getFields();
+
+        byte[][] values = new byte[fields.length][];
+        for (Field field : fields) {
+            Value<Serializable> newValue = newValues[field.getNumber()];
+            if (newValue != null) {
+                validateUpdatingValue(object, field, newValue.getValue());
+            } else {
+                tryLoadField(entity, object.getId(), field, loadedValues);
+            }
+
+            Object value = getValue(field, loadedValues, newValues);
+            if (value != null) {
+                values[field.getNumber()] = TypeConvert.pack(field.getType(), value, field.getConverter());
+            }
+        }
+
+        transaction.put(entity.getColumnFamily(), new FieldKey(object.getId()).pack(), PackedObjectUtils.pack(values));
     }
 
     public <T extends DomainObject & DomainObjectEditable> void remove(final T obj) throws DatabaseException {
         ensureTransaction();
 
+        final long startNanos = startTiming();
         validateForeignValues(obj);
+        lockTruncation(obj.getStructEntity());
 
         String columnFamily = obj.getStructEntity().getColumnFamily();
         deletingObjects.computeIfAbsent(columnFamily, s -> new Objects(obj.getStructEntity())).add(obj);
+        stopTiming(obj.getStructEntity(), OperationTimers.Operation.REMOVE, startNanos);
     }
 
     private void deleteObjects() throws DatabaseException {
         for (Map.Entry<String, Objects> entry : deletingObjects.entrySet()) {
+            final long startNanos = startTiming();
             String columnFamily = entry.getKey();
             StructEntity entity = entry.getValue().entity;
             Value<Serializable>[] loadedValues = new Value[entity.getFields().length];
 
-            for (Range<Long> range : entry.getValue().ids.asRanges()) {
-                for (long objId = range.lowerEndpoint(); objId < range.upperEndpoint(); ++objId) {
+            final IdSet ids = entry.getValue().ids;
+            for (long beginId = ids.next(0), endId; beginId != -1; beginId = ids.next(endId)) {
+                endId = ids.nextAbsent(beginId);
+                for (long objId = beginId; objId < endId; ++objId) {
                     Arrays.fill(loadedValues, null);
 
                     // delete hash-indexed values
                     for (HashIndex index : entity.getHashIndexes()) {
-                        tryLoadFields(columnFamily, objId, index.sortedFields, loadedValues);
+                        tryLoadFields(entity, objId, index.sortedFields, loadedValues);
                         removeIndexedValue(index, objId, loadedValues, transaction);
                     }
 
                     // delete prefix-indexed values
                     for (PrefixIndex index : entity.getPrefixIndexes()) {
-                        tryLoadFields(columnFamily, objId, index.sortedFields, loadedValues);
+                        tryLoadFields(entity, objId, index.sortedFields, loadedValues);
                         removeIndexedValue(index, objId, loadedValues, transaction);
                     }
 
                     // delete interval-indexed values
                     for (IntervalIndex index : entity.getIntervalIndexes()) {
-                        tryLoadFields(columnFamily, objId, index.sortedFields, loadedValues);
+                        tryLoadFields(entity, objId, index.sortedFields, loadedValues);
                         removeIndexedValue(index, objId, loadedValues, transaction);
                     }
 
                     // delete range-indexed values
                     for (RangeIndex index : entity.getRangeIndexes()) {
-                        tryLoadFields(columnFamily, objId, index.sortedFields, loadedValues);
+                        tryLoadFields(entity, objId, index.sortedFields, loadedValues);
                         removeIndexedValue(index, objId, loadedValues, transaction);
                     }
                 }
 
-                // delete self-object
-                transaction.singleDeleteRange(columnFamily,
-                        FieldKey.buildKeyPrefix(range.lowerEndpoint()),
-                        FieldKey.buildKeyPrefix(range.upperEndpoint())
+                // delete self-object, keys of data are rewritten by every saving, so they are not single deleted
+                transaction.deleteKeys(columnFamily,
+                        FieldKey.buildKeyPrefix(beginId),
+                        FieldKey.buildKeyPrefix(endId)
                 );
             }
+            stopTiming(entity, OperationTimers.Operation.COMMIT_DELETE_OBJECTS, startNanos);
         }
     }
 
     @Override
     public boolean isMarkedForDeletion(StructEntity entity, long objId) {
         Objects objs = deletingObjects.get(entity.getColumnFamily());
-        return objs != null && objs.ids.contains(objId);
+        return objs != null && objs.contains(objId);
+    }
+
+    @Override
+    protected boolean isConcurrentReadable() {
+        return false;
     }
 
+    /**
+     * Objects are marked for deletion one by one, see {@link #removeAll(Class, boolean)}.
+     */
     public <T extends DomainObject & DomainObjectEditable> void removeAll(Class<T> objClass) throws DatabaseException {
+        removeAll(objClass, false);
+    }
+
+    /**
+     * @param truncate data and indexes of entity are deleted by ranges immediately without reading of objects,
+     *                 objects created later are not affected. Bound of ids is taken by {@link DBTransaction#nextId},
+     *                 so truncation consumes a value of sequence. Truncated object can not be saved in this transaction.
+     *                 Range deletion does not lock keys of removed objects, so saving and removal of objects of
+     *                 the entity conflict with truncation by a key of entity, see {@link DBTransaction#deleteRange}.
+     *                 Otherwise objects are marked for deletion one by one and their keys are deleted by commit.
+     */
+    public <T extends DomainObject & DomainObjectEditable> void removeAll(Class<T> objClass, boolean truncate) throws DatabaseException {
         ensureTransaction();
 
         StructEntity entity = Schema.getEntity(objClass);
@@ -200,6 +308,11 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
         validateForeignValues(entity);
 
         Objects objects = deletingObjects.computeIfAbsent(entity.getColumnFamily(), s -> new Objects(entity));
+        if (truncate) {
+            truncate(entity, objects);
+            return;
+        }
+
         try (IteratorEntity<T> i = find(objClass, EmptyFilter.INSTANCE, Collections.emptySet())) {
             while (i.hasNext()) {
                 objects.add(i.next());
@@ -207,6 +320,27 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
         }
     }
 
+    private void truncate(StructEntity entity, Objects objects) throws DatabaseException {
+        final long startNanos = startTiming();
+
+        // ids are increasing, so all existing objects have less ids
+        final long endId = transaction.nextId(entity.getColumnFamily());
+        transaction.deleteRange(entity.getColumnFamily(), FieldKey.buildKeyPrefix(0), FieldKey.buildKeyPrefix(endId));
+
+        List<BaseIndex> indexes = new ArrayList<>();
+        indexes.addAll(entity.getHashIndexes());
+        indexes.addAll(entity.getPrefixIndexes());
+        indexes.addAll(entity.getIntervalIndexes());
+        indexes.addAll(entity.getRangeIndexes());
+        for (BaseIndex index : indexes) {
+            transaction.deleteRange(index.columnFamily, index.attendant, ByteUtils.prefixSuccessor(index.attendant, index.attendant.length));
+        }
+        transaction.delete(entity.getColumnFamily(), TRUNCATION_KEY);
+
+        objects.truncate(endId);
+        stopTiming(entity, OperationTimers.Operation.TRUNCATE, startNanos);
+    }
+
     @Override
     public DBIterator createIterator(String columnFamily) throws DatabaseException {
         ensureTransaction();
@@ -214,10 +348,22 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
         return transaction.createIterator(columnFamily);
     }
 
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        ensureTransaction();
+
+        return transaction.getValues(columnFamily, keys);
+    }
+
     public void commit() throws DatabaseException {
         if (transaction != null) {
+            final long startNanos = startTiming();
             deleteObjects();
+            final long nativeStartNanos = startTiming();
             transaction.commit();
+            stopTiming(null, OperationTimers.Operation.COMMIT_NATIVE, nativeStartNanos);
+            invalidateCache();
+            stopTiming(null, OperationTimers.Operation.COMMIT, startNanos);
         }
         close();
     }
@@ -230,6 +376,50 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
         }
     }
 
+    private void invalidateCache() {
+        for (Map.Entry<ObjectCache.Region, IdSet> entry : savedCachedIds.entrySet()) {
+            final IdSet ids = entry.getValue();
+            for (long id = ids.next(0); id != -1; id = ids.next(id + 1)) {
+                entry.getKey().invalidate(id);
+            }
+        }
+
+        if (objectCache == null) {
+            return;
+        }
+
+        for (Objects objects : deletingObjects.values()) {
+            ObjectCache.Region region = objectCache.getRegion(objects.entity);
+            if (region == null) {
+                continue;
+            }
+
+            if (objects.truncatedIdBound != 0 || objects.ids.size() > region.getMaxObjectCount()) {
+                region.invalidateAll();
+                continue;
+            }
+            for (long id = objects.ids.next(0); id != -1; id = objects.ids.next(id + 1)) {
+                region.invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * @return 0 if operations are not timed
+     */
+    private long startTiming() {
+        return getOperationTimers() != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @param entity null for operations of whole transaction
+     */
+    private void stopTiming(StructEntity entity, OperationTimers.Operation operation, long startNanos) {
+        if (getOperationTimers() != null) {
+            getOperationTimers().record(entity, operation, startNanos);
+        }
+    }
+
     private void ensureTransaction() throws DatabaseException {
         if (closed) {
             throw new ClosedObjectException(this.getClass());
@@ -240,28 +430,57 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
         }
     }
 
-    private void tryLoadFields(String columnFamily, DomainObject obj, List<Field> fields, Value<Serializable>[] loadedValues) throws DatabaseException {
+    private void lockTruncation(StructEntity entity) throws DatabaseException {
+        if (truncationLockedColumnFamilies.add(entity.getColumnFamily())) {
+            transaction.getValueForUpdate(entity.getColumnFamily(), TRUNCATION_KEY);
+        }
+    }
+
+    private void tryLoadFields(StructEntity entity, DomainObject obj, List<Field> fields, Value<Serializable>[] loadedValues) throws DatabaseException {
         if (!obj._isJustCreated()) {
-            tryLoadFields(columnFamily, obj.getId(), fields, loadedValues);
+            tryLoadFields(entity, obj.getId(), fields, loadedValues);
         }
     }
 
-    private void tryLoadFields(String columnFamily, long objId, List<Field> fields, Value<Serializable>[] loadedValues) throws DatabaseException {
+    private void tryLoadFields(StructEntity entity, long objId, List<Field> fields, Value<Serializable>[] loadedValues) throws DatabaseException {
         for (Field field: fields) {
-            tryLoadField(columnFamily, objId, field, loadedValues);
+            tryLoadField(entity, objId, field, loadedValues);
         }
     }
 
-    private void tryLoadField(String columnFamily, long id, Field field, Value<Serializable>[] loadedValues) throws DatabaseException {
+    private void tryLoadField(StructEntity entity, long id, Field field, Value<Serializable>[] loadedValues) throws DatabaseException {
         if (loadedValues[field.getNumber()] != null) {
             return;
         }
 
-        final byte[] key = new FieldKey(id, field.getNameBytes()).pack();
-        final byte[] value = transaction.getValue(columnFamily, key);
+        if (entity.isPackedStorage()) {
+            loadPackedFields(entity, id, loadedValues);
+            return;
+        }
+
+        final byte[] key = new FieldKey(id, field.getNumber()).pack();
+        final byte[] value = transaction.getValue(entity.getColumnFamily(), key);
         loadedValues[field.getNumber()] = Value.of(TypeConvert.unpack(field.getType(), value, field.getConverter()));
     }
 
+    /**
+     * Reads packed object once and fills all not loaded values.
+     */
+    private void loadPackedFields(StructEntity entity, long id, Value<Serializable>[] loadedValues) throws DatabaseException {
+        final Field[] fields = entity.getFields();
+        final byte[] value = transaction.getValue(entity.getColumnFamily(), new FieldKey(id).pack());
+
+        byte[][] fieldValues = new byte[fields.length][];
+        if (value != null) {
+            PackedObjectUtils.unpack(value, fieldValues);
+        }
+        for (Field field : fields) {
+            if (loadedValues[field.getNumber()] == null) {
+                loadedValues[field.getNumber()] = Value.of(TypeConvert.unpack(field.getType(), fieldValues[field.getNumber()], field.getConverter()));
+            }
+        }
+    }
+
     private static void updateIndexedValue(HashIndex index, DomainObject obj, Value<Serializable>[] prevValues, Value<Serializable>[] newValues, DBTransaction transaction) throws DatabaseException {
         final HashIndexKey indexKey = new HashIndexKey(obj.getId(), index);
 
@@ -357,10 +576,11 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
         final RangeIndexKey indexKey = new RangeIndexKey(id, new long[hashedFields.size()], index);
 
         HashIndexUtils.setHashValues(hashedFields, values, indexKey.getHashedValues());
+        // keys of range index are rewritten by splitting of intersected ranges, so they are not single deleted
         RangeIndexUtils.removeIndexedRange(index, indexKey,
                 values[index.getBeginIndexedField().getNumber()].getValue(),
                 values[index.getEndIndexedField().getNumber()].getValue(),
-                transaction, transaction::singleDelete);
+                transaction, transaction::delete);
     }
 
     private static void setHashValues(List<Field> fields, Value<Serializable>[] prevValues, Value<Serializable>[] newValues, long[] destination) {
@@ -452,7 +672,7 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
                         break;
                     }
                     long referencingId = HashIndexKey.unpackId(keyValue.getKey());
-                    if (objs != null && objs.ids.contains(referencingId)) {
+                    if (objs != null && objs.contains(referencingId)) {
                         continue;
                     }
 
@@ -466,14 +686,33 @@ public class Transaction extends DataEnumerable implements AutoCloseable {
     private static class Objects {
 
         final StructEntity entity;
-        final RangeSet<Long> ids = TreeRangeSet.create();
+        final IdSet ids = new IdSet();
+        /**
+         * Objects whose ids are less than the bound are deleted by ranges.
+         */
+        long truncatedIdBound = 0;
 
         Objects(StructEntity entity) {
             this.entity = entity;
         }
 
         void add(DomainObject obj) {
-            ids.add(Range.closedOpen(obj.getId(), obj.getId() + 1));
+            if (!isTruncated(obj.getId())) {
+                ids.add(obj.getId());
+            }
+        }
+
+        boolean contains(long id) {
+            return isTruncated(id) || ids.contains(id);
+        }
+
+        boolean isTruncated(long id) {
+            return id < truncatedIdBound;
+        }
+
+        void truncate(long idBound) {
+            truncatedIdBound = idBound;
+            ids.clear();
         }
     }
 }
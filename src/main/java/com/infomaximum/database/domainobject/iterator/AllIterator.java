@@ -29,8 +29,9 @@ public class AllIterator<E extends DomainObject> implements IteratorEntity<E> {
         this.loadingFields = loadingFields;
         this.entity = Schema.getEntity(clazz);
         this.dataIterator = dataEnumerable.createIterator(entity.getColumnFamily());
+        this.dataIterator.setCursorMode(true);
 
-        KeyPattern dataKeyPattern = loadingFields != null ? FieldKey.buildKeyPattern(entity.getFieldNames(loadingFields)) : null;
+        KeyPattern dataKeyPattern = loadingFields != null ? FieldKey.buildKeyPattern(loadingFields) : null;
         this.state = dataEnumerable.seek(dataIterator, dataKeyPattern, entity);
         if (this.state.isEmpty()) {
             close();
@@ -2,12 +2,10 @@ package com.infomaximum.database.domainobject.iterator;
 
 import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.schema.Field;
-import com.infomaximum.database.provider.KeyPattern;
 import com.infomaximum.database.domainobject.DataEnumerable;
 import com.infomaximum.database.domainobject.DomainObject;
 import com.infomaximum.database.schema.Schema;
 import com.infomaximum.database.schema.StructEntity;
-import com.infomaximum.database.utils.key.FieldKey;
 import com.infomaximum.database.exception.DatabaseException;
 
 import java.lang.reflect.Constructor;
@@ -15,14 +13,26 @@ import java.util.*;
 
 public abstract class BaseIndexIterator<E extends DomainObject> implements IteratorEntity<E> {
 
+    private static final int MIN_LOADING_CHUNK_SIZE = 16;
+    private static final int MAX_LOADING_CHUNK_SIZE = 256;
+
     private final DataEnumerable dataEnumerable;
     private final Constructor<E> constructor;
     private final Set<Integer> loadingFields;
     final StructEntity entity;
 
+    private final long[] chunkIds = new long[MAX_LOADING_CHUNK_SIZE];
+    private final List<E> chunkObjects = new ArrayList<>(MAX_LOADING_CHUNK_SIZE);
+    private int chunkSize = MIN_LOADING_CHUNK_SIZE;
+    private int chunkPos = 0;
+    private long scannedKeyCount = 0;
+    private long matchedKeyCount = 0;
+
     DBIterator indexIterator = null;
-    KeyPattern dataKeyPattern = null;
-    DBIterator dataIterator = null;
+    /**
+     * Fields which are loaded from data column family, null if object is built without reading.
+     */
+    List<Field> dataFields = null;
     E nextElement;
 
     BaseIndexIterator(DataEnumerable dataEnumerable, Class<E> clazz, Set<Integer> loadingFields) throws DatabaseException {
@@ -50,44 +60,114 @@ public abstract class BaseIndexIterator<E extends DomainObject> implements Itera
 
     @Override
     public void close() throws DatabaseException {
-        try (DBIterator i1 = indexIterator;
-             DBIterator i2 = dataIterator) {
-            // do nothing
+        if (indexIterator != null) {
+            indexIterator.close();
         }
     }
 
-    abstract void nextImpl() throws DatabaseException;
+    /**
+     * @return count of ids read from index
+     */
+    public long getScannedKeyCount() {
+        return scannedKeyCount;
+    }
+
+    /**
+     * @return count of ids read from index whose objects are matched by filter
+     */
+    public long getMatchedKeyCount() {
+        return matchedKeyCount;
+    }
+
+    /**
+     * @return next id from index in iteration order or -1 if index is exhausted
+     */
+    abstract long nextIndexedId() throws DatabaseException;
+
+    abstract boolean checkFilter(E obj) throws DatabaseException;
+
+    void nextImpl() throws DatabaseException {
+        do {
+            while (chunkPos < chunkObjects.size()) {
+                nextElement = chunkObjects.get(chunkPos++);
+                if (nextElement != null) {
+                    return;
+                }
+            }
+        } while (loadNextChunk());
+
+        nextElement = null;
+        close();
+    }
 
-    static KeyPattern buildDataKeyPattern(List<Field> fields1, Set<Integer> loadingFields, StructEntity entity) {
+    static List<Field> buildDataFields(List<Field> fields1, Set<Integer> loadingFields, StructEntity entity) {
         if (loadingFields == null) {
-            return FieldKey.buildKeyPattern(0, null);
+            return Arrays.asList(entity.getFields());
         }
 
         if (fields1 == null || fields1.isEmpty()) {
-            return loadingFields.isEmpty() ? null : FieldKey.buildKeyPattern(entity.getFieldNames(loadingFields));
+            return loadingFields.isEmpty() ? null : toFields(loadingFields, entity);
         }
 
         Set<Integer> fields = new HashSet<>(fields1.size() + loadingFields.size());
         fields1.forEach(field -> fields.add(field.getNumber()));
         fields.addAll(loadingFields);
-        return FieldKey.buildKeyPattern(entity.getFieldNames(fields));
+        return toFields(fields, entity);
+    }
+
+    private static List<Field> toFields(Collection<Integer> fieldNumbers, StructEntity entity) {
+        List<Field> result = new ArrayList<>(fieldNumbers.size());
+        fieldNumbers.forEach(number -> result.add(entity.getField(number)));
+        return result;
     }
 
-    E findObject(long id) throws DatabaseException {
-        if (dataEnumerable.isMarkedForDeletion(entity, id)) {
-            return null;
+    /**
+     * Reads next chunk of ids from index and loads their objects by one request instead of seeking every object.
+     * Chunk size is doubled on each call, so short iterations do not load redundant objects.
+     */
+    private boolean loadNextChunk() throws DatabaseException {
+        chunkObjects.clear();
+        chunkPos = 0;
+
+        int count = 0;
+        while (count < chunkSize) {
+            long id = nextIndexedId();
+            if (id == -1) {
+                break;
+            }
+
+            ++scannedKeyCount;
+            if (!dataEnumerable.isMarkedForDeletion(entity, id)) {
+                chunkIds[count++] = id;
+            }
         }
 
-        if (dataKeyPattern == null) {
-            return dataEnumerable.buildDomainObject(constructor, id, loadingFields);
+        if (count == 0) {
+            return false;
         }
 
-        dataKeyPattern.setPrefix(FieldKey.buildKeyPrefix(id));
+        chunkSize = Math.min(chunkSize * 2, MAX_LOADING_CHUNK_SIZE);
 
-        E obj = dataEnumerable.seekObject(constructor, loadingFields, dataIterator, dataKeyPattern);
-        return checkFilter(obj) ? obj : null;
-    }
+        if (dataFields == null) {
+            for (int i = 0; i < count; ++i) {
+                chunkObjects.add(dataEnumerable.buildDomainObject(constructor, chunkIds[i], loadingFields));
+            }
+            matchedKeyCount += count;
+            return true;
+        }
 
-    abstract boolean checkFilter(E obj) throws DatabaseException;
+        dataEnumerable.loadObjects(constructor, loadingFields, chunkIds, count, dataFields, entity, chunkObjects);
+        for (int i = 0; i < chunkObjects.size(); ++i) {
+            E obj = chunkObjects.get(i);
+            if (obj == null) {
+                continue;
+            }
+            if (checkFilter(obj)) {
+                ++matchedKeyCount;
+            } else {
+                chunkObjects.set(i, null);
+            }
+        }
+        return true;
+    }
 }
-
@@ -69,15 +69,13 @@ abstract class BaseIntervalIndexIterator<E extends DomainObject, F extends BaseI
         this.checkedFilterFields = filterFields != null ? filterFields : Collections.emptyList();
         this.filterValues = filterValues;
 
-        this.dataKeyPattern = buildDataKeyPattern(filterFields, loadingFields, entity);
-        if (this.dataKeyPattern != null) {
-            this.dataIterator = dataEnumerable.createIterator(entity.getColumnFamily());
-        }
+        this.dataFields = buildDataFields(filterFields, loadingFields, entity);
 
         this.filterBeginValue = IntervalIndexUtils.castToLong(filter.getBeginValue());
         this.filterEndValue = IntervalIndexUtils.castToLong(filter.getEndValue());
         IntervalIndexUtils.checkInterval(filterBeginValue, filterEndValue);
         this.indexIterator = dataEnumerable.createIterator(index.columnFamily);
+        this.indexIterator.setCursorMode(true);
 
         switch (this.direction) {
             case FORWARD:
@@ -98,28 +96,24 @@ abstract class BaseIntervalIndexIterator<E extends DomainObject, F extends BaseI
     abstract KeyValue seek(DBIterator indexIterator, KeyPattern pattern) throws DatabaseException;
 
     @Override
-    void nextImpl() throws DatabaseException {
+    long nextIndexedId() throws DatabaseException {
         while (indexKeyValue != null) {
             final long id = BaseIntervalIndexKey.unpackId(indexKeyValue.getKey());
             final int res = matchKey(id, indexKeyValue.getKey());
-            if (res == KeyPattern.MATCH_RESULT_SUCCESS) {
-                nextElement = findObject(id);
-            } else if (res == KeyPattern.MATCH_RESULT_CONTINUE) {
-                nextElement = null;
-            } else {
+            if (res == KeyPattern.MATCH_RESULT_UNSUCCESS) {
+                indexKeyValue = null;
                 break;
             }
             indexKeyValue = indexIterator.step(direction);
             if (indexKeyValue != null && indexPattern.match(indexKeyValue.getKey()) != KeyPattern.MATCH_RESULT_SUCCESS) {
                 indexKeyValue = null;
             }
-            if (nextElement != null) {
-                return;
+            if (res == KeyPattern.MATCH_RESULT_SUCCESS) {
+                return id;
             }
         }
 
-        nextElement = null;
-        close();
+        return -1;
     }
 
     /**
@@ -53,29 +53,24 @@ public class HashIndexIterator<E extends DomainObject> extends BaseIndexIterator
         this.checkedFilterFields = filterFields != null ? filterFields : Collections.emptyList();
         this.filterValues = filterValues;
 
-        this.dataKeyPattern = buildDataKeyPattern(filterFields, loadingFields, entity);
-        if (this.dataKeyPattern != null) {
-            this.dataIterator = dataEnumerable.createIterator(entity.getColumnFamily());
-        }
+        this.dataFields = buildDataFields(filterFields, loadingFields, entity);
 
         this.indexIterator = dataEnumerable.createIterator(index.columnFamily);
+        this.indexIterator.setCursorMode(true);
         this.indexKeyValue = indexIterator.seek(HashIndexKey.buildKeyPattern(index, values));
 
         nextImpl();
     }
 
     @Override
-    void nextImpl() throws DatabaseException {
-        while (indexKeyValue != null) {
-            nextElement = findObject(HashIndexKey.unpackId(indexKeyValue.getKey()));
-            indexKeyValue = indexIterator.next();
-            if (nextElement != null) {
-                return;
-            }
+    long nextIndexedId() throws DatabaseException {
+        if (indexKeyValue == null) {
+            return -1;
         }
 
-        nextElement = null;
-        close();
+        long id = HashIndexKey.unpackId(indexKeyValue.getKey());
+        indexKeyValue = indexIterator.next();
+        return id;
     }
 
     @Override
@@ -32,13 +32,17 @@ public class IdIterator<E extends DomainObject> implements IteratorEntity<E> {
         this.endId = filter.getToId();
         this.entity = Schema.getEntity(clazz);
         this.dataIterator = dataEnumerable.createIterator(entity.getColumnFamily());
+        this.dataIterator.setCursorMode(true);
 
         KeyPattern dataKeyPattern;
         if (loadingFields != null) {
-            dataKeyPattern = new KeyPattern(FieldKey.buildKeyPrefix(filter.getFromId()), 0, FieldKey.buildInnerPatterns(entity.getFieldNames(loadingFields)));
+            dataKeyPattern = new KeyPattern(FieldKey.buildKeyPrefix(filter.getFromId()), 0, FieldKey.buildInnerPatterns(loadingFields));
         } else {
             dataKeyPattern = new KeyPattern(FieldKey.buildKeyPrefix(filter.getFromId()), 0);
         }
+        if (endId < Long.MAX_VALUE) {
+            dataKeyPattern.setUpperBound(FieldKey.buildKeyPrefix(endId + 1));
+        }
         this.state = dataEnumerable.seek(dataIterator, dataKeyPattern, entity);
         if (endReached()) {
             state.reset();
@@ -0,0 +1,57 @@
+package com.infomaximum.database.domainobject.iterator;
+
+import com.infomaximum.database.domainobject.DomainObject;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.exception.runtime.DatabaseRuntimeException;
+
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Adapts {@link IteratorEntity} to spliterator. Iterator is closed when it is exhausted or by {@link #close()}.
+ * Splitting is inherited from {@link Spliterators.AbstractSpliterator} and takes objects by batches.
+ */
+public class IteratorEntitySpliterator<E extends DomainObject> extends Spliterators.AbstractSpliterator<E> implements AutoCloseable {
+
+    private final IteratorEntity<E> iterator;
+    private boolean closed = false;
+
+    public IteratorEntitySpliterator(IteratorEntity<E> iterator) {
+        super(Long.MAX_VALUE, ORDERED | NONNULL);
+        this.iterator = iterator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (closed) {
+            return false;
+        }
+
+        E obj;
+        try {
+            if (!iterator.hasNext()) {
+                close();
+                return false;
+            }
+            obj = iterator.next();
+        } catch (DatabaseException e) {
+            throw new DatabaseRuntimeException(e);
+        }
+        action.accept(obj);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            iterator.close();
+        } catch (DatabaseException e) {
+            throw new DatabaseRuntimeException(e);
+        }
+    }
+}
@@ -1,21 +1,20 @@
 package com.infomaximum.database.domainobject.iterator;
 
-import com.google.common.collect.Range;
-import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 import com.infomaximum.database.domainobject.DataEnumerable;
 import com.infomaximum.database.domainobject.DomainObject;
 import com.infomaximum.database.domainobject.filter.PrefixFilter;
 import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.provider.KeyPattern;
-import com.infomaximum.database.provider.KeyValue;
 import com.infomaximum.database.schema.Field;
 import com.infomaximum.database.schema.PrefixIndex;
+import com.infomaximum.database.utils.IdSet;
+import com.infomaximum.database.utils.PrefixIndexBlock;
+import com.infomaximum.database.utils.PrefixIndexBlockIterator;
 import com.infomaximum.database.utils.PrefixIndexUtils;
-import com.infomaximum.database.utils.TypeConvert;
+import com.infomaximum.database.utils.PrefixIndexWordCursor;
 import com.infomaximum.database.utils.key.PrefixIndexKey;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -23,11 +22,20 @@ import java.util.Set;
 
 public class PrefixIndexIterator<E extends DomainObject> extends BaseIndexIterator<E> {
 
+    /**
+     * Word having more lexemes is not intersected by cursor, it is checked in values of loaded objects.
+     */
+    private static final int MAX_LEXEME_COUNT_PER_CURSOR = 128;
+
     private final PrefixIndex index;
 
     private List<String> searchingWords;
-    private ByteBuffer loadingIds = null;
-    private RangeSet<Long> prevLoadedIds = TreeRangeSet.create();
+    private PrefixIndexBlockIterator blocks;
+    private final PrefixIndexBlock.Reader loadingIds = new PrefixIndexBlock.Reader();
+    private boolean loading = false;
+    private final IdSet prevLoadedIds = new IdSet();
+    private PrefixIndexWordCursor[] cursors = null;
+    private final List<DBIterator> cursorIterators = new ArrayList<>();
     private String[] values;
 
     private List<String> tempList;
@@ -40,52 +48,131 @@ public class PrefixIndexIterator<E extends DomainObject> extends BaseIndexIterat
             return;
         }
 
-        KeyPattern indexKeyPattern = PrefixIndexKey.buildKeyPatternForFind(searchingWords.get(searchingWords.size() - 1), index);
-        List<Field> additionLoadingFields;
+        final String longestWord = searchingWords.get(searchingWords.size() - 1);
+        List<Field> additionLoadingFields = Collections.emptyList();
         if (this.searchingWords.size() > 1) {
-            additionLoadingFields = index.sortedFields;
-        } else {
-            additionLoadingFields = Collections.emptyList();
+            boolean coveredByCursors = openCursors(dataEnumerable);
+            if (!coveredByCursors || !isIntersectionExact(searchingWords)) {
+                additionLoadingFields = index.sortedFields;
+            }
+        }
+        if (additionLoadingFields.isEmpty()) {
             this.searchingWords = Collections.emptyList();
         }
 
-        this.dataKeyPattern = buildDataKeyPattern(additionLoadingFields, loadingFields, entity);
-        if (this.dataKeyPattern != null) {
-            this.dataIterator = dataEnumerable.createIterator(entity.getColumnFamily());
+        this.dataFields = buildDataFields(additionLoadingFields, loadingFields, entity);
+        if (this.dataFields != null) {
             this.values = new String[index.sortedFields.size()];
             this.tempList = new ArrayList<>();
         }
 
-        this.indexIterator = dataEnumerable.createIterator(index.columnFamily);
-        KeyValue keyValue = indexIterator.seek(indexKeyPattern);
-        this.loadingIds = keyValue != null ? TypeConvert.wrapBuffer(keyValue.getValue()) : null;
+        if (cursors == null) {
+            KeyPattern indexKeyPattern = PrefixIndexKey.buildKeyPatternForFind(longestWord, index);
+            this.indexIterator = dataEnumerable.createIterator(index.columnFamily);
+            this.indexIterator.setCursorMode(true);
+            this.blocks = new PrefixIndexBlockIterator(indexIterator);
+            loadBlock(blocks.seek(indexKeyPattern));
+        }
 
         nextImpl();
     }
 
     @Override
-    void nextImpl() throws DatabaseException {
-        while (loadingIds != null) {
-            if (!loadingIds.hasRemaining()) {
-                KeyValue keyValue = indexIterator.next();
-                loadingIds = keyValue != null ? TypeConvert.wrapBuffer(keyValue.getValue()) : null;
+    long nextIndexedId() throws DatabaseException {
+        if (cursors != null) {
+            return nextIntersectedId();
+        }
+
+        while (loading) {
+            if (!loadingIds.hasNext()) {
+                loadBlock(blocks.next());
                 continue;
             }
 
-            final long id = loadingIds.getLong();
-            if (prevLoadedIds.contains(id)) {
+            final long id = loadingIds.next();
+            if (prevLoadedIds.add(id)) {
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        super.close();
+        for (DBIterator iterator : cursorIterators) {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Opens cursor for every distinct word from the longest one, word having too many lexemes is left
+     * for checking of loaded objects.
+     * @return true if every word has cursor
+     */
+    private boolean openCursors(DataEnumerable dataEnumerable) throws DatabaseException {
+        List<PrefixIndexWordCursor> result = new ArrayList<>(searchingWords.size());
+        boolean covered = true;
+        for (int i = searchingWords.size() - 1; i >= 0; --i) {
+            String word = searchingWords.get(i);
+            if (i != searchingWords.size() - 1 && word.equals(searchingWords.get(i + 1))) {
                 continue;
             }
 
-            nextElement = findObject(id);
-            if (nextElement != null) {
-                prevLoadedIds.add(Range.closedOpen(id, id + 1));
-                return;
+            DBIterator iterator = dataEnumerable.createIterator(index.columnFamily);
+            iterator.setCursorMode(true);
+            PrefixIndexWordCursor cursor = new PrefixIndexWordCursor(iterator);
+            if (cursor.seek(word, index, MAX_LEXEME_COUNT_PER_CURSOR)) {
+                cursorIterators.add(iterator);
+                result.add(cursor);
+            } else {
+                iterator.close();
+                covered = false;
             }
         }
 
-        nextElement = null;
-        close();
+        if (!result.isEmpty()) {
+            cursors = result.toArray(new PrefixIndexWordCursor[0]);
+        }
+        return covered;
+    }
+
+    /**
+     * Leapfrog intersection: every cursor skips to the greatest id read by others until all of them stop at it.
+     */
+    private long nextIntersectedId() throws DatabaseException {
+        long id = cursors[0].next();
+        int matchCount = 1;
+        for (int i = 1; id != -1 && matchCount < cursors.length; i = (i + 1) % cursors.length) {
+            long nextId = cursors[i].skipTo(id);
+            matchCount = nextId == id ? matchCount + 1 : 1;
+            id = nextId;
+        }
+        return id;
+    }
+
+    /**
+     * Words which are not prefixes of each other match different lexemes, so object which has lexemes
+     * starting with every word is matched by filter without checking of its values.
+     * @param sortedSearchingWords is sorted list by length of word
+     */
+    private static boolean isIntersectionExact(List<String> sortedSearchingWords) {
+        for (int i = 0; i < sortedSearchingWords.size(); ++i) {
+            for (int j = i + 1; j < sortedSearchingWords.size(); ++j) {
+                if (sortedSearchingWords.get(j).startsWith(sortedSearchingWords.get(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void loadBlock(boolean exists) {
+        loading = exists;
+        if (loading) {
+            blocks.read(loadingIds);
+        }
     }
 
     @Override
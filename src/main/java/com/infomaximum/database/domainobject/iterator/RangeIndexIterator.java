@@ -9,6 +9,7 @@ import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.provider.KeyPattern;
 import com.infomaximum.database.provider.KeyValue;
 import com.infomaximum.database.schema.*;
+import com.infomaximum.database.utils.IdSet;
 import com.infomaximum.database.utils.RangeIndexUtils;
 import com.infomaximum.database.utils.key.RangeIndexKey;
 
@@ -16,7 +17,7 @@ import java.util.*;
 
 public class RangeIndexIterator<E extends DomainObject> extends BaseIntervalIndexIterator<E, RangeFilter> {
 
-    private Set<Long> processedIds/* = null*/; // не нужно инициализировать, т.к. matchKey вызывается из конструктора базового класса
+    private IdSet processedIds/* = null*/; // не нужно инициализировать, т.к. matchKey вызывается из конструктора базового класса
 
     public RangeIndexIterator(DataEnumerable dataEnumerable, Class<E> clazz, Set<Integer> loadingFields, RangeFilter filter) throws DatabaseException {
         super(dataEnumerable, clazz, loadingFields, SortDirection.ASC, filter);
@@ -55,7 +56,7 @@ public class RangeIndexIterator<E extends DomainObject> extends BaseIntervalInde
 
         if (RangeIndexKey.unpackType(key) == RangeIndexKey.Type.BEGIN) {
             if (processedIds == null) {
-                processedIds = new HashSet<>();
+                processedIds = new IdSet();
             }
             processedIds.add(id);
         }
@@ -0,0 +1,219 @@
+package com.infomaximum.database.domainobject.iterator;
+
+import com.infomaximum.database.domainobject.DataEnumerable;
+import com.infomaximum.database.domainobject.DomainObject;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.exception.runtime.DatabaseRuntimeException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBSnapshot;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
+import com.infomaximum.database.utils.key.FieldKey;
+
+import java.lang.reflect.Constructor;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reads objects of entity by ranges of ids. Range from the first to the last id is split
+ * into required count of partitions, each partition is read by own iterator opened on first traversal.
+ * All partitions share resources of the scan, so the root spliterator must be closed after traversal.
+ */
+public class ScanSpliterator<E extends DomainObject> implements Spliterator<E>, AutoCloseable {
+
+    private static class Scan<E extends DomainObject> {
+
+        final DataEnumerable dataEnumerable;
+        /**
+         * null if iterators are created by dataEnumerable
+         */
+        final DBSnapshot snapshot;
+        final Constructor<E> constructor;
+        final Set<Integer> loadingFields;
+        final StructEntity entity;
+        final Set<DBIterator> openedIterators = ConcurrentHashMap.newKeySet();
+
+        Scan(DataEnumerable dataEnumerable, DBSnapshot snapshot, Class<E> clazz, Set<Integer> loadingFields) {
+            this.dataEnumerable = dataEnumerable;
+            this.snapshot = snapshot;
+            this.constructor = DomainObject.getConstructor(clazz);
+            this.loadingFields = loadingFields;
+            this.entity = Schema.getEntity(clazz);
+        }
+
+        DBIterator createIterator() throws DatabaseException {
+            return snapshot != null ?
+                    snapshot.createIterator(entity.getColumnFamily()) :
+                    dataEnumerable.createIterator(entity.getColumnFamily());
+        }
+    }
+
+    private final Scan<E> scan;
+    private long fromId;
+    private final long toId;
+    private int partitionCount;
+
+    private DBIterator dataIterator = null;
+    private DataEnumerable.NextState state = null;
+
+    private ScanSpliterator(Scan<E> scan, long fromId, long toId, int partitionCount) {
+        this.scan = scan;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Reads all objects from snapshot.
+     * @param snapshot is closed by the spliterator
+     */
+    public static <E extends DomainObject> ScanSpliterator<E> create(DataEnumerable dataEnumerable, DBSnapshot snapshot, Class<E> clazz,
+                                                                     Set<Integer> loadingFields, int partitionCount) throws DatabaseException {
+        try {
+            return create(new Scan<>(dataEnumerable, snapshot, clazz, loadingFields), 0, Long.MAX_VALUE, partitionCount);
+        } catch (DatabaseException | RuntimeException e) {
+            snapshot.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads objects with ids from fromId to toId inclusive by iterators of dataEnumerable.
+     */
+    public static <E extends DomainObject> ScanSpliterator<E> create(DataEnumerable dataEnumerable, Class<E> clazz, Set<Integer> loadingFields,
+                                                                     long fromId, long toId, int partitionCount) throws DatabaseException {
+        return create(new Scan<>(dataEnumerable, null, clazz, loadingFields), fromId, toId, partitionCount);
+    }
+
+    /**
+     * Bounds of ids are narrowed to existing ids, so partitions are not empty.
+     */
+    private static <E extends DomainObject> ScanSpliterator<E> create(Scan<E> scan, long fromId, long toId, int partitionCount) throws DatabaseException {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be positive, " + partitionCount);
+        }
+
+        long firstId = 1;
+        long lastId = 0;
+        try (DBIterator iterator = scan.createIterator()) {
+            KeyValue first = iterator.seek(new KeyPattern(FieldKey.buildKeyPrefix(fromId), 0));
+            if (first != null) {
+                KeyPattern lastPattern = new KeyPattern(FieldKey.buildKeyPrefix(toId), 0);
+                lastPattern.setForBackward(true);
+                KeyValue last = iterator.seek(lastPattern);
+                firstId = FieldKey.unpackId(first.getKey());
+                lastId = last != null ? FieldKey.unpackId(last.getKey()) : 0;
+            }
+        }
+        return new ScanSpliterator<>(scan, firstId, lastId, partitionCount);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (state == null) {
+            if (fromId > toId) {
+                return false;
+            }
+            open();
+        }
+
+        if (state.isEmpty() || state.getNextId() > toId) {
+            closeIterator();
+            fromId = toId + 1;
+            return false;
+        }
+
+        E obj;
+        try {
+            obj = scan.dataEnumerable.nextObject(scan.constructor, scan.loadingFields, dataIterator, state, scan.entity);
+        } catch (DatabaseException e) {
+            throw new DatabaseRuntimeException(e);
+        }
+        action.accept(obj);
+        return true;
+    }
+
+    /**
+     * Splits not started partition, the returned part precedes this one by ids.
+     */
+    @Override
+    public Spliterator<E> trySplit() {
+        if (state != null || partitionCount < 2) {
+            return null;
+        }
+
+        final int prefixPartitionCount = partitionCount / 2;
+        final long splitId = fromId + (long) ((toId - fromId) * ((double) prefixPartitionCount / partitionCount));
+        if (splitId < fromId || splitId >= toId) {
+            return null;
+        }
+
+        ScanSpliterator<E> prefix = new ScanSpliterator<>(scan, fromId, splitId, prefixPartitionCount);
+        fromId = splitId + 1;
+        partitionCount -= prefixPartitionCount;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fromId <= toId ? toId - fromId + 1 : 0;
+    }
+
+    @Override
+    public int characteristics() {
+        return scan.snapshot != null ? ORDERED | DISTINCT | NONNULL | IMMUTABLE : ORDERED | DISTINCT | NONNULL;
+    }
+
+    /**
+     * Closes iterators of all partitions and the snapshot.
+     */
+    @Override
+    public void close() {
+        try {
+            for (DBIterator iterator : scan.openedIterators) {
+                iterator.close();
+            }
+            scan.openedIterators.clear();
+            if (scan.snapshot != null) {
+                scan.snapshot.close();
+            }
+        } catch (DatabaseException e) {
+            throw new DatabaseRuntimeException(e);
+        }
+    }
+
+    private void open() {
+        try {
+            dataIterator = scan.createIterator();
+            scan.openedIterators.add(dataIterator);
+            dataIterator.setCursorMode(true);
+
+            KeyPattern dataKeyPattern;
+            if (scan.loadingFields != null) {
+                dataKeyPattern = new KeyPattern(FieldKey.buildKeyPrefix(fromId), 0, FieldKey.buildInnerPatterns(scan.loadingFields));
+            } else {
+                dataKeyPattern = new KeyPattern(FieldKey.buildKeyPrefix(fromId), 0);
+            }
+            if (toId < Long.MAX_VALUE) {
+                dataKeyPattern.setUpperBound(FieldKey.buildKeyPrefix(toId + 1));
+            }
+            state = scan.dataEnumerable.seek(dataIterator, dataKeyPattern, scan.entity);
+        } catch (DatabaseException e) {
+            throw new DatabaseRuntimeException(e);
+        }
+    }
+
+    private void closeIterator() {
+        if (scan.openedIterators.remove(dataIterator)) {
+            try {
+                dataIterator.close();
+            } catch (DatabaseException e) {
+                throw new DatabaseRuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.infomaximum.database.exception;
+
+public class TransactionConflictException extends DatabaseException {
+
+    public TransactionConflictException(String columnFamily) {
+        super("Key of column family " + columnFamily + " was changed by concurrent transaction.");
+    }
+}
@@ -2,7 +2,7 @@ package com.infomaximum.database.exception;
 
 public class UnexpectedEndObjectException extends DatabaseException {
 
-    public UnexpectedEndObjectException(long prevId, long nextId, String fieldName) {
-        super("Unexpected end of object. Previous id of object: " + prevId + ". Next key: id = " + nextId + ", field = " + fieldName);
+    public UnexpectedEndObjectException(long prevId, long nextId, int fieldNumber) {
+        super("Unexpected end of object. Previous id of object: " + prevId + ". Next key: id = " + nextId + ", field number = " + fieldNumber);
     }
 }
@@ -0,0 +1,18 @@
+package com.infomaximum.database.exception.runtime;
+
+import com.infomaximum.database.exception.DatabaseException;
+
+/**
+ * Carries {@link DatabaseException} through functional interfaces of streams and spliterators.
+ */
+public class DatabaseRuntimeException extends RuntimeException {
+
+    public DatabaseRuntimeException(DatabaseException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized DatabaseException getCause() {
+        return (DatabaseException) super.getCause();
+    }
+}
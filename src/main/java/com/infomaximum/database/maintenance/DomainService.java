@@ -1,8 +1,5 @@
 package com.infomaximum.database.maintenance;
 
-import com.google.common.collect.Range;
-import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 import com.infomaximum.database.domainobject.DomainObject;
 import com.infomaximum.database.domainobject.DomainObjectSource;
 import com.infomaximum.database.domainobject.filter.EmptyFilter;
@@ -14,14 +11,19 @@ import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.provider.DBProvider;
 import com.infomaximum.database.provider.DBTransaction;
 import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
 import com.infomaximum.database.schema.*;
 import com.infomaximum.database.utils.HashIndexUtils;
+import com.infomaximum.database.utils.IdSet;
+import com.infomaximum.database.utils.PackedObjectUtils;
+import com.infomaximum.database.utils.PrefixIndexBlock;
 import com.infomaximum.database.utils.PrefixIndexUtils;
 import com.infomaximum.database.utils.RangeIndexUtils;
 import com.infomaximum.database.utils.TypeConvert;
 import com.infomaximum.database.utils.key.FieldKey;
 import com.infomaximum.database.utils.key.HashIndexKey;
 import com.infomaximum.database.utils.key.IntervalIndexKey;
+import com.infomaximum.database.utils.key.PrefixIndexKey;
 import com.infomaximum.database.utils.key.RangeIndexKey;
 
 import java.util.Arrays;
@@ -38,6 +40,8 @@ public class DomainService {
         void apply(final DomainObject obj, DBTransaction transaction) throws DatabaseException;
     }
 
+    private static final int MAX_PACKED_BLOCK_COUNT_PER_TRANSACTION = 1024;
+
     private final DBProvider dbProvider;
 
     private ChangeMode changeMode = ChangeMode.NONE;
@@ -77,7 +81,10 @@ public class DomainService {
         }
 
         existsData = ensureColumnFamily(dataColumnFamily);
+        ensureStorage();
+        ensureFieldKeys();
         ensureIndexes();
+        ensurePrefixIndexBlocks();
 
         if (changeMode == ChangeMode.REMOVAL) {
             remove();
@@ -194,6 +201,135 @@ public class DomainService {
         return false;
     }
 
+    private void ensureStorage() throws DatabaseException {
+        if (!existsData) {
+            return;
+        }
+
+        final boolean packedData;
+        try (DBIterator i = dbProvider.createIterator(domain.getColumnFamily())) {
+            packedData = PackedObjectUtils.isPacked(i.seek(null).getValue());
+        }
+
+        if (packedData == domain.isPackedStorage()) {
+            return;
+        }
+
+        if (changeMode == ChangeMode.CREATION) {
+            if (packedData) {
+                unpackObjects();
+            } else {
+                packObjects();
+            }
+        } else if (isValidationMode) {
+            throw new InconsistentDatabaseException(domain.getColumnFamily() + " is not stored as " + domain.getStorage() + ".");
+        }
+    }
+
+    private void packObjects() throws DatabaseException {
+        final String columnFamily = domain.getColumnFamily();
+        final byte[][] values = new byte[domain.getFields().length][];
+        long objId = -1;
+
+        try (DBTransaction transaction = dbProvider.beginTransaction();
+             DBIterator i = dbProvider.createIterator(columnFamily)) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                if (FieldKey.unpackBeginningObject(keyValue.getKey())) {
+                    if (objId != -1) {
+                        transaction.put(columnFamily, new FieldKey(objId).pack(), PackedObjectUtils.pack(values));
+                    }
+                    objId = FieldKey.unpackId(keyValue.getKey());
+                    Arrays.fill(values, null);
+                    continue;
+                }
+
+                values[unpackField(keyValue.getKey()).getNumber()] = keyValue.getValue();
+                transaction.delete(columnFamily, keyValue.getKey());
+            }
+            if (objId != -1) {
+                transaction.put(columnFamily, new FieldKey(objId).pack(), PackedObjectUtils.pack(values));
+            }
+
+            transaction.commit();
+        }
+    }
+
+    private void unpackObjects() throws DatabaseException {
+        final String columnFamily = domain.getColumnFamily();
+        final Field[] fields = domain.getFields();
+        final byte[][] values = new byte[fields.length][];
+
+        try (DBTransaction transaction = dbProvider.beginTransaction();
+             DBIterator i = dbProvider.createIterator(columnFamily)) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                long objId = FieldKey.unpackId(keyValue.getKey());
+                PackedObjectUtils.unpack(keyValue.getValue(), values);
+
+                transaction.put(columnFamily, keyValue.getKey(), TypeConvert.EMPTY_BYTE_ARRAY);
+                for (Field field : fields) {
+                    if (values[field.getNumber()] != null) {
+                        transaction.put(columnFamily, new FieldKey(objId, field.getNumber()).pack(), values[field.getNumber()]);
+                    }
+                }
+            }
+
+            transaction.commit();
+        }
+    }
+
+    /**
+     * Replaces field names in keys of fields written by previous versions with field codes.
+     */
+    private void ensureFieldKeys() throws DatabaseException {
+        if (!existsData || domain.isPackedStorage() || !existsNamedFieldKeys()) {
+            return;
+        }
+
+        if (changeMode == ChangeMode.CREATION) {
+            encodeFieldKeys();
+        } else if (isValidationMode) {
+            throw new InconsistentDatabaseException(domain.getColumnFamily() + " contains keys with field names.");
+        }
+    }
+
+    private boolean existsNamedFieldKeys() throws DatabaseException {
+        try (DBIterator i = dbProvider.createIterator(domain.getColumnFamily())) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                if (!FieldKey.unpackBeginningObject(keyValue.getKey())) {
+                    return !FieldKey.containsFieldCode(keyValue.getKey());
+                }
+            }
+        }
+        return false;
+    }
+
+    private void encodeFieldKeys() throws DatabaseException {
+        final String columnFamily = domain.getColumnFamily();
+
+        try (DBTransaction transaction = dbProvider.beginTransaction();
+             DBIterator i = dbProvider.createIterator(columnFamily)) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                byte[] key = keyValue.getKey();
+                if (FieldKey.unpackBeginningObject(key) || FieldKey.containsFieldCode(key)) {
+                    continue;
+                }
+
+                Field field = unpackField(key);
+                transaction.put(columnFamily, new FieldKey(FieldKey.unpackId(key), field.getNumber()).pack(), keyValue.getValue());
+                transaction.delete(columnFamily, key);
+            }
+
+            transaction.commit();
+        }
+    }
+
+    private Field unpackField(byte[] fieldKey) {
+        if (FieldKey.containsFieldCode(fieldKey)) {
+            return domain.getField(FieldKey.unpackFieldNumber(fieldKey));
+        }
+        return domain.getField(new StructEntity.ByteArray(fieldKey, FieldKey.ID_BYTE_SIZE, fieldKey.length));
+    }
+
     private void ensureIndexes() throws DatabaseException {
         final boolean existsIndexedValues = ensureColumnFamily(domain.getIndexColumnFamily());
 
@@ -232,6 +368,83 @@ public class DomainService {
         }
     }
 
+    /**
+     * Converts blocks of ids of prefix indexes written by previous versions to the compressed format.
+     */
+    private void ensurePrefixIndexBlocks() throws DatabaseException {
+        if (!existsData) {
+            return;
+        }
+
+        for (PrefixIndex index : domain.getPrefixIndexes()) {
+            if (!existsLegacyBlocks(index)) {
+                continue;
+            }
+
+            if (changeMode == ChangeMode.CREATION) {
+                packPrefixIndexBlocks(index);
+            } else if (isValidationMode) {
+                throw new InconsistentDatabaseException(index.columnFamily + " contains blocks of ids of previous format.");
+            }
+        }
+    }
+
+    /**
+     * Saving rewrites only changed blocks, so legacy blocks may follow converted ones and all blocks are checked.
+     */
+    private boolean existsLegacyBlocks(PrefixIndex index) throws DatabaseException {
+        try (DBIterator i = dbProvider.createIterator(index.columnFamily)) {
+            i.setCursorMode(true);
+            for (KeyValue keyValue = i.seek(new KeyPattern(index.attendant)); keyValue != null; keyValue = i.next()) {
+                if (isLegacyBlock(keyValue)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Blocks are converted by several transactions, conversion is idempotent,
+     * so interrupted conversion is continued by the next execution.
+     */
+    private void packPrefixIndexBlocks(PrefixIndex index) throws DatabaseException {
+        DBTransaction transaction = null;
+        int blockCount = 0;
+        try (DBIterator i = dbProvider.createIterator(index.columnFamily)) {
+            for (KeyValue keyValue = i.seek(new KeyPattern(index.attendant)); keyValue != null; keyValue = i.next()) {
+                if (!isLegacyBlock(keyValue)) {
+                    continue;
+                }
+
+                if (transaction == null) {
+                    transaction = dbProvider.beginTransaction();
+                }
+                long[] ids = PrefixIndexBlock.unpack(keyValue.getValue());
+                transaction.put(index.columnFamily, keyValue.getKey(), PrefixIndexBlock.pack(ids, ids.length));
+                if (++blockCount == MAX_PACKED_BLOCK_COUNT_PER_TRANSACTION) {
+                    transaction.commit();
+                    transaction.close();
+                    transaction = null;
+                    blockCount = 0;
+                }
+            }
+
+            if (transaction != null) {
+                transaction.commit();
+            }
+        } finally {
+            if (transaction != null) {
+                transaction.close();
+            }
+        }
+    }
+
+    private static boolean isLegacyBlock(KeyValue keyValue) {
+        byte[] key = keyValue.getKey();
+        return !PrefixIndexKey.isGuardKey(key) && !PrefixIndexKey.isOperandKey(key) && PrefixIndexBlock.isLegacy(keyValue.getValue());
+    }
+
     private void indexData(Set<Integer> loadingFields, ModifierCreator recordCreator) throws DatabaseException {
         DomainObjectSource domainObjectSource = new DomainObjectSource(dbProvider);
         try (DBTransaction transaction = dbProvider.beginTransaction();
@@ -270,10 +483,10 @@ public class DomainService {
 
         FieldKey fieldKey = new FieldKey(0);
 
-        RangeSet<Long>[] processedIds = new RangeSet[domain.getFields().length];
+        IdSet[] processedIds = new IdSet[domain.getFields().length];
         for (int i = 0; i < foreignFields.size(); ++i) {
             Field field = foreignFields.get(i);
-            processedIds[field.getNumber()] = TreeRangeSet.create();
+            processedIds[field.getNumber()] = new IdSet();
         }
 
         DomainObjectSource domainObjectSource = new DomainObjectSource(dbProvider);
@@ -288,7 +501,7 @@ public class DomainService {
                         continue;
                     }
 
-                    RangeSet<Long> processedId = processedIds[field.getNumber()];
+                    IdSet processedId = processedIds[field.getNumber()];
                     if (processedId.contains(value)) {
                         continue;
                     }
@@ -297,7 +510,7 @@ public class DomainService {
                     if (dbProvider.getValue(field.getForeignDependency().getColumnFamily(), fieldKey.pack()) == null) {
                         throw new ForeignDependencyException(obj.getId(), domain.getObjectClass(), field, value);
                     }
-                    processedId.add(Range.closedOpen(value, value + 1));
+                    processedId.add(value);
                 }
             }
         }
@@ -0,0 +1,27 @@
+package com.infomaximum.database.provider;
+
+import com.infomaximum.database.exception.DatabaseException;
+
+import java.util.List;
+
+/**
+ * Writes sorted runs of key-values bypassing transactions, runs are added to column families by commit.
+ */
+public interface DBBulkWriter extends AutoCloseable {
+
+    /**
+     * @param keyValues sorted by keys in unsigned lexicographical order, keys are unique within the run
+     */
+    void write(String columnFamily, List<KeyValue> keyValues) throws DatabaseException;
+
+    /**
+     * Adds all written runs to column families, keys of later runs replace the same keys of earlier ones.
+     */
+    void commit() throws DatabaseException;
+
+    /**
+     * Discards runs which are not committed.
+     */
+    @Override
+    void close() throws DatabaseException;
+}
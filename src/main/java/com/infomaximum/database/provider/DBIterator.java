@@ -12,6 +12,12 @@ public interface DBIterator extends AutoCloseable {
     KeyValue next() throws DatabaseException;
     KeyValue step(StepDirection direction) throws DatabaseException;
 
+    /**
+     * In cursor mode iterator returns one reusable KeyValue which is valid only until next call of iterator
+     * and reads value from database on first request.
+     */
+    void setCursorMode(boolean value);
+
     @Override
     void close() throws DatabaseException;
 }
@@ -6,7 +6,13 @@ public interface DBProvider {
 
     DBIterator createIterator(String columnFamily) throws DatabaseException;
     DBTransaction beginTransaction() throws DatabaseException;
+    DBBulkWriter beginBulkWrite() throws DatabaseException;
+    DBSnapshot createSnapshot() throws DatabaseException;
     byte[] getValue(String columnFamily, byte[] key) throws DatabaseException;
+    /**
+     * @return values in the same order as keys, null for missing keys
+     */
+    byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException;
 
     boolean containsColumnFamily(String name) throws DatabaseException;
     String[] getColumnFamilies() throws DatabaseException;
@@ -0,0 +1,20 @@
+package com.infomaximum.database.provider;
+
+import com.infomaximum.database.exception.DatabaseException;
+
+/**
+ * Consistent read-only view of database, can be used by several threads.
+ * Iterators must be closed before the snapshot.
+ */
+public interface DBSnapshot extends AutoCloseable {
+
+    DBIterator createIterator(String columnFamily) throws DatabaseException;
+    byte[] getValue(String columnFamily, byte[] key) throws DatabaseException;
+    /**
+     * @return values in the same order as keys, null for missing keys
+     */
+    byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException;
+
+    @Override
+    void close() throws DatabaseException;
+}
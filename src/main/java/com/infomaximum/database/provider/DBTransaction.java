@@ -6,23 +6,44 @@ public interface DBTransaction extends AutoCloseable {
 
     DBIterator createIterator(String columnFamily) throws DatabaseException;
     long nextId(String sequenceName) throws DatabaseException;
+    /**
+     * @return first of count consecutive ids
+     */
+    long nextIds(String sequenceName, int count) throws DatabaseException;
     byte[] getValue(String columnFamily, byte[] key) throws DatabaseException;
+    /**
+     * Key is checked for conflicts by commit as written one: commit fails if concurrent transaction
+     * has written or deleted the key after reading.
+     */
+    byte[] getValueForUpdate(String columnFamily, byte[] key) throws DatabaseException;
+    /**
+     * @return values in the same order as keys, null for missing keys
+     */
+    byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException;
 
     void put(String columnFamily, byte[] key, byte[] value) throws DatabaseException;
 
     void delete(String columnFamily, byte[] key) throws DatabaseException;
     /**
+     * Range is deleted by one range tombstone without reading of keys. Deletion is not checked for conflicts:
+     * key written by concurrent transaction is lost if it is committed earlier and survives if it is committed later,
+     * keys depending on it (e.g. indexes of object) are left inconsistent then. It must be used only for ranges
+     * which are not written concurrently, otherwise see {@link #deleteKeys}.
      * @param beginKey inclusive
      * @param endKey exclusive
      */
     void deleteRange(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException;
-
-    void singleDelete(String columnFamily, byte[] key) throws DatabaseException;
     /**
+     * Every key of the range visible to transaction is deleted as by {@link #delete(String, byte[])}.
      * @param beginKey inclusive
      * @param endKey exclusive
      */
-    void singleDeleteRange(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException;
+    void deleteKeys(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException;
+
+    /**
+     * Key must be put at most once since its previous deletion (e.g. key of index entry), otherwise result is undefined.
+     */
+    void singleDelete(String columnFamily, byte[] key) throws DatabaseException;
 
     void commit() throws DatabaseException;
     void rollback() throws DatabaseException;
@@ -31,6 +31,7 @@ public class KeyPattern implements Serializable {
     private int strictMatchingLen;
     private final Postfix[] orPatterns;
     private boolean forBackward = false;
+    private byte[] upperBound = null;
 
     public KeyPattern(byte[] prefix, int strictMatchingLen, Postfix[] orPatterns) {
         this.prefix = prefix;
@@ -65,6 +66,13 @@ public class KeyPattern implements Serializable {
         return prefix;
     }
 
+    /**
+     * @return length of prefix which keys must start with or -1 if prefix is only start point of search
+     */
+    public int getStrictMatchingLen() {
+        return strictMatchingLen;
+    }
+
     public boolean isForBackward() {
         return forBackward;
     }
@@ -73,6 +81,27 @@ public class KeyPattern implements Serializable {
         this.forBackward = forBackward;
     }
 
+    /**
+     * @return exclusive upper bound of matched keys or null if keys are not bounded.
+     * Bound of strict prefix is calculated if it is not set explicitly.
+     */
+    public byte[] getUpperBound() {
+        if (upperBound != null) {
+            return upperBound;
+        }
+        if (forBackward || prefix == null || strictMatchingLen <= 0) {
+            return null;
+        }
+        return ByteUtils.prefixSuccessor(prefix, strictMatchingLen);
+    }
+
+    /**
+     * Keys which are not less than upperBound are not read from database, match of keys is not affected.
+     */
+    public void setUpperBound(byte[] upperBound) {
+        this.upperBound = upperBound;
+    }
+
     public int match(final byte[] key) {
         if (prefix != null) {
             if (strictMatchingLen != -1 && !ByteUtils.startsWith(prefix, 0, strictMatchingLen, key)) {
@@ -4,8 +4,8 @@ import java.io.Serializable;
 
 public class KeyValue implements Serializable {
 
-    private final byte[] key;
-    private final byte[] value;
+    private byte[] key;
+    private byte[] value;
 
     public KeyValue(byte[] key, byte[] value) {
         this.key = key;
@@ -19,4 +19,12 @@ public class KeyValue implements Serializable {
     public byte[] getValue() {
         return value;
     }
+
+    protected void setKey(byte[] key) {
+        this.key = key;
+    }
+
+    protected void setValue(byte[] value) {
+        this.value = value;
+    }
 }
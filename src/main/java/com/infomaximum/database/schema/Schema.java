@@ -54,6 +54,19 @@ public class Schema {
         return entity;
     }
 
+    /**
+     * @param columnFamily data or index column family of entity
+     * @return null if the entity is not loaded yet
+     */
+    public static StructEntity findEntity(String columnFamily) {
+        for (StructEntity entity : entities.values()) {
+            if (entity.getColumnFamily().equals(columnFamily) || entity.getIndexColumnFamily().equals(columnFamily)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
     static StructEntity ensureEntity(Class<? extends DomainObject> domain) {
         Class<? extends DomainObject> annotationClass = StructEntity.getAnnotationClass(domain);
         StructEntity entity = entities.get(annotationClass);
@@ -7,6 +7,7 @@ import com.infomaximum.database.exception.runtime.IndexNotFoundException;
 import com.infomaximum.database.exception.runtime.StructEntityException;
 import com.infomaximum.database.utils.ByteUtils;
 import com.infomaximum.database.utils.TypeConvert;
+import com.infomaximum.database.utils.key.FieldKey;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -25,11 +26,13 @@ public class StructEntity {
     }
 
     public final static String NAMESPACE_SEPARATOR = ".";
+    private final static String INDEX_COLUMN_FAMILY_SUFFIX = NAMESPACE_SEPARATOR + "index";
 
     private final Class<? extends DomainObject> clazz;
     private final String name;
     private final String columnFamily;
     private final String indexColumnFamily;
+    private final Entity.Storage storage;
     private final Field[] fields;
     private final Map<ByteArray, Field> nameBytesFields;
     private final List<HashIndex> hashIndexes;
@@ -45,6 +48,7 @@ public class StructEntity {
         this.name = annotationEntity.name();
         this.columnFamily = buildColumnFamily(annotationEntity);
         this.indexColumnFamily = buildIndexColumnFamily(this.columnFamily);
+        this.storage = annotationEntity.storage();
 
         Map<String, Field> modifiableNameToFields = new HashMap<>(annotationEntity.fields().length);
 
@@ -55,6 +59,10 @@ public class StructEntity {
                 throw new StructEntityException("Field name=" + field.name() + " already exists into " + clazz.getName() + ".");
             }
 
+            if (field.number() > FieldKey.MAX_FIELD_NUMBER) {
+                throw new StructEntityException("Field number=" + field.number() + " is greater than " + FieldKey.MAX_FIELD_NUMBER + " into " + clazz.getName() + ".");
+            }
+
             if (fields[field.number()] != null) {
                 throw new StructEntityException("Field number=" + field.number() + " already exists into " + clazz.getName() + ".");
             }
@@ -93,10 +101,21 @@ public class StructEntity {
         return indexColumnFamily;
     }
 
+    public Entity.Storage getStorage() {
+        return storage;
+    }
+
+    public boolean isPackedStorage() {
+        return storage == Entity.Storage.PACKED;
+    }
+
     public Class<? extends DomainObject> getObjectClass() {
         return clazz;
     }
 
+    /**
+     * Resolves field by name from keys written by previous versions.
+     */
     public Field getField(ByteArray name) {
         Field field = nameBytesFields.get(name);
         if (field == null) {
@@ -225,7 +244,11 @@ public class StructEntity {
     }
 
     private static String buildIndexColumnFamily(String parentColumnFamily) {
-        return parentColumnFamily + NAMESPACE_SEPARATOR + "index";
+        return parentColumnFamily + INDEX_COLUMN_FAMILY_SUFFIX;
+    }
+
+    public static boolean isIndexColumnFamily(String columnFamily) {
+        return columnFamily.endsWith(INDEX_COLUMN_FAMILY_SUFFIX);
     }
 
     private List<HashIndex> buildHashIndexes(Entity entity) {
@@ -1,5 +1,7 @@
 package com.infomaximum.database.utils;
 
+import java.util.Arrays;
+
 public class ByteUtils {
 
     public static boolean startsWith(byte[] prefix, byte[] source) {
@@ -46,12 +48,31 @@ public class ByteUtils {
         return true;
     }
 
+    /**
+     * @return least key which is greater than all keys starting with first len bytes of prefix
+     * or null if there is no such key
+     */
+    public static byte[] prefixSuccessor(byte[] prefix, int len) {
+        for (int i = len - 1; i >= 0; --i) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] result = Arrays.copyOf(prefix, i + 1);
+                ++result[i];
+                return result;
+            }
+        }
+        return null;
+    }
+
     public static boolean isNullOrEmpty(byte[] value) {
         return value == null || value.length == 0;
     }
 
     public static int indexOf(byte value, byte[] source) {
-        for (int i = 0; i < source.length; ++i) {
+        return indexOf(value, source, 0);
+    }
+
+    public static int indexOf(byte value, byte[] source, int fromIndex) {
+        for (int i = fromIndex; i < source.length; ++i) {
             if (value == source[i]) {
                 return i;
             }
@@ -0,0 +1,319 @@
+package com.infomaximum.database.utils;
+
+import java.util.Arrays;
+
+/**
+ * Set of non-negative ids without boxing. Ids are split by high bits into containers of 2^16 ids,
+ * sparse container is a sorted array of low bits, dense container is a bitmap (as in roaring bitmaps).
+ * Container of the last access is checked first, so sequential ids are added and found without search.
+ */
+public class IdSet {
+
+    private static final int LOW_BITS = 16;
+    private static final int LOW_MASK = (1 << LOW_BITS) - 1;
+    private static final int BITMAP_LENGTH = (1 << LOW_BITS) / Long.SIZE;
+
+    /**
+     * Array container of greater size takes more memory than bitmap.
+     */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private long[] keys = new long[4];
+    private Container[] containers = new Container[4];
+    private int containerCount = 0;
+    private int lastPos = -1;
+    private long size = 0;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(containers, 0, containerCount, null);
+        containerCount = 0;
+        lastPos = -1;
+        size = 0;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+
+        int pos = findContainer(id >>> LOW_BITS);
+        return pos >= 0 && containers[pos].contains((int) id & LOW_MASK);
+    }
+
+    /**
+     * @return false if set already contains id
+     */
+    public boolean add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+        }
+
+        final long key = id >>> LOW_BITS;
+        int pos = findContainer(key);
+        if (pos < 0) {
+            pos = insertContainer(-pos - 1, key);
+        }
+        if (!containers[pos].add((int) id & LOW_MASK)) {
+            return false;
+        }
+
+        ++size;
+        return true;
+    }
+
+    /**
+     * @return false if set does not contain id
+     */
+    public boolean remove(long id) {
+        if (id < 0) {
+            return false;
+        }
+
+        int pos = findContainer(id >>> LOW_BITS);
+        if (pos < 0 || !containers[pos].remove((int) id & LOW_MASK)) {
+            return false;
+        }
+
+        --size;
+        if (containers[pos].cardinality == 0) {
+            removeContainer(pos);
+        }
+        return true;
+    }
+
+    /**
+     * @return the least id which is greater than or equal to fromId or -1 if there is no such id
+     */
+    public long next(long fromId) {
+        fromId = Math.max(fromId, 0);
+        final long key = fromId >>> LOW_BITS;
+        int pos = findContainer(key);
+        if (pos >= 0) {
+            int low = containers[pos].next((int) fromId & LOW_MASK);
+            if (low != -1) {
+                return toId(key, low);
+            }
+            ++pos;
+        } else {
+            pos = -pos - 1;
+        }
+
+        if (pos == containerCount) {
+            return -1;
+        }
+        return toId(keys[pos], containers[pos].next(0));
+    }
+
+    /**
+     * Set of ids is iterated by ranges [id, nextAbsent(id)) to process sequential ids at once.
+     * @return the least id which is greater than or equal to fromId and is not contained in set
+     */
+    public long nextAbsent(long fromId) {
+        fromId = Math.max(fromId, 0);
+        long key = fromId >>> LOW_BITS;
+        int pos = findContainer(key);
+        if (pos < 0) {
+            return fromId;
+        }
+
+        int low = containers[pos].nextAbsent((int) fromId & LOW_MASK);
+        while (low == -1) {
+            ++key;
+            if (++pos == containerCount || keys[pos] != key) {
+                return toId(key, 0);
+            }
+            low = containers[pos].nextAbsent(0);
+        }
+        return toId(key, low);
+    }
+
+    private static long toId(long key, int low) {
+        return (key << LOW_BITS) | low;
+    }
+
+    private int findContainer(long key) {
+        if (lastPos != -1 && keys[lastPos] == key) {
+            return lastPos;
+        }
+
+        // containers of sequential ids have sequential keys
+        if (containerCount != 0 && key >= keys[0] && key - keys[0] < containerCount && keys[(int) (key - keys[0])] == key) {
+            lastPos = (int) (key - keys[0]);
+            return lastPos;
+        }
+
+        int pos = Arrays.binarySearch(keys, 0, containerCount, key);
+        if (pos >= 0) {
+            lastPos = pos;
+        }
+        return pos;
+    }
+
+    private int insertContainer(int pos, long key) {
+        if (containerCount == keys.length) {
+            keys = Arrays.copyOf(keys, containerCount * 2);
+            containers = Arrays.copyOf(containers, containerCount * 2);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, containerCount - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, containerCount - pos);
+        keys[pos] = key;
+        containers[pos] = new Container();
+        ++containerCount;
+        lastPos = pos;
+        return pos;
+    }
+
+    private void removeContainer(int pos) {
+        System.arraycopy(keys, pos + 1, keys, pos, containerCount - pos - 1);
+        System.arraycopy(containers, pos + 1, containers, pos, containerCount - pos - 1);
+        containers[--containerCount] = null;
+        lastPos = -1;
+    }
+
+    private static class Container {
+
+        private char[] array = new char[4];
+        private long[] bitmap = null;
+        private int cardinality = 0;
+
+        boolean contains(int low) {
+            if (bitmap != null) {
+                return (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, (char) low) >= 0;
+        }
+
+        boolean add(int low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] |= mask;
+                ++cardinality;
+                return true;
+            }
+
+            int pos = cardinality != 0 && array[cardinality - 1] < low ?
+                    -cardinality - 1 :
+                    Arrays.binarySearch(array, 0, cardinality, (char) low);
+            if (pos >= 0) {
+                return false;
+            }
+
+            if (cardinality == MAX_ARRAY_SIZE) {
+                toBitmap();
+                return add(low);
+            }
+
+            pos = -pos - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(cardinality * 2, MAX_ARRAY_SIZE));
+            }
+            System.arraycopy(array, pos, array, pos + 1, cardinality - pos);
+            array[pos] = (char) low;
+            ++cardinality;
+            return true;
+        }
+
+        boolean remove(int low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] &= ~mask;
+                // half of the bound prevents conversions on every add and remove near the bound
+                if (--cardinality < MAX_ARRAY_SIZE / 2) {
+                    toArray();
+                }
+                return true;
+            }
+
+            int pos = Arrays.binarySearch(array, 0, cardinality, (char) low);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(array, pos + 1, array, pos, cardinality - pos - 1);
+            --cardinality;
+            return true;
+        }
+
+        /**
+         * @return the least low bits which are greater than or equal to low or -1 if there are no such bits
+         */
+        int next(int low) {
+            if (bitmap != null) {
+                int index = low >>> 6;
+                long word = bitmap[index] & (-1L << low);
+                while (word == 0) {
+                    if (++index == BITMAP_LENGTH) {
+                        return -1;
+                    }
+                    word = bitmap[index];
+                }
+                return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+            }
+
+            int pos = Arrays.binarySearch(array, 0, cardinality, (char) low);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            return pos < cardinality ? array[pos] : -1;
+        }
+
+        /**
+         * @return the least absent low bits which are greater than or equal to low or -1 if container is full since low
+         */
+        int nextAbsent(int low) {
+            if (bitmap != null) {
+                int index = low >>> 6;
+                long word = ~bitmap[index] & (-1L << low);
+                while (word == 0) {
+                    if (++index == BITMAP_LENGTH) {
+                        return -1;
+                    }
+                    word = ~bitmap[index];
+                }
+                return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+            }
+
+            int pos = Arrays.binarySearch(array, 0, cardinality, (char) low);
+            if (pos < 0) {
+                return low;
+            }
+            while (pos + 1 < cardinality && array[pos + 1] == array[pos] + 1) {
+                ++pos;
+            }
+            int result = array[pos] + 1;
+            return result > LOW_MASK ? -1 : result;
+        }
+
+        private void toBitmap() {
+            bitmap = new long[BITMAP_LENGTH];
+            for (int i = 0; i < cardinality; ++i) {
+                bitmap[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private void toArray() {
+            array = new char[Math.max(cardinality, 4)];
+            int pos = 0;
+            for (int index = 0; index < BITMAP_LENGTH; ++index) {
+                for (long word = bitmap[index]; word != 0; word &= word - 1) {
+                    array[pos++] = (char) (index * Long.SIZE + Long.numberOfTrailingZeros(word));
+                }
+            }
+            bitmap = null;
+        }
+    }
+}
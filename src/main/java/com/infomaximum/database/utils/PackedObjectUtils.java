@@ -0,0 +1,105 @@
+package com.infomaximum.database.utils;
+
+import com.infomaximum.database.exception.runtime.KeyCorruptedException;
+
+import java.util.Arrays;
+
+/**
+ * Format of packed object: [format version][field number, value length, value]...
+ * Field numbers and lengths are varints, fields with null values are omitted.
+ */
+public class PackedObjectUtils {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    /**
+     * @param values packed values of fields by field number, null for null values
+     */
+    public static byte[] pack(byte[][] values) {
+        int size = 1;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != null) {
+                size += varIntSize(i) + varIntSize(values[i].length) + values[i].length;
+            }
+        }
+
+        byte[] buffer = new byte[size];
+        buffer[0] = FORMAT_VERSION;
+        int offset = 1;
+        for (int i = 0; i < values.length; ++i) {
+            byte[] value = values[i];
+            if (value == null) {
+                continue;
+            }
+
+            offset = writeVarInt(i, buffer, offset);
+            offset = writeVarInt(value.length, buffer, offset);
+            System.arraycopy(value, 0, buffer, offset, value.length);
+            offset += value.length;
+        }
+        return buffer;
+    }
+
+    /**
+     * Fields which are unknown in destination are skipped, omitted fields are set to null.
+     * @param destination packed values of fields by field number
+     */
+    public static void unpack(byte[] src, byte[][] destination) {
+        Arrays.fill(destination, null);
+
+        if (src.length == 0 || src[0] != FORMAT_VERSION) {
+            throw new KeyCorruptedException("Unsupported format of packed object, value length is " + src.length);
+        }
+
+        int[] offset = new int[] { 1 };
+        while (offset[0] < src.length) {
+            int number = readVarInt(src, offset);
+            int length = readVarInt(src, offset);
+            if (length > src.length - offset[0]) {
+                throw new KeyCorruptedException("Packed object corrupted, value length is " + src.length);
+            }
+
+            if (number < destination.length) {
+                destination[number] = Arrays.copyOfRange(src, offset[0], offset[0] + length);
+            }
+            offset[0] += length;
+        }
+    }
+
+    public static boolean isPacked(byte[] value) {
+        return !ByteUtils.isNullOrEmpty(value);
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            ++size;
+        }
+        return size;
+    }
+
+    private static int writeVarInt(int value, byte[] dst, int offset) {
+        while ((value & ~0x7F) != 0) {
+            dst[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dst[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int readVarInt(byte[] src, int[] offset) {
+        int result = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            if (offset[0] >= src.length) {
+                break;
+            }
+
+            byte b = src[offset[0]++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new KeyCorruptedException("Packed object corrupted, value length is " + src.length);
+    }
+}
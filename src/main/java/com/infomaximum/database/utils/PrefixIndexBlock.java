@@ -0,0 +1,332 @@
+package com.infomaximum.database.utils;
+
+import com.infomaximum.database.exception.runtime.KeyCorruptedException;
+
+import java.util.Arrays;
+
+/**
+ * Format of block of ids: [format version][id count][skip table length][skip table][groups]...
+ * Ids are sorted ascending and are split into groups of {@link #GROUP_SIZE} ids. Skip table contains
+ * pair [delta of the first id from the first id of previous group, length of group] for every group,
+ * group contains deltas of its ids except the first one. All numbers are varints.
+ * Blocks written by previous versions are arrays of 8-byte ids, they are read as well.
+ */
+public class PrefixIndexBlock {
+
+    /**
+     * Ids are positive, so the first byte of block of previous versions is less than 0x80.
+     */
+    public static final byte FORMAT_VERSION = (byte) 0x81;
+
+    static final int GROUP_SIZE = 64;
+
+    /**
+     * Reads ids of block one by one, may be reused for other blocks.
+     */
+    public static class Reader {
+
+        private byte[] block;
+        private boolean legacy;
+        private int remaining;
+        private long current;
+
+        private int skipOffset;
+        private int skipEnd;
+        private int offset;
+        private int groupEnd;
+        private int groupRemaining;
+        private long groupFirstId;
+        private boolean atGroupBeginning;
+
+        public Reader() {
+        }
+
+        public Reader(byte[] block) {
+            reset(block);
+        }
+
+        public Reader reset(byte[] block) {
+            this.block = block;
+            this.legacy = isLegacy(block);
+            this.current = -1;
+            if (legacy) {
+                this.offset = 0;
+                this.remaining = block.length / Long.BYTES;
+                return this;
+            }
+
+            int[] pos = new int[] { 1 };
+            this.remaining = (int) readVarLong(block, pos);
+            int skipLength = (int) readVarLong(block, pos);
+            this.skipOffset = pos[0];
+            this.skipEnd = skipOffset + skipLength;
+            this.groupEnd = skipEnd;
+            this.groupRemaining = 0;
+            this.groupFirstId = 0;
+            this.atGroupBeginning = false;
+            return this;
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * @return next id or -1 if there are no more ids
+         */
+        public long next() {
+            if (remaining == 0) {
+                return -1;
+            }
+
+            if (legacy) {
+                --remaining;
+                current = TypeConvert.unpackLong(block, offset);
+                offset += Long.BYTES;
+                return current;
+            }
+
+            if (groupRemaining == 0) {
+                enterGroup();
+            }
+            --groupRemaining;
+            --remaining;
+            if (atGroupBeginning) {
+                atGroupBeginning = false;
+                current = groupFirstId;
+            } else {
+                current += readDelta();
+            }
+            return current;
+        }
+
+        /**
+         * Skips groups whose ids are less than id without decoding them.
+         * @return the first not read id which is greater than or equal to id or -1 if there is no such id
+         */
+        public long skipTo(long id) {
+            if (legacy) {
+                int low = offset / Long.BYTES;
+                int high = low + remaining - 1;
+                while (low <= high) {
+                    int mid = (low + high) >>> 1;
+                    if (TypeConvert.unpackLong(block, mid * Long.BYTES) < id) {
+                        low = mid + 1;
+                    } else {
+                        high = mid - 1;
+                    }
+                }
+                remaining -= low - offset / Long.BYTES;
+                offset = low * Long.BYTES;
+                return next();
+            }
+
+            skipGroupsTo(id);
+            while (remaining > 0) {
+                long next = next();
+                if (next >= id) {
+                    return next;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the last read id or -1 if reading is not started
+         */
+        public long current() {
+            return current;
+        }
+
+        int remaining() {
+            return remaining;
+        }
+
+        private void skipGroupsTo(long id) {
+            int[] pos = new int[1];
+            while (skipOffset < skipEnd) {
+                pos[0] = skipOffset;
+                long nextGroupFirstId = groupFirstId + readVarLong(block, pos);
+                if (nextGroupFirstId > id) {
+                    return;
+                }
+
+                remaining -= groupRemaining;
+                groupRemaining = 0;
+                enterGroup();
+            }
+        }
+
+        private void enterGroup() {
+            int[] pos = new int[] { skipOffset };
+            offset = groupEnd;
+            groupFirstId += readVarLong(block, pos);
+            groupEnd = offset + (int) readVarLong(block, pos);
+            skipOffset = pos[0];
+            groupRemaining = Math.min(GROUP_SIZE, remaining);
+            atGroupBeginning = true;
+        }
+
+        private long readDelta() {
+            long result = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                byte b = block[offset++];
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new KeyCorruptedException("Block of ids corrupted, value length is " + block.length);
+        }
+    }
+
+    public static boolean isLegacy(byte[] block) {
+        return block.length == 0 || block[0] != FORMAT_VERSION;
+    }
+
+    public static byte[] pack(long id) {
+        return pack(new long[] { id }, 1);
+    }
+
+    /**
+     * @param ids sorted ascending unique ids
+     */
+    public static byte[] pack(long[] ids, int count) {
+        final int groupCount = (count + GROUP_SIZE - 1) / GROUP_SIZE;
+        final int[] groupLengths = new int[groupCount];
+        int dataLength = 0;
+        for (int i = 0; i < count; ++i) {
+            if (i % GROUP_SIZE != 0) {
+                int length = varLongSize(ids[i] - ids[i - 1]);
+                groupLengths[i / GROUP_SIZE] += length;
+                dataLength += length;
+            }
+        }
+
+        int skipLength = 0;
+        for (int g = 0; g < groupCount; ++g) {
+            skipLength += varLongSize(ids[g * GROUP_SIZE] - (g != 0 ? ids[(g - 1) * GROUP_SIZE] : 0));
+            skipLength += varLongSize(groupLengths[g]);
+        }
+
+        byte[] buffer = new byte[1 + varLongSize(count) + varLongSize(skipLength) + skipLength + dataLength];
+        buffer[0] = FORMAT_VERSION;
+        int offset = writeVarLong(count, buffer, 1);
+        offset = writeVarLong(skipLength, buffer, offset);
+        for (int g = 0; g < groupCount; ++g) {
+            offset = writeVarLong(ids[g * GROUP_SIZE] - (g != 0 ? ids[(g - 1) * GROUP_SIZE] : 0), buffer, offset);
+            offset = writeVarLong(groupLengths[g], buffer, offset);
+        }
+        for (int i = 0; i < count; ++i) {
+            if (i % GROUP_SIZE != 0) {
+                offset = writeVarLong(ids[i] - ids[i - 1], buffer, offset);
+            }
+        }
+        return buffer;
+    }
+
+    public static long[] unpack(byte[] block) {
+        Reader reader = new Reader(block);
+        long[] ids = new long[reader.remaining()];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = reader.next();
+        }
+        return ids;
+    }
+
+    public static int getIdCount(byte[] block) {
+        if (isLegacy(block)) {
+            return block.length / Long.BYTES;
+        }
+        return (int) readVarLong(block, new int[] { 1 });
+    }
+
+    /**
+     * @return the greatest id of block or -1 if block is empty
+     */
+    public static long getLastId(byte[] block) {
+        Reader reader = new Reader(block);
+        if (reader.legacy) {
+            return block.length != 0 ? TypeConvert.unpackLong(block, block.length - Long.BYTES) : -1;
+        }
+
+        reader.skipGroupsTo(Long.MAX_VALUE);
+        while (reader.hasNext()) {
+            reader.next();
+        }
+        return reader.current();
+    }
+
+    public static boolean contains(long id, byte[] block) {
+        return new Reader(block).skipTo(id) == id;
+    }
+
+    /**
+     * @return block containing id, the same block if it already contains id
+     */
+    public static byte[] appendId(long id, byte[] block) {
+        long[] ids = unpack(block);
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return block;
+        }
+
+        pos = -pos - 1;
+        long[] newIds = new long[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, pos);
+        newIds[pos] = id;
+        System.arraycopy(ids, pos, newIds, pos + 1, ids.length - pos);
+        return pack(newIds, newIds.length);
+    }
+
+    /**
+     * @return block without id, empty array if id is the last id of block, null if block does not contain id
+     */
+    public static byte[] removeId(long id, byte[] block) {
+        if (!contains(id, block)) {
+            return null;
+        }
+
+        long[] ids = unpack(block);
+        int pos = Arrays.binarySearch(ids, id);
+        if (ids.length == 1) {
+            return TypeConvert.EMPTY_BYTE_ARRAY;
+        }
+
+        System.arraycopy(ids, pos + 1, ids, pos, ids.length - pos - 1);
+        return pack(ids, ids.length - 1);
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            ++size;
+        }
+        return size;
+    }
+
+    private static int writeVarLong(long value, byte[] dst, int offset) {
+        while ((value & ~0x7FL) != 0) {
+            dst[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dst[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static long readVarLong(byte[] src, int[] offset) {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (offset[0] >= src.length) {
+                break;
+            }
+
+            byte b = src[offset[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new KeyCorruptedException("Block of ids corrupted, value length is " + src.length);
+    }
+}
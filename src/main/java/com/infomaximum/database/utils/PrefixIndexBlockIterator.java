@@ -0,0 +1,172 @@
+package com.infomaximum.database.utils;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.utils.key.PrefixIndexKey;
+
+import java.util.Arrays;
+
+/**
+ * Iterates blocks of ids of prefix index together with their operands.
+ * Operand is a key which follows the key of its block, it adds id to the block or removes id from the block,
+ * so ids are changed without rewriting of the block. Writers of the last block of lexeme also write its guard key,
+ * see {@link PrefixIndexUtils#insertIndexedLexemes}. Operands are folded into the block
+ * by {@link PrefixIndexUtils} when their count reaches {@link PrefixIndexUtils#PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK}.
+ */
+public class PrefixIndexBlockIterator {
+
+    public static final byte[] ADD_OPERAND = new byte[] { 1 };
+    public static final byte[] REMOVE_OPERAND = new byte[] { 0 };
+
+    private final DBIterator iterator;
+    private KeyValue nextKeyValue = null;
+
+    private byte[] key = null;
+    private byte[] block = null;
+    private long[] operandIds = new long[8];
+    private boolean[] addingOperands = new boolean[8];
+    private int operandCount = 0;
+
+    public PrefixIndexBlockIterator(DBIterator iterator) {
+        this.iterator = iterator;
+    }
+
+    /**
+     * @return false if there are no blocks
+     */
+    public boolean seek(KeyPattern pattern) throws DatabaseException {
+        return moveTo(iterator.seek(pattern));
+    }
+
+    /**
+     * @return false if there are no more blocks
+     */
+    public boolean next() throws DatabaseException {
+        return moveTo(nextKeyValue);
+    }
+
+    public boolean hasNext() {
+        return nextKeyValue != null;
+    }
+
+    public byte[] getKey() {
+        return key;
+    }
+
+    /**
+     * @return block without operands, empty array if block was removed by concurrent transaction
+     * which has not seen operands
+     */
+    public byte[] getBlock() {
+        return block;
+    }
+
+    public int getOperandCount() {
+        return operandCount;
+    }
+
+    public byte[] buildOperandKey(int operandIndex) {
+        return PrefixIndexKey.buildOperandKey(key, operandIds[operandIndex]);
+    }
+
+    /**
+     * @return greater than or equal to the greatest id of block with operands
+     */
+    public long getLastId() {
+        long lastId = PrefixIndexBlock.getLastId(block);
+        for (int i = operandCount - 1; i >= 0; --i) {
+            if (addingOperands[i]) {
+                return Math.max(lastId, operandIds[i]);
+            }
+        }
+        return lastId;
+    }
+
+    public boolean contains(long id) {
+        int pos = Arrays.binarySearch(operandIds, 0, operandCount, id);
+        if (pos >= 0) {
+            return addingOperands[pos];
+        }
+        return PrefixIndexBlock.contains(id, block);
+    }
+
+    /**
+     * @return sorted ids of block with applied operands
+     */
+    public long[] getIds() {
+        long[] blockIds = PrefixIndexBlock.unpack(block);
+        if (operandCount == 0) {
+            return blockIds;
+        }
+
+        long[] ids = new long[blockIds.length + operandCount];
+        int size = 0;
+        for (int i = 0, j = 0; i < blockIds.length || j < operandCount; ) {
+            if (j == operandCount || (i < blockIds.length && blockIds[i] < operandIds[j])) {
+                ids[size++] = blockIds[i++];
+                continue;
+            }
+
+            if (i < blockIds.length && blockIds[i] == operandIds[j]) {
+                ++i;
+            }
+            if (addingOperands[j]) {
+                ids[size++] = operandIds[j];
+            }
+            ++j;
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Block is read in place if it has no operands.
+     */
+    public PrefixIndexBlock.Reader read(PrefixIndexBlock.Reader reader) {
+        if (operandCount == 0) {
+            return reader.reset(block);
+        }
+
+        long[] ids = getIds();
+        return reader.reset(PrefixIndexBlock.pack(ids, ids.length));
+    }
+
+    private boolean moveTo(KeyValue keyValue) throws DatabaseException {
+        operandCount = 0;
+        while (keyValue != null && PrefixIndexKey.isGuardKey(keyValue.getKey())) {
+            keyValue = iterator.next();
+        }
+        if (keyValue == null) {
+            key = null;
+            block = null;
+            nextKeyValue = null;
+            return false;
+        }
+
+        if (PrefixIndexKey.isOperandKey(keyValue.getKey())) {
+            key = PrefixIndexKey.getBlockKey(keyValue.getKey());
+            block = TypeConvert.EMPTY_BYTE_ARRAY;
+        } else {
+            key = keyValue.getKey();
+            block = keyValue.getValue();
+            keyValue = iterator.next();
+        }
+
+        for (; keyValue != null && PrefixIndexKey.isOperandKeyOf(key, keyValue.getKey()); keyValue = iterator.next()) {
+            addOperand(PrefixIndexKey.unpackOperandId(keyValue.getKey()), keyValue.getValue()[0] == ADD_OPERAND[0]);
+        }
+        nextKeyValue = keyValue;
+        return true;
+    }
+
+    private void addOperand(long id, boolean adding) {
+        if (operandCount == operandIds.length) {
+            operandIds = Arrays.copyOf(operandIds, operandCount * 2);
+            addingOperands = Arrays.copyOf(addingOperands, operandCount * 2);
+        }
+        operandIds[operandCount] = id;
+        addingOperands[operandCount] = adding;
+        ++operandCount;
+    }
+}
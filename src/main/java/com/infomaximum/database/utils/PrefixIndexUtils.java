@@ -4,11 +4,8 @@ import com.infomaximum.database.domainobject.Value;
 import com.infomaximum.database.exception.DatabaseException;
 import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.provider.DBTransaction;
-import com.infomaximum.database.provider.KeyValue;
 import com.infomaximum.database.schema.Field;
 import com.infomaximum.database.schema.PrefixIndex;
-import com.infomaximum.database.utils.key.FieldKey;
-import com.infomaximum.database.utils.key.Key;
 import com.infomaximum.database.utils.key.PrefixIndexKey;
 
 import java.io.Serializable;
@@ -24,6 +21,7 @@ public class PrefixIndexUtils {
     }
 
     public static final int PREFERRED_MAX_ID_COUNT_PER_BLOCK = 1024;
+    public static final int PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK = 32;
 
     private static final Comparator<String> searchingWordComparator = Comparator.comparingInt(String::length);
 
@@ -155,36 +153,18 @@ public class PrefixIndexUtils {
     }
 
     public static byte[] appendId(long id, byte[] ids) {
-        int pos = binarySearch(id, ids);
-        if (pos >= 0) {
-            return ids;
-        }
-        pos = - pos - 1;
-        return TypeConvert.allocateBuffer(ids.length + Key.ID_BYTE_SIZE)
-                .put(ids, 0, pos)
-                .putLong(id)
-                .put(ids, pos, ids.length - pos)
-                .array();
+        return PrefixIndexBlock.appendId(id, ids);
     }
 
     public static byte[] removeId(long id, byte[] ids) {
         if (ids == null) {
             return null;
         }
-
-        int pos = binarySearch(id, ids);
-        if (pos < 0) {
-            return null;
-        }
-
-        byte[] newIds = new byte[ids.length - Key.ID_BYTE_SIZE];
-        System.arraycopy(ids, 0, newIds, 0, pos);
-        System.arraycopy(ids, pos + Key.ID_BYTE_SIZE, newIds, pos, ids.length - pos - Key.ID_BYTE_SIZE);
-        return newIds;
+        return PrefixIndexBlock.removeId(id, ids);
     }
 
     public static int getIdCount(byte[] ids) {
-        return ids.length / Key.ID_BYTE_SIZE;
+        return PrefixIndexBlock.getIdCount(ids);
     }
 
     /**
@@ -221,85 +201,127 @@ public class PrefixIndexUtils {
         }
 
         try (DBIterator iterator = transaction.createIterator(index.columnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
             for (String lexeme : lexemes) {
-                KeyValue keyValue = iterator.seek(PrefixIndexKey.buildKeyPatternForEdit(lexeme, index));
-                while (keyValue != null) {
-                    byte[] newIds = removeId(id, keyValue.getValue());
-                    if (newIds != null) {
-                        if (newIds.length != 0) {
-                            transaction.put(index.columnFamily, keyValue.getKey(), newIds);
-                        } else {
-                            transaction.delete(index.columnFamily, keyValue.getKey());
-                        }
+                byte[] removedBlockKey = null;
+                boolean remainsBlock = false;
+                for (boolean exists = blocks.seek(PrefixIndexKey.buildKeyPatternForEdit(lexeme, index)); exists; exists = blocks.next()) {
+                    if (!blocks.contains(id)) {
+                        remainsBlock = true;
+                        continue;
+                    }
+
+                    if (blocks.getOperandCount() < PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK && !containsSingleId(blocks)) {
+                        transaction.put(index.columnFamily, PrefixIndexKey.buildOperandKey(blocks.getKey(), id), PrefixIndexBlockIterator.REMOVE_OPERAND);
+                        remainsBlock = true;
+                        continue;
                     }
 
-                    keyValue = iterator.next();
+                    long[] ids = blocks.getIds();
+                    int pos = Arrays.binarySearch(ids, id);
+                    System.arraycopy(ids, pos + 1, ids, pos, ids.length - pos - 1);
+                    if (ids.length == 1) {
+                        removedBlockKey = blocks.getKey();
+                    } else {
+                        remainsBlock = true;
+                    }
+                    foldBlock(index, blocks, ids, ids.length - 1, transaction);
+                }
+
+                // guard of lexeme is removed together with its last block, so index of removed objects stays empty
+                if (removedBlockKey != null && !remainsBlock) {
+                    transaction.delete(index.columnFamily, PrefixIndexKey.buildGuardKey(removedBlockKey));
                 }
             }
         }
     }
 
+    /**
+     * Id is added to the last block whose ids are less than id or to the first block of greater ids.
+     * New block is started if the last block is full, overflowed last block is split by folding of its operands.
+     * Ids of blocks must stay ascending because {@link PrefixIndexWordCursor} reads blocks of lexeme one by one,
+     * so every insertion into the last block writes the guard key of lexeme and conflicts with concurrent splitting.
+     * Concurrent insertions of the same lexeme conflict with each other too, since new ids go to the last block;
+     * insertions into other blocks do not touch the guard.
+     */
     public static void insertIndexedLexemes(PrefixIndex index, long id, Collection<String> lexemes, DBTransaction transaction) throws DatabaseException {
         if (lexemes.isEmpty()) {
             return;
         }
 
         try (DBIterator iterator = transaction.createIterator(index.columnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
             for (String lexeme : lexemes) {
-                KeyValue keyValue = iterator.seek(PrefixIndexKey.buildKeyPatternForEdit(lexeme, index));
-                byte[] key;
-                byte[] idsValue;
-                if (keyValue != null) {
-                    KeyValue prevKeyValue;
-                    do {
-                        long lastId = TypeConvert.unpackLong(keyValue.getValue(), keyValue.getValue().length - FieldKey.ID_BYTE_SIZE);
-                        if (id < lastId) {
-                            key = keyValue.getKey();
-                            idsValue = appendId(id, keyValue.getValue());
-                            break;
-                        }
-                        prevKeyValue = keyValue;
-                        keyValue = iterator.next();
-                        if (keyValue == null) {
-                            key = prevKeyValue.getKey();
-                            if (getIdCount(prevKeyValue.getValue()) < PREFERRED_MAX_ID_COUNT_PER_BLOCK) {
-                                idsValue = appendId(id, prevKeyValue.getValue());
-                            } else {
-                                PrefixIndexKey.incrementBlockNumber(key);
-                                idsValue = TypeConvert.pack(id);
-                            }
-                            break;
-                        }
-                    } while (true);
-                } else {
-                    key = new PrefixIndexKey(lexeme, index).pack();
-                    idsValue = TypeConvert.pack(id);
+                if (!blocks.seek(PrefixIndexKey.buildKeyPatternForEdit(lexeme, index))) {
+                    transaction.put(index.columnFamily, new PrefixIndexKey(lexeme, index).pack(), PrefixIndexBlock.pack(id));
+                    continue;
                 }
 
-                transaction.put(index.columnFamily, key, idsValue);
+                while (id >= blocks.getLastId() && blocks.hasNext()) {
+                    blocks.next();
+                }
+                if (!blocks.hasNext()) {
+                    touchGuard(index, blocks.getKey(), transaction);
+                }
+
+                if (!blocks.hasNext() && id >= blocks.getLastId()
+                        && PrefixIndexBlock.getIdCount(blocks.getBlock()) >= PREFERRED_MAX_ID_COUNT_PER_BLOCK) {
+                    byte[] key = blocks.getKey().clone();
+                    PrefixIndexKey.incrementBlockNumber(key);
+                    transaction.put(index.columnFamily, key, PrefixIndexBlock.pack(id));
+                } else if (blocks.getOperandCount() < PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK) {
+                    transaction.put(index.columnFamily, PrefixIndexKey.buildOperandKey(blocks.getKey(), id), PrefixIndexBlockIterator.ADD_OPERAND);
+                } else {
+                    long[] ids = blocks.getIds();
+                    int pos = Arrays.binarySearch(ids, id);
+                    if (pos < 0) {
+                        pos = -pos - 1;
+                        ids = Arrays.copyOf(ids, ids.length + 1);
+                        System.arraycopy(ids, pos, ids, pos + 1, ids.length - pos - 1);
+                        ids[pos] = id;
+                    }
+                    foldBlock(index, blocks, ids, ids.length, transaction);
+                }
             }
         }
     }
 
-    private static int binarySearch(long value, byte[] longs) {
-        if ((longs.length % Long.BYTES) != 0) {
-            throw new IllegalArgumentException("Size of longs must be multiple of " + Long.BYTES);
-        }
+    /**
+     * Block is deleted at once when its last id is removed. Every operand removes one id at most,
+     * so only blocks whose operands can remove all ids but one are unpacked to check it.
+     */
+    private static boolean containsSingleId(PrefixIndexBlockIterator blocks) {
+        return PrefixIndexBlock.getIdCount(blocks.getBlock()) <= blocks.getOperandCount() + 1
+                && blocks.getIds().length == 1;
+    }
 
-        int low = 0;
-        int high = (longs.length / Long.BYTES) - 1;
+    /**
+     * Writers of the last block of lexeme do not share other keys: operand of concurrent transaction is not seen
+     * by splitting transaction, so both of them write the guard to conflict.
+     */
+    private static void touchGuard(PrefixIndex index, byte[] blockKey, DBTransaction transaction) throws DatabaseException {
+        transaction.put(index.columnFamily, PrefixIndexKey.buildGuardKey(blockKey), TypeConvert.EMPTY_BYTE_ARRAY);
+    }
 
-        while (low <= high) {
-            int mid = (low + high) >>> 1;
-            long midVal = TypeConvert.unpackLong(longs, mid * Long.BYTES);
+    /**
+     * Rewrites block with applied operands, overflowed last block is split.
+     */
+    private static void foldBlock(PrefixIndex index, PrefixIndexBlockIterator blocks, long[] ids, int count, DBTransaction transaction) throws DatabaseException {
+        for (int i = 0; i < blocks.getOperandCount(); ++i) {
+            transaction.delete(index.columnFamily, blocks.buildOperandKey(i));
+        }
 
-            if (midVal < value)
-                low = mid + 1;
-            else if (midVal > value)
-                high = mid - 1;
-            else
-                return mid * Long.BYTES; // key found
+        if (count == 0) {
+            transaction.delete(index.columnFamily, blocks.getKey());
+        } else if (count > PREFERRED_MAX_ID_COUNT_PER_BLOCK && !blocks.hasNext()) {
+            touchGuard(index, blocks.getKey(), transaction);
+            transaction.put(index.columnFamily, blocks.getKey(), PrefixIndexBlock.pack(ids, PREFERRED_MAX_ID_COUNT_PER_BLOCK));
+            byte[] key = blocks.getKey().clone();
+            PrefixIndexKey.incrementBlockNumber(key);
+            long[] restIds = Arrays.copyOfRange(ids, PREFERRED_MAX_ID_COUNT_PER_BLOCK, count);
+            transaction.put(index.columnFamily, key, PrefixIndexBlock.pack(restIds, restIds.length));
+        } else {
+            transaction.put(index.columnFamily, blocks.getKey(), PrefixIndexBlock.pack(ids, count));
         }
-        return -(low * Long.BYTES + 1);  // key not found.
     }
 }
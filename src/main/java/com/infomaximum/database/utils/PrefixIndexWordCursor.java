@@ -0,0 +1,198 @@
+package com.infomaximum.database.utils;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.schema.PrefixIndex;
+import com.infomaximum.database.utils.key.PrefixIndexKey;
+
+import java.util.Arrays;
+
+/**
+ * Iterates ascending unique ids of all lexemes which start with the searching word.
+ * Ids of every lexeme are sorted across its blocks: id is inserted into the first block whose last id is greater,
+ * and split of the last block conflicts with concurrent inserts into it by the guard key of lexeme.
+ * So lexemes are merged by heap and every lexeme keeps only its current block, next block is read when
+ * the current one is exhausted. Cursors of different words are intersected by {@link #skipTo(long)}.
+ */
+public class PrefixIndexWordCursor {
+
+    private final PrefixIndexBlockIterator blocks;
+
+    private int wordKeyLength;
+    private byte[] upperBound;
+
+    private byte[][] blockKeys = new byte[8][];
+    private PrefixIndexBlock.Reader[] readers = new PrefixIndexBlock.Reader[8];
+    private long[] heads = new long[8];
+    private int[] heap = new int[8];
+    private int heapSize = 0;
+    private long current = -1;
+
+    public PrefixIndexWordCursor(DBIterator iterator) {
+        this.blocks = new PrefixIndexBlockIterator(iterator);
+    }
+
+    /**
+     * Reads the first block of every lexeme starting with word.
+     * @return false if count of lexemes is greater than maxLexemeCount, cursor is not usable then
+     */
+    public boolean seek(String word, PrefixIndex index, int maxLexemeCount) throws DatabaseException {
+        KeyPattern pattern = PrefixIndexKey.buildKeyPatternForFind(word, index);
+        wordKeyLength = pattern.getPrefix().length;
+        upperBound = pattern.getUpperBound();
+        heapSize = 0;
+        current = -1;
+
+        int lexemeCount = 0;
+        boolean exists = blocks.seek(pattern);
+        while (exists) {
+            if (lexemeCount == maxLexemeCount) {
+                heapSize = 0;
+                return false;
+            }
+
+            byte[] nextLexemeKey = PrefixIndexKey.buildNextLexemeKey(blocks.getKey());
+            addLexeme(lexemeCount++);
+            exists = blocks.seek(buildKeyPattern(nextLexemeKey));
+        }
+        return true;
+    }
+
+    /**
+     * @return the last returned id or -1 if reading is not started
+     */
+    public long current() {
+        return current;
+    }
+
+    /**
+     * @return next id or -1 if there are no more ids
+     */
+    public long next() throws DatabaseException {
+        return skipTo(current + 1);
+    }
+
+    /**
+     * Skips groups and blocks of lexemes whose ids are less than id.
+     * @return the first id which is greater than or equal to id or -1 if there is no such id,
+     * the last returned id if it is not less than id
+     */
+    public long skipTo(long id) throws DatabaseException {
+        if (current >= id) {
+            return current;
+        }
+
+        while (heapSize != 0 && heads[heap[0]] < id) {
+            advanceTop(id);
+        }
+        if (heapSize == 0) {
+            return -1;
+        }
+
+        current = heads[heap[0]];
+        while (heapSize != 0 && heads[heap[0]] == current) {
+            advanceTop(current + 1);
+        }
+        return current;
+    }
+
+    private void addLexeme(int lexeme) throws DatabaseException {
+        if (lexeme == blockKeys.length) {
+            blockKeys = Arrays.copyOf(blockKeys, lexeme * 2);
+            readers = Arrays.copyOf(readers, lexeme * 2);
+            heads = Arrays.copyOf(heads, lexeme * 2);
+            heap = Arrays.copyOf(heap, lexeme * 2);
+        }
+        if (readers[lexeme] == null) {
+            readers[lexeme] = new PrefixIndexBlock.Reader();
+        }
+
+        blockKeys[lexeme] = blocks.getKey();
+        blocks.read(readers[lexeme]);
+        long head = readIds(lexeme, 0);
+        if (head == -1) {
+            return;
+        }
+
+        heads[lexeme] = head;
+        heap[heapSize] = lexeme;
+        siftUp(heapSize++);
+    }
+
+    private void advanceTop(long id) throws DatabaseException {
+        int lexeme = heap[0];
+        long head = readIds(lexeme, id);
+        if (head == -1) {
+            heap[0] = heap[--heapSize];
+        } else {
+            heads[lexeme] = head;
+        }
+        siftDown(0);
+    }
+
+    /**
+     * @return the first id of lexeme which is greater than or equal to id, -1 if lexeme is exhausted
+     */
+    private long readIds(int lexeme, long id) throws DatabaseException {
+        long head = readers[lexeme].skipTo(id);
+        while (head == -1) {
+            byte[] blockKey = blockKeys[lexeme];
+            byte[] nextBlockKey = blockKey.clone();
+            PrefixIndexKey.incrementBlockNumber(nextBlockKey);
+            if (!blocks.seek(buildKeyPattern(nextBlockKey)) ||
+                    !ByteUtils.startsWith(blockKey, 0, PrefixIndexKey.getLexemeKeyLength(blockKey), blocks.getKey())) {
+                return -1;
+            }
+
+            blockKeys[lexeme] = blocks.getKey();
+            head = blocks.read(readers[lexeme]).skipTo(id);
+        }
+        return head;
+    }
+
+    /**
+     * All seeks are limited by keys of word, so iterator is not recreated because of changed bounds.
+     */
+    private KeyPattern buildKeyPattern(byte[] seekKey) {
+        KeyPattern pattern = new KeyPattern(seekKey, wordKeyLength);
+        pattern.setUpperBound(upperBound);
+        return pattern;
+    }
+
+    private void siftUp(int pos) {
+        int lexeme = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (heads[heap[parent]] <= heads[lexeme]) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = lexeme;
+    }
+
+    private void siftDown(int pos) {
+        if (pos >= heapSize) {
+            return;
+        }
+
+        int lexeme = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heads[heap[child + 1]] < heads[heap[child]]) {
+                ++child;
+            }
+            if (heads[lexeme] <= heads[heap[child]]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = lexeme;
+    }
+}
@@ -1,42 +1,55 @@
 package com.infomaximum.database.utils.key;
 
+import com.infomaximum.database.exception.runtime.KeyCorruptedException;
 import com.infomaximum.database.provider.KeyPattern;
-import com.infomaximum.database.utils.ByteUtils;
 import com.infomaximum.database.utils.TypeConvert;
 
-import java.util.Arrays;
-import java.util.Set;
+import java.util.Collection;
 
+/**
+ * Key of object field: [id][field code]. Field code is 1 byte (0x80 | number) for numbers less than 127
+ * and 2 bytes (0xff, number) for others, so it never matches field name in UTF-8 stored by previous versions.
+ */
 public class FieldKey extends Key {
 
-    private final byte[] fieldName;
+    public static final int MAX_FIELD_NUMBER = 0xFF;
+
+    private static final int MAX_SHORT_FIELD_NUMBER = 0x7E;
+    private static final byte SHORT_FIELD_CODE_FLAG = (byte) 0x80;
+    private static final byte LONG_FIELD_CODE_MARKER = (byte) 0xFF;
+
+    private final int fieldNumber;
 
     public FieldKey(long id) {
         super(id);
-        this.fieldName = TypeConvert.EMPTY_BYTE_ARRAY;
+        this.fieldNumber = -1;
     }
 
-    public FieldKey(long id, byte[] fieldName) {
+    public FieldKey(long id, int fieldNumber) {
         super(id);
-        if (ByteUtils.isNullOrEmpty(fieldName)) {
-            throw new IllegalArgumentException();
+        if (fieldNumber < 0 || fieldNumber > MAX_FIELD_NUMBER) {
+            throw new IllegalArgumentException("Field number " + fieldNumber + " out of range");
         }
-        this.fieldName = fieldName;
+        this.fieldNumber = fieldNumber;
     }
 
-    public byte[] getFieldName() {
-        return fieldName;
+    public int getFieldNumber() {
+        return fieldNumber;
     }
 
     public boolean isBeginningObject() {
-        return fieldName.length == 0;
+        return fieldNumber == -1;
     }
 
     @Override
     public byte[] pack() {
-        byte[] buffer = new byte[ID_BYTE_SIZE + fieldName.length];
+        if (isBeginningObject()) {
+            return buildKeyPrefix(getId());
+        }
+
+        byte[] buffer = new byte[ID_BYTE_SIZE + fieldCodeSize(fieldNumber)];
         TypeConvert.pack(getId(), buffer, 0);
-        System.arraycopy(fieldName, 0, buffer, ID_BYTE_SIZE, fieldName.length);
+        packFieldCode(fieldNumber, buffer, ID_BYTE_SIZE);
         return buffer;
     }
 
@@ -48,34 +61,60 @@ public class FieldKey extends Key {
         return src.length == ID_BYTE_SIZE;
     }
 
-    public static String unpackFieldName(byte[] src) {
-        return TypeConvert.unpackString(src, ID_BYTE_SIZE, src.length - ID_BYTE_SIZE);
+    public static int unpackFieldNumber(byte[] src) {
+        if (!containsFieldCode(src)) {
+            throw new KeyCorruptedException(src);
+        }
+        return src.length == ID_BYTE_SIZE + 1 ? src[ID_BYTE_SIZE] & ~SHORT_FIELD_CODE_FLAG : src[ID_BYTE_SIZE + 1] & 0xFF;
+    }
+
+    /**
+     * @return false if key of field contains field name instead of field code
+     */
+    public static boolean containsFieldCode(byte[] src) {
+        return (src.length == ID_BYTE_SIZE + 1 && (src[ID_BYTE_SIZE] & SHORT_FIELD_CODE_FLAG) != 0) ||
+                (src.length == ID_BYTE_SIZE + 2 && src[ID_BYTE_SIZE] == LONG_FIELD_CODE_MARKER);
     }
 
     public static byte[] buildKeyPrefix(long id) {
         return TypeConvert.pack(id);
     }
 
-    public static KeyPattern buildKeyPattern(final Set<String> fields) {
+    public static KeyPattern buildKeyPattern(final Collection<Integer> fields) {
         return new KeyPattern(buildInnerPatterns(fields));
     }
 
-    public static KeyPattern buildKeyPattern(long id, final Set<String> fields) {
+    public static KeyPattern buildKeyPattern(long id, final Collection<Integer> fields) {
         if (fields == null) {
             return new KeyPattern(buildKeyPrefix(id));
         }
         return new KeyPattern(buildKeyPrefix(id), buildInnerPatterns(fields));
     }
 
-    public static KeyPattern.Postfix[] buildInnerPatterns(final Set<String> fields) {
+    public static KeyPattern.Postfix[] buildInnerPatterns(final Collection<Integer> fields) {
         KeyPattern.Postfix[] patterns = new KeyPattern.Postfix[fields.size() + 1];
 
         patterns[0] = new KeyPattern.Postfix(ID_BYTE_SIZE, TypeConvert.EMPTY_BYTE_ARRAY);
         int i = 1;
-        for (String field : fields) {
-            patterns[i++] = new KeyPattern.Postfix(ID_BYTE_SIZE, TypeConvert.pack(field));
+        for (Integer field : fields) {
+            byte[] code = new byte[fieldCodeSize(field)];
+            packFieldCode(field, code, 0);
+            patterns[i++] = new KeyPattern.Postfix(ID_BYTE_SIZE, code);
         }
 
         return patterns;
     }
+
+    private static int fieldCodeSize(int fieldNumber) {
+        return fieldNumber > MAX_SHORT_FIELD_NUMBER ? 2 : 1;
+    }
+
+    private static void packFieldCode(int fieldNumber, byte[] dst, int offset) {
+        if (fieldNumber > MAX_SHORT_FIELD_NUMBER) {
+            dst[offset] = LONG_FIELD_CODE_MARKER;
+            dst[offset + 1] = (byte) fieldNumber;
+        } else {
+            dst[offset] = (byte) (SHORT_FIELD_CODE_FLAG | fieldNumber);
+        }
+    }
 }
@@ -1,11 +1,13 @@
 package com.infomaximum.database.utils.key;
 
 import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.schema.BaseIndex;
 import com.infomaximum.database.schema.PrefixIndex;
 import com.infomaximum.database.utils.ByteUtils;
 import com.infomaximum.database.utils.TypeConvert;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class PrefixIndexKey {
 
@@ -26,6 +28,10 @@ public class PrefixIndexKey {
         this(lexeme, 0, index.attendant);
     }
 
+    public PrefixIndexKey(String lexeme, int blockNumber, final PrefixIndex index) {
+        this(lexeme, blockNumber, index.attendant);
+    }
+
     public String getLexeme() {
         return lexeme;
     }
@@ -43,6 +49,65 @@ public class PrefixIndexKey {
         buffer.putInt(key.length - BLOCK_NUMBER_BYTE_SIZE, number + 1);
     }
 
+    /**
+     * @return key of operand of block: [block key][id]
+     */
+    public static byte[] buildOperandKey(byte[] blockKey, long id) {
+        byte[] key = Arrays.copyOf(blockKey, blockKey.length + Key.ID_BYTE_SIZE);
+        TypeConvert.pack(id, key, blockKey.length);
+        return key;
+    }
+
+    public static boolean isOperandKey(byte[] key) {
+        int endIndex = ByteUtils.indexOf(LEXEME_TERMINATOR, key, BaseIndex.ATTENDANT_BYTE_SIZE);
+        return key.length - endIndex - 1 == BLOCK_NUMBER_BYTE_SIZE + Key.ID_BYTE_SIZE;
+    }
+
+    public static boolean isOperandKeyOf(byte[] blockKey, byte[] key) {
+        return key.length == blockKey.length + Key.ID_BYTE_SIZE && ByteUtils.startsWith(blockKey, key);
+    }
+
+    public static long unpackOperandId(byte[] operandKey) {
+        return TypeConvert.unpackLong(operandKey, operandKey.length - Key.ID_BYTE_SIZE);
+    }
+
+    public static byte[] getBlockKey(byte[] operandKey) {
+        return Arrays.copyOf(operandKey, operandKey.length - Key.ID_BYTE_SIZE);
+    }
+
+    /**
+     * @return key which follows keys of all blocks and operands of the lexeme of block key
+     */
+    public static byte[] buildNextLexemeKey(byte[] blockKey) {
+        byte[] key = Arrays.copyOf(blockKey, blockKey.length - BLOCK_NUMBER_BYTE_SIZE);
+        key[key.length - 1] = LEXEME_TERMINATOR + 1;
+        return key;
+    }
+
+    /**
+     * Guard key of lexeme does not match patterns of words and lexemes: [attendant][terminator][lexeme]
+     * @return guard key of the lexeme of block key
+     */
+    public static byte[] buildGuardKey(byte[] blockKey) {
+        final int lexemeEnd = blockKey.length - BLOCK_NUMBER_BYTE_SIZE - 1;
+        byte[] key = new byte[lexemeEnd + 1];
+        System.arraycopy(blockKey, 0, key, 0, BaseIndex.ATTENDANT_BYTE_SIZE);
+        key[BaseIndex.ATTENDANT_BYTE_SIZE] = LEXEME_TERMINATOR;
+        System.arraycopy(blockKey, BaseIndex.ATTENDANT_BYTE_SIZE, key, BaseIndex.ATTENDANT_BYTE_SIZE + 1, lexemeEnd - BaseIndex.ATTENDANT_BYTE_SIZE);
+        return key;
+    }
+
+    public static boolean isGuardKey(byte[] key) {
+        return key[BaseIndex.ATTENDANT_BYTE_SIZE] == LEXEME_TERMINATOR;
+    }
+
+    /**
+     * @return length of [attendant][lexeme][terminator] of block key
+     */
+    public static int getLexemeKeyLength(byte[] blockKey) {
+        return blockKey.length - BLOCK_NUMBER_BYTE_SIZE;
+    }
+
     public byte[] pack() {
         byte[] value = TypeConvert.pack(lexeme);
 
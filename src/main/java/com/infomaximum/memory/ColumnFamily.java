@@ -0,0 +1,146 @@
+package com.infomaximum.memory;
+
+import com.infomaximum.database.provider.KeyValue;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps chain of versions for each key, the newest version is the head of chain.
+ * Versions are added only under commit lock of provider, readers do not lock.
+ */
+class ColumnFamily {
+
+    static class Version {
+
+        /**
+         * Marks the end of chain whose older versions are dropped because they are not visible to any reader.
+         */
+        static final Version PRUNED = new Version(-1, null, null);
+
+        final long sequence;
+        /**
+         * null for deleted key
+         */
+        final byte[] value;
+        volatile Version previous;
+
+        Version(long sequence, byte[] value, Version previous) {
+            this.sequence = sequence;
+            this.value = value;
+            this.previous = previous;
+        }
+
+        /**
+         * Reader whose sequence is older than the oldest kept version is not pinned,
+         * it gets the oldest kept version which was the latest one at some moment of the reading.
+         * @return null if key did not exist at the sequence
+         */
+        Version find(long sequence) {
+            Version version = this;
+            while (version.sequence > sequence) {
+                Version previous = version.previous;
+                if (previous == null) {
+                    return null;
+                }
+                if (previous == PRUNED) {
+                    return version;
+                }
+                version = previous;
+            }
+            return version;
+        }
+    }
+
+    private final String name;
+    private final ConcurrentSkipListMap<byte[], Version> versions = new ConcurrentSkipListMap<>(MemoryDBProvider.KEY_COMPARATOR);
+    private long lastPurgeSequence = 0;
+
+    ColumnFamily(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Change of purged key is not known, so sequence of the last purged deletion is returned for it.
+     * Called under commit lock.
+     */
+    long getLastChangeSequence(byte[] key) {
+        Version head = versions.get(key);
+        return head != null ? head.sequence : lastPurgeSequence;
+    }
+
+    /**
+     * @return null if key does not exist at the sequence
+     */
+    byte[] getValue(byte[] key, long sequence) {
+        Version head = versions.get(key);
+        if (head == null) {
+            return null;
+        }
+        Version version = head.find(sequence);
+        return version != null && version.value != null ? version.value.clone() : null;
+    }
+
+    /**
+     * @param key null for the first key in the direction
+     * @return the nearest key existing at the sequence
+     */
+    KeyValue find(byte[] key, boolean inclusive, boolean forward, long sequence) {
+        Map.Entry<byte[], Version> entry = nearest(versions, key, inclusive, forward);
+        while (entry != null) {
+            Version version = entry.getValue().find(sequence);
+            if (version != null && version.value != null) {
+                return new KeyValue(entry.getKey(), version.value);
+            }
+            entry = forward ? versions.higherEntry(entry.getKey()) : versions.lowerEntry(entry.getKey());
+        }
+        return null;
+    }
+
+    /**
+     * Versions which are older than the newest version visible at oldestSequence are dropped.
+     * Deletion of missing key is kept as version too, so it conflicts with readers of the key like tombstone.
+     * @param value null for deletion
+     * @return added version
+     */
+    Version put(byte[] key, byte[] value, long sequence, long oldestSequence) {
+        Version head = versions.get(key);
+
+        for (Version version = head; version != null && version != Version.PRUNED; version = version.previous) {
+            if (version.sequence <= oldestSequence) {
+                if (version.previous != null) {
+                    version.previous = Version.PRUNED;
+                }
+                break;
+            }
+        }
+
+        Version version = new Version(sequence, value, head);
+        versions.put(key, version);
+        return version;
+    }
+
+    /**
+     * Removes key if it is still deleted by the version. Called under commit lock.
+     */
+    void purge(byte[] key, Version deletion) {
+        if (versions.remove(key, deletion)) {
+            lastPurgeSequence = Math.max(lastPurgeSequence, deletion.sequence);
+        }
+    }
+
+    static <V> Map.Entry<byte[], V> nearest(NavigableMap<byte[], V> map, byte[] key, boolean inclusive, boolean forward) {
+        if (key == null) {
+            return forward ? map.firstEntry() : map.lastEntry();
+        }
+        if (forward) {
+            return inclusive ? map.ceilingEntry(key) : map.higherEntry(key);
+        }
+        return inclusive ? map.floorEntry(key) : map.lowerEntry(key);
+    }
+}
@@ -0,0 +1,51 @@
+package com.infomaximum.memory;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBBulkWriter;
+import com.infomaximum.database.provider.KeyValue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects runs in memory, all of them are added to column families by one commit.
+ */
+class MemoryDBBulkWriter implements DBBulkWriter {
+
+    private final MemoryDBProvider provider;
+    private final Map<ColumnFamily, TreeMap<byte[], byte[]>> writes = new HashMap<>();
+
+    MemoryDBBulkWriter(MemoryDBProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public void write(String columnFamily, List<KeyValue> keyValues) throws DatabaseException {
+        if (keyValues.isEmpty()) {
+            return;
+        }
+
+        TreeMap<byte[], byte[]> cfWrites = writes.computeIfAbsent(provider.getColumnFamily(columnFamily),
+                cf -> new TreeMap<>(MemoryDBProvider.KEY_COMPARATOR));
+        for (KeyValue keyValue : keyValues) {
+            cfWrites.put(keyValue.getKey().clone(), keyValue.getValue().clone());
+        }
+    }
+
+    @Override
+    public void commit() throws DatabaseException {
+        try {
+            provider.commit(writes, Collections.emptyMap());
+        } finally {
+            writes.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        writes.clear();
+    }
+}
@@ -0,0 +1,253 @@
+package com.infomaximum.memory;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.exception.runtime.ClosedObjectException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Reads keys of column family at pinned sequence merged with own writes of transaction.
+ * Position is kept as key and each move looks up the nearest key, so writes of transaction made during iteration
+ * are visible to the following moves.
+ * Moves are the same as moves of {@link com.infomaximum.rocksdb.RocksDBIterator}: seek, next and findMatched
+ * do not read keys beyond upper bound of pattern, step is not limited by the bound.
+ */
+class MemoryDBIterator implements DBIterator {
+
+    private final ColumnFamily columnFamily;
+    private final MemoryDBProvider provider;
+    private final long sequence;
+    private final boolean ownSequence;
+    private final NavigableMap<byte[], byte[]> writes;
+    private final MemoryDBTransaction transaction;
+
+    private KeyPattern pattern = null;
+    private byte[] upperBound = null;
+    private KeyValue current = null;
+    private byte[] lastKey = null;
+    private Cursor cursor = null;
+    private boolean closed = false;
+
+    /**
+     * @param ownSequence sequence is unpinned by closing of iterator
+     * @param writes uncommitted writes of transaction, null if iterator reads only committed keys
+     * @param transaction transaction which tracks read keys, null if reads are not tracked
+     */
+    MemoryDBIterator(ColumnFamily columnFamily, MemoryDBProvider provider, long sequence, boolean ownSequence,
+                     NavigableMap<byte[], byte[]> writes, MemoryDBTransaction transaction) {
+        this.columnFamily = columnFamily;
+        this.provider = provider;
+        this.sequence = sequence;
+        this.ownSequence = ownSequence;
+        this.writes = writes;
+        this.transaction = transaction;
+    }
+
+    @Override
+    public KeyValue seek(KeyPattern pattern) throws DatabaseException {
+        ensureOpen();
+
+        this.pattern = pattern;
+        this.lastKey = null;
+        this.upperBound = pattern != null ? pattern.getUpperBound() : null;
+
+        if (pattern == null) {
+            current = find(null, true, true);
+        } else if (pattern.isForBackward()) {
+            current = find(pattern.getPrefix(), true, false);
+        } else {
+            current = find(pattern.getPrefix(), true, true);
+        }
+
+        return findMatched();
+    }
+
+    @Override
+    public KeyValue next() throws DatabaseException {
+        ensureOpen();
+
+        if (current != null) {
+            current = find(current.getKey(), false, true);
+        }
+        return findMatched();
+    }
+
+    /**
+     * Iterator which is exhausted by the upper bound continues from the bound,
+     * exhausted unbounded iterator remains exhausted.
+     */
+    @Override
+    public KeyValue step(StepDirection direction) throws DatabaseException {
+        ensureOpen();
+
+        final byte[] bound = upperBound;
+        switch (direction) {
+            case FORWARD:
+                if (current != null) {
+                    KeyValue next = find(current.getKey(), false, true);
+                    if (next == null && bound != null) {
+                        upperBound = null;
+                        next = find(current.getKey(), false, true);
+                    }
+                    current = next;
+                } else if (bound != null) {
+                    upperBound = null;
+                    current = find(bound, true, true);
+                }
+                break;
+            case BACKWARD:
+                if (bound != null) {
+                    upperBound = null;
+                    if (current != null) {
+                        current = find(current.getKey(), false, false);
+                    } else if (lastKey != null) {
+                        current = find(lastKey, true, true);
+                    } else {
+                        current = find(pattern.getPrefix(), false, false);
+                    }
+                } else if (current != null) {
+                    current = find(current.getKey(), false, false);
+                }
+                break;
+        }
+
+        if (current == null) {
+            return null;
+        }
+        lastKey = current.getKey();
+        return buildKeyValue(current);
+    }
+
+    @Override
+    public void setCursorMode(boolean value) {
+        cursor = value ? new Cursor() : null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        current = null;
+        if (ownSequence) {
+            provider.unpinSequence(sequence);
+        }
+    }
+
+    private KeyValue findMatched() {
+        while (current != null) {
+            byte[] key = current.getKey();
+            lastKey = key;
+            if (pattern != null) {
+                int matchResult = pattern.match(key);
+                if (matchResult == KeyPattern.MATCH_RESULT_CONTINUE) {
+                    current = find(key, false, true);
+                    continue;
+                } else if (matchResult == KeyPattern.MATCH_RESULT_UNSUCCESS) {
+                    return null;
+                }
+            }
+
+            return buildKeyValue(current);
+        }
+
+        return null;
+    }
+
+    /**
+     * Looks up the nearest key of committed keys and own writes, own writes replace committed values.
+     * @param key null for the first key in the direction
+     */
+    private KeyValue find(byte[] key, boolean inclusive, boolean forward) {
+        if (upperBound != null && (key == null || MemoryDBProvider.KEY_COMPARATOR.compare(key, upperBound) >= 0)) {
+            if (forward) {
+                return null;
+            }
+            key = upperBound;
+            inclusive = false;
+        }
+
+        while (true) {
+            KeyValue committed = columnFamily.find(key, inclusive, forward, sequence);
+            Map.Entry<byte[], byte[]> written = writes != null ? ColumnFamily.nearest(writes, key, inclusive, forward) : null;
+            if (written == null || (committed != null && compare(written.getKey(), committed.getKey(), forward) > 0)) {
+                return checkBound(track(committed));
+            }
+            if (written.getValue() != MemoryDBTransaction.DELETED) {
+                return checkBound(new KeyValue(written.getKey(), written.getValue()));
+            }
+
+            key = written.getKey();
+            inclusive = false;
+        }
+    }
+
+    private KeyValue checkBound(KeyValue keyValue) {
+        if (keyValue != null && upperBound != null && MemoryDBProvider.KEY_COMPARATOR.compare(keyValue.getKey(), upperBound) >= 0) {
+            return null;
+        }
+        return keyValue;
+    }
+
+    private KeyValue track(KeyValue committed) {
+        if (committed != null && transaction != null) {
+            transaction.trackKey(columnFamily, committed.getKey(), sequence);
+        }
+        return committed;
+    }
+
+    private static int compare(byte[] left, byte[] right, boolean forward) {
+        int result = MemoryDBProvider.KEY_COMPARATOR.compare(left, right);
+        return forward ? result : -result;
+    }
+
+    /**
+     * Returned arrays are copied, because callers may change them.
+     */
+    private KeyValue buildKeyValue(KeyValue keyValue) {
+        if (cursor == null) {
+            return new KeyValue(keyValue.getKey().clone(), keyValue.getValue().clone());
+        }
+
+        cursor.moveTo(keyValue.getKey().clone());
+        return cursor;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ClosedObjectException(this.getClass());
+        }
+    }
+
+    private class Cursor extends KeyValue {
+
+        private byte[] value = null;
+        private boolean valueLoaded = false;
+
+        Cursor() {
+            super(null, null);
+        }
+
+        void moveTo(byte[] key) {
+            setKey(key);
+            setValue(null);
+            value = current.getValue();
+            valueLoaded = false;
+        }
+
+        @Override
+        public byte[] getValue() {
+            if (!valueLoaded) {
+                setValue(value.clone());
+                valueLoaded = true;
+            }
+            return super.getValue();
+        }
+    }
+}
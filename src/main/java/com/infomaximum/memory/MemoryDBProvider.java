@@ -0,0 +1,241 @@
+package com.infomaximum.memory;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.infomaximum.database.exception.ColumnFamilyNotFoundException;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.exception.SequenceAlreadyExistsException;
+import com.infomaximum.database.exception.SequenceNotFoundException;
+import com.infomaximum.database.exception.TransactionConflictException;
+import com.infomaximum.database.provider.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps column families in memory as sorted maps of versioned keys, data is lost on closing of process.
+ * Each commit gets next sequence number and becomes visible to readers at once by publishing of the number.
+ * Snapshots and iterators pin sequence of their creation, versions which are not visible to pinned readers
+ * are dropped by next commits.
+ * Keys and values are copied on writing and reading, so callers own their arrays as with RocksDB.
+ */
+public class MemoryDBProvider implements DBProvider {
+
+    static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    private static class Deletion {
+
+        final ColumnFamily columnFamily;
+        final byte[] key;
+        final ColumnFamily.Version version;
+
+        Deletion(ColumnFamily columnFamily, byte[] key, ColumnFamily.Version version) {
+            this.columnFamily = columnFamily;
+            this.key = key;
+            this.version = version;
+        }
+    }
+
+    private final ConcurrentMap<String, ColumnFamily> columnFamilies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    private final Object commitLock = new Object();
+    private final ArrayDeque<Deletion> deletions = new ArrayDeque<>();
+
+    private final TreeMap<Long, Integer> pinnedSequences = new TreeMap<>();
+    private volatile long lastSequence = 0;
+
+    @Override
+    public DBIterator createIterator(String columnFamily) throws DatabaseException {
+        return new MemoryDBIterator(getColumnFamily(columnFamily), this, pinSequence(), true, null, null);
+    }
+
+    @Override
+    public DBTransaction beginTransaction() throws DatabaseException {
+        return new MemoryDBTransaction(this);
+    }
+
+    @Override
+    public DBBulkWriter beginBulkWrite() throws DatabaseException {
+        return new MemoryDBBulkWriter(this);
+    }
+
+    @Override
+    public DBSnapshot createSnapshot() throws DatabaseException {
+        return new MemoryDBSnapshot(this);
+    }
+
+    @Override
+    public byte[] getValue(String columnFamily, byte[] key) throws DatabaseException {
+        return getColumnFamily(columnFamily).getValue(key, lastSequence);
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        ColumnFamily cf = getColumnFamily(columnFamily);
+        final long sequence = pinSequence();
+        try {
+            return getValues(cf, keys, sequence);
+        } finally {
+            unpinSequence(sequence);
+        }
+    }
+
+    @Override
+    public boolean containsColumnFamily(String name) throws DatabaseException {
+        return columnFamilies.containsKey(name);
+    }
+
+    @Override
+    public String[] getColumnFamilies() throws DatabaseException {
+        return columnFamilies.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void createColumnFamily(String name) throws DatabaseException {
+        columnFamilies.putIfAbsent(name, new ColumnFamily(name));
+    }
+
+    @Override
+    public void dropColumnFamily(String name) throws DatabaseException {
+        synchronized (commitLock) {
+            columnFamilies.remove(name);
+        }
+    }
+
+    @Override
+    public boolean containsSequence(String name) throws DatabaseException {
+        return sequences.containsKey(name);
+    }
+
+    @Override
+    public void createSequence(String name) throws DatabaseException {
+        if (sequences.putIfAbsent(name, new AtomicLong(0)) != null) {
+            throw new SequenceAlreadyExistsException(name);
+        }
+    }
+
+    @Override
+    public void dropSequence(String name) throws DatabaseException {
+        sequences.remove(name);
+    }
+
+    ColumnFamily getColumnFamily(String name) throws ColumnFamilyNotFoundException {
+        ColumnFamily columnFamily = columnFamilies.get(name);
+        if (columnFamily != null) {
+            return columnFamily;
+        }
+        throw new ColumnFamilyNotFoundException(name);
+    }
+
+    /**
+     * @return first of count consecutive ids
+     */
+    long nextIds(String sequenceName, int count) throws DatabaseException {
+        if (count < 1) {
+            throw new IllegalArgumentException("count = " + count);
+        }
+
+        AtomicLong sequence = sequences.get(sequenceName);
+        if (sequence == null) {
+            throw new SequenceNotFoundException(sequenceName);
+        }
+        return sequence.getAndAdd(count) + 1;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    long pinSequence() {
+        synchronized (pinnedSequences) {
+            final long sequence = lastSequence;
+            pinnedSequences.merge(sequence, 1, Integer::sum);
+            return sequence;
+        }
+    }
+
+    void unpinSequence(long sequence) {
+        synchronized (pinnedSequences) {
+            pinnedSequences.computeIfPresent(sequence, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    static byte[][] getValues(ColumnFamily columnFamily, byte[][] keys, long sequence) {
+        byte[][] values = new byte[keys.length][];
+        for (int i = 0; i < keys.length; ++i) {
+            values[i] = columnFamily.getValue(keys[i], sequence);
+        }
+        return values;
+    }
+
+    /**
+     * Applies all writes atomically if none of the read keys was changed after its reading.
+     * @param writes keys and values of column families, value {@link MemoryDBTransaction#DELETED} deletes key
+     * @param readKeys sequences at which keys of column families were read
+     */
+    void commit(Map<ColumnFamily, ? extends Map<byte[], byte[]>> writes,
+                Map<ColumnFamily, ? extends Map<byte[], Long>> readKeys) throws DatabaseException {
+        synchronized (commitLock) {
+            for (Map.Entry<ColumnFamily, ? extends Map<byte[], Long>> entry : readKeys.entrySet()) {
+                ColumnFamily columnFamily = entry.getKey();
+                for (Map.Entry<byte[], Long> readKey : entry.getValue().entrySet()) {
+                    if (columnFamily.getLastChangeSequence(readKey.getKey()) > readKey.getValue()) {
+                        throw new TransactionConflictException(columnFamily.getName());
+                    }
+                }
+            }
+
+            boolean empty = true;
+            for (Map.Entry<ColumnFamily, ? extends Map<byte[], byte[]>> entry : writes.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+                if (columnFamilies.get(entry.getKey().getName()) != entry.getKey()) {
+                    throw new ColumnFamilyNotFoundException(entry.getKey().getName());
+                }
+                empty = false;
+            }
+            if (empty) {
+                return;
+            }
+
+            final long sequence = lastSequence + 1;
+            final long oldestSequence = getOldestSequence();
+            for (Map.Entry<ColumnFamily, ? extends Map<byte[], byte[]>> entry : writes.entrySet()) {
+                ColumnFamily columnFamily = entry.getKey();
+                for (Map.Entry<byte[], byte[]> keyValue : entry.getValue().entrySet()) {
+                    if (keyValue.getValue() == MemoryDBTransaction.DELETED) {
+                        ColumnFamily.Version version = columnFamily.put(keyValue.getKey(), null, sequence, oldestSequence);
+                        deletions.addLast(new Deletion(columnFamily, keyValue.getKey(), version));
+                    } else {
+                        columnFamily.put(keyValue.getKey(), keyValue.getValue(), sequence, oldestSequence);
+                    }
+                }
+            }
+
+            synchronized (pinnedSequences) {
+                lastSequence = sequence;
+            }
+            purgeDeletions();
+        }
+    }
+
+    private long getOldestSequence() {
+        synchronized (pinnedSequences) {
+            return pinnedSequences.isEmpty() ? lastSequence : pinnedSequences.firstKey();
+        }
+    }
+
+    /**
+     * Deleted keys are removed from column families when no pinned reader can see their previous versions.
+     */
+    private void purgeDeletions() {
+        final long oldestSequence = getOldestSequence();
+        while (!deletions.isEmpty() && deletions.peekFirst().version.sequence <= oldestSequence) {
+            Deletion deletion = deletions.pollFirst();
+            deletion.columnFamily.purge(deletion.key, deletion.version);
+        }
+    }
+}
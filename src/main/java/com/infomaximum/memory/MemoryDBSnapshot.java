@@ -0,0 +1,40 @@
+package com.infomaximum.memory;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBSnapshot;
+
+class MemoryDBSnapshot implements DBSnapshot {
+
+    private final MemoryDBProvider provider;
+    private final long sequence;
+    private boolean closed = false;
+
+    MemoryDBSnapshot(MemoryDBProvider provider) {
+        this.provider = provider;
+        this.sequence = provider.pinSequence();
+    }
+
+    @Override
+    public DBIterator createIterator(String columnFamily) throws DatabaseException {
+        return new MemoryDBIterator(provider.getColumnFamily(columnFamily), provider, sequence, false, null, null);
+    }
+
+    @Override
+    public byte[] getValue(String columnFamily, byte[] key) throws DatabaseException {
+        return provider.getColumnFamily(columnFamily).getValue(key, sequence);
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        return MemoryDBProvider.getValues(provider.getColumnFamily(columnFamily), keys, sequence);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            provider.unpinSequence(sequence);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.infomaximum.memory;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+
+import java.util.*;
+
+/**
+ * Optimistic transaction: writes are kept in the transaction until commit, keys read from column families
+ * and written keys are tracked with sequence of reading, commit fails with
+ * {@link com.infomaximum.database.exception.TransactionConflictException} if any of them was changed later.
+ * Keys which are inserted by concurrent transactions into iterated ranges are not detected.
+ * The transaction is not thread-safe.
+ */
+public class MemoryDBTransaction implements DBTransaction {
+
+    static final byte[] DELETED = new byte[0];
+
+    private final MemoryDBProvider provider;
+    private final Map<ColumnFamily, TreeMap<byte[], byte[]>> writes = new HashMap<>();
+    private final Map<ColumnFamily, TreeMap<byte[], Long>> readKeys = new HashMap<>();
+
+    MemoryDBTransaction(MemoryDBProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public DBIterator createIterator(String columnFamily) throws DatabaseException {
+        return buildIterator(provider.getColumnFamily(columnFamily));
+    }
+
+    @Override
+    public long nextId(String sequenceName) throws DatabaseException {
+        return provider.nextIds(sequenceName, 1);
+    }
+
+    @Override
+    public long nextIds(String sequenceName, int count) throws DatabaseException {
+        return provider.nextIds(sequenceName, count);
+    }
+
+    @Override
+    public byte[] getValue(String columnFamily, byte[] key) throws DatabaseException {
+        return getValue(provider.getColumnFamily(columnFamily), key, provider.getLastSequence());
+    }
+
+    /**
+     * Read keys are tracked for conflicts already.
+     */
+    @Override
+    public byte[] getValueForUpdate(String columnFamily, byte[] key) throws DatabaseException {
+        return getValue(columnFamily, key);
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        ColumnFamily cf = provider.getColumnFamily(columnFamily);
+        final long sequence = provider.pinSequence();
+        try {
+            byte[][] values = new byte[keys.length][];
+            for (int i = 0; i < keys.length; ++i) {
+                values[i] = getValue(cf, keys[i], sequence);
+            }
+            return values;
+        } finally {
+            provider.unpinSequence(sequence);
+        }
+    }
+
+    @Override
+    public void put(String columnFamily, byte[] key, byte[] value) throws DatabaseException {
+        write(provider.getColumnFamily(columnFamily), key.clone(), value.clone());
+    }
+
+    @Override
+    public void delete(String columnFamily, byte[] key) throws DatabaseException {
+        write(provider.getColumnFamily(columnFamily), key.clone(), DELETED);
+    }
+
+    @Override
+    public void deleteRange(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException {
+        ColumnFamily cf = provider.getColumnFamily(columnFamily);
+
+        List<byte[]> keys = new ArrayList<>();
+        try (DBIterator i = buildIterator(cf)) {
+            KeyPattern pattern = new KeyPattern(beginKey, -1);
+            pattern.setUpperBound(endKey);
+            for (KeyValue keyValue = i.seek(pattern); keyValue != null; keyValue = i.next()) {
+                keys.add(keyValue.getKey());
+            }
+        }
+
+        for (byte[] key : keys) {
+            write(cf, key, DELETED);
+        }
+    }
+
+    /**
+     * Writes are applied to column families by keys, so range is deleted by keys too.
+     */
+    @Override
+    public void deleteKeys(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException {
+        deleteRange(columnFamily, beginKey, endKey);
+    }
+
+    /**
+     * Column families do not keep history of writes, so single deletion is the same as deletion.
+     */
+    @Override
+    public void singleDelete(String columnFamily, byte[] key) throws DatabaseException {
+        delete(columnFamily, key);
+    }
+
+    @Override
+    public void commit() throws DatabaseException {
+        try {
+            provider.commit(writes, readKeys);
+        } finally {
+            clear();
+        }
+    }
+
+    @Override
+    public void rollback() {
+        clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    void trackKey(ColumnFamily columnFamily, byte[] key, long sequence) {
+        readKeys.computeIfAbsent(columnFamily, cf -> new TreeMap<>(MemoryDBProvider.KEY_COMPARATOR))
+                .merge(key, sequence, Math::min);
+    }
+
+    private MemoryDBIterator buildIterator(ColumnFamily columnFamily) {
+        return new MemoryDBIterator(columnFamily, provider, provider.pinSequence(), true, getWrites(columnFamily), this);
+    }
+
+    private byte[] getValue(ColumnFamily columnFamily, byte[] key, long sequence) {
+        TreeMap<byte[], byte[]> cfWrites = writes.get(columnFamily);
+        byte[] value = cfWrites != null ? cfWrites.get(key) : null;
+        if (value != null) {
+            return value != DELETED ? value.clone() : null;
+        }
+
+        trackKey(columnFamily, key.clone(), sequence);
+        return columnFamily.getValue(key, sequence);
+    }
+
+    private void write(ColumnFamily columnFamily, byte[] key, byte[] value) {
+        trackKey(columnFamily, key, provider.getLastSequence());
+        getWrites(columnFamily).put(key, value);
+    }
+
+    private TreeMap<byte[], byte[]> getWrites(ColumnFamily columnFamily) {
+        return writes.computeIfAbsent(columnFamily, cf -> new TreeMap<>(MemoryDBProvider.KEY_COMPARATOR));
+    }
+
+    private void clear() {
+        writes.clear();
+        readKeys.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.schema.BaseIndex;
+import com.infomaximum.database.schema.StructEntity;
+import com.infomaximum.database.utils.key.Key;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyOptions;
+
+/**
+ * Options of column family which depend on layout of its keys.
+ */
+public enum ColumnFamilyProfile {
+
+    /**
+     * Sequences and other service keys.
+     */
+    DEFAULT(0, false),
+
+    /**
+     * Keys of objects, prefix is id of object.
+     */
+    DATA(Key.ID_BYTE_SIZE, true),
+
+    /**
+     * Keys of indexes, prefix is attendant of index and first hashed value.
+     */
+    INDEX(BaseIndex.ATTENDANT_BYTE_SIZE + Long.BYTES, false);
+
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final double MEMTABLE_PREFIX_BLOOM_SIZE_RATIO = 0.1;
+
+    private final int prefixLength;
+    private final boolean wholeKeyFiltering;
+
+    ColumnFamilyProfile(int prefixLength, boolean wholeKeyFiltering) {
+        this.prefixLength = prefixLength;
+        this.wholeKeyFiltering = wholeKeyFiltering;
+    }
+
+    /**
+     * @return length of prefix extracted from keys or 0 if column family has not prefix extractor
+     */
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    public static ColumnFamilyProfile of(String columnFamily) {
+        if (columnFamily.equals(RocksDBProvider.DEFAULT_COLUMN_FAMILY)) {
+            return DEFAULT;
+        }
+        return StructEntity.isIndexColumnFamily(columnFamily) ? INDEX : DATA;
+    }
+
+    ColumnFamilyOptions buildOptions(MemoryBudget memoryBudget) {
+        ColumnFamilyOptions options = new ColumnFamilyOptions();
+        switch (this) {
+            case DATA:
+                options.useFixedLengthPrefixExtractor(prefixLength);
+                break;
+            case INDEX:
+                // keys of prefix index may be shorter than prefix
+                options.useCappedPrefixExtractor(prefixLength);
+                break;
+            default:
+                return options.setTableFormatConfig(memoryBudget.buildTableConfig());
+        }
+
+        return options
+                .setMemtablePrefixBloomSizeRatio(MEMTABLE_PREFIX_BLOOM_SIZE_RATIO)
+                .setTableFormatConfig(memoryBudget.buildTableConfig()
+                        .setFilter(new BloomFilter(BLOOM_BITS_PER_KEY, false))
+                        .setWholeKeyFiltering(wholeKeyFiltering));
+    }
+}
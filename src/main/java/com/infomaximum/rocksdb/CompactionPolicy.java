@@ -0,0 +1,22 @@
+package com.infomaximum.rocksdb;
+
+/**
+ * Compaction of key ranges which are deleted by committed transactions.
+ */
+public enum CompactionPolicy {
+
+    /**
+     * Ranges are compacted by committing thread before commit returns.
+     */
+    SYNC,
+
+    /**
+     * Ranges of transactions are merged and compacted in background with delay.
+     */
+    ASYNC,
+
+    /**
+     * Ranges are not compacted explicitly, tombstones are removed by automatic compactions of RocksDB.
+     */
+    DISABLED
+}
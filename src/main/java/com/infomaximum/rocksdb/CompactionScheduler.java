@@ -0,0 +1,255 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.exception.ColumnFamilyNotFoundException;
+import com.infomaximum.database.exception.DatabaseException;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compacts key ranges deleted by transactions according to {@link CompactionPolicy}.
+ * In async mode ranges of all transactions are merged by column families and compacted by dedicated thread
+ * not earlier than delay after submitting and not more often than once per delay.
+ */
+public class CompactionScheduler implements AutoCloseable {
+
+    private final static Logger log = LoggerFactory.getLogger(CompactionScheduler.class);
+
+    private final RocksDBProvider rocksDBProvider;
+    private final CompactionPolicy policy;
+    private final long delayMillis;
+
+    private final Object compactionLock = new Object();
+    private final Map<String, NavigableMap<byte[], byte[]>> pendingRanges = new HashMap<>();
+    private int pendingRangeCount = 0;
+    private boolean scheduled = false;
+    private boolean closed = false;
+    private ScheduledThreadPoolExecutor executor = null;
+
+    private final AtomicLong compactedRangeCount = new AtomicLong();
+    private final AtomicLong failedRangeCount = new AtomicLong();
+
+    CompactionScheduler(RocksDBProvider rocksDBProvider, CompactionPolicy policy, long delayMillis) {
+        this.rocksDBProvider = rocksDBProvider;
+        this.policy = policy;
+        this.delayMillis = delayMillis;
+    }
+
+    public CompactionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return count of merged ranges waiting for compaction
+     */
+    public synchronized int getBacklog() {
+        return pendingRangeCount;
+    }
+
+    public long getCompactedRangeCount() {
+        return compactedRangeCount.get();
+    }
+
+    public long getFailedRangeCount() {
+        return failedRangeCount.get();
+    }
+
+    /**
+     * Compacts all pending ranges in current thread.
+     */
+    public void compactPending() throws DatabaseException {
+        Map<String, NavigableMap<byte[], byte[]>> ranges = takePending();
+        DatabaseException exception = null;
+        synchronized (compactionLock) {
+            for (Map.Entry<String, NavigableMap<byte[], byte[]>> entry : ranges.entrySet()) {
+                for (Map.Entry<byte[], byte[]> range : entry.getValue().entrySet()) {
+                    try {
+                        compact(entry.getKey(), range.getKey(), range.getValue());
+                    } catch (DatabaseException e) {
+                        if (exception == null) {
+                            exception = e;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    void submit(Map<String, RangeKey> ranges) throws DatabaseException {
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        switch (policy) {
+            case SYNC:
+                synchronized (compactionLock) {
+                    for (Map.Entry<String, RangeKey> entry : ranges.entrySet()) {
+                        compact(entry.getKey(), entry.getValue().getBegin(), entry.getValue().getEnd());
+                    }
+                }
+                break;
+            case ASYNC:
+                addPending(ranges);
+                break;
+            case DISABLED:
+                break;
+        }
+    }
+
+    /**
+     * Removes pending ranges of column family and waits for running compaction, so column family can be dropped.
+     */
+    void dropColumnFamily(String columnFamily, ColumnFamilyAction dropAction) throws RocksDBException {
+        synchronized (compactionLock) {
+            synchronized (this) {
+                NavigableMap<byte[], byte[]> ranges = pendingRanges.remove(columnFamily);
+                if (ranges != null) {
+                    pendingRangeCount -= ranges.size();
+                }
+            }
+            dropAction.run();
+        }
+    }
+
+    @Override
+    public void close() {
+        ScheduledThreadPoolExecutor executor;
+        synchronized (this) {
+            closed = true;
+            executor = this.executor;
+            this.executor = null;
+            pendingRanges.clear();
+            pendingRangeCount = 0;
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void addPending(Map<String, RangeKey> ranges) {
+        if (closed) {
+            return;
+        }
+
+        for (Map.Entry<String, RangeKey> entry : ranges.entrySet()) {
+            NavigableMap<byte[], byte[]> cfRanges = pendingRanges.computeIfAbsent(entry.getKey(), s -> new TreeMap<>(RangeKey.KEY_COMPARATOR));
+            pendingRangeCount += merge(cfRanges, entry.getValue().getBegin(), entry.getValue().getEnd());
+        }
+
+        if (!scheduled) {
+            schedule();
+        }
+    }
+
+    /**
+     * @return change of range count
+     */
+    private static int merge(NavigableMap<byte[], byte[]> ranges, byte[] begin, byte[] end) {
+        int delta = 1;
+        Map.Entry<byte[], byte[]> floor = ranges.floorEntry(begin);
+        if (floor != null && RangeKey.KEY_COMPARATOR.compare(floor.getValue(), begin) >= 0) {
+            begin = floor.getKey();
+            end = max(floor.getValue(), end);
+        }
+
+        for (Iterator<Map.Entry<byte[], byte[]>> i = ranges.tailMap(begin, true).entrySet().iterator(); i.hasNext(); ) {
+            Map.Entry<byte[], byte[]> next = i.next();
+            if (RangeKey.KEY_COMPARATOR.compare(next.getKey(), end) > 0) {
+                break;
+            }
+
+            end = max(next.getValue(), end);
+            i.remove();
+            --delta;
+        }
+
+        ranges.put(begin, end);
+        return delta;
+    }
+
+    private static byte[] max(byte[] left, byte[] right) {
+        return RangeKey.KEY_COMPARATOR.compare(left, right) >= 0 ? left : right;
+    }
+
+    private void schedule() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "rocksdb-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+
+        executor.schedule(this::compactInBackground, delayMillis, TimeUnit.MILLISECONDS);
+        scheduled = true;
+    }
+
+    private void compactInBackground() {
+        try {
+            compactPending();
+        } catch (Throwable e) {
+            log.error("Compaction failed", e);
+        } finally {
+            synchronized (this) {
+                scheduled = false;
+                if (executor != null && !pendingRanges.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    private synchronized Map<String, NavigableMap<byte[], byte[]>> takePending() {
+        if (pendingRanges.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, NavigableMap<byte[], byte[]>> ranges = new HashMap<>(pendingRanges);
+        pendingRanges.clear();
+        pendingRangeCount = 0;
+        return ranges;
+    }
+
+    private void compact(String columnFamily, byte[] begin, byte[] end) throws DatabaseException {
+        ColumnFamilyHandle columnFamilyHandle;
+        try {
+            columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(columnFamily);
+        } catch (ColumnFamilyNotFoundException e) {
+            if (policy == CompactionPolicy.ASYNC) {
+                return;
+            }
+            throw e;
+        }
+
+        try {
+            rocksDBProvider.getRocksDB().compactRange(columnFamilyHandle, begin, end, true, -1, 0);
+            compactedRangeCount.incrementAndGet();
+        } catch (RocksDBException e) {
+            failedRangeCount.incrementAndGet();
+            throw new DatabaseException(e);
+        }
+    }
+
+    @FunctionalInterface
+    interface ColumnFamilyAction {
+
+        void run() throws RocksDBException;
+    }
+}
@@ -0,0 +1,107 @@
+package com.infomaximum.rocksdb;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Ranges of column family deleted by range tombstones of transaction.
+ * Batch of transaction does not index range tombstones, so reads of transaction still see deleted keys
+ * until commit and skip them by these ranges. Key put after deletion of its range is visible again.
+ */
+class DeletedRanges {
+
+    // begin -> end, ranges do not overlap
+    private TreeMap<byte[], byte[]> ranges = null;
+    private TreeSet<byte[]> writtenKeys = null;
+
+    boolean isEmpty() {
+        return ranges == null;
+    }
+
+    void clear() {
+        ranges = null;
+        writtenKeys = null;
+    }
+
+    void add(byte[] begin, byte[] end) {
+        if (RangeKey.KEY_COMPARATOR.compare(begin, end) >= 0) {
+            return;
+        }
+
+        begin = begin.clone();
+        end = end.clone();
+        if (ranges == null) {
+            ranges = new TreeMap<>(RangeKey.KEY_COMPARATOR);
+            writtenKeys = new TreeSet<>(RangeKey.KEY_COMPARATOR);
+        }
+
+        Map.Entry<byte[], byte[]> prev = ranges.floorEntry(begin);
+        if (prev != null && RangeKey.KEY_COMPARATOR.compare(prev.getValue(), begin) >= 0) {
+            begin = prev.getKey();
+            end = max(prev.getValue(), end);
+        }
+        for (Map.Entry<byte[], byte[]> next = ranges.ceilingEntry(begin);
+             next != null && RangeKey.KEY_COMPARATOR.compare(next.getKey(), end) <= 0;
+             next = ranges.higherEntry(next.getKey())) {
+            end = max(next.getValue(), end);
+            ranges.remove(next.getKey());
+        }
+        ranges.put(begin, end);
+        writtenKeys.subSet(begin, end).clear();
+    }
+
+    void write(byte[] key) {
+        if (findRangeEnd(key) != null) {
+            writtenKeys.add(key.clone());
+        }
+    }
+
+    boolean isDeleted(byte[] key) {
+        return findRangeEnd(key) != null && !writtenKeys.contains(key);
+    }
+
+    /**
+     * @return null if key is visible, otherwise key to seek forward to, all keys from key up to it are deleted
+     */
+    byte[] skipForward(byte[] key) {
+        byte[] end = findRangeEnd(key);
+        if (end == null || writtenKeys.contains(key)) {
+            return null;
+        }
+
+        byte[] written = writtenKeys.higher(key);
+        return written != null && RangeKey.KEY_COMPARATOR.compare(written, end) < 0 ? written : end;
+    }
+
+    /**
+     * @return null if key is visible, otherwise key to seek backward to, all keys after it up to key are deleted
+     */
+    byte[] skipBackward(byte[] key) {
+        Map.Entry<byte[], byte[]> range = findRange(key);
+        if (range == null || writtenKeys.contains(key)) {
+            return null;
+        }
+
+        byte[] written = writtenKeys.lower(key);
+        return written != null && RangeKey.KEY_COMPARATOR.compare(written, range.getKey()) >= 0 ? written : range.getKey();
+    }
+
+    private byte[] findRangeEnd(byte[] key) {
+        Map.Entry<byte[], byte[]> range = findRange(key);
+        return range != null ? range.getValue() : null;
+    }
+
+    private Map.Entry<byte[], byte[]> findRange(byte[] key) {
+        if (ranges == null) {
+            return null;
+        }
+
+        Map.Entry<byte[], byte[]> range = ranges.floorEntry(key);
+        return range != null && RangeKey.KEY_COMPARATOR.compare(key, range.getValue()) < 0 ? range : null;
+    }
+
+    private static byte[] max(byte[] left, byte[] right) {
+        return RangeKey.KEY_COMPARATOR.compare(left, right) >= 0 ? left : right;
+    }
+}
@@ -0,0 +1,137 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.exception.DatabaseException;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes commits of concurrent transactions durable by one WAL sync.
+ * Transactions are committed without sync, so each of them is validated and gets own result,
+ * then the first waiting thread collects a group of commits and syncs WAL for all of them.
+ */
+class GroupCommitter implements AutoCloseable {
+
+    private static final byte[] SYNC_MARKER = new byte[0];
+
+    private static class Request {
+
+        boolean done = false;
+        RocksDBException error = null;
+    }
+
+    private final RocksDB rocksDB;
+    private final int maxGroupSize;
+    private final long windowNanos;
+    private final WriteOptions syncWriteOptions = new WriteOptions().setSync(true);
+
+    private final List<Request> queue = new ArrayList<>();
+    private boolean syncing = false;
+
+    GroupCommitter(RocksDB rocksDB, int maxGroupSize, long windowNanos) {
+        this.rocksDB = rocksDB;
+        this.maxGroupSize = maxGroupSize;
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Returns when WAL containing already committed transaction is synced.
+     */
+    void awaitSync() throws DatabaseException {
+        final Request request = new Request();
+        final List<Request> group;
+        boolean interrupted = false;
+        synchronized (this) {
+            queue.add(request);
+            notifyAll();
+            while (!request.done && syncing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (request.done) {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                throwIfFail(request);
+                return;
+            }
+
+            syncing = true;
+            interrupted |= waitForGroup();
+            group = new ArrayList<>(queue);
+            queue.clear();
+        }
+
+        RocksDBException error = null;
+        try {
+            syncWal();
+        } catch (RocksDBException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            for (Request item : group) {
+                item.done = true;
+                item.error = error;
+            }
+            syncing = false;
+            notifyAll();
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        throwIfFail(request);
+    }
+
+    @Override
+    public void close() {
+        syncWriteOptions.close();
+    }
+
+    /**
+     * @return true if thread was interrupted while waiting
+     */
+    private boolean waitForGroup() {
+        boolean interrupted = false;
+        final long deadline = System.nanoTime() + windowNanos;
+        while (queue.size() < maxGroupSize) {
+            long timeout = deadline - System.nanoTime();
+            if (timeout <= 0) {
+                break;
+            }
+
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, timeout);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        return interrupted;
+    }
+
+    /**
+     * RocksJava has no explicit WAL sync, so synced write of log data is used, it syncs all preceding writes.
+     */
+    private void syncWal() throws RocksDBException {
+        try (WriteBatch batch = new WriteBatch()) {
+            batch.putLogData(SYNC_MARKER);
+            rocksDB.write(syncWriteOptions, batch);
+        }
+    }
+
+    private static void throwIfFail(Request request) throws DatabaseException {
+        if (request.error != null) {
+            throw new DatabaseException(request.error);
+        }
+    }
+}
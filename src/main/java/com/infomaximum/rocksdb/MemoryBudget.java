@@ -0,0 +1,67 @@
+package com.infomaximum.rocksdb;
+
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.DBOptions;
+import org.rocksdb.LRUCache;
+
+/**
+ * Memory shared by all column families: LRU cache of blocks, cache of rows and total size of memtables.
+ * Caches are native objects which must live until database is closed.
+ */
+class MemoryBudget implements AutoCloseable {
+
+    private final Cache blockCache;
+    private final Cache rowCache;
+    private final long writeBufferSize;
+    private final boolean pinL0FilterAndIndexBlocks;
+
+    /**
+     * @param blockCacheSize 0 if each column family has own default block cache
+     * @param rowCacheSize 0 if rows are not cached
+     * @param writeBufferSize 0 if total size of memtables is not limited
+     */
+    MemoryBudget(long blockCacheSize, long rowCacheSize, long writeBufferSize, boolean pinL0FilterAndIndexBlocks) {
+        this.blockCache = blockCacheSize > 0 ? new LRUCache(blockCacheSize) : null;
+        this.rowCache = rowCacheSize > 0 ? new LRUCache(rowCacheSize) : null;
+        this.writeBufferSize = writeBufferSize;
+        this.pinL0FilterAndIndexBlocks = pinL0FilterAndIndexBlocks;
+    }
+
+    /**
+     * RocksJava has no WriteBufferManager, so memtables are limited by db_write_buffer_size
+     * which flushes the largest memtable when total size is exceeded.
+     */
+    void applyTo(DBOptions options) {
+        if (rowCache != null) {
+            options.setRowCache(rowCache);
+        }
+        if (writeBufferSize > 0) {
+            options.setDbWriteBufferSize(writeBufferSize);
+        }
+    }
+
+    /**
+     * Index and filter blocks are charged to shared cache, so its capacity bounds memory of all table readers.
+     */
+    BlockBasedTableConfig buildTableConfig() {
+        BlockBasedTableConfig config = new BlockBasedTableConfig();
+        if (blockCache != null) {
+            config
+                    .setBlockCache(blockCache)
+                    .setCacheIndexAndFilterBlocks(true)
+                    .setPinL0FilterAndIndexBlocksInCache(pinL0FilterAndIndexBlocks);
+        }
+        return config;
+    }
+
+    @Override
+    public void close() {
+        if (blockCache != null) {
+            blockCache.close();
+        }
+        if (rowCache != null) {
+            rowCache.close();
+        }
+    }
+}
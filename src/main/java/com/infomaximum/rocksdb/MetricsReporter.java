@@ -0,0 +1,25 @@
+package com.infomaximum.rocksdb;
+
+/**
+ * Receives metrics of database on {@link RocksDBProvider#reportMetrics(MetricsReporter)},
+ * implementation passes them to used metrics library.
+ */
+public interface MetricsReporter {
+
+    /**
+     * Cumulative counter of statistics, e.g. rocksdb.block_cache_hit.
+     */
+    void reportCounter(String name, long value);
+
+    /**
+     * Distribution of statistics, e.g. rocksdb.db_get in microseconds.
+     */
+    void reportHistogram(String name, double average, double median, double percentile95, double percentile99, double standardDeviation);
+
+    /**
+     * Current value of property of column family, e.g. rocksdb.estimate-num-keys.
+     * @param source name of entity stored in the column family (with suffix ".index" for its indexes)
+     *               or name of column family if it does not belong to loaded entity
+     */
+    void reportProperty(String source, String name, long value);
+}
@@ -0,0 +1,75 @@
+package com.infomaximum.rocksdb;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+class RangeKey {
+
+    static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    private byte[] begin = null;
+    private byte[] end = null;
+
+    RangeKey() {
+    }
+
+    RangeKey(byte[] begin, byte[] end) {
+        this.begin = begin;
+        this.end = end;
+    }
+
+    byte[] getBegin() {
+        return begin;
+    }
+
+    byte[] getEnd() {
+        return end;
+    }
+
+    void setBegin(byte[] key) {
+        if (begin == null || KEY_COMPARATOR.compare(key, begin) < 0) {
+            begin = key;
+        }
+    }
+
+    void setEnd(byte[] key) {
+        if (end == null || KEY_COMPARATOR.compare(key, end) > 0) {
+            end = key;
+        }
+    }
+
+    void setRange(byte[] begin, byte[] end) {
+        setBegin(begin);
+        setEnd(end);
+    }
+
+    void setKey(byte[] key) {
+        if (begin == null) {
+            begin = key;
+            end = nextOf(key);
+        } else {
+            int res = KEY_COMPARATOR.compare(key, begin);
+            if (res < 0) {
+                begin = key;
+            } else if (res != 0) {
+                res = KEY_COMPARATOR.compare(key, end);
+                if (res > 0) {
+                    end = nextOf(key);
+                }
+            }
+        }
+    }
+
+    private static byte[] nextOf(byte[] key) {
+        key = Arrays.copyOf(key, key.length);
+        int val = UnsignedBytes.toInt(key[key.length - 1]);
+        if (val >= 0xff) {
+            key = Arrays.copyOf(key, key.length + 1);
+            val = 0;
+        }
+        key[key.length - 1] = UnsignedBytes.checkedCast(++val);
+        return key;
+    }
+}
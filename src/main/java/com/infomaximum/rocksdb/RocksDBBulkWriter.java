@@ -0,0 +1,92 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBBulkWriter;
+import com.infomaximum.database.provider.KeyValue;
+import org.rocksdb.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes each run to SST file which is ingested into column family by commit.
+ * Files are placed in database directory, so they are moved instead of copying.
+ */
+class RocksDBBulkWriter implements DBBulkWriter {
+
+    private final RocksDBProvider rocksDBProvider;
+    private final Path directory;
+    private final Map<String, List<String>> files = new LinkedHashMap<>();
+    private int fileCount = 0;
+
+    RocksDBBulkWriter(RocksDBProvider rocksDBProvider, Path databasePath) throws DatabaseException {
+        this.rocksDBProvider = rocksDBProvider;
+        try {
+            this.directory = Files.createTempDirectory(databasePath, "bulk");
+        } catch (IOException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    @Override
+    public void write(String columnFamily, List<KeyValue> keyValues) throws DatabaseException {
+        if (keyValues.isEmpty()) {
+            return;
+        }
+
+        rocksDBProvider.getColumnFamilyHandle(columnFamily);
+
+        final String file = directory.resolve(String.format("%06d.sst", ++fileCount)).toString();
+        try (DBOptions dbOptions = new DBOptions();
+             ColumnFamilyOptions columnFamilyOptions = ColumnFamilyProfile.of(columnFamily).buildOptions(rocksDBProvider.getMemoryBudget());
+             Options options = new Options(dbOptions, columnFamilyOptions);
+             EnvOptions envOptions = new EnvOptions();
+             SstFileWriter writer = new SstFileWriter(envOptions, options)) {
+            writer.open(file);
+            for (KeyValue keyValue : keyValues) {
+                writer.put(keyValue.getKey(), keyValue.getValue());
+            }
+            writer.finish();
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        }
+
+        files.computeIfAbsent(columnFamily, s -> new ArrayList<>()).add(file);
+    }
+
+    /**
+     * Files are ingested one by one, because files of one ingestion must not overlap.
+     */
+    @Override
+    public void commit() throws DatabaseException {
+        try (IngestExternalFileOptions ingestOptions = new IngestExternalFileOptions()) {
+            ingestOptions.setMoveFiles(true);
+            for (Map.Entry<String, List<String>> entry : files.entrySet()) {
+                ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(entry.getKey());
+                for (String file : entry.getValue()) {
+                    rocksDBProvider.getRocksDB().ingestExternalFile(columnFamilyHandle, Collections.singletonList(file), ingestOptions);
+                }
+            }
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        } finally {
+            files.clear();
+        }
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        files.clear();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new DatabaseException(e);
+        }
+    }
+}
@@ -5,21 +5,67 @@ import com.infomaximum.database.provider.KeyPattern;
 import com.infomaximum.database.provider.KeyValue;
 
 import com.infomaximum.database.exception.DatabaseException;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
+import org.rocksdb.Snapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 public class RocksDBIterator implements DBIterator {
 
-    private final RocksIterator iterator;
+    @FunctionalInterface
+    interface Factory {
+
+        RocksIterator create(ReadOptions readOptions);
+    }
+
+    private final Factory factory;
+    private final ColumnFamilyProfile profile;
+    private final LongAdder liveIteratorCount;
+    private final RocksDBProvider rocksDBProvider;
+    private final Snapshot snapshot;
+    private final DeletedRanges deletedRanges;
+    private final ModeIterator prefixIterator = new ModeIterator(true);
+    private final ModeIterator totalOrderIterator = new ModeIterator(false);
+    private RocksIterator iterator = null;
+    private boolean prefixMode;
+    private byte[] upperBound = null;
     private KeyPattern pattern;
+    private byte[] lastKey = null;
+    private Cursor cursor = null;
+
+    RocksDBIterator(Factory factory, String columnFamily, RocksDBProvider rocksDBProvider) {
+        this(factory, columnFamily, rocksDBProvider, null);
+    }
 
-    RocksDBIterator(RocksIterator iterator) {
-        this.iterator = iterator;
+    /**
+     * @param snapshot iterator reads keys of the snapshot, null for the latest state
+     */
+    RocksDBIterator(Factory factory, String columnFamily, RocksDBProvider rocksDBProvider, Snapshot snapshot) {
+        this(factory, columnFamily, rocksDBProvider, snapshot, null);
+    }
+
+    /**
+     * @param deletedRanges keys deleted by range tombstones of transaction, iterator skips them
+     */
+    RocksDBIterator(Factory factory, String columnFamily, RocksDBProvider rocksDBProvider, Snapshot snapshot, DeletedRanges deletedRanges) {
+        this.factory = factory;
+        this.profile = ColumnFamilyProfile.of(columnFamily);
+        this.liveIteratorCount = rocksDBProvider.getLiveIteratorCount(columnFamily);
+        this.rocksDBProvider = rocksDBProvider;
+        this.snapshot = snapshot;
+        this.deletedRanges = deletedRanges;
     }
 
     @Override
     public KeyValue seek(KeyPattern pattern) throws DatabaseException {
         this.pattern = pattern;
+        this.lastKey = null;
+        final boolean prefixSeek = isPrefixSeek(pattern);
+        ensureIterator(prefixSeek, prefixSeek || pattern == null ? null : pattern.getUpperBound());
 
         if (pattern == null) {
             iterator.seekToFirst();
@@ -37,37 +83,167 @@ public class RocksDBIterator implements DBIterator {
             }
         }
 
+        if (pattern != null && pattern.isForBackward()) {
+            skipDeletedBackward();
+        } else {
+            skipDeletedForward();
+        }
         return findMatched();
     }
 
     @Override
     public KeyValue next() throws DatabaseException {
+        ensureIterator(prefixMode, upperBound);
         iterator.next();
+        skipDeletedForward();
         return findMatched();
     }
 
     @Override
     public KeyValue step(StepDirection direction) throws DatabaseException {
+        ensureIterator(prefixMode, upperBound);
         switch (direction) {
             case FORWARD:
                 iterator.next();
+                skipDeletedForward();
+                if (!iterator.isValid() && (prefixMode || upperBound != null)) {
+                    throwIfFail();
+                    stepForwardInTotalOrder();
+                    skipDeletedForward();
+                }
                 break;
             case BACKWARD:
-                iterator.prev();
+                if (prefixMode || upperBound != null) {
+                    stepBackwardInTotalOrder();
+                } else {
+                    iterator.prev();
+                }
+                skipDeletedBackward();
                 break;
         }
 
         return getKeyValue();
     }
 
+    @Override
+    public void setCursorMode(boolean value) {
+        cursor = value ? new Cursor() : null;
+    }
+
     @Override
     public void close() throws DatabaseException {
-        iterator.close();
+        prefixIterator.close();
+        totalOrderIterator.close();
+        iterator = null;
+    }
+
+    /**
+     * Seek by prefix which is not shorter than extracted prefix of keys uses bloom filters
+     * and stops at the end of the prefix, other seeks iterate in total order.
+     */
+    private boolean isPrefixSeek(KeyPattern pattern) {
+        return profile.getPrefixLength() != 0 &&
+                pattern != null &&
+                pattern.getPrefix() != null &&
+                !pattern.isForBackward() &&
+                pattern.getStrictMatchingLen() >= profile.getPrefixLength();
+    }
+
+    /**
+     * Seeks of prefix index switch between prefix mode and total order all the time, so iterator of every mode
+     * is kept until closing and reused by seeks of the mode. Every seek repositions the iterator of its mode.
+     */
+    private void ensureIterator(boolean prefixMode, byte[] upperBound) {
+        ModeIterator modeIterator = prefixMode ? prefixIterator : totalOrderIterator;
+        modeIterator.ensure(upperBound);
+        this.iterator = modeIterator.iterator;
+        this.prefixMode = prefixMode;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Step is not limited by prefix or upper bound of the seek, so exhausted iterator is switched to total order
+     * and positioned to the key following the last one.
+     */
+    private void stepForwardInTotalOrder() {
+        final byte[] bound = upperBound;
+        final byte[] key = lastKey;
+        ensureIterator(false, null);
+
+        if (bound != null) {
+            iterator.seek(bound);
+        } else if (key != null) {
+            iterator.seek(key);
+            if (iterator.isValid() && Arrays.equals(key, iterator.key())) {
+                iterator.next();
+            }
+        } else {
+            iterator.seek(pattern.getPrefix());
+        }
+    }
+
+    /**
+     * Iterator in prefix mode can not leave the prefix and iterator with upper bound can not be returned from the end,
+     * so it is switched to total order and positioned as if it were in total order from the beginning.
+     */
+    private void stepBackwardInTotalOrder() {
+        final boolean valid = iterator.isValid();
+        final byte[] key = valid ? iterator.key() : lastKey;
+        ensureIterator(false, null);
+
+        if (key == null) {
+            iterator.seek(pattern.getPrefix());
+            if (iterator.isValid()) {
+                iterator.prev();
+            } else {
+                iterator.seekToLast();
+            }
+        } else {
+            iterator.seek(key);
+            if (valid) {
+                iterator.prev();
+            }
+        }
+    }
+
+    private void skipDeletedForward() {
+        if (deletedRanges == null || deletedRanges.isEmpty()) {
+            return;
+        }
+
+        while (iterator.isValid()) {
+            byte[] seekKey = deletedRanges.skipForward(iterator.key());
+            if (seekKey == null) {
+                return;
+            }
+            iterator.seek(seekKey);
+        }
+    }
+
+    private void skipDeletedBackward() {
+        if (deletedRanges == null || deletedRanges.isEmpty()) {
+            return;
+        }
+
+        while (iterator.isValid()) {
+            byte[] key = iterator.key();
+            byte[] seekKey = deletedRanges.skipBackward(key);
+            if (seekKey == null) {
+                return;
+            }
+
+            if (Arrays.equals(seekKey, key)) {
+                iterator.prev();
+            } else {
+                iterator.seekForPrev(seekKey);
+            }
+        }
     }
 
     private KeyValue getKeyValue() throws DatabaseException {
         if (iterator.isValid()) {
-            return new KeyValue(iterator.key(), iterator.value());
+            lastKey = iterator.key();
+            return buildKeyValue(lastKey);
         }
 
         throwIfFail();
@@ -77,23 +253,34 @@ public class RocksDBIterator implements DBIterator {
     private KeyValue findMatched() throws DatabaseException {
         while (iterator.isValid()) {
             byte[] key = iterator.key();
+            lastKey = key;
             if (pattern != null) {
                 int matchResult = pattern.match(key);
                 if (matchResult == KeyPattern.MATCH_RESULT_CONTINUE) {
                     iterator.next();
+                    skipDeletedForward();
                     continue;
                 } else if (matchResult == KeyPattern.MATCH_RESULT_UNSUCCESS) {
                     return null;
                 }
             }
 
-            return new KeyValue(key, iterator.value());
+            return buildKeyValue(key);
         }
 
         throwIfFail();
         return null;
     }
 
+    private KeyValue buildKeyValue(byte[] key) {
+        if (cursor == null) {
+            return new KeyValue(key, iterator.value());
+        }
+
+        cursor.moveTo(key);
+        return cursor;
+    }
+
     private void throwIfFail() throws DatabaseException {
         try {
             iterator.status();
@@ -101,4 +288,89 @@ public class RocksDBIterator implements DBIterator {
             throw new DatabaseException(e);
         }
     }
+
+    /**
+     * Iterator with upper bound does not read keys (and tombstones) beyond the bound,
+     * it is created with own read options, so it is recreated only if the bound is changed.
+     * Iterator of snapshot has own read options too.
+     */
+    private class ModeIterator {
+
+        private final boolean prefixMode;
+        private RocksIterator iterator = null;
+        private byte[] upperBound = null;
+        private ReadOptions ownReadOptions = null;
+        private Slice upperBoundSlice = null;
+
+        ModeIterator(boolean prefixMode) {
+            this.prefixMode = prefixMode;
+        }
+
+        void ensure(byte[] upperBound) {
+            if (iterator != null && Arrays.equals(this.upperBound, upperBound)) {
+                return;
+            }
+
+            close();
+            this.upperBound = upperBound;
+            if (upperBound != null || snapshot != null) {
+                ownReadOptions = new ReadOptions();
+                if (upperBound != null) {
+                    upperBoundSlice = new Slice(upperBound);
+                    ownReadOptions.setTotalOrderSeek(true).setIterateUpperBound(upperBoundSlice);
+                } else if (prefixMode) {
+                    ownReadOptions.setPrefixSameAsStart(true);
+                } else {
+                    ownReadOptions.setTotalOrderSeek(true);
+                }
+                if (snapshot != null) {
+                    ownReadOptions.setSnapshot(snapshot);
+                }
+                this.iterator = factory.create(ownReadOptions);
+            } else {
+                this.iterator = factory.create(prefixMode ? rocksDBProvider.getPrefixReadOptions() : rocksDBProvider.getTotalOrderReadOptions());
+            }
+            liveIteratorCount.increment();
+        }
+
+        void close() {
+            if (iterator != null) {
+                iterator.close();
+                iterator = null;
+                liveIteratorCount.decrement();
+            }
+            if (ownReadOptions != null) {
+                ownReadOptions.close();
+                ownReadOptions = null;
+            }
+            if (upperBoundSlice != null) {
+                upperBoundSlice.close();
+                upperBoundSlice = null;
+            }
+        }
+    }
+
+    private class Cursor extends KeyValue {
+
+        private boolean valueLoaded = false;
+
+        Cursor() {
+            super(null, null);
+        }
+
+        void moveTo(byte[] key) {
+            setKey(key);
+            setValue(null);
+            valueLoaded = false;
+        }
+
+        @Override
+        public byte[] getValue() {
+            if (!valueLoaded) {
+                setValue(iterator.value());
+                valueLoaded = true;
+            }
+            return super.getValue();
+        }
+    }
 }
@@ -1,48 +1,153 @@
 package com.infomaximum.rocksdb;
 
+import com.infomaximum.database.provider.DBBulkWriter;
 import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.provider.DBProvider;
+import com.infomaximum.database.provider.DBSnapshot;
 import com.infomaximum.database.provider.DBTransaction;
 import com.infomaximum.database.exception.DatabaseException;
 import com.infomaximum.database.exception.ColumnFamilyNotFoundException;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
 import com.infomaximum.database.utils.TypeConvert;
 import org.rocksdb.*;
 
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class RocksDBProvider implements DBProvider, AutoCloseable {
 
     public static final String DEFAULT_COLUMN_FAMILY = new String(RocksDB.DEFAULT_COLUMN_FAMILY);
 
+    private static final String[] COLUMN_FAMILY_PROPERTIES = {
+            "rocksdb.estimate-num-keys",
+            "rocksdb.cur-size-all-mem-tables",
+            "rocksdb.num-immutable-mem-table",
+            "rocksdb.estimate-pending-compaction-bytes",
+            "rocksdb.estimate-live-data-size",
+            "rocksdb.total-sst-files-size"
+    };
+    private static final String LIVE_ITERATORS_PROPERTY = "live-iterators";
+
+    private final Path path;
     private final OptimisticTransactionDB rocksDB;
     private final ConcurrentMap<String, ColumnFamilyHandle> columnFamilies;
     private final WriteOptions writeOptions = new WriteOptions();
     private final ReadOptions readOptions = new ReadOptions();
+    private final ReadOptions totalOrderReadOptions = new ReadOptions().setTotalOrderSeek(true);
+    private final ReadOptions prefixReadOptions = new ReadOptions().setPrefixSameAsStart(true);
     private final SequenceManager sequenceManager;
+    private final CompactionScheduler compactionScheduler;
+    private final GroupCommitter groupCommitter;
+    private final MemoryBudget memoryBudget;
+    private final Statistics statistics;
+    private final ConcurrentMap<String, LongAdder> liveIteratorCounts = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor backgroundExecutor;
 
-    RocksDBProvider(OptimisticTransactionDB rocksDB, ConcurrentMap<String, ColumnFamilyHandle> columnFamilies) throws DatabaseException {
+    /**
+     * @param groupCommitter syncs commits of concurrent transactions together, null if each commit is synced by itself
+     * @param memoryBudget is closed by the provider after database
+     * @param statistics is closed by the provider after database, null if statistics are disabled
+     */
+    RocksDBProvider(Path path, OptimisticTransactionDB rocksDB, ConcurrentMap<String, ColumnFamilyHandle> columnFamilies,
+                    MemoryBudget memoryBudget, Statistics statistics, CompactionPolicy compactionPolicy, long compactionDelayMillis,
+                    boolean syncCommit, GroupCommitter groupCommitter) throws DatabaseException {
+        this.path = path;
         this.rocksDB = rocksDB;
         this.columnFamilies = columnFamilies;
+        this.memoryBudget = memoryBudget;
+        this.statistics = statistics;
+        this.groupCommitter = groupCommitter;
+        this.backgroundExecutor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "rocksdb-background");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.backgroundExecutor.allowCoreThreadTimeOut(true);
+        this.writeOptions.setSync(syncCommit && groupCommitter == null);
         this.sequenceManager = new SequenceManager(this);
+        this.compactionScheduler = new CompactionScheduler(this, compactionPolicy, compactionDelayMillis);
     }
 
     public RocksDB getRocksDB() {
         return rocksDB;
     }
 
+    public CompactionScheduler getCompactionScheduler() {
+        return compactionScheduler;
+    }
+
+    /**
+     * Reports tickers and histograms of statistics if they are enabled by {@link RocksDataBaseBuilder#withStatistics(boolean)}
+     * and properties of each column family including count of its live native iterators.
+     */
+    public void reportMetrics(MetricsReporter reporter) throws DatabaseException {
+        if (statistics != null) {
+            for (TickerType type : TickerType.values()) {
+                if (type != TickerType.TICKER_ENUM_MAX) {
+                    reporter.reportCounter(buildMetricName(type), statistics.getTickerCount(type));
+                }
+            }
+            for (HistogramType type : HistogramType.values()) {
+                if (type != HistogramType.HISTOGRAM_ENUM_MAX) {
+                    HistogramData data = statistics.getHistogramData(type);
+                    reporter.reportHistogram(buildMetricName(type), data.getAverage(), data.getMedian(),
+                            data.getPercentile95(), data.getPercentile99(), data.getStandardDeviation());
+                }
+            }
+        }
+
+        try {
+            for (Map.Entry<String, ColumnFamilyHandle> entry : columnFamilies.entrySet()) {
+                String source = buildMetricSource(entry.getKey());
+                for (String property : COLUMN_FAMILY_PROPERTIES) {
+                    reporter.reportProperty(source, property, rocksDB.getLongProperty(entry.getValue(), property));
+                }
+                reporter.reportProperty(source, LIVE_ITERATORS_PROPERTY, getLiveIteratorCount(entry.getKey()).sum());
+            }
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
     @Override
     public DBTransaction beginTransaction() throws DatabaseException {
         return new RocksDBTransaction(rocksDB.beginTransaction(writeOptions), this);
     }
 
+    @Override
+    public DBBulkWriter beginBulkWrite() throws DatabaseException {
+        return new RocksDBBulkWriter(this, path);
+    }
+
+    @Override
+    public DBSnapshot createSnapshot() throws DatabaseException {
+        return new RocksDBSnapshot(this);
+    }
+
     @Override
     public DBIterator createIterator(String columnFamily) throws DatabaseException {
-        return new RocksDBIterator(getRocksDB().newIterator(getColumnFamilyHandle(columnFamily), readOptions));
+        ColumnFamilyHandle columnFamilyHandle = getColumnFamilyHandle(columnFamily);
+        return new RocksDBIterator(options -> getRocksDB().newIterator(columnFamilyHandle, options), columnFamily, this);
     }
 
     @Override
     public byte[] getValue(String columnFamily, final byte[] key) throws DatabaseException {
+        return getValue(columnFamily, key, readOptions);
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, final byte[][] keys) throws DatabaseException {
+        return getValues(columnFamily, keys, readOptions);
+    }
+
+    byte[] getValue(String columnFamily, final byte[] key, ReadOptions readOptions) throws DatabaseException {
         try {
             return getRocksDB().get(getColumnFamilyHandle(columnFamily), readOptions, key);
         } catch (RocksDBException e) {
@@ -50,6 +155,20 @@ public class RocksDBProvider implements DBProvider, AutoCloseable {
         }
     }
 
+    byte[][] getValues(String columnFamily, final byte[][] keys, ReadOptions readOptions) throws DatabaseException {
+        List<ColumnFamilyHandle> columnFamilyHandles = Collections.nCopies(keys.length, getColumnFamilyHandle(columnFamily));
+        try {
+            Map<byte[], byte[]> values = getRocksDB().multiGet(readOptions, columnFamilyHandles, Arrays.asList(keys));
+            byte[][] result = new byte[keys.length][];
+            for (int i = 0; i < keys.length; ++i) {
+                result[i] = values.get(keys[i]);
+            }
+            return result;
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
     @Override
     public boolean containsColumnFamily(String name) throws DatabaseException {
         return columnFamilies.containsKey(name);
@@ -90,8 +209,8 @@ public class RocksDBProvider implements DBProvider, AutoCloseable {
 
     @Override
     public void createColumnFamily(String columnFamilyName) throws DatabaseException {
-        try {
-            ColumnFamilyDescriptor columnFamilyDescriptor = new ColumnFamilyDescriptor(TypeConvert.pack(columnFamilyName));
+        try (ColumnFamilyOptions options = ColumnFamilyProfile.of(columnFamilyName).buildOptions(memoryBudget)) {
+            ColumnFamilyDescriptor columnFamilyDescriptor = new ColumnFamilyDescriptor(TypeConvert.pack(columnFamilyName), options);
             ColumnFamilyHandle columnFamilyHandle = getRocksDB().createColumnFamily(columnFamilyDescriptor);
             if (columnFamilies.putIfAbsent(columnFamilyName, columnFamilyHandle) != null) {
                 try (ColumnFamilyHandle handle = columnFamilyHandle) {
@@ -105,10 +224,14 @@ public class RocksDBProvider implements DBProvider, AutoCloseable {
 
     @Override
     public void dropColumnFamily(String columnFamilyName) throws DatabaseException {
-        try (ColumnFamilyHandle columnFamilyHandle = columnFamilies.remove(columnFamilyName)) {
-            if (columnFamilyHandle != null) {
-                getRocksDB().dropColumnFamily(columnFamilyHandle);
-            }
+        try {
+            compactionScheduler.dropColumnFamily(columnFamilyName, () -> {
+                try (ColumnFamilyHandle columnFamilyHandle = columnFamilies.remove(columnFamilyName)) {
+                    if (columnFamilyHandle != null) {
+                        getRocksDB().dropColumnFamily(columnFamilyHandle);
+                    }
+                }
+            });
         } catch (RocksDBException e) {
             throw new DatabaseException(e);
         }
@@ -116,26 +239,46 @@ public class RocksDBProvider implements DBProvider, AutoCloseable {
 
     @Override
     public void close() {
-        List<AbstractNativeReference> refs = new ArrayList<>(columnFamilies.size() + 3);
+        compactionScheduler.close();
+        backgroundExecutor.shutdown();
+        try {
+            backgroundExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (groupCommitter != null) {
+            groupCommitter.close();
+        }
+
+        List<AbstractNativeReference> refs = new ArrayList<>(columnFamilies.size() + 5);
         refs.add(readOptions);
+        refs.add(totalOrderReadOptions);
+        refs.add(prefixReadOptions);
         refs.add(writeOptions);
         for (Map.Entry<String, ColumnFamilyHandle> entry : columnFamilies.entrySet()) {
             refs.add(entry.getValue());
         }
         refs.add(rocksDB);
+        if (statistics != null) {
+            refs.add(statistics);
+        }
 
-        for (int i = 0; i < refs.size(); ++i) {
-            try {
-                refs.get(i).close();
-            } catch (Throwable e) {
+        try {
+            for (int i = 0; i < refs.size(); ++i) {
                 try {
-                    for (++i; i < refs.size(); ++i) {
-                        refs.get(i).close();
-                    }
-                } catch (Throwable ignore) {}
+                    refs.get(i).close();
+                } catch (Throwable e) {
+                    try {
+                        for (++i; i < refs.size(); ++i) {
+                            refs.get(i).close();
+                        }
+                    } catch (Throwable ignore) {}
 
-                throw e;
+                    throw e;
+                }
             }
+        } finally {
+            memoryBudget.close();
         }
     }
 
@@ -151,11 +294,54 @@ public class RocksDBProvider implements DBProvider, AutoCloseable {
         return writeOptions;
     }
 
+    LongAdder getLiveIteratorCount(String columnFamily) {
+        return liveIteratorCounts.computeIfAbsent(columnFamily, name -> new LongAdder());
+    }
+
+    MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
     ReadOptions getReadOptions() {
         return readOptions;
     }
 
+    ReadOptions getTotalOrderReadOptions() {
+        return totalOrderReadOptions;
+    }
+
+    ReadOptions getPrefixReadOptions() {
+        return prefixReadOptions;
+    }
+
+    /**
+     * @return null if commits are not grouped
+     */
+    GroupCommitter getGroupCommitter() {
+        return groupCommitter;
+    }
+
+    /**
+     * Tasks are completed before database is closed, tasks submitted after closing are rejected.
+     */
+    void executeInBackground(Runnable task) {
+        backgroundExecutor.execute(task);
+    }
+
     SequenceManager getSequenceManager() {
         return sequenceManager;
     }
+
+    private static String buildMetricName(Enum<?> type) {
+        return "rocksdb." + type.name().toLowerCase();
+    }
+
+    private static String buildMetricSource(String columnFamily) {
+        StructEntity entity = Schema.findEntity(columnFamily);
+        if (entity == null) {
+            return columnFamily;
+        }
+        // index column family has suffix after data column family
+        return entity.getName() + columnFamily.substring(entity.getColumnFamily().length());
+    }
 }
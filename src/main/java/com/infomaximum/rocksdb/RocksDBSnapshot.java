@@ -0,0 +1,44 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBSnapshot;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.Snapshot;
+
+class RocksDBSnapshot implements DBSnapshot {
+
+    private final RocksDBProvider rocksDBProvider;
+    private final Snapshot snapshot;
+    private final ReadOptions readOptions;
+
+    RocksDBSnapshot(RocksDBProvider rocksDBProvider) {
+        this.rocksDBProvider = rocksDBProvider;
+        this.snapshot = rocksDBProvider.getRocksDB().getSnapshot();
+        this.readOptions = new ReadOptions().setSnapshot(snapshot);
+    }
+
+    @Override
+    public DBIterator createIterator(String columnFamily) throws DatabaseException {
+        ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(columnFamily);
+        return new RocksDBIterator(options -> rocksDBProvider.getRocksDB().newIterator(columnFamilyHandle, options),
+                columnFamily, rocksDBProvider, snapshot);
+    }
+
+    @Override
+    public byte[] getValue(String columnFamily, byte[] key) throws DatabaseException {
+        return rocksDBProvider.getValue(columnFamily, key, readOptions);
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        return rocksDBProvider.getValues(columnFamily, keys, readOptions);
+    }
+
+    @Override
+    public void close() {
+        readOptions.close();
+        rocksDBProvider.getRocksDB().releaseSnapshot(snapshot);
+    }
+}
@@ -1,6 +1,5 @@
 package com.infomaximum.rocksdb;
 
-import com.google.common.primitives.UnsignedBytes;
 import com.infomaximum.database.exception.ColumnFamilyNotFoundException;
 import com.infomaximum.database.exception.SequenceNotFoundException;
 import com.infomaximum.database.provider.DBIterator;
@@ -8,18 +7,17 @@ import com.infomaximum.database.provider.DBTransaction;
 import com.infomaximum.database.exception.DatabaseException;
 import org.rocksdb.*;
 
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class RocksDBTransaction implements DBTransaction {
 
-    private static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
-
     private final Transaction transaction;
     private final RocksDBProvider rocksDBProvider;
     private final Map<String, RangeKey> compactingKeys = new HashMap<>();
+    private final Map<String, DeletedRanges> deletedRanges = new HashMap<>();
 
     RocksDBTransaction(Transaction transaction, RocksDBProvider rocksDBProvider) {
         this.transaction = transaction;
@@ -28,7 +26,7 @@ public class RocksDBTransaction implements DBTransaction {
 
     @Override
     public DBIterator createIterator(String columnFamily) throws DatabaseException {
-        return buildIterator(rocksDBProvider.getColumnFamilyHandle(columnFamily));
+        return buildIterator(columnFamily);
     }
 
     @Override
@@ -40,8 +38,22 @@ public class RocksDBTransaction implements DBTransaction {
         return sequence.next();
     }
 
+    @Override
+    public long nextIds(String sequenceName, int count) throws DatabaseException {
+        SequenceManager.Sequence sequence = rocksDBProvider.getSequenceManager().getSequence(sequenceName);
+        if (sequence == null) {
+            throw new SequenceNotFoundException(sequenceName);
+        }
+        return sequence.next(count);
+    }
+
     @Override
     public byte[] getValue(String columnFamily, byte[] key) throws DatabaseException {
+        DeletedRanges ranges = deletedRanges.get(columnFamily);
+        if (ranges != null && ranges.isDeleted(key)) {
+            return null;
+        }
+
         try {
             return transaction.get(rocksDBProvider.getColumnFamilyHandle(columnFamily), rocksDBProvider.getReadOptions(), key);
         } catch (RocksDBException e) {
@@ -49,6 +61,44 @@ public class RocksDBTransaction implements DBTransaction {
         }
     }
 
+    /**
+     * Key deleted by range of this transaction is not read, range deletion is not checked for conflicts anyway.
+     */
+    @Override
+    public byte[] getValueForUpdate(String columnFamily, byte[] key) throws DatabaseException {
+        DeletedRanges ranges = deletedRanges.get(columnFamily);
+        if (ranges != null && ranges.isDeleted(key)) {
+            return null;
+        }
+
+        try {
+            return transaction.getForUpdate(rocksDBProvider.getReadOptions(), rocksDBProvider.getColumnFamilyHandle(columnFamily), key, true);
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    @Override
+    public byte[][] getValues(String columnFamily, byte[][] keys) throws DatabaseException {
+        List<ColumnFamilyHandle> columnFamilyHandles = Collections.nCopies(keys.length, rocksDBProvider.getColumnFamilyHandle(columnFamily));
+        byte[][] values;
+        try {
+            values = transaction.multiGet(rocksDBProvider.getReadOptions(), columnFamilyHandles, keys);
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        }
+
+        DeletedRanges ranges = deletedRanges.get(columnFamily);
+        if (ranges != null && !ranges.isEmpty()) {
+            for (int i = 0; i < keys.length; ++i) {
+                if (ranges.isDeleted(keys[i])) {
+                    values[i] = null;
+                }
+            }
+        }
+        return values;
+    }
+
     @Override
     public void put(String columnFamily, byte[] key, byte[] value) throws DatabaseException {
         ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(columnFamily);
@@ -57,6 +107,11 @@ public class RocksDBTransaction implements DBTransaction {
         } catch (RocksDBException e) {
             throw new DatabaseException(e);
         }
+
+        DeletedRanges ranges = deletedRanges.get(columnFamily);
+        if (ranges != null) {
+            ranges.write(key);
+        }
     }
 
     @Override
@@ -66,25 +121,36 @@ public class RocksDBTransaction implements DBTransaction {
         compactingKeys.computeIfAbsent(columnFamily, s -> new RangeKey()).setKey(key);
     }
 
+    /**
+     * Range tombstone is written to the batch of transaction, so it is applied atomically by commit
+     * and keys put later by this transaction are kept. Keys of the range are not tracked for conflicts,
+     * so commit of concurrent transaction which writes them succeeds in any order.
+     */
     @Override
     public void deleteRange(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException {
-        deleteRange(columnFamily, beginKey, endKey, transaction::delete);
+        ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(columnFamily);
+        try {
+            transaction.getWriteBatch().deleteRange(columnFamilyHandle, beginKey, endKey);
+        } catch (RocksDBException e) {
+            throw new DatabaseException(e);
+        }
 
+        deletedRanges.computeIfAbsent(columnFamily, s -> new DeletedRanges()).add(beginKey, endKey);
         compactingKeys.computeIfAbsent(columnFamily, s -> new RangeKey()).setRange(beginKey, endKey);
     }
 
     @Override
-    public void singleDelete(String columnFamily, byte[] key) throws DatabaseException {
-        delete(columnFamily, key, transaction::delete);
+    public void deleteKeys(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException {
+        deleteKeys(columnFamily, beginKey, endKey, transaction::delete);
 
-        compactingKeys.computeIfAbsent(columnFamily, s -> new RangeKey()).setKey(key);
+        compactingKeys.computeIfAbsent(columnFamily, s -> new RangeKey()).setRange(beginKey, endKey);
     }
 
     @Override
-    public void singleDeleteRange(String columnFamily, byte[] beginKey, byte[] endKey) throws DatabaseException {
-        deleteRange(columnFamily, beginKey, endKey, transaction::delete);
+    public void singleDelete(String columnFamily, byte[] key) throws DatabaseException {
+        delete(columnFamily, key, transaction::singleDelete);
 
-        compactingKeys.computeIfAbsent(columnFamily, s -> new RangeKey()).setRange(beginKey, endKey);
+        compactingKeys.computeIfAbsent(columnFamily, s -> new RangeKey()).setKey(key);
     }
 
     private void delete(String columnFamily, byte[] key, BiConsumer<ColumnFamilyHandle, byte[]> deleteFunc) throws DatabaseException {
@@ -96,13 +162,13 @@ public class RocksDBTransaction implements DBTransaction {
         }
     }
 
-    private void deleteRange(String columnFamily, byte[] beginKey, byte[] endKey, BiConsumer<ColumnFamilyHandle, byte[]> deleteFunc) throws DatabaseException {
+    private void deleteKeys(String columnFamily, byte[] beginKey, byte[] endKey, BiConsumer<ColumnFamilyHandle, byte[]> deleteFunc) throws DatabaseException {
         ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(columnFamily);
 
-        try (RocksIterator i = transaction.getIterator(rocksDBProvider.getReadOptions(), columnFamilyHandle)) {
+        try (RocksIterator i = transaction.getIterator(rocksDBProvider.getTotalOrderReadOptions(), columnFamilyHandle)) {
             for (i.seek(beginKey); i.isValid(); i.next()) {
                 byte[] key = i.key();
-                if (key == null || KEY_COMPARATOR.compare(key, endKey) >= 0) {
+                if (key == null || RangeKey.KEY_COMPARATOR.compare(key, endKey) >= 0) {
                     break;
                 }
 
@@ -119,11 +185,15 @@ public class RocksDBTransaction implements DBTransaction {
     public void commit() throws DatabaseException {
         try {
             transaction.commit();
-            compact();
+            if (rocksDBProvider.getGroupCommitter() != null) {
+                rocksDBProvider.getGroupCommitter().awaitSync();
+            }
+            rocksDBProvider.getCompactionScheduler().submit(compactingKeys);
         } catch (RocksDBException e) {
             throw new DatabaseException(e);
         } finally {
             compactingKeys.clear();
+            deletedRanges.values().forEach(DeletedRanges::clear);
         }
     }
 
@@ -135,6 +205,7 @@ public class RocksDBTransaction implements DBTransaction {
             throw new DatabaseException(e);
         } finally {
             compactingKeys.clear();
+            deletedRanges.values().forEach(DeletedRanges::clear);
         }
     }
 
@@ -143,69 +214,10 @@ public class RocksDBTransaction implements DBTransaction {
         transaction.close();
     }
 
-    private RocksDBIterator buildIterator(ColumnFamilyHandle columnFamily) {
-        return new RocksDBIterator(transaction.getIterator(rocksDBProvider.getReadOptions(), columnFamily));
-    }
-
-    private void compact() throws ColumnFamilyNotFoundException, RocksDBException {
-        for (Map.Entry<String, RangeKey> entry : compactingKeys.entrySet()) {
-            ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(entry.getKey());
-            rocksDBProvider.getRocksDB().compactRange(
-                    columnFamilyHandle,
-                    entry.getValue().begin,
-                    entry.getValue().end,
-                    true, -1, 0);
-        }
-    }
-
-    private static class RangeKey {
-
-        byte[] begin = null;
-        byte[] end = null;
-
-        void setBegin(byte[] key) {
-            if (begin == null || KEY_COMPARATOR.compare(key, begin) < 0) {
-                begin = key;
-            }
-        }
-
-        void setEnd(byte[] key) {
-            if (end == null || KEY_COMPARATOR.compare(key, end) > 0) {
-                end = key;
-            }
-        }
-
-        void setRange(byte[] begin, byte[] end) {
-            setBegin(begin);
-            setEnd(end);
-        }
-
-        void setKey(byte[] key) {
-            if (begin == null) {
-                begin = key;
-                end = nextOf(Arrays.copyOf(key, key.length));
-            } else {
-                int res = KEY_COMPARATOR.compare(key, begin);
-                if (res < 0) {
-                    begin = key;
-                } else if (res != 0) {
-                    res = KEY_COMPARATOR.compare(key, end);
-                    if (res > 0) {
-                        end = nextOf(key);
-                    }
-                }
-            }
-        }
-
-        private static byte[] nextOf(byte[] key) {
-            int val = UnsignedBytes.toInt(key[key.length - 1]);
-            if (val >= 0xff) {
-                key = Arrays.copyOf(key, key.length + 1);
-                val = 0;
-            }
-            key[key.length - 1] = UnsignedBytes.checkedCast(++val);
-            return key;
-        }
+    private RocksDBIterator buildIterator(String columnFamily) throws ColumnFamilyNotFoundException {
+        ColumnFamilyHandle columnFamilyHandle = rocksDBProvider.getColumnFamilyHandle(columnFamily);
+        return new RocksDBIterator(readOptions -> transaction.getIterator(readOptions, columnFamilyHandle),
+                columnFamily, rocksDBProvider, null, deletedRanges.computeIfAbsent(columnFamily, s -> new DeletedRanges()));
     }
 
     @FunctionalInterface
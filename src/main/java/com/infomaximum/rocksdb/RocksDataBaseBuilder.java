@@ -14,21 +14,133 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public class RocksDataBaseBuilder {
 
     private Path path;
+    private CompactionPolicy compactionPolicy = CompactionPolicy.SYNC;
+    private long compactionDelayMillis = TimeUnit.SECONDS.toMillis(1);
+    private boolean syncCommit = false;
+    private int maxCommitGroupSize = 0;
+    private long commitGroupWindowNanos = 0;
+    private int minSequenceBlockSize = SequenceManager.DEFAULT_MIN_BLOCK_SIZE;
+    private int maxSequenceBlockSize = SequenceManager.DEFAULT_MAX_BLOCK_SIZE;
+    private long blockCacheSize = 0;
+    private boolean pinL0FilterAndIndexBlocks = true;
+    private long rowCacheSize = 0;
+    private long writeBufferSize = 0;
+    private boolean statisticsEnabled = false;
 
     public RocksDataBaseBuilder withPath(Path path) {
         this.path = path.toAbsolutePath();
         return this;
     }
 
+    public RocksDataBaseBuilder withCompactionPolicy(CompactionPolicy compactionPolicy) {
+        this.compactionPolicy = compactionPolicy;
+        return this;
+    }
+
+    /**
+     * @param delay time of collecting deleted ranges before asynchronous compaction
+     */
+    public RocksDataBaseBuilder withCompactionDelay(long delay, TimeUnit unit) {
+        this.compactionDelayMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * @param value if true each commit is synced to disk before it returns
+     */
+    public RocksDataBaseBuilder withSyncCommit(boolean value) {
+        this.syncCommit = value;
+        return this;
+    }
+
+    /**
+     * Synced commits of concurrent transactions are made durable by one WAL sync.
+     * @param maxGroupSize max count of commits which are synced together
+     * @param window time of waiting for other commits of group
+     */
+    public RocksDataBaseBuilder withGroupCommit(int maxGroupSize, long window, TimeUnit unit) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("maxGroupSize = " + maxGroupSize);
+        }
+
+        this.syncCommit = true;
+        this.maxCommitGroupSize = maxGroupSize;
+        this.commitGroupWindowNanos = unit.toNanos(window);
+        return this;
+    }
+
+    /**
+     * @param minBlockSize count of ids reserved by sequence at once when ids are rarely requested
+     * @param maxBlockSize count of ids reserved by sequence at once under high allocation rate
+     */
+    public RocksDataBaseBuilder withSequenceBlockSize(int minBlockSize, int maxBlockSize) {
+        this.minSequenceBlockSize = minBlockSize;
+        this.maxSequenceBlockSize = maxBlockSize;
+        return this;
+    }
+
+    /**
+     * One LRU cache of blocks is shared by all column families, index and filter blocks are charged to it.
+     * @param capacity size of cache in bytes, 0 if each column family has own default cache
+     */
+    public RocksDataBaseBuilder withBlockCache(long capacity) {
+        this.blockCacheSize = capacity;
+        return this;
+    }
+
+    /**
+     * @param value if true index and filter blocks of level 0 files are never evicted from shared block cache
+     */
+    public RocksDataBaseBuilder withPinnedL0FilterAndIndexBlocks(boolean value) {
+        this.pinL0FilterAndIndexBlocks = value;
+        return this;
+    }
+
+    /**
+     * Cache of rows is used by point lookups.
+     * @param capacity size of cache in bytes, 0 if rows are not cached
+     */
+    public RocksDataBaseBuilder withRowCache(long capacity) {
+        this.rowCacheSize = capacity;
+        return this;
+    }
+
+    /**
+     * @param size max total size of memtables of all column families in bytes, 0 if it is not limited
+     */
+    public RocksDataBaseBuilder withWriteBufferBudget(long size) {
+        this.writeBufferSize = size;
+        return this;
+    }
+
+    /**
+     * @param value if true tickers and histograms of database are collected and reported by {@link RocksDBProvider#reportMetrics(MetricsReporter)}
+     */
+    public RocksDataBaseBuilder withStatistics(boolean value) {
+        this.statisticsEnabled = value;
+        return this;
+    }
+
     public RocksDBProvider build() throws DatabaseException {
         TempLibraryCleaner.clear();
         PathUtils.checkPath(path);
+        List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
+        MemoryBudget memoryBudget = null;
+        Statistics statistics = null;
         try (DBOptions options = buildOptions()) {
-            List<ColumnFamilyDescriptor> columnFamilyDescriptors = getColumnFamilyDescriptors();
+            // caches and statistics are created after loading of native library by options
+            memoryBudget = new MemoryBudget(blockCacheSize, rowCacheSize, writeBufferSize, pinL0FilterAndIndexBlocks);
+            memoryBudget.applyTo(options);
+            if (statisticsEnabled) {
+                statistics = new Statistics();
+                options.setStatistics(statistics);
+            }
+            readColumnFamilyDescriptors(columnFamilyDescriptors, memoryBudget);
 
             List<ColumnFamilyHandle> columnFamilyHandles = new ArrayList<>();
             OptimisticTransactionDB rocksDB = OptimisticTransactionDB.open(options, path.toString(), columnFamilyDescriptors, columnFamilyHandles);
@@ -40,9 +152,30 @@ public class RocksDataBaseBuilder {
                 columnFamilies.put(columnFamilyName, columnFamilyHandle);
             }
 
-            return new RocksDBProvider(rocksDB, columnFamilies);
+            GroupCommitter groupCommitter = syncCommit && maxCommitGroupSize > 0
+                    ? new GroupCommitter(rocksDB, maxCommitGroupSize, commitGroupWindowNanos)
+                    : null;
+            RocksDBProvider provider = new RocksDBProvider(path, rocksDB, columnFamilies, memoryBudget, statistics,
+                    compactionPolicy, compactionDelayMillis, syncCommit, groupCommitter);
+            provider.getSequenceManager().setBlockSize(minSequenceBlockSize, maxSequenceBlockSize);
+            return provider;
         } catch (RocksDBException e) {
+            close(memoryBudget, statistics);
             throw new DatabaseException(e);
+        } catch (Throwable e) {
+            close(memoryBudget, statistics);
+            throw e;
+        } finally {
+            columnFamilyDescriptors.forEach(descriptor -> descriptor.getOptions().close());
+        }
+    }
+
+    private static void close(MemoryBudget memoryBudget, Statistics statistics) {
+        if (memoryBudget != null) {
+            memoryBudget.close();
+        }
+        if (statistics != null) {
+            statistics.close();
         }
     }
 
@@ -62,19 +195,20 @@ public class RocksDataBaseBuilder {
         return options.setCreateIfMissing(true);
     }
 
-    private List<ColumnFamilyDescriptor> getColumnFamilyDescriptors() throws RocksDBException {
-        List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
-
+    private void readColumnFamilyDescriptors(List<ColumnFamilyDescriptor> destination, MemoryBudget memoryBudget) throws RocksDBException {
         try (Options options = new Options()) {
             for (byte[] columnFamilyName : RocksDB.listColumnFamilies(options, path.toString())) {
-                columnFamilyDescriptors.add(new ColumnFamilyDescriptor(columnFamilyName));
+                destination.add(buildColumnFamilyDescriptor(columnFamilyName, memoryBudget));
             }
         }
 
-        if (columnFamilyDescriptors.isEmpty()) {
-            columnFamilyDescriptors.add(new ColumnFamilyDescriptor(TypeConvert.pack(RocksDBProvider.DEFAULT_COLUMN_FAMILY)));
+        if (destination.isEmpty()) {
+            destination.add(buildColumnFamilyDescriptor(TypeConvert.pack(RocksDBProvider.DEFAULT_COLUMN_FAMILY), memoryBudget));
         }
+    }
 
-        return columnFamilyDescriptors;
+    private static ColumnFamilyDescriptor buildColumnFamilyDescriptor(byte[] columnFamilyName, MemoryBudget memoryBudget) {
+        ColumnFamilyProfile profile = ColumnFamilyProfile.of(TypeConvert.unpackString(columnFamilyName));
+        return new ColumnFamilyDescriptor(columnFamilyName, profile.buildOptions(memoryBudget));
     }
 }
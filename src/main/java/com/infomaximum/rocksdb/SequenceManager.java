@@ -8,18 +8,32 @@ import com.infomaximum.database.exception.SequenceAlreadyExistsException;
 import com.infomaximum.database.utils.TypeConvert;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class SequenceManager {
 
+    private final static Logger log = LoggerFactory.getLogger(SequenceManager.class);
+
     public static final String SEQUENCE_PREFIX = "sequence.";
+    public static final int DEFAULT_MIN_BLOCK_SIZE = 10;
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 10_000;
+
+    private static final long FAST_RESERVATION_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW_RESERVATION_INTERVAL = TimeUnit.SECONDS.toNanos(10);
 
     private final RocksDBProvider dbProvider;
     private final ColumnFamilyHandle defaultColumnFamily;
     private final ConcurrentMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+    private volatile int minBlockSize = DEFAULT_MIN_BLOCK_SIZE;
+    private volatile int maxBlockSize = DEFAULT_MAX_BLOCK_SIZE;
 
     public SequenceManager(RocksDBProvider dbProvider) throws DatabaseException {
         this.dbProvider = dbProvider;
@@ -68,13 +82,27 @@ public class SequenceManager {
         }
     }
 
-    public class Sequence {
+    /**
+     * Ids are reserved by blocks, size of block is doubled if previous block was used up quickly
+     * and halved if it was used slowly.
+     */
+    public void setBlockSize(int minBlockSize, int maxBlockSize) {
+        if (minBlockSize < 1 || maxBlockSize < minBlockSize) {
+            throw new IllegalArgumentException("Illegal block size [" + minBlockSize + ", " + maxBlockSize + "]");
+        }
+
+        this.minBlockSize = minBlockSize;
+        this.maxBlockSize = maxBlockSize;
+    }
 
-        private final static int SIZE_CACHE = 10;
+    public class Sequence {
 
         private final byte[] key;
         private final AtomicLong counter;
-        private long maxCacheValue;
+        private final AtomicBoolean prefetching = new AtomicBoolean(false);
+        private volatile long maxCacheValue;
+        private volatile int blockSize = minBlockSize;
+        private long lastReservationTime = 0;
 
         Sequence(KeyValue keyValue) {
             this.key = keyValue.getKey();
@@ -83,28 +111,93 @@ public class SequenceManager {
         }
 
         public long next() throws DatabaseException {
-            long value;
-            do {
-                value = counter.get();
-                if (value >= maxCacheValue) {
+            return next(1);
+        }
+
+        /**
+         * @return first of count consecutive ids
+         */
+        public long next(int count) throws DatabaseException {
+            if (count < 1) {
+                throw new IllegalArgumentException("count = " + count);
+            }
+
+            while (true) {
+                final long value = counter.get();
+                final long limit = maxCacheValue;
+                if (value + count > limit) {
                     //Кеш закончился-берем еще
-                    growCache();
+                    growCache(value + count);
+                } else if (counter.compareAndSet(value, value + count)) {
+                    if (limit - (value + count) < blockSize / 2) {
+                        prefetch();
+                    }
+                    return value + 1;
                 }
-            } while (!counter.compareAndSet(value, value + 1));
-            return value + 1;
+            }
         }
 
-        private synchronized void growCache() throws DatabaseException {
-            if ((maxCacheValue - counter.get()) > SIZE_CACHE) {
+        private synchronized void growCache(long requiredMaxValue) throws DatabaseException {
+            while (maxCacheValue < requiredMaxValue) {
+                reserve(requiredMaxValue - maxCacheValue);
+            }
+        }
+
+        /**
+         * Reserves next block before current one is used up, so creating threads do not wait for writing.
+         */
+        private void prefetch() {
+            if (!prefetching.compareAndSet(false, true)) {
                 return;
             }
 
             try {
-                dbProvider.getRocksDB().put(defaultColumnFamily, key, TypeConvert.pack(maxCacheValue + SIZE_CACHE));
-                maxCacheValue += SIZE_CACHE;
+                dbProvider.executeInBackground(() -> {
+                    try {
+                        synchronized (this) {
+                            if (maxCacheValue - counter.get() < blockSize / 2) {
+                                reserve(0);
+                            }
+                        }
+                    } catch (DatabaseException e) {
+                        log.error("Prefetch of sequence failed", e);
+                    } finally {
+                        prefetching.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                prefetching.set(false);
+            }
+        }
+
+        /**
+         * Reservation is not synced, it is synced by the first synced commit which uses reserved ids.
+         */
+        private void reserve(long minSize) throws DatabaseException {
+            adaptBlockSize();
+
+            long newMaxValue = maxCacheValue + Math.max(blockSize, minSize);
+            try {
+                dbProvider.getRocksDB().put(defaultColumnFamily, key, TypeConvert.pack(newMaxValue));
+                maxCacheValue = newMaxValue;
             } catch (RocksDBException e) {
                 throw new DatabaseException(e);
             }
         }
+
+        private void adaptBlockSize() {
+            final long now = System.nanoTime();
+            int size = blockSize;
+            if (lastReservationTime != 0) {
+                long elapsed = now - lastReservationTime;
+                if (elapsed < FAST_RESERVATION_INTERVAL) {
+                    size = Math.min(size * 2, maxBlockSize);
+                } else if (elapsed > SLOW_RESERVATION_INTERVAL) {
+                    size = Math.max(size / 2, minBlockSize);
+                }
+            }
+            blockSize = Math.max(Math.min(size, maxBlockSize), minBlockSize);
+            lastReservationTime = now;
+        }
     }
 }
@@ -0,0 +1,268 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.filter.*;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBProvider;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.schema.BaseIndex;
+import com.infomaximum.database.schema.PrefixIndex;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
+import com.infomaximum.database.utils.ByteUtils;
+import com.infomaximum.database.utils.PrefixIndexBlock;
+import com.infomaximum.database.utils.PrefixIndexBlockIterator;
+import com.infomaximum.domain.PackedRecordEditable;
+import com.infomaximum.domain.PackedRecordReadable;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import com.infomaximum.domain.type.FormatType;
+import com.infomaximum.rocksdb.RocksDBProvider;
+import com.infomaximum.rocksdb.RocksDataBaseBuilder;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BulkLoaderTest extends StoreFileDataTest {
+
+    private static final int OBJECT_COUNT = 3000;
+
+    private interface Filler<T extends DomainObject & DomainObjectEditable> {
+
+        void fill(T object, Random random);
+    }
+
+    @Test
+    public void keysAreEqualToTransactionalKeys() throws Exception {
+        testKeys(StoreFileReadable.class, StoreFileEditable.class, BulkLoaderTest::fillStoreFile);
+    }
+
+    @Test
+    public void packedKeysAreEqualToTransactionalKeys() throws Exception {
+        createDomain(PackedRecordReadable.class);
+
+        testKeys(PackedRecordReadable.class, PackedRecordEditable.class, (obj, random) -> {
+            obj.setName(random.nextInt(5) == 0 ? null : "name " + random.nextInt(10));
+            obj.setSize((long) random.nextInt(100));
+            if (random.nextBoolean()) {
+                obj.setSingle(true);
+            }
+        });
+    }
+
+    @Test
+    public void find() throws Exception {
+        try (BulkLoader loader = domainObjectSource.buildBulkLoader()) {
+            for (long i = 1; i <= 10; ++i) {
+                StoreFileEditable obj = loader.create(StoreFileEditable.class);
+                obj.setFileName("file " + (i % 2 == 0 ? "even" : "odd"));
+                obj.setSize(i);
+                obj.setBegin(i);
+                obj.setEnd(i + 2);
+                loader.save(obj);
+            }
+            loader.commit();
+        }
+
+        testFind(new HashFilter(StoreFileReadable.FIELD_SIZE, 3L), 3L);
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "eve"), 2L, 4L, 6L, 8L, 10L);
+        testFind(new IntervalFilter(StoreFileReadable.FIELD_SIZE, 4L, 6L), 4L, 5L, 6L);
+        testFind(new RangeFilter(new RangeFilter.IndexedField(StoreFileReadable.FIELD_BEGIN, StoreFileReadable.FIELD_END), 5L, 6L), 4L, 5L);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+            Assert.assertTrue(obj.getId() > 10);
+        });
+    }
+
+    @Test
+    public void loadIntoNotEmptyEntity() throws Exception {
+        domainObjectSource.executeTransactional(transaction -> {
+            StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+            transaction.save(obj);
+        });
+
+        try (BulkLoader loader = domainObjectSource.buildBulkLoader()) {
+            loader.create(StoreFileEditable.class);
+            Assert.fail();
+        } catch (DatabaseException e) {
+            Assert.assertTrue(true);
+        }
+    }
+
+    @Test
+    public void saveInWrongOrder() throws Exception {
+        try (BulkLoader loader = domainObjectSource.buildBulkLoader()) {
+            StoreFileEditable obj1 = loader.create(StoreFileEditable.class);
+            StoreFileEditable obj2 = loader.create(StoreFileEditable.class);
+            loader.save(obj2);
+            try {
+                loader.save(obj1);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(true);
+            }
+        }
+    }
+
+    @Test
+    public void closeWithoutCommit() throws Exception {
+        try (BulkLoader loader = domainObjectSource.buildBulkLoader(1024)) {
+            for (int i = 0; i < 100; ++i) {
+                loader.save(loader.create(StoreFileEditable.class));
+            }
+        }
+
+        testFind(EmptyFilter.INSTANCE);
+    }
+
+    private <T extends DomainObject & DomainObjectEditable> void testKeys(Class<? extends DomainObject> readableClass,
+                                                                          Class<T> clazz, Filler<T> filler) throws Exception {
+        Random random = new Random(17);
+        try (BulkLoader loader = domainObjectSource.buildBulkLoader(64 * 1024)) {
+            for (int i = 0; i < OBJECT_COUNT; ++i) {
+                T obj = loader.create(clazz);
+                filler.fill(obj, random);
+                loader.save(obj);
+            }
+            loader.commit();
+        }
+
+        Path expectedPath = Files.createTempDirectory("rocksdb");
+        try (RocksDBProvider expectedProvider = new RocksDataBaseBuilder().withPath(expectedPath).build()) {
+            createDomain(readableClass, expectedProvider);
+
+            final Random expectedRandom = new Random(17);
+            try (Transaction transaction = new DomainObjectSource(expectedProvider).buildTransaction()) {
+                transaction.setForeignFieldEnabled(false);
+                for (int i = 0; i < OBJECT_COUNT; ++i) {
+                    T obj = transaction.create(clazz);
+                    filler.fill(obj, expectedRandom);
+                    transaction.save(obj);
+                }
+                transaction.commit();
+            }
+
+            StructEntity entity = Schema.getEntity(clazz);
+            assertEqualKeys(expectedProvider, rocksDBProvider, entity, entity.getColumnFamily());
+            assertEqualKeys(expectedProvider, rocksDBProvider, entity, entity.getIndexColumnFamily());
+            if (!entity.getRangeIndexes().isEmpty()) {
+                assertEqualRangeSearch(new DomainObjectSource(expectedProvider), domainObjectSource);
+            }
+        } finally {
+            FileUtils.deleteDirectory(expectedPath.toFile());
+        }
+    }
+
+    private static void fillStoreFile(StoreFileEditable obj, Random random) {
+        if (random.nextInt(10) != 0) {
+            obj.setFileName("file " + random.nextInt(20) + " name" + random.nextInt(3));
+        }
+        obj.setContentType(random.nextBoolean() ? "text plain" : "image");
+        obj.setSize((long) random.nextInt(1000));
+        obj.setSingle(random.nextBoolean());
+        obj.setFormat(random.nextBoolean() ? FormatType.A : FormatType.B);
+        obj.setFolderId((long) random.nextInt(5));
+        obj.setDouble(random.nextInt(3) == 0 ? null : random.nextDouble() * 200 - 100);
+
+        long begin = random.nextInt(200);
+        long end = begin + (random.nextInt(4) == 0 ? 0 : random.nextInt(30));
+        if (random.nextInt(10) != 0) {
+            obj.setBegin(begin);
+            obj.setEnd(end);
+        }
+        obj.setBeginTime(Instant.ofEpochSecond(begin));
+        obj.setEndTime(Instant.ofEpochSecond(end));
+        obj.setLocalBegin(LocalDateTime.of(2018, 1, 1, 0, 0).plusMinutes(begin));
+        obj.setLocalEnd(LocalDateTime.of(2018, 1, 1, 0, 0).plusMinutes(end));
+        obj.setData(new byte[] { (byte) random.nextInt() });
+    }
+
+    /**
+     * Keys of range indexes are compared by search results, because insertion of ranges one by one
+     * does not split ranges by all points, so bulk loaded keys are superset of transactional keys.
+     */
+    private static void assertEqualKeys(DBProvider expected, DBProvider actual, StructEntity entity, String columnFamily) throws DatabaseException {
+        Assert.assertEquals(expected.containsColumnFamily(columnFamily), actual.containsColumnFamily(columnFamily));
+        if (!expected.containsColumnFamily(columnFamily)) {
+            return;
+        }
+
+        List<KeyValue> expectedKeys = readAll(expected, columnFamily, entity);
+        List<KeyValue> actualKeys = readAll(actual, columnFamily, entity);
+        Assert.assertEquals(expectedKeys.size(), actualKeys.size());
+        for (int i = 0; i < expectedKeys.size(); ++i) {
+            Assert.assertArrayEquals(expectedKeys.get(i).getKey(), actualKeys.get(i).getKey());
+            Assert.assertArrayEquals(expectedKeys.get(i).getValue(), actualKeys.get(i).getValue());
+        }
+    }
+
+    /**
+     * Blocks of prefix indexes are read with applied operands.
+     */
+    private static List<KeyValue> readAll(DBProvider provider, String columnFamily, StructEntity entity) throws DatabaseException {
+        List<KeyValue> result = new ArrayList<>();
+        try (DBIterator iterator = provider.createIterator(columnFamily)) {
+            for (KeyValue keyValue = iterator.seek(null); keyValue != null; keyValue = iterator.next()) {
+                if (!startsWithAttendant(keyValue.getKey(), entity.getRangeIndexes()) && !startsWithAttendant(keyValue.getKey(), entity.getPrefixIndexes())) {
+                    result.add(keyValue);
+                }
+            }
+        }
+
+        if (columnFamily.equals(entity.getIndexColumnFamily())) {
+            for (PrefixIndex index : entity.getPrefixIndexes()) {
+                try (DBIterator iterator = provider.createIterator(columnFamily)) {
+                    PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+                    for (boolean exists = blocks.seek(new KeyPattern(index.attendant)); exists; exists = blocks.next()) {
+                        long[] ids = blocks.getIds();
+                        result.add(new KeyValue(blocks.getKey(), PrefixIndexBlock.pack(ids, ids.length)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean startsWithAttendant(byte[] key, List<? extends BaseIndex> indexes) {
+        for (BaseIndex index : indexes) {
+            if (ByteUtils.startsWith(index.attendant, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void assertEqualRangeSearch(DataEnumerable expected, DataEnumerable actual) throws DatabaseException {
+        RangeFilter.IndexedField indexedField = new RangeFilter.IndexedField(StoreFileReadable.FIELD_BEGIN, StoreFileReadable.FIELD_END);
+        for (long begin = -10; begin < 250; begin += 7) {
+            for (long length : new long[] {0, 1, 5, 40}) {
+                Assert.assertEquals(findIds(expected, new RangeFilter(indexedField, begin, begin + length)),
+                        findIds(actual, new RangeFilter(indexedField, begin, begin + length)));
+                Assert.assertEquals(findIds(expected, new RangeFilter(indexedField, begin, begin + length).appendHashedField(StoreFileReadable.FIELD_FOLDER_ID, 2L)),
+                        findIds(actual, new RangeFilter(indexedField, begin, begin + length).appendHashedField(StoreFileReadable.FIELD_FOLDER_ID, 2L)));
+            }
+        }
+    }
+
+    private static List<Long> findIds(DataEnumerable enumerable, Filter filter) throws DatabaseException {
+        List<Long> ids = new ArrayList<>();
+        try (IteratorEntity<StoreFileReadable> iterator = enumerable.find(StoreFileReadable.class, filter)) {
+            while (iterator.hasNext()) {
+                ids.add(iterator.next().getId());
+            }
+        }
+        ids.sort(Long::compareTo);
+        return ids;
+    }
+}
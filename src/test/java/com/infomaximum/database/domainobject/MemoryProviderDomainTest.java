@@ -0,0 +1,127 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.filter.*;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.maintenance.ChangeMode;
+import com.infomaximum.database.maintenance.DomainService;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import com.infomaximum.memory.MemoryDBProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Objects of the same transactions are found by the same filters in memory and in RocksDB.
+ */
+public class MemoryProviderDomainTest extends StoreFileDataTest {
+
+    private MemoryDBProvider memoryProvider;
+    private DomainObjectSource memorySource;
+
+    @Before
+    public void init() throws Exception {
+        super.init();
+
+        memoryProvider = new MemoryDBProvider();
+        new DomainService(memoryProvider)
+                .setChangeMode(ChangeMode.CREATION)
+                .setValidationMode(true)
+                .setDomain(Schema.getEntity(StoreFileReadable.class))
+                .execute();
+        memorySource = new DomainObjectSource(memoryProvider);
+    }
+
+    @Test
+    public void findLikeRocksDB() throws Exception {
+        for (DomainObjectSource source : Arrays.asList(domainObjectSource, memorySource)) {
+            final Random random = new Random(1);
+            source.executeTransactional(transaction -> {
+                for (int i = 0; i < 200; ++i) {
+                    StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                    fill(obj, random);
+                    transaction.save(obj);
+                }
+            });
+            source.executeTransactional(transaction -> {
+                for (long id = 1; id <= 200; id += 1 + random.nextInt(5)) {
+                    StoreFileEditable obj = transaction.get(StoreFileEditable.class, id);
+                    if (random.nextBoolean()) {
+                        transaction.remove(obj);
+                    } else {
+                        fill(obj, random);
+                        transaction.save(obj);
+                    }
+                }
+            });
+        }
+
+        List<Filter> filters = new ArrayList<>();
+        filters.add(EmptyFilter.INSTANCE);
+        filters.add(new IdFilter(50, 150));
+        for (int i = 0; i < 5; ++i) {
+            filters.add(new HashFilter(StoreFileReadable.FIELD_SIZE, (long) i));
+            filters.add(new HashFilter(StoreFileReadable.FIELD_SIZE, (long) i).appendField(StoreFileReadable.FIELD_FILE_NAME, "file" + i));
+            filters.add(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "file" + i));
+            filters.add(new IntervalFilter(StoreFileReadable.FIELD_SIZE, (long) i, (long) i + 2));
+            filters.add(new IntervalFilter(StoreFileReadable.FIELD_SIZE, (long) i, (long) i + 2).setSortDirection(SortDirection.DESC));
+            filters.add(new RangeFilter(new RangeFilter.IndexedField(StoreFileReadable.FIELD_BEGIN, StoreFileReadable.FIELD_END), (long) i * 10, (long) i * 10 + 5));
+        }
+        filters.add(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "file"));
+
+        for (Filter filter : filters) {
+            Assert.assertEquals(findIds(domainObjectSource, filter), findIds(memorySource, filter));
+        }
+        try (ReadSession session = memorySource.buildReadSession()) {
+            for (Filter filter : filters) {
+                Assert.assertEquals(findIds(domainObjectSource, filter), findIds(session, filter));
+            }
+        }
+    }
+
+    @Test
+    public void removeAll() throws Exception {
+        memorySource.executeTransactional(transaction -> {
+            for (int i = 0; i < 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+
+        memorySource.executeTransactional(transaction -> transaction.removeAll(StoreFileEditable.class));
+
+        Assert.assertEquals(Collections.emptyList(), findIds(memorySource, EmptyFilter.INSTANCE));
+        Assert.assertEquals(Collections.emptyList(), findIds(memorySource, new HashFilter(StoreFileReadable.FIELD_SIZE, 1L)));
+        new DomainService(memoryProvider)
+                .setChangeMode(ChangeMode.NONE)
+                .setValidationMode(true)
+                .setDomain(Schema.getEntity(StoreFileReadable.class))
+                .execute();
+    }
+
+    private static void fill(StoreFileEditable obj, Random random) {
+        final long size = random.nextInt(8);
+        obj.setSize(size);
+        obj.setFileName("file" + random.nextInt(6) + " name" + size);
+        if (random.nextBoolean()) {
+            long begin = random.nextInt(60);
+            obj.setBegin(begin);
+            obj.setEnd(begin + random.nextInt(10));
+        }
+    }
+
+    private static List<Long> findIds(DataEnumerable enumerable, Filter filter) throws DatabaseException {
+        List<Long> ids = new ArrayList<>();
+        try (IteratorEntity<StoreFileReadable> iterator = enumerable.find(StoreFileReadable.class, filter)) {
+            while (iterator.hasNext()) {
+                ids.add(iterator.next().getId());
+            }
+        }
+        return ids;
+    }
+}
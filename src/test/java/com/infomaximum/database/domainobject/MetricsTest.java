@@ -0,0 +1,96 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import com.infomaximum.rocksdb.MetricsReporter;
+import com.infomaximum.rocksdb.RocksDataBaseBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MetricsTest extends DomainDataTest {
+
+    private static class CollectingReporter implements MetricsReporter {
+
+        final Map<String, Long> counters = new HashMap<>();
+        final Map<String, Double> histogramAverages = new HashMap<>();
+        final Map<String, Long> properties = new HashMap<>();
+
+        @Override
+        public void reportCounter(String name, long value) {
+            counters.put(name, value);
+        }
+
+        @Override
+        public void reportHistogram(String name, double average, double median, double percentile95, double percentile99, double standardDeviation) {
+            histogramAverages.put(name, average);
+        }
+
+        @Override
+        public void reportProperty(String source, String name, long value) {
+            properties.put(source + ":" + name, value);
+        }
+    }
+
+    @Before
+    public void init() throws Exception {
+        super.init();
+
+        rocksDBProvider.close();
+        rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).withStatistics(true).build();
+        domainObjectSource = new DomainObjectSource(rocksDBProvider);
+        createDomain(StoreFileReadable.class);
+    }
+
+    @Test
+    public void report() throws Exception {
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 0; i < 100; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+
+        try (IteratorEntity<StoreFileReadable> iterator = domainObjectSource.find(StoreFileReadable.class, EmptyFilter.INSTANCE)) {
+            Assert.assertTrue(iterator.hasNext());
+
+            CollectingReporter reporter = new CollectingReporter();
+            rocksDBProvider.reportMetrics(reporter);
+
+            final String source = "StoreFile";
+            Assert.assertEquals(1L, (long) reporter.properties.get(source + ":live-iterators"));
+            Assert.assertEquals(0L, (long) reporter.properties.get(source + ".index:live-iterators"));
+            Assert.assertTrue(reporter.properties.get(source + ":rocksdb.cur-size-all-mem-tables") > 0);
+            Assert.assertTrue(reporter.properties.get(source + ":rocksdb.estimate-num-keys") > 0);
+            Assert.assertTrue(reporter.properties.containsKey(source + ".index:rocksdb.estimate-pending-compaction-bytes"));
+            Assert.assertTrue(reporter.counters.get("rocksdb.number_keys_written") > 0);
+            Assert.assertTrue(reporter.histogramAverages.containsKey("rocksdb.db_write"));
+        }
+
+        CollectingReporter reporter = new CollectingReporter();
+        rocksDBProvider.reportMetrics(reporter);
+        Assert.assertTrue(reporter.properties.values().stream().allMatch(value -> value >= 0));
+        Assert.assertEquals(0L, reporter.properties.entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith(":live-iterators"))
+                .mapToLong(Map.Entry::getValue)
+                .sum());
+    }
+
+    @Test
+    public void statisticsDisabledByDefault() throws Exception {
+        rocksDBProvider.close();
+        rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build();
+
+        CollectingReporter reporter = new CollectingReporter();
+        rocksDBProvider.reportMetrics(reporter);
+        Assert.assertTrue(reporter.counters.isEmpty());
+        Assert.assertTrue(reporter.histogramAverages.isEmpty());
+        Assert.assertFalse(reporter.properties.isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class ObjectCacheTest extends StoreFileDataTest {
+
+    private ObjectCache objectCache;
+    private DomainObjectSource cachedSource;
+
+    @Before
+    public void init() throws Exception {
+        super.init();
+
+        objectCache = new ObjectCache.Builder()
+                .withEntity(StoreFileReadable.class, 5)
+                .build();
+        cachedSource = new DomainObjectSource(rocksDBProvider, objectCache);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 1; i <= 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("name " + i);
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+    }
+
+    @Test
+    public void hitAndMiss() throws Exception {
+        Assert.assertEquals("name 1", cachedSource.get(StoreFileReadable.class, 1L).getFileName());
+        Assert.assertEquals("name 1", cachedSource.get(StoreFileReadable.class, 1L).getFileName());
+        Assert.assertNull(cachedSource.get(StoreFileReadable.class, 100L));
+
+        ObjectCache.Statistics statistics = objectCache.getStatistics(StoreFileReadable.class);
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(2, statistics.getMissCount());
+        Assert.assertEquals(1, statistics.getObjectCount());
+    }
+
+    @Test
+    public void mergeLoadedFields() throws Exception {
+        StoreFileReadable obj = cachedSource.get(StoreFileReadable.class, 1L, Collections.singleton(StoreFileReadable.FIELD_SIZE));
+        checkLoadedState(obj, Collections.singleton(StoreFileReadable.FIELD_SIZE));
+
+        obj = cachedSource.get(StoreFileReadable.class, 1L, Collections.singleton(StoreFileReadable.FIELD_FILE_NAME));
+        checkLoadedState(obj, Collections.singleton(StoreFileReadable.FIELD_FILE_NAME));
+        Assert.assertEquals(2, objectCache.getStatistics().getMissCount());
+
+        obj = cachedSource.get(StoreFileReadable.class, 1L, new HashSet<>(Arrays.asList(StoreFileReadable.FIELD_FILE_NAME, StoreFileReadable.FIELD_SIZE)));
+        Assert.assertEquals("name 1", obj.getFileName());
+        Assert.assertEquals(1L, obj.getSize());
+        Assert.assertEquals(1, objectCache.getStatistics().getHitCount());
+
+        cachedSource.get(StoreFileReadable.class, 1L);
+        cachedSource.get(StoreFileReadable.class, 1L);
+        Assert.assertEquals(2, objectCache.getStatistics().getHitCount());
+        Assert.assertEquals(3, objectCache.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void invalidateByCommit() throws Exception {
+        Assert.assertEquals("name 1", cachedSource.get(StoreFileReadable.class, 1L).getFileName());
+        Assert.assertNotNull(cachedSource.get(StoreFileReadable.class, 2L));
+
+        cachedSource.executeTransactional(transaction -> {
+            StoreFileEditable obj = transaction.get(StoreFileEditable.class, 1L);
+            obj.setFileName("changed");
+            transaction.save(obj);
+            transaction.remove(transaction.get(StoreFileEditable.class, 2L));
+        });
+
+        Assert.assertEquals("changed", cachedSource.get(StoreFileReadable.class, 1L).getFileName());
+        Assert.assertNull(cachedSource.get(StoreFileReadable.class, 2L));
+    }
+
+    @Test
+    public void notInvalidateByRollback() throws Exception {
+        cachedSource.get(StoreFileReadable.class, 1L);
+
+        try (Transaction transaction = cachedSource.buildTransaction()) {
+            StoreFileEditable obj = transaction.get(StoreFileEditable.class, 1L);
+            obj.setFileName("changed");
+            transaction.save(obj);
+        }
+
+        Assert.assertEquals("name 1", cachedSource.get(StoreFileReadable.class, 1L).getFileName());
+        Assert.assertEquals(1, objectCache.getStatistics().getHitCount());
+    }
+
+    @Test
+    public void invalidateByRemoveAll() throws Exception {
+        for (long i = 1; i <= 5; ++i) {
+            cachedSource.get(StoreFileReadable.class, i);
+        }
+
+        cachedSource.executeTransactional(transaction -> transaction.removeAll(StoreFileEditable.class));
+
+        Assert.assertEquals(0, objectCache.getStatistics().getObjectCount());
+        Assert.assertNull(cachedSource.get(StoreFileReadable.class, 1L));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        for (long i = 1; i <= 5; ++i) {
+            cachedSource.get(StoreFileReadable.class, i);
+        }
+        cachedSource.get(StoreFileReadable.class, 1L);
+        cachedSource.get(StoreFileReadable.class, 6L);
+
+        ObjectCache.Statistics statistics = objectCache.getStatistics();
+        Assert.assertEquals(5, statistics.getObjectCount());
+        Assert.assertEquals(1, statistics.getEvictionCount());
+
+        cachedSource.get(StoreFileReadable.class, 1L);
+        Assert.assertEquals(2, objectCache.getStatistics().getHitCount());
+        cachedSource.get(StoreFileReadable.class, 2L);
+        Assert.assertEquals(2, objectCache.getStatistics().getHitCount());
+    }
+}
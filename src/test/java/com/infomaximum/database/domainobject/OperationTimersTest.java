@@ -0,0 +1,98 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.filter.HashFilter;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OperationTimersTest extends StoreFileDataTest {
+
+    private OperationTimers operationTimers;
+    private DomainObjectSource timedSource;
+
+    @Before
+    public void init() throws Exception {
+        super.init();
+
+        operationTimers = new OperationTimers();
+        timedSource = new DomainObjectSource(rocksDBProvider, null, operationTimers);
+    }
+
+    @Test
+    public void saveAndCommit() throws Exception {
+        timedSource.executeTransactional(transaction -> {
+            for (long i = 0; i < 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("name " + i);
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+        timedSource.executeTransactional(transaction -> transaction.remove(transaction.get(StoreFileEditable.class, 1L)));
+
+        Assert.assertEquals(10, getCount(StoreFileReadable.class, OperationTimers.Operation.SAVE));
+        Assert.assertEquals(10, getCount(StoreFileReadable.class, OperationTimers.Operation.SAVE_DATA));
+        Assert.assertEquals(10 * Schema.getEntity(StoreFileReadable.class).getHashIndexes().size(),
+                getCount(StoreFileReadable.class, OperationTimers.Operation.SAVE_HASH_INDEX));
+        Assert.assertEquals(20, getCount(StoreFileReadable.class, OperationTimers.Operation.SAVE_PREFIX_INDEX));
+        Assert.assertEquals(1, getCount(StoreFileReadable.class, OperationTimers.Operation.REMOVE));
+        Assert.assertEquals(1, getCount(StoreFileReadable.class, OperationTimers.Operation.COMMIT_DELETE_OBJECTS));
+        Assert.assertEquals(1, getCount(StoreFileReadable.class, OperationTimers.Operation.GET));
+        Assert.assertEquals(2, getCount(null, OperationTimers.Operation.COMMIT_NATIVE));
+        Assert.assertEquals(2, getCount(null, OperationTimers.Operation.COMMIT));
+
+        OperationTimers.Histogram commit = operationTimers.getHistogram(null, OperationTimers.Operation.COMMIT);
+        Assert.assertTrue(commit.getMaxNanos() > 0);
+        Assert.assertTrue(commit.getPercentileNanos(50) <= commit.getMaxNanos());
+        Assert.assertEquals(commit.getMaxNanos(), commit.getPercentileNanos(100));
+        Assert.assertTrue(commit.getTotalNanos() >= operationTimers.getHistogram(null, OperationTimers.Operation.COMMIT_NATIVE).getTotalNanos());
+    }
+
+    @Test
+    public void iterators() throws Exception {
+        timedSource.executeTransactional(transaction -> {
+            for (long i = 0; i < 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName(i % 2 == 0 ? "even" : "odd");
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+        Assert.assertNull(operationTimers.getIteratorStatistics(StoreFileReadable.class));
+
+        try (IteratorEntity<StoreFileReadable> iterator = timedSource.find(StoreFileReadable.class, EmptyFilter.INSTANCE)) {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+        }
+        try (IteratorEntity<StoreFileReadable> iterator = timedSource.find(StoreFileReadable.class, new HashFilter(StoreFileReadable.FIELD_FILE_NAME, "even"))) {
+            iterator.next();
+        }
+
+        OperationTimers.IteratorStatistics statistics = operationTimers.getIteratorStatistics(StoreFileReadable.class);
+        Assert.assertEquals(2, statistics.getIteratorCount());
+        Assert.assertEquals(11, statistics.getProducedCount());
+        Assert.assertEquals(10 + 5, statistics.getScannedKeyCount());
+        Assert.assertEquals(10 + 5, statistics.getMatchedKeyCount());
+        Assert.assertEquals(2, getCount(StoreFileReadable.class, OperationTimers.Operation.ITERATE));
+    }
+
+    @Test
+    public void notTimedByDefault() throws Exception {
+        domainObjectSource.executeTransactional(transaction -> transaction.save(transaction.create(StoreFileEditable.class)));
+
+        Assert.assertNull(domainObjectSource.getOperationTimers());
+        Assert.assertNull(operationTimers.getHistogram(null, OperationTimers.Operation.COMMIT));
+        Assert.assertNull(operationTimers.getHistogram(StoreFileReadable.class, OperationTimers.Operation.SAVE));
+    }
+
+    private long getCount(Class<? extends DomainObject> clazz, OperationTimers.Operation operation) {
+        OperationTimers.Histogram histogram = operationTimers.getHistogram(clazz, operation);
+        return histogram != null ? histogram.getCount() : 0;
+    }
+}
@@ -0,0 +1,201 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.anotation.Entity;
+import com.infomaximum.database.anotation.Field;
+import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.filter.Filter;
+import com.infomaximum.database.domainobject.filter.HashFilter;
+import com.infomaximum.database.domainobject.filter.PrefixFilter;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.exception.InconsistentDatabaseException;
+import com.infomaximum.database.maintenance.DomainService;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.domain.PackedRecordEditable;
+import com.infomaximum.domain.PackedRecordReadable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class PackedStorageTest extends DomainDataTest {
+
+    private static final String COLUMN_FAMILY = "com.infomaximum.rocksdb.packed_record";
+
+    @Entity(
+            namespace = "com.infomaximum.rocksdb",
+            name = "packed_record",
+            fields = {
+                    @Field(number = PackedRecordReadable.FIELD_NAME, name = "name", type = String.class),
+                    @Field(number = PackedRecordReadable.FIELD_SIZE, name = "size", type = Long.class),
+                    @Field(number = PackedRecordReadable.FIELD_SINGLE, name = "single", type = Boolean.class)
+            }
+    )
+    public static class KeyPerFieldRecord extends DomainObject implements DomainObjectEditable {
+
+        public KeyPerFieldRecord(long id) {
+            super(id);
+        }
+    }
+
+    @Test
+    public void createAndRead() throws Exception {
+        createDomain(PackedRecordReadable.class);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (int i = 0; i < 100; ++i) {
+                PackedRecordEditable obj = transaction.create(PackedRecordEditable.class);
+                obj.setName("name " + i);
+                obj.setSize((long) (i % 10));
+                if (i % 2 == 0) {
+                    obj.setSingle(true);
+                }
+                transaction.save(obj);
+            }
+        });
+
+        assertKeyCount(100);
+
+        PackedRecordReadable obj = domainObjectSource.get(PackedRecordReadable.class, 5);
+        Assert.assertEquals("name 4", obj.getName());
+        Assert.assertEquals(4L, obj.getSize().longValue());
+        Assert.assertTrue(obj.isSingle());
+
+        obj = domainObjectSource.get(PackedRecordReadable.class, 6, Collections.singleton(PackedRecordReadable.FIELD_SIZE));
+        Assert.assertEquals(5L, obj.getSize().longValue());
+        checkLoadedState(obj, Collections.singleton(PackedRecordReadable.FIELD_SIZE));
+
+        long id = 1;
+        try (IteratorEntity<PackedRecordReadable> i = domainObjectSource.find(PackedRecordReadable.class, EmptyFilter.INSTANCE)) {
+            while (i.hasNext()) {
+                obj = i.next();
+                Assert.assertEquals(id, obj.getId());
+                Assert.assertEquals("name " + (id - 1), obj.getName());
+                Assert.assertEquals((id - 1) % 2 == 0 ? Boolean.TRUE : null, obj.isSingle());
+                ++id;
+            }
+        }
+        Assert.assertEquals(101, id);
+
+        int count = 0;
+        try (IteratorEntity<PackedRecordReadable> i = domainObjectSource.find(PackedRecordReadable.class,
+                new HashFilter(PackedRecordReadable.FIELD_SIZE, 3L), Collections.singleton(PackedRecordReadable.FIELD_NAME))) {
+            while (i.hasNext()) {
+                obj = i.next();
+                Assert.assertEquals(3, (obj.getId() - 1) % 10);
+                Assert.assertEquals("name " + (obj.getId() - 1), obj.getName());
+                ++count;
+            }
+        }
+        Assert.assertEquals(10, count);
+    }
+
+    @Test
+    public void updateAndRemove() throws Exception {
+        createDomain(PackedRecordReadable.class);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            PackedRecordEditable obj = transaction.create(PackedRecordEditable.class);
+            obj.setName("first");
+            obj.setSize(10L);
+            obj.setSingle(true);
+            transaction.save(obj);
+
+            obj = transaction.create(PackedRecordEditable.class);
+            obj.setName("second");
+            obj.setSize(20L);
+            transaction.save(obj);
+        });
+
+        domainObjectSource.executeTransactional(transaction -> {
+            PackedRecordEditable obj = transaction.get(PackedRecordEditable.class, 1, Collections.emptySet());
+            obj.setSize(30L);
+            transaction.save(obj);
+        });
+
+        PackedRecordReadable obj = domainObjectSource.get(PackedRecordReadable.class, 1);
+        Assert.assertEquals("first", obj.getName());
+        Assert.assertEquals(30L, obj.getSize().longValue());
+        Assert.assertTrue(obj.isSingle());
+        assertFound(new HashFilter(PackedRecordReadable.FIELD_SIZE, 10L));
+        assertFound(new HashFilter(PackedRecordReadable.FIELD_SIZE, 30L), 1L);
+        assertFound(new PrefixFilter(PackedRecordReadable.FIELD_NAME, "fir"), 1L);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            transaction.remove(transaction.get(PackedRecordEditable.class, 1, Collections.emptySet()));
+        });
+
+        Assert.assertNull(domainObjectSource.get(PackedRecordReadable.class, 1));
+        assertFound(new HashFilter(PackedRecordReadable.FIELD_SIZE, 30L));
+        assertFound(new PrefixFilter(PackedRecordReadable.FIELD_NAME, "fir"));
+        assertFound(new PrefixFilter(PackedRecordReadable.FIELD_NAME, "sec"), 2L);
+        assertKeyCount(1);
+    }
+
+    @Test
+    public void migrateToPackedAndBack() throws Exception {
+        createDomain(KeyPerFieldRecord.class);
+        domainObjectSource.executeTransactional(transaction -> {
+            for (int i = 0; i < 10; ++i) {
+                KeyPerFieldRecord obj = transaction.create(KeyPerFieldRecord.class);
+                obj.set(PackedRecordReadable.FIELD_NAME, "name " + i);
+                obj.set(PackedRecordReadable.FIELD_SIZE, (long) i);
+                transaction.save(obj);
+            }
+        });
+        assertKeyCount(10 * 3);
+
+        new Schema.Builder().withDomain(PackedRecordReadable.class).build();
+        try {
+            new DomainService(rocksDBProvider)
+                    .setValidationMode(true)
+                    .setDomain(Schema.getEntity(PackedRecordReadable.class))
+                    .execute();
+            Assert.fail();
+        } catch (InconsistentDatabaseException e) {
+            Assert.assertTrue(true);
+        }
+
+        createDomain(PackedRecordReadable.class);
+        assertKeyCount(10);
+        for (long id = 1; id <= 10; ++id) {
+            PackedRecordReadable obj = domainObjectSource.get(PackedRecordReadable.class, id);
+            Assert.assertEquals("name " + (id - 1), obj.getName());
+            Assert.assertEquals(id - 1, obj.getSize().longValue());
+            Assert.assertNull(obj.isSingle());
+        }
+        assertFound(new HashFilter(PackedRecordReadable.FIELD_SIZE, 4L), 5L);
+
+        createDomain(KeyPerFieldRecord.class);
+        assertKeyCount(10 * 3);
+        for (long id = 1; id <= 10; ++id) {
+            KeyPerFieldRecord obj = domainObjectSource.get(KeyPerFieldRecord.class, id);
+            Assert.assertEquals("name " + (id - 1), obj.get(PackedRecordReadable.FIELD_NAME));
+            Assert.assertEquals(Long.valueOf(id - 1), obj.get(PackedRecordReadable.FIELD_SIZE));
+            Assert.assertNull(obj.get(PackedRecordReadable.FIELD_SINGLE));
+        }
+    }
+
+    private void assertFound(Filter filter, Long... expectedIds) throws Exception {
+        HashSet<Long> ids = new HashSet<>();
+        try (IteratorEntity<PackedRecordReadable> i = domainObjectSource.find(PackedRecordReadable.class, filter)) {
+            while (i.hasNext()) {
+                ids.add(i.next().getId());
+            }
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList(expectedIds)), ids);
+    }
+
+    private void assertKeyCount(int expected) throws Exception {
+        int count = 0;
+        try (DBIterator i = rocksDBProvider.createIterator(COLUMN_FAMILY)) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                ++count;
+            }
+        }
+        Assert.assertEquals(expected, count);
+    }
+}
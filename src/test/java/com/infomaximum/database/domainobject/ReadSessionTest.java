@@ -0,0 +1,119 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.filter.HashFilter;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.exception.runtime.ClosedObjectException;
+import com.infomaximum.database.provider.DBProvider;
+import com.infomaximum.database.provider.DBSnapshot;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReadSessionTest extends StoreFileDataTest {
+
+    @Test
+    public void readPinnedState() throws Exception {
+        fill(10);
+
+        try (ReadSession session = domainObjectSource.buildReadSession()) {
+            domainObjectSource.executeTransactional(transaction -> {
+                StoreFileEditable obj = transaction.get(StoreFileEditable.class, 1L);
+                obj.setFileName("changed");
+                transaction.save(obj);
+                transaction.remove(transaction.get(StoreFileEditable.class, 2L));
+                transaction.save(transaction.create(StoreFileEditable.class));
+            });
+
+            Assert.assertEquals("name", session.get(StoreFileReadable.class, 1L).getFileName());
+            Assert.assertNotNull(session.get(StoreFileReadable.class, 2L));
+            Assert.assertNull(session.get(StoreFileReadable.class, 11L));
+            testFind(session, new HashFilter(StoreFileReadable.FIELD_FILE_NAME, "name"), 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            testFind(session, EmptyFilter.INSTANCE, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        }
+
+        Assert.assertEquals("changed", domainObjectSource.get(StoreFileReadable.class, 1L).getFileName());
+        testFind(new HashFilter(StoreFileReadable.FIELD_FILE_NAME, "name"), 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void reuseIterators() throws Exception {
+        fill(10);
+
+        AtomicInteger createdIteratorCount = new AtomicInteger();
+        DomainObjectSource source = new DomainObjectSource(countIterators(rocksDBProvider, createdIteratorCount));
+        try (ReadSession session = source.buildReadSession()) {
+            for (int i = 0; i < 100; ++i) {
+                Assert.assertEquals(i % 10 + 1, session.get(StoreFileReadable.class, i % 10 + 1).getId());
+                testFind(session, new HashFilter(StoreFileReadable.FIELD_FILE_NAME, "name"), 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            }
+            Assert.assertEquals(2, createdIteratorCount.get());
+
+            try (IteratorEntity<StoreFileReadable> iterator = session.find(StoreFileReadable.class, EmptyFilter.INSTANCE)) {
+                while (iterator.hasNext()) {
+                    StoreFileReadable obj = iterator.next();
+                    Assert.assertEquals(obj.getId(), session.get(StoreFileReadable.class, obj.getId()).getId());
+                }
+            }
+            Assert.assertEquals(3, createdIteratorCount.get());
+        }
+    }
+
+    @Test
+    public void closedSession() throws Exception {
+        fill(1);
+
+        ReadSession session = domainObjectSource.buildReadSession();
+        IteratorEntity<StoreFileReadable> iterator = session.find(StoreFileReadable.class, EmptyFilter.INSTANCE);
+        session.close();
+        iterator.close();
+
+        try {
+            session.get(StoreFileReadable.class, 1L);
+            Assert.fail();
+        } catch (ClosedObjectException e) {
+            Assert.assertTrue(true);
+        }
+    }
+
+    private static DBProvider countIterators(DBProvider dbProvider, AtomicInteger counter) {
+        return (DBProvider) Proxy.newProxyInstance(DBProvider.class.getClassLoader(), new Class[] { DBProvider.class }, (proxy, method, args) -> {
+            Object result = invoke(dbProvider, method, args);
+            if (!method.getName().equals("createSnapshot")) {
+                return result;
+            }
+
+            DBSnapshot snapshot = (DBSnapshot) result;
+            return Proxy.newProxyInstance(DBSnapshot.class.getClassLoader(), new Class[] { DBSnapshot.class }, (p, m, a) -> {
+                if (m.getName().equals("createIterator")) {
+                    counter.incrementAndGet();
+                }
+                return invoke(snapshot, m, a);
+            });
+        });
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void fill(int count) throws Exception {
+        domainObjectSource.executeTransactional(transaction -> {
+            for (int i = 0; i < count; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("name");
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.infomaximum.database.domainobject;
+
+import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.filter.HashFilter;
+import com.infomaximum.database.domainobject.filter.IdFilter;
+import com.infomaximum.database.domainobject.filter.PrefixFilter;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public class StreamTest extends StoreFileDataTest {
+
+    @Test
+    public void streamAll() throws Exception {
+        fill(500);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, EmptyFilter.INSTANCE)) {
+            Assert.assertEquals(ids(1, 500), stream.map(DomainObject::getId).collect(Collectors.toList()));
+        }
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, EmptyFilter.INSTANCE).parallel()) {
+            Assert.assertEquals(ids(1, 500), stream.map(DomainObject::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void streamByIds() throws Exception {
+        fill(100);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, new IdFilter(10, 20),
+                Collections.singleton(StoreFileReadable.FIELD_SIZE)).parallel()) {
+            Assert.assertEquals(LongStream.rangeClosed(10, 20).map(id -> id - 1).sum(), stream.mapToLong(StoreFileReadable::getSize).sum());
+        }
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, new IdFilter(200, 300))) {
+            Assert.assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    public void shortCircuit() throws Exception {
+        fill(100);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, EmptyFilter.INSTANCE)) {
+            Assert.assertEquals(ids(1, 5), stream.limit(5).map(DomainObject::getId).collect(Collectors.toList()));
+        }
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, new HashFilter(StoreFileReadable.FIELD_FILE_NAME, "even"))) {
+            Assert.assertEquals(2L, stream.findFirst().get().getId());
+        }
+    }
+
+    @Test
+    public void streamByIndex() throws Exception {
+        fill(100);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "od"))) {
+            List<Long> ids = stream.map(DomainObject::getId).sorted().collect(Collectors.toList());
+            Assert.assertEquals(LongStream.rangeClosed(1, 100).filter(id -> id % 2 == 1).boxed().collect(Collectors.toList()), ids);
+        }
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.stream(StoreFileReadable.class, new HashFilter(StoreFileReadable.FIELD_FILE_NAME, "even")).parallel()) {
+            Assert.assertEquals(50, stream.count());
+        }
+    }
+
+    @Test
+    public void streamInTransaction() throws Exception {
+        fill(10);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            transaction.remove(transaction.get(StoreFileEditable.class, 3L));
+            transaction.save(transaction.create(StoreFileEditable.class));
+
+            try (Stream<StoreFileReadable> stream = transaction.stream(StoreFileReadable.class, EmptyFilter.INSTANCE).parallel()) {
+                Assert.assertEquals(Arrays.asList(1L, 2L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L),
+                        stream.map(DomainObject::getId).collect(Collectors.toList()));
+            }
+        });
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private void fill(int count) throws Exception {
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 0; i < count; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setSize(i);
+                obj.setFileName(i % 2 == 0 ? "odd" : "even");
+                transaction.save(obj);
+            }
+        });
+    }
+}
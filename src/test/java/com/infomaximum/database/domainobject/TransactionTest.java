@@ -2,9 +2,14 @@ package com.infomaximum.database.domainobject;
 
 import com.infomaximum.database.domainobject.iterator.IteratorEntity;
 import com.infomaximum.database.domainobject.filter.EmptyFilter;
+import com.infomaximum.database.domainobject.filter.HashFilter;
+import com.infomaximum.database.domainobject.filter.IntervalFilter;
+import com.infomaximum.database.domainobject.filter.PrefixFilter;
+import com.infomaximum.database.exception.DatabaseException;
 import com.infomaximum.database.exception.ForeignDependencyException;
 import com.infomaximum.database.maintenance.ChangeMode;
 import com.infomaximum.database.maintenance.DomainService;
+import com.infomaximum.database.provider.DBIterator;
 import com.infomaximum.database.schema.Schema;
 import com.infomaximum.database.utils.TypeConvert;
 import com.infomaximum.domain.ExchangeFolderEditable;
@@ -12,9 +17,13 @@ import com.infomaximum.domain.ExchangeFolderReadable;
 import com.infomaximum.domain.StoreFileEditable;
 import com.infomaximum.domain.StoreFileReadable;
 import com.infomaximum.domain.type.FormatType;
+import com.infomaximum.rocksdb.CompactionPolicy;
+import com.infomaximum.rocksdb.RocksDataBaseBuilder;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 public class TransactionTest extends StoreFileDataTest {
 
     @Test
@@ -333,4 +342,133 @@ public class TransactionTest extends StoreFileDataTest {
             transaction.removeAll(ExchangeFolderEditable.class);
         });
     }
+
+    @Test
+    public void removeAllConflictsWithConcurrentSave() throws Exception {
+        rocksDBProvider.close();
+        rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).withCompactionPolicy(CompactionPolicy.DISABLED).build();
+        domainObjectSource = new DomainObjectSource(rocksDBProvider);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 0; i < 10; ++i) {
+                StoreFileEditable file = transaction.create(StoreFileEditable.class);
+                file.setSize(i);
+                file.setFileName("file " + i);
+                transaction.save(file);
+            }
+        });
+
+        try (Transaction concurrent = domainObjectSource.buildTransaction()) {
+            StoreFileEditable file = concurrent.get(StoreFileEditable.class, 1);
+            file.setSize(100);
+            concurrent.save(file);
+
+            domainObjectSource.executeTransactional(transaction -> transaction.removeAll(StoreFileEditable.class));
+
+            try {
+                concurrent.commit();
+                Assert.fail();
+            } catch (DatabaseException ignore) {
+            }
+        }
+
+        testFind(domainObjectSource, EmptyFilter.INSTANCE);
+        testFind(domainObjectSource, new HashFilter(StoreFileReadable.FIELD_SIZE, 100L));
+        new DomainService(domainObjectSource.getDbProvider())
+                .setChangeMode(ChangeMode.NONE)
+                .setValidationMode(true)
+                .setDomain(Schema.getEntity(StoreFileEditable.class))
+                .execute();
+    }
+
+    @Test
+    public void truncateConflictsWithConcurrentSave() throws Exception {
+        rocksDBProvider.close();
+        rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).withCompactionPolicy(CompactionPolicy.DISABLED).build();
+        domainObjectSource = new DomainObjectSource(rocksDBProvider);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 0; i < 10; ++i) {
+                StoreFileEditable file = transaction.create(StoreFileEditable.class);
+                file.setFileName("file " + i);
+                transaction.save(file);
+            }
+        });
+
+        try (Transaction saving = domainObjectSource.buildTransaction();
+             Transaction removing = domainObjectSource.buildTransaction()) {
+            StoreFileEditable file = saving.get(StoreFileEditable.class, 1);
+            file.setSize(100);
+            saving.save(file);
+            removing.remove(removing.get(StoreFileEditable.class, 2));
+
+            domainObjectSource.executeTransactional(transaction -> transaction.removeAll(StoreFileEditable.class, true));
+
+            for (Transaction transaction : Arrays.asList(saving, removing)) {
+                try {
+                    transaction.commit();
+                    Assert.fail();
+                } catch (DatabaseException ignore) {
+                }
+            }
+        }
+
+        testFind(domainObjectSource, EmptyFilter.INSTANCE);
+        try (DBIterator iterator = rocksDBProvider.createIterator(Schema.getEntity(StoreFileEditable.class).getIndexColumnFamily())) {
+            Assert.assertNull(iterator.seek(null));
+        }
+        new DomainService(domainObjectSource.getDbProvider())
+                .setChangeMode(ChangeMode.NONE)
+                .setValidationMode(true)
+                .setDomain(Schema.getEntity(StoreFileEditable.class))
+                .execute();
+    }
+
+    @Test
+    public void truncate() throws Exception {
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 0; i < 100; ++i) {
+                StoreFileEditable file = transaction.create(StoreFileEditable.class);
+                file.setSize(i % 5);
+                file.setFileName("file " + i);
+                file.setBegin(i);
+                file.setEnd(i + 10);
+                transaction.save(file);
+            }
+        });
+
+        domainObjectSource.executeTransactional(transaction -> {
+            StoreFileEditable removedFile = transaction.get(StoreFileEditable.class, 10);
+
+            transaction.removeAll(StoreFileEditable.class, true);
+            Assert.assertTrue(transaction.isMarkedForDeletion(Schema.getEntity(StoreFileEditable.class), 10));
+            Assert.assertNull(transaction.get(StoreFileEditable.class, 10));
+
+            removedFile.setSize(3);
+            try {
+                transaction.save(removedFile);
+                Assert.fail();
+            } catch (IllegalArgumentException ignore) {
+            }
+            transaction.remove(removedFile);
+
+            StoreFileEditable file = transaction.create(StoreFileEditable.class);
+            file.setSize(3);
+            file.setFileName("file new");
+            transaction.save(file);
+
+            testFind(transaction, EmptyFilter.INSTANCE, file.getId());
+            testFind(transaction, new HashFilter(StoreFileReadable.FIELD_SIZE, 3L), file.getId());
+        });
+
+        testFind(domainObjectSource, EmptyFilter.INSTANCE, 102);
+        testFind(domainObjectSource, new HashFilter(StoreFileReadable.FIELD_SIZE, 3L), 102);
+        testFind(domainObjectSource, new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "file"), 102);
+        testFind(domainObjectSource, new IntervalFilter(StoreFileReadable.FIELD_SIZE, 0L, 10L), 102);
+        new DomainService(domainObjectSource.getDbProvider())
+                .setChangeMode(ChangeMode.NONE)
+                .setValidationMode(true)
+                .setDomain(Schema.getEntity(StoreFileEditable.class))
+                .execute();
+    }
 }
@@ -1,19 +1,25 @@
 package com.infomaximum.database.domainobject.index;
 
 import com.infomaximum.database.domainobject.filter.PrefixFilter;
+import com.infomaximum.database.exception.DatabaseException;
 import com.infomaximum.database.exception.runtime.IndexNotFoundException;
 import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBTransaction;
 import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.schema.PrefixIndex;
 import com.infomaximum.database.schema.Schema;
-import com.infomaximum.database.provider.KeyValue;
 import com.infomaximum.database.schema.StructEntity;
 import com.infomaximum.database.utils.key.Key;
 import com.infomaximum.database.utils.key.PrefixIndexKey;
+import com.infomaximum.database.utils.PrefixIndexBlock;
+import com.infomaximum.database.utils.PrefixIndexBlockIterator;
 import com.infomaximum.database.utils.PrefixIndexUtils;
 import com.infomaximum.database.utils.TypeConvert;
 import com.infomaximum.domain.StoreFileEditable;
 import com.infomaximum.domain.StoreFileReadable;
 import com.infomaximum.database.domainobject.StoreFileDataTest;
+import com.infomaximum.rocksdb.CompactionPolicy;
+import com.infomaximum.rocksdb.RocksDataBaseBuilder;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -58,11 +64,12 @@ public class PrefixIndexTest extends StoreFileDataTest {
 
         List<String> currentLexemes = new ArrayList<>(lexemes);
         try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
-            KeyValue keyValue = iterator.seek(buildAttendantPrefixIndex());
-            while (keyValue != null) {
-                assertEquals(0, buffer.array(), currentLexemes, keyValue);
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            boolean exists = blocks.seek(buildAttendantPrefixIndex());
+            while (exists) {
+                assertEquals(0, buffer.array(), currentLexemes, blocks);
 
-                keyValue = iterator.next();
+                exists = blocks.next();
             }
         }
 
@@ -79,16 +86,17 @@ public class PrefixIndexTest extends StoreFileDataTest {
 
         List<String> currentLexemes = new ArrayList<>(lexemes);
         try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
-            KeyValue keyValue = iterator.seek(buildAttendantPrefixIndex());
-            while (keyValue != null) {
-                PrefixIndexKey key = PrefixIndexKey.unpack(keyValue.getKey());
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            boolean exists = blocks.seek(buildAttendantPrefixIndex());
+            while (exists) {
+                PrefixIndexKey key = PrefixIndexKey.unpack(blocks.getKey());
                 Assert.assertEquals(0, key.getBlockNumber());
-                Assert.assertArrayEquals(bufferForFullBlock.array(), keyValue.getValue());
+                assertIds(bufferForFullBlock.array(), blocks);
 
-                keyValue = iterator.next();
-                assertEquals(1, buffer.array(), currentLexemes, keyValue);
+                Assert.assertTrue(blocks.next());
+                assertEquals(1, buffer.array(), currentLexemes, blocks);
 
-                keyValue = iterator.next();
+                exists = blocks.next();
             }
         }
 
@@ -127,22 +135,122 @@ public class PrefixIndexTest extends StoreFileDataTest {
 
         List<String> currentLexemes = new ArrayList<>(lexemes);
         try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
-            KeyValue keyValue = iterator.seek(buildAttendantPrefixIndex());
-            while (keyValue != null) {
-                PrefixIndexKey key = PrefixIndexKey.unpack(keyValue.getKey());
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            boolean exists = blocks.seek(buildAttendantPrefixIndex());
+            while (exists) {
+                PrefixIndexKey key = PrefixIndexKey.unpack(blocks.getKey());
                 Assert.assertEquals(0, key.getBlockNumber());
-                Assert.assertArrayEquals(bufferForFullBlock.array(), keyValue.getValue());
+                assertIds(bufferForFullBlock.array(), blocks);
 
-                keyValue = iterator.next();
-                assertEquals(1, buffer.array(), currentLexemes, keyValue);
+                Assert.assertTrue(blocks.next());
+                assertEquals(1, buffer.array(), currentLexemes, blocks);
 
-                keyValue = iterator.next();
+                exists = blocks.next();
             }
         }
 
         Assert.assertEquals(0, currentLexemes.size());
     }
 
+    @Test
+    public void insertWithOperands() throws Exception {
+        final int recordCount = 3 * PrefixIndexUtils.PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK;
+        ByteBuffer buffer = TypeConvert.allocateBuffer(recordCount * Key.ID_BYTE_SIZE);
+        for (int i = 0; i < recordCount; ++i) {
+            buffer.put(createRecords(1).array());
+        }
+
+        List<String> currentLexemes = new ArrayList<>(lexemes);
+        try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            boolean exists = blocks.seek(buildAttendantPrefixIndex());
+            while (exists) {
+                Assert.assertTrue(blocks.getOperandCount() < PrefixIndexUtils.PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK);
+                assertEquals(0, buffer.array(), currentLexemes, blocks);
+
+                exists = blocks.next();
+            }
+        }
+
+        Assert.assertEquals(0, currentLexemes.size());
+    }
+
+    @Test
+    public void splitLastBlockByFolding() throws Exception {
+        final PrefixIndex index = Schema.getEntity(StoreFileReadable.class).getPrefixIndexes().get(0);
+        final int blockIdCount = PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK - 10;
+        final int insertingIdCount = PrefixIndexUtils.PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK + 5;
+
+        long[] ids = new long[blockIdCount + insertingIdCount];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = 2 * i + 1;
+        }
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            transaction.put(indexColumnFamily, new PrefixIndexKey("test", index).pack(), PrefixIndexBlock.pack(ids, blockIdCount));
+            for (int i = blockIdCount; i < ids.length; ++i) {
+                PrefixIndexUtils.insertIndexedLexemes(index, ids[i], Collections.singletonList("test"), transaction);
+            }
+            transaction.commit();
+        }
+
+        try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            Assert.assertTrue(blocks.seek(PrefixIndexKey.buildKeyPatternForEdit("test", index)));
+            Assert.assertEquals(0, PrefixIndexKey.unpack(blocks.getKey()).getBlockNumber());
+            Assert.assertEquals(0, blocks.getOperandCount());
+            Assert.assertArrayEquals(Arrays.copyOf(ids, PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK), blocks.getIds());
+
+            Assert.assertTrue(blocks.next());
+            Assert.assertEquals(1, PrefixIndexKey.unpack(blocks.getKey()).getBlockNumber());
+            Assert.assertArrayEquals(Arrays.copyOfRange(ids, PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK, ids.length), blocks.getIds());
+            Assert.assertFalse(blocks.next());
+        }
+    }
+
+    @Test
+    public void concurrentSplitAndInsertOfLastBlock() throws Exception {
+        rocksDBProvider.close();
+        rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).withCompactionPolicy(CompactionPolicy.DISABLED).build();
+
+        final PrefixIndex index = Schema.getEntity(StoreFileReadable.class).getPrefixIndexes().get(0);
+        final int blockIdCount = PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK - 10;
+
+        long[] ids = new long[blockIdCount + PrefixIndexUtils.PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK + 1];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = i + 1;
+        }
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            transaction.put(indexColumnFamily, new PrefixIndexKey("test", index).pack(), PrefixIndexBlock.pack(ids, blockIdCount));
+            for (int i = blockIdCount; i < ids.length - 2; ++i) {
+                PrefixIndexUtils.insertIndexedLexemes(index, ids[i], Collections.singletonList("test"), transaction);
+            }
+            transaction.commit();
+        }
+
+        try (DBTransaction splitting = rocksDBProvider.beginTransaction();
+             DBTransaction inserting = rocksDBProvider.beginTransaction()) {
+            PrefixIndexUtils.insertIndexedLexemes(index, ids[ids.length - 2], Collections.singletonList("test"), splitting);
+            PrefixIndexUtils.insertIndexedLexemes(index, ids[ids.length - 1], Collections.singletonList("test"), splitting);
+            PrefixIndexUtils.insertIndexedLexemes(index, 5000, Collections.singletonList("test"), inserting);
+
+            splitting.commit();
+            try {
+                inserting.commit();
+                Assert.fail();
+            } catch (DatabaseException ignore) {
+            }
+        }
+
+        try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            Assert.assertTrue(blocks.seek(PrefixIndexKey.buildKeyPatternForEdit("test", index)));
+            Assert.assertArrayEquals(Arrays.copyOf(ids, PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK), blocks.getIds());
+            Assert.assertTrue(blocks.next());
+            Assert.assertArrayEquals(Arrays.copyOfRange(ids, PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK, ids.length), blocks.getIds());
+            Assert.assertFalse(blocks.next());
+        }
+    }
+
     @Test
     public void remove() throws Exception {
         final int recordCount = 10;
@@ -156,17 +264,29 @@ public class PrefixIndexTest extends StoreFileDataTest {
 
         List<String> currentLexemes = new ArrayList<>(lexemes);
         try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
-            KeyValue keyValue = iterator.seek(buildAttendantPrefixIndex());
-            while (keyValue != null) {
-                assertEquals(0, buffer, currentLexemes, keyValue);
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            boolean exists = blocks.seek(buildAttendantPrefixIndex());
+            while (exists) {
+                assertEquals(0, buffer, currentLexemes, blocks);
 
-                keyValue = iterator.next();
+                exists = blocks.next();
             }
         }
 
         Assert.assertEquals(0, currentLexemes.size());
     }
 
+    @Test
+    public void removeAll() throws Exception {
+        createRecords(PrefixIndexUtils.PREFERRED_MAX_OPERAND_COUNT_PER_BLOCK + 10);
+
+        domainObjectSource.executeTransactional(transaction -> transaction.removeAll(StoreFileEditable.class));
+
+        try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
+            Assert.assertNull(iterator.seek(null));
+        }
+    }
+
     @Test
     public void update() throws Exception {
         final int recordCount = 1;
@@ -181,22 +301,28 @@ public class PrefixIndexTest extends StoreFileDataTest {
 
         List<String> currentLexemes = new ArrayList<>(Arrays.asList("test", "string", "inform@mail.", "mail."));
         try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
-            KeyValue keyValue = iterator.seek(buildAttendantPrefixIndex());
-            while (keyValue != null) {
-                assertEquals(0, buffer.array(), currentLexemes, keyValue);
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            boolean exists = blocks.seek(buildAttendantPrefixIndex());
+            while (exists) {
+                assertEquals(0, buffer.array(), currentLexemes, blocks);
 
-                keyValue = iterator.next();
+                exists = blocks.next();
             }
         }
 
         Assert.assertEquals(0, currentLexemes.size());
     }
 
-    private static void assertEquals(int expectedBlock, byte[] expectedValue, List<String> expectedLexemes, KeyValue actual) {
+    private static void assertEquals(int expectedBlock, byte[] expectedValue, List<String> expectedLexemes, PrefixIndexBlockIterator actual) {
         PrefixIndexKey key = PrefixIndexKey.unpack(actual.getKey());
         Assert.assertTrue(expectedLexemes.remove(key.getLexeme()));
         Assert.assertEquals(expectedBlock, key.getBlockNumber());
-        Assert.assertArrayEquals(expectedValue, actual.getValue());
+        assertIds(expectedValue, actual);
+    }
+
+    private static void assertIds(byte[] expectedBlock, PrefixIndexBlockIterator actual) {
+        Assert.assertFalse(PrefixIndexBlock.isLegacy(actual.getBlock()));
+        Assert.assertArrayEquals(PrefixIndexBlock.unpack(expectedBlock), actual.getIds());
     }
 
     private ByteBuffer createRecords(int recordCount) throws Exception {
@@ -1,6 +1,7 @@
 package com.infomaximum.database.domainobject.index;
 
 import com.infomaximum.database.domainobject.Value;
+import com.infomaximum.database.utils.PrefixIndexBlock;
 import com.infomaximum.database.utils.PrefixIndexUtils;
 import com.infomaximum.database.utils.TypeConvert;
 import com.infomaximum.database.utils.key.Key;
@@ -8,7 +9,6 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.Serializable;
-import java.nio.LongBuffer;
 import java.util.*;
 
 public class PrefixIndexUtilsTest {
@@ -168,11 +168,7 @@ public class PrefixIndexUtilsTest {
     }
 
     private static void assertArrayEquals(long[] expected, byte[] actual) {
-        LongBuffer buffer = TypeConvert.wrapBuffer(actual).asLongBuffer();
-        Assert.assertEquals("Size", expected.length, buffer.limit());
-        for (long val : expected) {
-            Assert.assertEquals(val, buffer.get());
-        }
+        Assert.assertArrayEquals(expected, PrefixIndexBlock.unpack(actual));
     }
 
     private static Value<Serializable>[] buildValues(String... values) {
@@ -329,6 +329,42 @@ public class HashIndexIteratorTest extends StoreFileDataTest {
         testFind(domainObjectSource, new HashFilter(StoreFileReadable.FIELD_SIZE, 2L), newObj[0].getId());
     }
 
+    @Test
+    public void findManyInIndexOrder() throws Exception {
+        final int recordCount = 1000;
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (int i = 0; i < recordCount; i++) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setSize(i % 2);
+                obj.setFileName("name" + i);
+                transaction.save(obj);
+            }
+        });
+
+        try (Transaction transaction = domainObjectSource.buildTransaction()) {
+            transaction.remove(transaction.get(StoreFileEditable.class, 3));
+            transaction.remove(transaction.get(StoreFileEditable.class, 501));
+
+            Set<Integer> loadingFields = Collections.singleton(StoreFileReadable.FIELD_FILE_NAME);
+            try (IteratorEntity<StoreFileReadable> i = transaction.find(StoreFileReadable.class, new HashFilter(StoreFileReadable.FIELD_SIZE, 0L), loadingFields)) {
+                long expectedId = 1;
+                while (i.hasNext()) {
+                    StoreFileReadable obj = i.next();
+                    if (expectedId == 3 || expectedId == 501) {
+                        expectedId += 2;
+                    }
+
+                    Assert.assertEquals(expectedId, obj.getId());
+                    Assert.assertEquals("name" + (expectedId - 1), obj.getFileName());
+                    checkLoadedState(obj, loadingFields);
+                    expectedId += 2;
+                }
+                Assert.assertEquals(recordCount + 1, expectedId);
+            }
+        }
+    }
+
     private void initAndFillStoreFiles(DomainObjectSource domainObjectSource, int recordCount) throws Exception {
         domainObjectSource.executeTransactional(transaction -> {
             for (int i = 0; i < recordCount; i++) {
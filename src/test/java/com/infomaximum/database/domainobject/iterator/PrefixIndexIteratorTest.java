@@ -192,6 +192,72 @@ public class PrefixIndexIteratorTest extends StoreFileDataTest {
         testFind(filter, expectedIds);
     }
 
+    @Test
+    public void findByWordsAmongBlocks() throws Exception {
+        final int idCount = 3 * PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK + 200;
+        final List<Long> expectedIds = new ArrayList<>();
+        final List<Long> expectedPrefixIds = new ArrayList<>();
+        domainObjectSource.executeTransactional(transaction -> {
+            for (int i = 0; i < idCount; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("ivan" + (i % 7) + " petrov" + (i % 5) + " ivanova");
+                transaction.save(obj);
+
+                if (i % 7 == 3 && i % 5 == 1) {
+                    expectedIds.add(obj.getId());
+                }
+                if (i % 5 == 1) {
+                    expectedPrefixIds.add(obj.getId());
+                }
+            }
+        });
+
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "petrov1 ivan3"), expectedIds);
+        try (PrefixIndexIterator<StoreFileReadable> iterator = new PrefixIndexIterator<>(domainObjectSource, StoreFileReadable.class,
+                Collections.emptySet(), new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "petrov1 ivan3"))) {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+            Assert.assertEquals(expectedIds.size(), iterator.getScannedKeyCount());
+            Assert.assertEquals(expectedIds.size(), iterator.getMatchedKeyCount());
+        }
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "petrov1 ivanova iv"), expectedPrefixIds);
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "ivan3 sidorov"));
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long id = 1; id <= idCount; id += 2) {
+                transaction.remove(transaction.get(StoreFileEditable.class, id));
+            }
+            expectedIds.removeIf(id -> id % 2 == 1);
+
+            testFind(transaction, new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "ivan3 petrov1"), expectedIds);
+        });
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "ivan3 petrov1"), expectedIds);
+    }
+
+    @Test
+    public void findByWordHavingManyLexemes() throws Exception {
+        final List<Long> expectedIds = new ArrayList<>();
+        final List<Long> expectedWordIds = new ArrayList<>();
+        domainObjectSource.executeTransactional(transaction -> {
+            for (int i = 0; i < 500; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("a" + i + " b" + (i % 3));
+                transaction.save(obj);
+
+                if (i % 3 == 2) {
+                    expectedWordIds.add(obj.getId());
+                    if (Integer.toString(i).startsWith("1")) {
+                        expectedIds.add(obj.getId());
+                    }
+                }
+            }
+        });
+
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "b2 a1"), expectedIds);
+        testFind(new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "a b2"), expectedWordIds);
+    }
+
     @Test
     public void removeAndFind() throws Exception {
         domainObjectSource.executeTransactional(transaction -> {
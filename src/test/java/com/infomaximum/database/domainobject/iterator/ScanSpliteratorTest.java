@@ -0,0 +1,109 @@
+package com.infomaximum.database.domainobject.iterator;
+
+import com.infomaximum.database.domainobject.DomainObject;
+import com.infomaximum.database.domainobject.StoreFileDataTest;
+import com.infomaximum.domain.StoreFileEditable;
+import com.infomaximum.domain.StoreFileReadable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public class ScanSpliteratorTest extends StoreFileDataTest {
+
+    @Test
+    public void scanInIdOrder() throws Exception {
+        fill(1000);
+
+        for (int partitionCount : new int[] {1, 3, 8, 2000}) {
+            try (Stream<StoreFileReadable> stream = domainObjectSource.parallelScan(StoreFileReadable.class, null, partitionCount)) {
+                List<Long> ids = stream.map(DomainObject::getId).collect(Collectors.toList());
+                Assert.assertEquals(LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList()), ids);
+            }
+        }
+    }
+
+    @Test
+    public void scanLoadingFields() throws Exception {
+        fill(100);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.parallelScan(StoreFileReadable.class,
+                Collections.singleton(StoreFileReadable.FIELD_SIZE), 4)) {
+            long sum = stream.mapToLong(StoreFileReadable::getSize).sum();
+            Assert.assertEquals(100 * 99 / 2, sum);
+        }
+    }
+
+    @Test
+    public void partitions() throws Exception {
+        fill(100);
+
+        try (ScanSpliterator<StoreFileReadable> root = ScanSpliterator.create(domainObjectSource, rocksDBProvider.createSnapshot(),
+                StoreFileReadable.class, null, 4)) {
+            List<Spliterator<StoreFileReadable>> partitions = new ArrayList<>();
+            split(root, partitions);
+            Assert.assertEquals(4, partitions.size());
+
+            List<Long> ids = new ArrayList<>();
+            for (Spliterator<StoreFileReadable> partition : partitions) {
+                Assert.assertTrue(partition.estimateSize() >= 20);
+                partition.forEachRemaining(obj -> ids.add(obj.getId()));
+            }
+            Assert.assertEquals(LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList()), ids);
+        }
+    }
+
+    @Test
+    public void readSnapshot() throws Exception {
+        fill(10);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.parallelScan(StoreFileReadable.class, null, 2)) {
+            domainObjectSource.executeTransactional(transaction -> {
+                transaction.remove(transaction.get(StoreFileEditable.class, 5L));
+                transaction.save(transaction.create(StoreFileEditable.class));
+            });
+
+            Assert.assertEquals(10, stream.count());
+        }
+    }
+
+    @Test
+    public void shortCircuit() throws Exception {
+        fill(100);
+
+        try (Stream<StoreFileReadable> stream = domainObjectSource.parallelScan(StoreFileReadable.class, null, 8)) {
+            Assert.assertEquals(1L, stream.map(DomainObject::getId).findFirst().get().longValue());
+        }
+    }
+
+    @Test
+    public void scanEmpty() throws Exception {
+        try (Stream<StoreFileReadable> stream = domainObjectSource.parallelScan(StoreFileReadable.class, null, 4)) {
+            Assert.assertEquals(0, stream.count());
+        }
+    }
+
+    private static void split(Spliterator<StoreFileReadable> spliterator, List<Spliterator<StoreFileReadable>> destination) {
+        Spliterator<StoreFileReadable> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            destination.add(spliterator);
+            return;
+        }
+        split(prefix, destination);
+        split(spliterator, destination);
+    }
+
+    private void fill(int count) throws Exception {
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 0; i < count; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setSize(i);
+                obj.setFileName("file " + i);
+                transaction.save(obj);
+            }
+        });
+    }
+}
@@ -9,6 +9,11 @@ import com.infomaximum.database.provider.DBTransaction;
 import com.infomaximum.database.provider.KeyPattern;
 import com.infomaximum.database.provider.KeyValue;
 import com.infomaximum.database.schema.*;
+import com.infomaximum.database.utils.PrefixIndexBlock;
+import com.infomaximum.database.utils.key.PrefixIndexKey;
+import com.infomaximum.database.utils.PrefixIndexBlockIterator;
+import com.infomaximum.database.utils.TypeConvert;
+import com.infomaximum.database.utils.key.FieldKey;
 import com.infomaximum.database.domainobject.filter.HashFilter;
 import com.infomaximum.database.domainobject.filter.PrefixFilter;
 import com.infomaximum.database.exception.DatabaseException;
@@ -112,6 +117,145 @@ public class DomainServiceTest extends DomainDataTest {
                 });
     }
 
+    @Test
+    public void encodeFieldNamesOfKeys() throws Exception {
+        StructEntity entity = Schema.getEntity(StoreFileReadable.class);
+        createDomain(StoreFileReadable.class);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 1; i < 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("Test " + i);
+                obj.setSize(i);
+                transaction.save(obj);
+            }
+        });
+
+        // rewrite keys as previous versions did: [id][field name]
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction();
+             DBIterator it = rocksDBProvider.createIterator(entity.getColumnFamily())) {
+            for (KeyValue kv = it.seek(null); kv != null ; kv = it.next()) {
+                if (FieldKey.unpackBeginningObject(kv.getKey())) {
+                    continue;
+                }
+
+                byte[] name = entity.getField(FieldKey.unpackFieldNumber(kv.getKey())).getNameBytes();
+                byte[] key = new byte[FieldKey.ID_BYTE_SIZE + name.length];
+                System.arraycopy(kv.getKey(), 0, key, 0, FieldKey.ID_BYTE_SIZE);
+                System.arraycopy(name, 0, key, FieldKey.ID_BYTE_SIZE, name.length);
+                transaction.put(entity.getColumnFamily(), key, kv.getValue());
+                transaction.delete(entity.getColumnFamily(), kv.getKey());
+            }
+            transaction.commit();
+        }
+
+        try {
+            new DomainService(rocksDBProvider).setValidationMode(true).setDomain(entity).execute();
+            Assert.fail();
+        } catch (InconsistentDatabaseException e) {
+            Assert.assertTrue(true);
+        }
+
+        createDomain(StoreFileReadable.class);
+
+        for (long i = 1; i < 10; ++i) {
+            StoreFileReadable obj = domainObjectSource.get(StoreFileReadable.class, i);
+            Assert.assertEquals("Test " + i, obj.getFileName());
+            Assert.assertEquals(i, obj.getSize());
+        }
+    }
+
+    @Test
+    public void packPrefixIndexBlocks() throws Exception {
+        StructEntity entity = Schema.getEntity(StoreFileReadable.class);
+        PrefixIndex index = entity.getPrefixIndexes().get(0);
+        createDomain(StoreFileReadable.class);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 1; i < 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("Test " + (i % 3));
+                transaction.save(obj);
+            }
+        });
+
+        writeLegacyBlocks(index, false);
+
+        try {
+            new DomainService(rocksDBProvider).setValidationMode(true).setDomain(entity).execute();
+            Assert.fail();
+        } catch (InconsistentDatabaseException e) {
+            Assert.assertTrue(true);
+        }
+
+        createDomain(StoreFileReadable.class);
+
+        try (DBIterator it = rocksDBProvider.createIterator(index.columnFamily)) {
+            for (KeyValue kv = it.seek(new KeyPattern(index.attendant)); kv != null ; kv = it.next()) {
+                Assert.assertTrue(PrefixIndexKey.isGuardKey(kv.getKey()) || !PrefixIndexBlock.isLegacy(kv.getValue()));
+            }
+        }
+        try (IteratorEntity<StoreFileReadable> iter = domainObjectSource.find(StoreFileReadable.class, new PrefixFilter(StoreFileReadable.FIELD_FILE_NAME, "test 1"))) {
+            for (long i = 1; i < 10; i += 3) {
+                Assert.assertEquals(i, iter.next().getId());
+            }
+            Assert.assertFalse(iter.hasNext());
+        }
+    }
+
+    @Test
+    public void packPrefixIndexBlocksAfterConvertedBlock() throws Exception {
+        StructEntity entity = Schema.getEntity(StoreFileReadable.class);
+        PrefixIndex index = entity.getPrefixIndexes().get(0);
+        createDomain(StoreFileReadable.class);
+
+        domainObjectSource.executeTransactional(transaction -> {
+            for (long i = 1; i < 10; ++i) {
+                StoreFileEditable obj = transaction.create(StoreFileEditable.class);
+                obj.setFileName("Test " + (i % 3));
+                transaction.save(obj);
+            }
+        });
+
+        writeLegacyBlocks(index, true);
+
+        try {
+            new DomainService(rocksDBProvider).setValidationMode(true).setDomain(entity).execute();
+            Assert.fail();
+        } catch (InconsistentDatabaseException e) {
+            Assert.assertTrue(true);
+        }
+
+        createDomain(StoreFileReadable.class);
+
+        try (DBIterator it = rocksDBProvider.createIterator(index.columnFamily)) {
+            for (KeyValue kv = it.seek(new KeyPattern(index.attendant)); kv != null ; kv = it.next()) {
+                Assert.assertTrue(PrefixIndexKey.isGuardKey(kv.getKey()) || !PrefixIndexBlock.isLegacy(kv.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Rewrites blocks as previous versions did: [id][id]...
+     * @param keepFirstBlock the first block is written in the current format as if it were saved after upgrade
+     */
+    private void writeLegacyBlocks(PrefixIndex index, boolean keepFirstBlock) throws Exception {
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction();
+             DBIterator it = rocksDBProvider.createIterator(index.columnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(it);
+            for (boolean exists = blocks.seek(new KeyPattern(index.attendant)), first = true; exists; exists = blocks.next(), first = false) {
+                long[] ids = blocks.getIds();
+                byte[] value = new byte[ids.length * Long.BYTES];
+                TypeConvert.pack(ids, value, 0);
+                transaction.put(index.columnFamily, blocks.getKey(), first && keepFirstBlock ? PrefixIndexBlock.pack(ids, ids.length) : value);
+                for (int i = 0; i < blocks.getOperandCount(); ++i) {
+                    transaction.delete(index.columnFamily, blocks.buildOperandKey(i));
+                }
+            }
+            transaction.commit();
+        }
+    }
+
     @Test
     public void validateUnknownColumnFamily() throws Exception {
         createDomain(StoreFileReadable.class);
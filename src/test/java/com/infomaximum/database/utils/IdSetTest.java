@@ -0,0 +1,94 @@
+package com.infomaximum.database.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class IdSetTest {
+
+    @Test
+    public void addAndRemove() {
+        Random random = new Random(1);
+        for (int bound : new int[] { 100, 1 << 16, 1 << 20, Integer.MAX_VALUE }) {
+            IdSet set = new IdSet();
+            TreeSet<Long> expected = new TreeSet<>();
+            for (int i = 0; i < 100000; ++i) {
+                long id = random.nextInt(bound);
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals(expected.remove(id), set.remove(id));
+                } else {
+                    Assert.assertEquals(expected.add(id), set.add(id));
+                }
+                Assert.assertEquals(expected.size(), set.size());
+            }
+
+            for (int i = 0; i < 10000; ++i) {
+                long id = random.nextInt(bound);
+                Assert.assertEquals(expected.contains(id), set.contains(id));
+                Long next = expected.ceiling(id);
+                Assert.assertEquals(next != null ? next : -1, set.next(id));
+            }
+            assertEquals(expected, set);
+        }
+    }
+
+    @Test
+    public void switchContainers() {
+        IdSet set = new IdSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        final long base = 5L << 16;
+        for (long id = base; id < base + 3 * IdSet.MAX_ARRAY_SIZE; id += 3) {
+            set.add(id);
+            expected.add(id);
+        }
+        assertEquals(expected, set);
+
+        for (long id = base; id < base + 3 * IdSet.MAX_ARRAY_SIZE; id += 6) {
+            set.remove(id);
+            expected.remove(id);
+        }
+        assertEquals(expected, set);
+
+        for (long id : new TreeSet<>(expected)) {
+            Assert.assertTrue(set.remove(id));
+        }
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertEquals(-1, set.next(0));
+    }
+
+    @Test
+    public void iterateRanges() {
+        IdSet set = new IdSet();
+        for (long id = 10; id < 20; ++id) {
+            set.add(id);
+        }
+        for (long id = (1 << 16) - 5; id < (3 << 16) + 7; ++id) {
+            set.add(id);
+        }
+        set.add(1L << 40);
+
+        Assert.assertEquals(20, set.nextAbsent(10));
+        Assert.assertEquals(9, set.nextAbsent(9));
+        Assert.assertEquals((3 << 16) + 7, set.nextAbsent((1 << 16) - 5));
+        Assert.assertEquals((1L << 40) + 1, set.nextAbsent(1L << 40));
+        Assert.assertEquals(1L << 40, set.next((3 << 16) + 7));
+        Assert.assertEquals(-1, set.next((1L << 40) + 1));
+    }
+
+    private static void assertEquals(TreeSet<Long> expected, IdSet actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        long count = 0;
+        for (long begin = actual.next(0); begin != -1; ) {
+            long end = actual.nextAbsent(begin);
+            for (long id = begin; id < end; ++id) {
+                Assert.assertTrue(expected.contains(id));
+                ++count;
+            }
+            Assert.assertFalse(expected.contains(end));
+            begin = actual.next(end);
+        }
+        Assert.assertEquals(expected.size(), count);
+    }
+}
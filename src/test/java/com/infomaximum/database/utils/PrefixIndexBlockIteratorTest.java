@@ -0,0 +1,94 @@
+package com.infomaximum.database.utils;
+
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.schema.PrefixIndex;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.utils.key.PrefixIndexKey;
+import com.infomaximum.domain.StoreFileReadable;
+import com.infomaximum.memory.MemoryDBProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrefixIndexBlockIteratorTest {
+
+    private MemoryDBProvider provider;
+    private PrefixIndex index;
+
+    @Before
+    public void init() throws Exception {
+        new Schema.Builder().withDomain(StoreFileReadable.class).build();
+        provider = new MemoryDBProvider();
+        index = Schema.getEntity(StoreFileReadable.class).getPrefixIndexes().get(0);
+        provider.createColumnFamily(index.columnFamily);
+    }
+
+    @Test
+    public void applyOperands() throws Exception {
+        byte[] blockKey = new PrefixIndexKey("test", index).pack();
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.put(index.columnFamily, blockKey, PrefixIndexBlock.pack(new long[] { 2, 4, 6, 8 }, 4));
+            putOperand(transaction, blockKey, 1, true);
+            putOperand(transaction, blockKey, 4, false);
+            putOperand(transaction, blockKey, 6, true);
+            putOperand(transaction, blockKey, 7, true);
+            putOperand(transaction, blockKey, 8, false);
+            putOperand(transaction, blockKey, 9, false);
+            putOperand(transaction, blockKey, 10, true);
+            putOperand(transaction, blockKey, 10, false);
+            transaction.put(index.columnFamily, new PrefixIndexKey("test", 1, index).pack(), PrefixIndexBlock.pack(20));
+            transaction.commit();
+        }
+
+        try (DBIterator iterator = provider.createIterator(index.columnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            Assert.assertTrue(blocks.seek(PrefixIndexKey.buildKeyPatternForEdit("test", index)));
+            Assert.assertArrayEquals(blockKey, blocks.getKey());
+            Assert.assertEquals(7, blocks.getOperandCount());
+            Assert.assertArrayEquals(new long[] { 1, 2, 6, 7 }, blocks.getIds());
+            Assert.assertEquals(8, blocks.getLastId());
+            Assert.assertTrue(blocks.contains(1));
+            Assert.assertTrue(blocks.contains(2));
+            Assert.assertFalse(blocks.contains(4));
+            Assert.assertFalse(blocks.contains(10));
+            PrefixIndexBlock.Reader reader = blocks.read(new PrefixIndexBlock.Reader());
+            for (long id : new long[] { 1, 2, 6, 7 }) {
+                Assert.assertEquals(id, reader.next());
+            }
+            Assert.assertFalse(reader.hasNext());
+
+            Assert.assertTrue(blocks.hasNext());
+            Assert.assertTrue(blocks.next());
+            Assert.assertEquals(1, PrefixIndexKey.unpack(blocks.getKey()).getBlockNumber());
+            Assert.assertEquals(0, blocks.getOperandCount());
+            Assert.assertArrayEquals(new long[] { 20 }, blocks.getIds());
+            Assert.assertFalse(blocks.next());
+        }
+    }
+
+    @Test
+    public void readOperandsWithoutBlock() throws Exception {
+        byte[] blockKey = new PrefixIndexKey("test", index).pack();
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            putOperand(transaction, blockKey, 5, true);
+            putOperand(transaction, blockKey, 3, true);
+            transaction.commit();
+        }
+
+        try (DBIterator iterator = provider.createIterator(index.columnFamily)) {
+            PrefixIndexBlockIterator blocks = new PrefixIndexBlockIterator(iterator);
+            Assert.assertTrue(blocks.seek(new KeyPattern(index.attendant)));
+            Assert.assertArrayEquals(blockKey, blocks.getKey());
+            Assert.assertEquals(0, blocks.getBlock().length);
+            Assert.assertArrayEquals(new long[] { 3, 5 }, blocks.getIds());
+            Assert.assertFalse(blocks.next());
+        }
+    }
+
+    private void putOperand(DBTransaction transaction, byte[] blockKey, long id, boolean adding) throws Exception {
+        transaction.put(index.columnFamily, PrefixIndexKey.buildOperandKey(blockKey, id),
+                adding ? PrefixIndexBlockIterator.ADD_OPERAND : PrefixIndexBlockIterator.REMOVE_OPERAND);
+    }
+}
@@ -0,0 +1,109 @@
+package com.infomaximum.database.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class PrefixIndexBlockTest {
+
+    @Test
+    public void packAndUnpack() {
+        Random random = new Random(1);
+        for (int count : new int[] { 1, 2, PrefixIndexBlock.GROUP_SIZE - 1, PrefixIndexBlock.GROUP_SIZE,
+                PrefixIndexBlock.GROUP_SIZE + 1, PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK }) {
+            long[] ids = buildIds(count, random);
+            byte[] block = PrefixIndexBlock.pack(ids, ids.length);
+
+            Assert.assertFalse(PrefixIndexBlock.isLegacy(block));
+            Assert.assertArrayEquals(ids, PrefixIndexBlock.unpack(block));
+            Assert.assertEquals(count, PrefixIndexBlock.getIdCount(block));
+            Assert.assertEquals(ids[count - 1], PrefixIndexBlock.getLastId(block));
+        }
+    }
+
+    @Test
+    public void packDenseIds() {
+        long[] ids = new long[PrefixIndexUtils.PREFERRED_MAX_ID_COUNT_PER_BLOCK];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = 1000000 + i;
+        }
+
+        byte[] block = PrefixIndexBlock.pack(ids, ids.length);
+        Assert.assertTrue(block.length < ids.length * Long.BYTES / 6);
+    }
+
+    @Test
+    public void readLegacyBlock() {
+        long[] ids = buildIds(100, new Random(2));
+        byte[] block = new byte[ids.length * Long.BYTES];
+        TypeConvert.pack(ids, block, 0);
+
+        Assert.assertTrue(PrefixIndexBlock.isLegacy(block));
+        Assert.assertArrayEquals(ids, PrefixIndexBlock.unpack(block));
+        Assert.assertEquals(ids.length, PrefixIndexBlock.getIdCount(block));
+        Assert.assertEquals(ids[ids.length - 1], PrefixIndexBlock.getLastId(block));
+        Assert.assertTrue(PrefixIndexBlock.contains(ids[50], block));
+        Assert.assertFalse(PrefixIndexBlock.contains(ids[50] + 1, block));
+    }
+
+    @Test
+    public void skipTo() {
+        Random random = new Random(3);
+        long[] ids = buildIds(500, random);
+        byte[] legacyBlock = new byte[ids.length * Long.BYTES];
+        TypeConvert.pack(ids, legacyBlock, 0);
+
+        for (byte[] block : Arrays.asList(PrefixIndexBlock.pack(ids, ids.length), legacyBlock)) {
+            for (int i = 0; i < 200; ++i) {
+                PrefixIndexBlock.Reader reader = new PrefixIndexBlock.Reader(block);
+                int pos = 0;
+                for (int step = 0; step < 5; ++step) {
+                    if (random.nextBoolean() && reader.hasNext()) {
+                        Assert.assertEquals(ids[pos++], reader.next());
+                        continue;
+                    }
+
+                    long target = random.nextInt((int) ids[ids.length - 1] + 10);
+                    while (pos < ids.length && ids[pos] < target) {
+                        ++pos;
+                    }
+                    Assert.assertEquals(pos < ids.length ? ids[pos++] : -1, reader.skipTo(target));
+                }
+                while (reader.hasNext()) {
+                    Assert.assertEquals(ids[pos++], reader.next());
+                }
+                Assert.assertEquals(ids.length, pos);
+            }
+        }
+    }
+
+    @Test
+    public void appendAndRemoveId() {
+        byte[] block = PrefixIndexBlock.pack(10);
+        for (long id = 200; id > 10; id -= 2) {
+            block = PrefixIndexBlock.appendId(id, block);
+        }
+        Assert.assertSame(block, PrefixIndexBlock.appendId(100, block));
+        Assert.assertEquals(96, PrefixIndexBlock.getIdCount(block));
+
+        Assert.assertNull(PrefixIndexBlock.removeId(11, block));
+        block = PrefixIndexBlock.removeId(100, block);
+        Assert.assertFalse(PrefixIndexBlock.contains(100, block));
+        Assert.assertTrue(PrefixIndexBlock.contains(102, block));
+        Assert.assertEquals(95, PrefixIndexBlock.getIdCount(block));
+
+        Assert.assertArrayEquals(TypeConvert.EMPTY_BYTE_ARRAY, PrefixIndexBlock.removeId(10, PrefixIndexBlock.pack(10)));
+    }
+
+    private static long[] buildIds(int count, Random random) {
+        long[] ids = new long[count];
+        long id = 1 + random.nextInt(100);
+        for (int i = 0; i < count; ++i) {
+            ids[i] = id;
+            id += 1 + (random.nextInt(10) == 0 ? random.nextInt(100000) : random.nextInt(3));
+        }
+        return ids;
+    }
+}
@@ -31,21 +31,30 @@ public class KeyTest {
 
     @Test
     public void testFieldKey() {
-        for (int i=0; i<1000; i++) {
+        for (int fieldNumber = 0; fieldNumber <= FieldKey.MAX_FIELD_NUMBER; fieldNumber++) {
             long id = Math.abs(RandomUtil.random.nextLong());
-            String fieldName = UUID.randomUUID().toString().toLowerCase().replace("-", "");
-            byte[] fieldNameBytes = TypeConvert.pack(fieldName);
 
-            FieldKey key = new FieldKey(id, fieldNameBytes);
+            FieldKey key = new FieldKey(id, fieldNumber);
 
             byte[] sKey = key.pack();
 
             Assert.assertEquals(id, FieldKey.unpackId(sKey));
-            Assert.assertEquals(fieldName, FieldKey.unpackFieldName(sKey));
+            Assert.assertEquals(fieldNumber, FieldKey.unpackFieldNumber(sKey));
+            Assert.assertTrue(FieldKey.containsFieldCode(sKey));
             Assert.assertFalse(FieldKey.unpackBeginningObject(sKey));
         }
     }
 
+    @Test
+    public void testFieldKeyWithName() {
+        for (String fieldName : new String[] { "a", "id", "\u0444", "\u0444\u0430", UUID.randomUUID().toString() }) {
+            byte[] fieldNameBytes = TypeConvert.pack(fieldName);
+            byte[] sKey = new byte[FieldKey.ID_BYTE_SIZE + fieldNameBytes.length];
+            System.arraycopy(fieldNameBytes, 0, sKey, FieldKey.ID_BYTE_SIZE, fieldNameBytes.length);
+
+            Assert.assertFalse(FieldKey.containsFieldCode(sKey));
+        }
+    }
 
     @Test
     public void testIndexKey() {
@@ -0,0 +1,22 @@
+package com.infomaximum.domain;
+
+import com.infomaximum.database.domainobject.DomainObjectEditable;
+
+public class PackedRecordEditable extends PackedRecordReadable implements DomainObjectEditable {
+
+    public PackedRecordEditable(long id) {
+        super(id);
+    }
+
+    public void setName(String value) {
+        set(FIELD_NAME, value);
+    }
+
+    public void setSize(Long value) {
+        set(FIELD_SIZE, value);
+    }
+
+    public void setSingle(Boolean value) {
+        set(FIELD_SINGLE, value);
+    }
+}
@@ -0,0 +1,43 @@
+package com.infomaximum.domain;
+
+import com.infomaximum.database.anotation.*;
+import com.infomaximum.database.domainobject.DomainObject;
+
+@Entity(
+        namespace = "com.infomaximum.rocksdb",
+        name = "packed_record",
+        storage = Entity.Storage.PACKED,
+        fields = {
+                @Field(number = PackedRecordReadable.FIELD_NAME, name = "name", type = String.class),
+                @Field(number = PackedRecordReadable.FIELD_SIZE, name = "size", type = Long.class),
+                @Field(number = PackedRecordReadable.FIELD_SINGLE, name = "single", type = Boolean.class)
+        },
+        hashIndexes = {
+                @HashIndex(fields = {PackedRecordReadable.FIELD_SIZE})
+        },
+        prefixIndexes = {
+                @PrefixIndex(fields = {PackedRecordReadable.FIELD_NAME})
+        }
+)
+public class PackedRecordReadable extends DomainObject {
+
+    public final static int FIELD_NAME = 0;
+    public final static int FIELD_SIZE = 1;
+    public final static int FIELD_SINGLE = 2;
+
+    public PackedRecordReadable(long id) {
+        super(id);
+    }
+
+    public String getName() {
+        return getString(FIELD_NAME);
+    }
+
+    public Long getSize() {
+        return getLong(FIELD_SIZE);
+    }
+
+    public Boolean isSingle() {
+        return getBoolean(FIELD_SINGLE);
+    }
+}
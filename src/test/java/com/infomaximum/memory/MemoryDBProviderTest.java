@@ -0,0 +1,453 @@
+package com.infomaximum.memory;
+
+import com.google.common.primitives.Longs;
+import com.infomaximum.database.exception.ColumnFamilyNotFoundException;
+import com.infomaximum.database.exception.SequenceAlreadyExistsException;
+import com.infomaximum.database.exception.SequenceNotFoundException;
+import com.infomaximum.database.exception.TransactionConflictException;
+import com.infomaximum.database.provider.*;
+import com.infomaximum.database.utils.TypeConvert;
+import com.infomaximum.rocksdb.RocksDBProvider;
+import com.infomaximum.rocksdb.RocksDataBaseBuilder;
+import com.infomaximum.rocksdb.RocksDataTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class MemoryDBProviderTest extends RocksDataTest {
+
+    private static final String COLUMN_FAMILY = "com.infomaximum.memory.test";
+
+    @Test
+    public void readOwnWrites() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 1, 1);
+        put(provider, 3, 3);
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.put(COLUMN_FAMILY, key(2), value(2));
+            transaction.put(COLUMN_FAMILY, key(3), value(30));
+            transaction.delete(COLUMN_FAMILY, key(1));
+
+            Assert.assertNull(transaction.getValue(COLUMN_FAMILY, key(1)));
+            Assert.assertArrayEquals(value(30), transaction.getValue(COLUMN_FAMILY, key(3)));
+            assertKeys(transaction.createIterator(COLUMN_FAMILY), 2, 3);
+            assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 3);
+
+            transaction.rollback();
+            assertKeys(transaction.createIterator(COLUMN_FAMILY), 1, 3);
+        }
+
+        Assert.assertArrayEquals(value(3), provider.getValue(COLUMN_FAMILY, key(3)));
+    }
+
+    @Test
+    public void writesDuringIteration() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        for (long i = 1; i <= 5; ++i) {
+            put(provider, i, i);
+        }
+
+        try (DBTransaction transaction = provider.beginTransaction();
+             DBIterator iterator = transaction.createIterator(COLUMN_FAMILY)) {
+            List<Long> keys = new ArrayList<>();
+            for (KeyValue keyValue = iterator.seek(null); keyValue != null; keyValue = iterator.next()) {
+                long key = Longs.fromByteArray(keyValue.getKey());
+                keys.add(key);
+                transaction.delete(COLUMN_FAMILY, key(key + 1));
+                if (key == 1) {
+                    transaction.put(COLUMN_FAMILY, key(10), value(key));
+                }
+            }
+            Assert.assertEquals(Arrays.asList(1L, 3L, 5L, 10L), keys);
+            transaction.commit();
+        }
+
+        assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 3, 5, 10);
+    }
+
+    @Test
+    public void conflictOfReadKey() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 1, 1);
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.getValue(COLUMN_FAMILY, key(1));
+            transaction.put(COLUMN_FAMILY, key(2), value(2));
+
+            put(provider, 1, 10);
+
+            try {
+                transaction.commit();
+                Assert.fail();
+            } catch (TransactionConflictException e) {
+                Assert.assertTrue(true);
+            }
+        }
+
+        Assert.assertNull(provider.getValue(COLUMN_FAMILY, key(2)));
+    }
+
+    @Test
+    public void conflictOfIteratedKey() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 1, 1);
+        put(provider, 2, 2);
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            try (DBIterator iterator = transaction.createIterator(COLUMN_FAMILY)) {
+                iterator.seek(new KeyPattern(key(2)));
+            }
+            transaction.put(COLUMN_FAMILY, key(3), value(3));
+
+            delete(provider, 2);
+
+            try {
+                transaction.commit();
+                Assert.fail();
+            } catch (TransactionConflictException e) {
+                Assert.assertTrue(true);
+            }
+        }
+    }
+
+    @Test
+    public void conflictOfWrittenKey() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+
+        try (DBTransaction transaction1 = provider.beginTransaction();
+             DBTransaction transaction2 = provider.beginTransaction()) {
+            transaction1.put(COLUMN_FAMILY, key(1), value(1));
+            transaction2.put(COLUMN_FAMILY, key(1), value(2));
+
+            transaction2.commit();
+            try {
+                transaction1.commit();
+                Assert.fail();
+            } catch (TransactionConflictException e) {
+                Assert.assertTrue(true);
+            }
+        }
+
+        Assert.assertArrayEquals(value(2), provider.getValue(COLUMN_FAMILY, key(1)));
+    }
+
+    @Test
+    public void conflictOfDeletedMissingKey() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            Assert.assertNull(transaction.getValueForUpdate(COLUMN_FAMILY, key(1)));
+            transaction.put(COLUMN_FAMILY, key(2), value(2));
+
+            delete(provider, 1);
+
+            try {
+                transaction.commit();
+                Assert.fail();
+            } catch (TransactionConflictException e) {
+                Assert.assertTrue(true);
+            }
+        }
+
+        assertKeys(provider.createIterator(COLUMN_FAMILY));
+    }
+
+    @Test
+    public void notConflictOfOtherKeys() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 1, 1);
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.getValue(COLUMN_FAMILY, key(1));
+            transaction.put(COLUMN_FAMILY, key(2), value(2));
+
+            put(provider, 3, 3);
+            transaction.commit();
+        }
+
+        assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 2, 3);
+    }
+
+    @Test
+    public void conflictOfPurgedKey() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 1, 1);
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.getValue(COLUMN_FAMILY, key(1));
+
+            delete(provider, 1);
+            put(provider, 2, 2);
+
+            transaction.put(COLUMN_FAMILY, key(1), value(10));
+            try {
+                transaction.commit();
+                Assert.fail();
+            } catch (TransactionConflictException e) {
+                Assert.assertTrue(true);
+            }
+        }
+    }
+
+    @Test
+    public void readPinnedState() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 1, 1);
+        put(provider, 2, 2);
+
+        try (DBSnapshot snapshot = provider.createSnapshot()) {
+            DBIterator iterator = provider.createIterator(COLUMN_FAMILY);
+            for (int i = 0; i < 10; ++i) {
+                put(provider, 1, 10 + i);
+                delete(provider, 2);
+                put(provider, 2, 20 + i);
+                put(provider, 3, 30 + i);
+            }
+            delete(provider, 2);
+
+            Assert.assertArrayEquals(value(1), snapshot.getValue(COLUMN_FAMILY, key(1)));
+            Assert.assertArrayEquals(new byte[][]{value(1), value(2), null}, snapshot.getValues(COLUMN_FAMILY, new byte[][]{key(1), key(2), key(3)}));
+            assertKeys(snapshot.createIterator(COLUMN_FAMILY), 1, 2);
+            assertKeys(iterator, 1, 2);
+
+            Assert.assertArrayEquals(value(19), provider.getValue(COLUMN_FAMILY, key(1)));
+            assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 3);
+        }
+
+        put(provider, 4, 4);
+        assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 3, 4);
+    }
+
+    @Test
+    public void deleteRange() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        for (long i = 1; i <= 5; ++i) {
+            put(provider, i, i);
+        }
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.put(COLUMN_FAMILY, key(6), value(6));
+            transaction.deleteRange(COLUMN_FAMILY, key(2), key(4));
+            transaction.deleteKeys(COLUMN_FAMILY, key(5), key(7));
+            assertKeys(transaction.createIterator(COLUMN_FAMILY), 1, 4);
+            transaction.commit();
+        }
+
+        assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 4);
+    }
+
+    @Test
+    public void bulkWrite() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        put(provider, 2, 2);
+
+        try (DBBulkWriter writer = provider.beginBulkWrite()) {
+            writer.write(COLUMN_FAMILY, Arrays.asList(new KeyValue(key(1), value(1)), new KeyValue(key(2), value(20))));
+            writer.write(COLUMN_FAMILY, Collections.singletonList(new KeyValue(key(2), value(200))));
+            assertKeys(provider.createIterator(COLUMN_FAMILY), 2);
+            writer.commit();
+        }
+
+        assertKeys(provider.createIterator(COLUMN_FAMILY), 1, 2);
+        Assert.assertArrayEquals(value(200), provider.getValue(COLUMN_FAMILY, key(2)));
+    }
+
+    @Test
+    public void sequences() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        provider.createSequence("seq");
+
+        try {
+            provider.createSequence("seq");
+            Assert.fail();
+        } catch (SequenceAlreadyExistsException e) {
+            Assert.assertTrue(true);
+        }
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            Assert.assertEquals(1, transaction.nextId("seq"));
+            Assert.assertEquals(2, transaction.nextIds("seq", 10));
+            Assert.assertEquals(12, transaction.nextId("seq"));
+
+            provider.dropSequence("seq");
+            try {
+                transaction.nextId("seq");
+                Assert.fail();
+            } catch (SequenceNotFoundException e) {
+                Assert.assertTrue(true);
+            }
+        }
+    }
+
+    @Test
+    public void dropColumnFamily() throws Exception {
+        MemoryDBProvider provider = buildProvider();
+        Assert.assertArrayEquals(new String[]{COLUMN_FAMILY}, provider.getColumnFamilies());
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.put(COLUMN_FAMILY, key(1), value(1));
+
+            provider.dropColumnFamily(COLUMN_FAMILY);
+            Assert.assertFalse(provider.containsColumnFamily(COLUMN_FAMILY));
+            try {
+                transaction.commit();
+                Assert.fail();
+            } catch (ColumnFamilyNotFoundException e) {
+                Assert.assertTrue(true);
+            }
+        }
+
+        provider.createColumnFamily(COLUMN_FAMILY);
+        assertKeys(provider.createIterator(COLUMN_FAMILY));
+    }
+
+    /**
+     * Moves of iterators over the same keys are compared with moves of RocksDB iterators.
+     */
+    @Test
+    public void iterateLikeRocksDB() throws Exception {
+        final Random random = new Random(1);
+        MemoryDBProvider memoryProvider = buildProvider();
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            rocksDBProvider.createColumnFamily(COLUMN_FAMILY);
+
+            List<byte[]> keys = new ArrayList<>();
+            for (DBProvider provider : Arrays.asList(memoryProvider, rocksDBProvider)) {
+                Random keyRandom = new Random(2);
+                try (DBTransaction transaction = provider.beginTransaction()) {
+                    for (int i = 0; i < 300; ++i) {
+                        byte[] key = randomKey(keyRandom);
+                        transaction.put(COLUMN_FAMILY, key, TypeConvert.pack((long) i));
+                        if (provider == memoryProvider) {
+                            keys.add(key);
+                        }
+                    }
+                    transaction.commit();
+                }
+                try (DBTransaction transaction = provider.beginTransaction()) {
+                    for (int i = 0; i < 50; ++i) {
+                        transaction.delete(COLUMN_FAMILY, randomKey(keyRandom));
+                    }
+                    transaction.commit();
+                }
+            }
+
+            for (int i = 0; i < 2000; ++i) {
+                KeyPattern pattern = randomPattern(random, keys.get(random.nextInt(keys.size())));
+                try (DBIterator expected = rocksDBProvider.createIterator(COLUMN_FAMILY);
+                     DBIterator actual = memoryProvider.createIterator(COLUMN_FAMILY)) {
+                    String moves = "seek";
+                    KeyValue expectedKeyValue = expected.seek(pattern);
+                    assertEquals(moves, expectedKeyValue, actual.seek(pattern));
+                    for (int j = 0; j < 10 && expectedKeyValue != null; ++j) {
+                        switch (random.nextInt(3)) {
+                            case 0:
+                                moves += ", next";
+                                expectedKeyValue = expected.next();
+                                assertEquals(moves, expectedKeyValue, actual.next());
+                                break;
+                            case 1:
+                                moves += ", forward";
+                                expectedKeyValue = expected.step(DBIterator.StepDirection.FORWARD);
+                                assertEquals(moves, expectedKeyValue, actual.step(DBIterator.StepDirection.FORWARD));
+                                break;
+                            default:
+                                moves += ", backward";
+                                expectedKeyValue = expected.step(DBIterator.StepDirection.BACKWARD);
+                                assertEquals(moves, expectedKeyValue, actual.step(DBIterator.StepDirection.BACKWARD));
+                                break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] randomKey(Random random) {
+        byte[] key = new byte[Long.BYTES + random.nextInt(3)];
+        System.arraycopy(Longs.toByteArray(random.nextInt(40)), 0, key, 0, Long.BYTES);
+        for (int i = Long.BYTES; i < key.length; ++i) {
+            key[i] = (byte) random.nextInt(4);
+        }
+        return key;
+    }
+
+    private static KeyPattern randomPattern(Random random, byte[] key) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+
+        byte[] prefix = Arrays.copyOf(key, Math.max(4, key.length - random.nextInt(4)));
+        KeyPattern.Postfix[] postfixes = random.nextInt(4) == 0 ?
+                new KeyPattern.Postfix[]{new KeyPattern.Postfix(Long.BYTES, new byte[]{(byte) random.nextInt(4)})} : null;
+        switch (random.nextInt(4)) {
+            case 0:
+                return new KeyPattern(prefix, postfixes);
+            case 1: {
+                KeyPattern pattern = new KeyPattern(prefix, Math.min(prefix.length, 4), postfixes);
+                pattern.setForBackward(random.nextBoolean());
+                return pattern;
+            }
+            case 2: {
+                KeyPattern pattern = new KeyPattern(prefix, -1, postfixes);
+                pattern.setForBackward(true);
+                return pattern;
+            }
+            default: {
+                KeyPattern pattern = new KeyPattern(prefix, random.nextBoolean() ? 0 : -1, postfixes);
+                pattern.setUpperBound(Longs.toByteArray(Longs.fromByteArray(key) + random.nextInt(3)));
+                return pattern;
+            }
+        }
+    }
+
+    private static void assertEquals(String moves, KeyValue expected, KeyValue actual) {
+        if (expected == null) {
+            Assert.assertNull(moves, actual);
+        } else {
+            Assert.assertNotNull(moves, actual);
+            Assert.assertArrayEquals(moves, expected.getKey(), actual.getKey());
+            Assert.assertArrayEquals(moves, expected.getValue(), actual.getValue());
+        }
+    }
+
+    private static MemoryDBProvider buildProvider() throws Exception {
+        MemoryDBProvider provider = new MemoryDBProvider();
+        provider.createColumnFamily(COLUMN_FAMILY);
+        return provider;
+    }
+
+    private static void put(DBProvider provider, long key, long value) throws Exception {
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.put(COLUMN_FAMILY, key(key), value(value));
+            transaction.commit();
+        }
+    }
+
+    private static void delete(DBProvider provider, long key) throws Exception {
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            transaction.delete(COLUMN_FAMILY, key(key));
+            transaction.commit();
+        }
+    }
+
+    private static void assertKeys(DBIterator iterator, long... expectedKeys) throws Exception {
+        List<Long> keys = new ArrayList<>();
+        try (DBIterator i = iterator) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                keys.add(Longs.fromByteArray(keyValue.getKey()));
+            }
+        }
+        Assert.assertEquals(Longs.asList(expectedKeys), keys);
+    }
+
+    private static byte[] key(long key) {
+        return Longs.toByteArray(key);
+    }
+
+    private static byte[] value(long value) {
+        return TypeConvert.pack(value);
+    }
+}
@@ -0,0 +1,127 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.utils.TypeConvert;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class CompactionSchedulerTest extends RocksDataTest {
+
+    private static final String columnFamily = "test_cf";
+
+    @Test
+    public void syncCompaction() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            CompactionScheduler scheduler = rocksDBProvider.getCompactionScheduler();
+            Assert.assertEquals(CompactionPolicy.SYNC, scheduler.getPolicy());
+
+            fillData(rocksDBProvider);
+            delete(rocksDBProvider, 10, 20);
+
+            Assert.assertEquals(0, scheduler.getBacklog());
+            Assert.assertEquals(1, scheduler.getCompactedRangeCount());
+        }
+    }
+
+    @Test
+    public void asyncCompactionMergesRanges() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withCompactionPolicy(CompactionPolicy.ASYNC)
+                .withCompactionDelay(1, TimeUnit.HOURS)
+                .build()) {
+            CompactionScheduler scheduler = rocksDBProvider.getCompactionScheduler();
+
+            fillData(rocksDBProvider);
+            delete(rocksDBProvider, 10, 20);
+            delete(rocksDBProvider, 30, 40);
+            Assert.assertEquals(2, scheduler.getBacklog());
+
+            delete(rocksDBProvider, 15, 35);
+            delete(rocksDBProvider, 50, 60);
+            Assert.assertEquals(2, scheduler.getBacklog());
+            Assert.assertEquals(0, scheduler.getCompactedRangeCount());
+
+            scheduler.compactPending();
+            Assert.assertEquals(0, scheduler.getBacklog());
+            Assert.assertEquals(2, scheduler.getCompactedRangeCount());
+        }
+    }
+
+    @Test
+    public void asyncCompactionInBackground() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withCompactionPolicy(CompactionPolicy.ASYNC)
+                .withCompactionDelay(10, TimeUnit.MILLISECONDS)
+                .build()) {
+            CompactionScheduler scheduler = rocksDBProvider.getCompactionScheduler();
+
+            fillData(rocksDBProvider);
+            delete(rocksDBProvider, 10, 20);
+
+            for (int i = 0; i < 500 && scheduler.getCompactedRangeCount() == 0; ++i) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, scheduler.getBacklog());
+            Assert.assertEquals(1, scheduler.getCompactedRangeCount());
+        }
+    }
+
+    @Test
+    public void disabledCompaction() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withCompactionPolicy(CompactionPolicy.DISABLED)
+                .build()) {
+            CompactionScheduler scheduler = rocksDBProvider.getCompactionScheduler();
+
+            fillData(rocksDBProvider);
+            delete(rocksDBProvider, 10, 20);
+
+            Assert.assertEquals(0, scheduler.getBacklog());
+            Assert.assertEquals(0, scheduler.getCompactedRangeCount());
+        }
+    }
+
+    @Test
+    public void dropColumnFamilyWithPendingRanges() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withCompactionPolicy(CompactionPolicy.ASYNC)
+                .withCompactionDelay(1, TimeUnit.HOURS)
+                .build()) {
+            CompactionScheduler scheduler = rocksDBProvider.getCompactionScheduler();
+
+            fillData(rocksDBProvider);
+            delete(rocksDBProvider, 10, 20);
+            Assert.assertEquals(1, scheduler.getBacklog());
+
+            rocksDBProvider.dropColumnFamily(columnFamily);
+            Assert.assertEquals(0, scheduler.getBacklog());
+
+            scheduler.compactPending();
+            Assert.assertEquals(0, scheduler.getCompactedRangeCount());
+        }
+    }
+
+    private static void fillData(RocksDBProvider rocksDBProvider) throws Exception {
+        rocksDBProvider.createColumnFamily(columnFamily);
+
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            for (long i = 0; i < 100; ++i) {
+                transaction.put(columnFamily, TypeConvert.pack(i), TypeConvert.EMPTY_BYTE_ARRAY);
+            }
+            transaction.commit();
+        }
+    }
+
+    private static void delete(RocksDBProvider rocksDBProvider, long begin, long end) throws Exception {
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            transaction.deleteRange(columnFamily, TypeConvert.pack(begin), TypeConvert.pack(end));
+            transaction.commit();
+        }
+    }
+}
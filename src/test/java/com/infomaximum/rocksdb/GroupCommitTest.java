@@ -0,0 +1,85 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.utils.TypeConvert;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class GroupCommitTest extends RocksDataTest {
+
+    private static final String columnFamily = "test_cf";
+
+    @Test
+    public void concurrentCommits() throws Exception {
+        final int threadCount = 8;
+        final int commitCount = 50;
+
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withGroupCommit(4, 1, TimeUnit.MILLISECONDS)
+                .build()) {
+            rocksDBProvider.createColumnFamily(columnFamily);
+
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> errors = new ArrayList<>();
+            for (int t = 0; t < threadCount; ++t) {
+                final long base = t * commitCount;
+                threads.add(new Thread(() -> {
+                    try {
+                        for (long i = base; i < base + commitCount; ++i) {
+                            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                                transaction.put(columnFamily, TypeConvert.pack(i), TypeConvert.pack(i));
+                                transaction.commit();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assert.assertEquals(new ArrayList<>(), errors);
+            for (long i = 0; i < threadCount * commitCount; ++i) {
+                Assert.assertEquals(i, TypeConvert.unpackLong(rocksDBProvider.getValue(columnFamily, TypeConvert.pack(i))).longValue());
+            }
+        }
+    }
+
+    @Test
+    public void conflictIsReportedToOwnTransaction() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withGroupCommit(16, 0, TimeUnit.MILLISECONDS)
+                .build()) {
+            rocksDBProvider.createColumnFamily(columnFamily);
+
+            final byte[] key = TypeConvert.pack(1L);
+            try (DBTransaction transaction1 = rocksDBProvider.beginTransaction();
+                 DBTransaction transaction2 = rocksDBProvider.beginTransaction()) {
+                transaction1.put(columnFamily, key, TypeConvert.pack(1L));
+                transaction2.put(columnFamily, key, TypeConvert.pack(2L));
+
+                transaction2.commit();
+                try {
+                    transaction1.commit();
+                    Assert.fail();
+                } catch (DatabaseException e) {
+                    Assert.assertTrue(true);
+                }
+            }
+
+            Assert.assertEquals(2L, TypeConvert.unpackLong(rocksDBProvider.getValue(columnFamily, key)).longValue());
+        }
+    }
+}
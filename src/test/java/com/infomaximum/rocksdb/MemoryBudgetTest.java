@@ -0,0 +1,72 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.utils.TypeConvert;
+import org.junit.Assert;
+import org.junit.Test;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.util.SizeUnit;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MemoryBudgetTest extends RocksDataTest {
+
+    @Test
+    public void sharedCaches() throws Exception {
+        final String dataColumnFamily = "com.infomaximum.store.StoreFile";
+        final String indexColumnFamily = "com.infomaximum.store.StoreFile.index";
+
+        try (RocksDBProvider rocksDBProvider = buildProvider()) {
+            rocksDBProvider.createColumnFamily(dataColumnFamily);
+            rocksDBProvider.createColumnFamily(indexColumnFamily);
+
+            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                for (long i = 0; i < 1000; ++i) {
+                    transaction.put(dataColumnFamily, TypeConvert.pack(i), TypeConvert.pack(i));
+                    transaction.put(indexColumnFamily, TypeConvert.pack(i), TypeConvert.pack(i));
+                }
+                transaction.commit();
+            }
+            try (FlushOptions flushOptions = new FlushOptions().setWaitForFlush(true)) {
+                rocksDBProvider.getRocksDB().flush(flushOptions, rocksDBProvider.getColumnFamilyHandle(dataColumnFamily));
+            }
+        }
+
+        List<String> options = readLatestOptionsFile();
+        Assert.assertTrue(options.contains("db_write_buffer_size=" + (4 * SizeUnit.MB)));
+        Assert.assertTrue(options.contains("cache_index_and_filter_blocks=true"));
+        Assert.assertTrue(options.contains("pin_l0_filter_and_index_blocks_in_cache=true"));
+
+        try (RocksDBProvider rocksDBProvider = buildProvider()) {
+            for (long i = 0; i < 1000; ++i) {
+                Assert.assertArrayEquals(TypeConvert.pack(i), rocksDBProvider.getValue(dataColumnFamily, TypeConvert.pack(i)));
+                Assert.assertArrayEquals(TypeConvert.pack(i), rocksDBProvider.getValue(indexColumnFamily, TypeConvert.pack(i)));
+            }
+        }
+    }
+
+    private RocksDBProvider buildProvider() throws Exception {
+        return new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withBlockCache(8 * SizeUnit.MB)
+                .withRowCache(SizeUnit.MB)
+                .withWriteBufferBudget(4 * SizeUnit.MB)
+                .build();
+    }
+
+    private List<String> readLatestOptionsFile() throws Exception {
+        Path file;
+        try (Stream<Path> files = Files.list(pathDataBase)) {
+            file = files
+                    .filter(path -> path.getFileName().toString().startsWith("OPTIONS-"))
+                    .max((left, right) -> left.getFileName().toString().compareTo(right.getFileName().toString()))
+                    .get();
+        }
+        return Files.readAllLines(file, StandardCharsets.UTF_8).stream().map(String::trim).collect(Collectors.toList());
+    }
+}
@@ -10,6 +10,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
 public class RocksDBDataSourceTest extends RocksDataTest {
 
     private RocksDBProvider rocksDBProvider;
@@ -90,6 +93,133 @@ public class RocksDBDataSourceTest extends RocksDataTest {
         }
     }
 
+    @Test
+    public void cursorMode() throws Exception {
+        fillData();
+
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            transaction.put(columnFamily, TypeConvert.pack(startValue + 1), TypeConvert.pack(15L));
+            transaction.commit();
+        }
+
+        try (DBIterator iterator = rocksDBProvider.createIterator(columnFamily)) {
+            iterator.setCursorMode(true);
+
+            final KeyValue cursor = iterator.seek(new KeyPattern(TypeConvert.pack(startValue), -1));
+            Assert.assertEquals(startValue, TypeConvert.unpackLong(cursor.getKey()).longValue());
+
+            KeyValue keyValue = iterator.next();
+            Assert.assertSame(cursor, keyValue);
+            Assert.assertEquals(startValue + 1, TypeConvert.unpackLong(keyValue.getKey()).longValue());
+            Assert.assertEquals(15L, TypeConvert.unpackLong(keyValue.getValue()).longValue());
+
+            keyValue = iterator.step(DBIterator.StepDirection.FORWARD);
+            Assert.assertSame(cursor, keyValue);
+            Assert.assertArrayEquals(TypeConvert.EMPTY_BYTE_ARRAY, keyValue.getValue());
+
+            iterator.setCursorMode(false);
+            Assert.assertNotSame(cursor, iterator.next());
+        }
+    }
+
+    @Test
+    public void stepBackwardFromPrefixSeek() throws Exception {
+        final String indexColumnFamily = columnFamily + ".index";
+        final int prefixLength = ColumnFamilyProfile.INDEX.getPrefixLength();
+        rocksDBProvider.createColumnFamily(indexColumnFamily);
+
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    transaction.put(indexColumnFamily, buildIndexKey(prefixLength, i, j), TypeConvert.EMPTY_BYTE_ARRAY);
+                }
+            }
+            transaction.commit();
+        }
+
+        try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
+            KeyPattern pattern = new KeyPattern(Arrays.copyOf(buildIndexKey(prefixLength, 1, 0), prefixLength));
+
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 0), iterator.seek(pattern).getKey());
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 1), iterator.next().getKey());
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 0), iterator.step(DBIterator.StepDirection.BACKWARD).getKey());
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 0, 2), iterator.step(DBIterator.StepDirection.BACKWARD).getKey());
+
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 0), iterator.seek(pattern).getKey());
+            Assert.assertNotNull(iterator.next());
+            Assert.assertNotNull(iterator.next());
+            Assert.assertNull(iterator.next());
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 2), iterator.step(DBIterator.StepDirection.BACKWARD).getKey());
+            Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 1), iterator.step(DBIterator.StepDirection.BACKWARD).getKey());
+        }
+    }
+
+    @Test
+    public void seekSwitchingPrefixModeAndTotalOrder() throws Exception {
+        final String indexColumnFamily = columnFamily + ".index";
+        final int prefixLength = ColumnFamilyProfile.INDEX.getPrefixLength();
+        rocksDBProvider.createColumnFamily(indexColumnFamily);
+
+        try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    transaction.put(indexColumnFamily, buildIndexKey(prefixLength, i, j), TypeConvert.EMPTY_BYTE_ARRAY);
+                }
+            }
+            transaction.commit();
+        }
+
+        final LongAdder liveIteratorCount = rocksDBProvider.getLiveIteratorCount(indexColumnFamily);
+        try (DBIterator iterator = rocksDBProvider.createIterator(indexColumnFamily)) {
+            KeyPattern prefixPattern = new KeyPattern(Arrays.copyOf(buildIndexKey(prefixLength, 1, 0), prefixLength));
+            KeyPattern totalOrderPattern = new KeyPattern(buildIndexKey(prefixLength, 1, 2), -1);
+
+            for (int i = 0; i < 3; i++) {
+                Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 0), iterator.seek(prefixPattern).getKey());
+                Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 1), iterator.next().getKey());
+
+                Assert.assertArrayEquals(buildIndexKey(prefixLength, 1, 2), iterator.seek(totalOrderPattern).getKey());
+                Assert.assertArrayEquals(buildIndexKey(prefixLength, 2, 0), iterator.next().getKey());
+            }
+            Assert.assertEquals(2, liveIteratorCount.sum());
+        }
+        Assert.assertEquals(0, liveIteratorCount.sum());
+    }
+
+    @Test
+    public void seekWithUpperBound() throws Exception {
+        fillData();
+
+        Assert.assertArrayEquals(new byte[] { 1, 3 }, new KeyPattern(new byte[] { 1, 2, (byte) 0xFF }).getUpperBound());
+        Assert.assertNull(new KeyPattern(new byte[] { (byte) 0xFF, (byte) 0xFF }).getUpperBound());
+        Assert.assertNull(new KeyPattern(new byte[] { 1, 2 }, -1).getUpperBound());
+
+        try (DBIterator iterator = rocksDBProvider.createIterator(columnFamily)) {
+            KeyPattern pattern = new KeyPattern(TypeConvert.pack(startValue), -1);
+            pattern.setUpperBound(TypeConvert.pack(startValue + 10));
+
+            int count = 0;
+            for (KeyValue keyValue = iterator.seek(pattern); keyValue != null; keyValue = iterator.next()) {
+                Assert.assertEquals(startValue + count, TypeConvert.unpackLong(keyValue.getKey()).longValue());
+                ++count;
+            }
+            Assert.assertEquals(10, count);
+
+            KeyValue keyValue = iterator.step(DBIterator.StepDirection.BACKWARD);
+            Assert.assertEquals(startValue + 9, TypeConvert.unpackLong(keyValue.getKey()).longValue());
+
+            keyValue = iterator.seek(new KeyPattern(TypeConvert.pack(0xA000000080000001L), -1));
+            Assert.assertArrayEquals(TypeConvert.pack(0xA000000080000001L), keyValue.getKey());
+        }
+    }
+
+    private static byte[] buildIndexKey(int prefixLength, int prefix, int suffix) {
+        byte[] key = new byte[prefixLength + 1];
+        key[prefixLength - 1] = (byte) prefix;
+        key[prefixLength] = (byte) suffix;
+        return key;
+    }
+
     private void fillData() throws Exception {
         rocksDBProvider.createColumnFamily(columnFamily);
 
@@ -0,0 +1,145 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.exception.DatabaseException;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.DBProvider;
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.provider.KeyValue;
+import com.infomaximum.database.utils.TypeConvert;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RocksDBTransactionTest extends RocksDataTest {
+
+    private static final String columnFamily = "test_cf";
+
+    @Test
+    public void deleteRange() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            fillData(rocksDBProvider, 10);
+
+            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                transaction.put(columnFamily, key(2), value(20));
+                transaction.deleteRange(columnFamily, key(1), key(6));
+                transaction.put(columnFamily, key(3), value(30));
+                transaction.deleteRange(columnFamily, key(8), key(9));
+
+                Assert.assertNull(transaction.getValue(columnFamily, key(2)));
+                Assert.assertArrayEquals(value(30), transaction.getValue(columnFamily, key(3)));
+                byte[][] values = transaction.getValues(columnFamily, new byte[][] { key(0), key(4), key(3) });
+                Assert.assertArrayEquals(value(0), values[0]);
+                Assert.assertNull(values[1]);
+                Assert.assertArrayEquals(value(30), values[2]);
+
+                assertKeys(transaction.createIterator(columnFamily), 0, 3, 6, 7, 9);
+                try (DBIterator iterator = transaction.createIterator(columnFamily)) {
+                    Assert.assertArrayEquals(key(6), iterator.seek(new KeyPattern(key(5), 0)).getKey());
+                    Assert.assertArrayEquals(key(3), iterator.step(DBIterator.StepDirection.BACKWARD).getKey());
+                    Assert.assertArrayEquals(key(0), iterator.step(DBIterator.StepDirection.BACKWARD).getKey());
+                    Assert.assertNull(iterator.step(DBIterator.StepDirection.BACKWARD));
+
+                    KeyPattern pattern = new KeyPattern(key(1), 0);
+                    pattern.setUpperBound(key(9));
+                    Assert.assertArrayEquals(key(3), iterator.seek(pattern).getKey());
+                    Assert.assertArrayEquals(key(6), iterator.next().getKey());
+                    Assert.assertArrayEquals(key(7), iterator.next().getKey());
+                    Assert.assertNull(iterator.next());
+                }
+
+                transaction.commit();
+            }
+
+            assertKeys(rocksDBProvider.createIterator(columnFamily), 0, 3, 6, 7, 9);
+            Assert.assertArrayEquals(value(30), rocksDBProvider.getValue(columnFamily, key(3)));
+        }
+    }
+
+    @Test
+    public void deleteRangeIsRolledBack() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            fillData(rocksDBProvider, 5);
+
+            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                transaction.deleteRange(columnFamily, key(0), key(5));
+                assertKeys(transaction.createIterator(columnFamily));
+                transaction.rollback();
+            }
+
+            assertKeys(rocksDBProvider.createIterator(columnFamily), 0, 1, 2, 3, 4);
+        }
+    }
+
+    @Test
+    public void deleteKeysConflicts() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            fillData(rocksDBProvider, 5);
+
+            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                transaction.deleteKeys(columnFamily, key(1), key(4));
+                assertKeys(transaction.createIterator(columnFamily), 0, 4);
+
+                try (DBTransaction concurrent = rocksDBProvider.beginTransaction()) {
+                    concurrent.put(columnFamily, key(2), value(20));
+                    concurrent.commit();
+                }
+
+                try {
+                    transaction.commit();
+                    Assert.fail();
+                } catch (DatabaseException ignore) {
+                }
+            }
+
+            Assert.assertArrayEquals(value(20), rocksDBProvider.getValue(columnFamily, key(2)));
+        }
+    }
+
+    @Test
+    public void singleDelete() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            fillData(rocksDBProvider, 3);
+
+            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                transaction.singleDelete(columnFamily, key(1));
+                Assert.assertNull(transaction.getValue(columnFamily, key(1)));
+                transaction.commit();
+            }
+
+            assertKeys(rocksDBProvider.createIterator(columnFamily), 0, 2);
+        }
+    }
+
+    private static void fillData(DBProvider provider, long count) throws Exception {
+        provider.createColumnFamily(columnFamily);
+
+        try (DBTransaction transaction = provider.beginTransaction()) {
+            for (long i = 0; i < count; ++i) {
+                transaction.put(columnFamily, key(i), value(i));
+            }
+            transaction.commit();
+        }
+    }
+
+    private static void assertKeys(DBIterator iterator, long... expected) throws Exception {
+        List<Long> keys = new ArrayList<>();
+        try (DBIterator i = iterator) {
+            for (KeyValue keyValue = i.seek(null); keyValue != null; keyValue = i.next()) {
+                keys.add(TypeConvert.unpackLong(keyValue.getKey()));
+            }
+        }
+        Assert.assertEquals(Arrays.toString(expected), keys.toString());
+    }
+
+    private static byte[] key(long i) {
+        return TypeConvert.pack(i);
+    }
+
+    private static byte[] value(long i) {
+        return TypeConvert.pack(i);
+    }
+}
@@ -1,6 +1,8 @@
 package com.infomaximum.rocksdb;
 
 import com.infomaximum.database.exception.SequenceAlreadyExistsException;
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.utils.TypeConvert;
 import com.infomaximum.util.RandomUtil;
 import org.junit.Assert;
 import org.junit.Test;
@@ -95,6 +97,56 @@ public class SequenceManagerTest extends RocksDataTest {
         }
     }
 
+    @Test
+    public void nextIds() throws Exception {
+        String sequenceName = "sdfuisii";
+        Set<Long> ids = new HashSet<>();
+
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            rocksDBProvider.createSequence(sequenceName);
+
+            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                Assert.assertEquals(1L, transaction.nextId(sequenceName));
+                Assert.assertEquals(2L, transaction.nextIds(sequenceName, 25));
+                Assert.assertEquals(27L, transaction.nextId(sequenceName));
+                Assert.assertEquals(28L, transaction.nextIds(sequenceName, 100_000));
+                Assert.assertEquals(100_028L, transaction.nextId(sequenceName));
+            }
+        }
+
+        for (long id = 1; id <= 100_028L; ++id) {
+            ids.add(id);
+        }
+        startDbAndIncrementSequence(sequenceName, ids, 10);
+    }
+
+    @Test
+    public void adaptiveBlockSize() throws Exception {
+        String sequenceName = "sdfuisii";
+        final int maxBlockSize = 1000;
+        final int count = 100_000;
+
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withSequenceBlockSize(10, maxBlockSize)
+                .build()) {
+            rocksDBProvider.createSequence(sequenceName);
+
+            SequenceManager.Sequence sequence = rocksDBProvider.getSequenceManager().getSequence(sequenceName);
+            for (int i = 1; i <= count; i++) {
+                Assert.assertEquals(i, sequence.next());
+            }
+        }
+
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
+            long reserved = TypeConvert.unpackLong(rocksDBProvider.getValue(RocksDBProvider.DEFAULT_COLUMN_FAMILY,
+                    TypeConvert.pack(SequenceManager.SEQUENCE_PREFIX + sequenceName)));
+            Assert.assertTrue(reserved >= count);
+            Assert.assertTrue(reserved <= count + 2 * maxBlockSize);
+            Assert.assertEquals(reserved + 1, rocksDBProvider.getSequenceManager().getSequence(sequenceName).next());
+        }
+    }
+
     private void startDbAndIncrementSequence(String sequenceName, Set<Long> ids, int count) throws Exception {
         try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder().withPath(pathDataBase).build()) {
             SequenceManager sequenceManager = new SequenceManager(rocksDBProvider);
@@ -0,0 +1,71 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.provider.DBTransaction;
+import com.infomaximum.database.utils.TypeConvert;
+import com.infomaximum.rocksdb.util.PerfomanceTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput of small synced transactions committed by many threads
+ * with and without group commit.
+ */
+public class ConcurrentCommitTest extends RocksDataTest {
+
+    private static final String COLUMN_FAMILY = "test_cf";
+    private static final int THREAD_COUNT = 16;
+    private static final int COMMITS_PER_THREAD = 500;
+
+    @Test
+    public void commitEachTransaction() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withSyncCommit(true)
+                .build()) {
+            test(rocksDBProvider);
+        }
+    }
+
+    @Test
+    public void groupCommit() throws Exception {
+        try (RocksDBProvider rocksDBProvider = new RocksDataBaseBuilder()
+                .withPath(pathDataBase)
+                .withGroupCommit(THREAD_COUNT, 1, TimeUnit.MILLISECONDS)
+                .build()) {
+            test(rocksDBProvider);
+        }
+    }
+
+    private static void test(RocksDBProvider rocksDBProvider) throws Exception {
+        rocksDBProvider.createColumnFamily(COLUMN_FAMILY);
+        final AtomicLong key = new AtomicLong();
+
+        PerfomanceTest.test(10, step -> {
+            List<Thread> threads = new ArrayList<>(THREAD_COUNT);
+            for (int t = 0; t < THREAD_COUNT; ++t) {
+                threads.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < COMMITS_PER_THREAD; ++i) {
+                            try (DBTransaction transaction = rocksDBProvider.beginTransaction()) {
+                                transaction.put(COLUMN_FAMILY, TypeConvert.pack(key.incrementAndGet()), TypeConvert.EMPTY_BYTE_ARRAY);
+                                transaction.commit();
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        });
+        System.out.println(String.format("Commits per step = %d", THREAD_COUNT * COMMITS_PER_THREAD));
+    }
+}
@@ -0,0 +1,86 @@
+package com.infomaximum.rocksdb;
+
+import com.infomaximum.database.domainobject.DomainDataTest;
+import com.infomaximum.database.domainobject.DomainObject;
+import com.infomaximum.database.domainobject.Transaction;
+import com.infomaximum.database.domainobject.filter.HashFilter;
+import com.infomaximum.database.domainobject.iterator.IteratorEntity;
+import com.infomaximum.database.provider.DBIterator;
+import com.infomaximum.database.provider.KeyPattern;
+import com.infomaximum.database.schema.Schema;
+import com.infomaximum.database.schema.StructEntity;
+import com.infomaximum.database.utils.key.FieldKey;
+import com.infomaximum.rocksdb.util.PerfomanceTest;
+import com.infomaximum.util.RandomUtil;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compares chunked multi-get loading of index iterators with seeking every found object.
+ */
+public class IndexLoadingTest extends DomainDataTest {
+
+    private static final int RECORD_COUNT = 500 * 1000;
+    private static final long FIXED_LONG = 500;
+
+    private static final Set<Integer> preloaded = new HashSet<>(Arrays.asList(
+            RecordIndexEditable.FIELD_STRING_1,
+            RecordIndexEditable.FIELD_INT_1));
+
+    private static final HashFilter filter = new HashFilter(RecordIndexEditable.FIELD_LONG_1, FIXED_LONG);
+
+    @Test
+    public void findByChunks() throws Exception {
+        fillData();
+
+        PerfomanceTest.test(100, step -> {
+            try (IteratorEntity<RecordIndexReadable> i = domainObjectSource.find(RecordIndexReadable.class, filter, preloaded)) {
+                while (i.hasNext()) {
+                    RecordIndexReadable rec = i.next();
+
+                    String s = rec.getString1();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void findBySeekingEachObject() throws Exception {
+        fillData();
+
+        final StructEntity entity = Schema.getEntity(RecordIndexReadable.class);
+        final Constructor<RecordIndexReadable> constructor = DomainObject.getConstructor(RecordIndexReadable.class);
+
+        PerfomanceTest.test(100, step -> {
+            try (IteratorEntity<RecordIndexReadable> i = domainObjectSource.find(RecordIndexReadable.class, filter, Collections.emptySet());
+                 DBIterator dataIterator = domainObjectSource.createIterator(entity.getColumnFamily())) {
+                KeyPattern dataKeyPattern = FieldKey.buildKeyPattern(preloaded);
+                while (i.hasNext()) {
+                    dataKeyPattern.setPrefix(FieldKey.buildKeyPrefix(i.next().getId()));
+                    RecordIndexReadable rec = domainObjectSource.seekObject(constructor, preloaded, dataIterator, dataKeyPattern);
+
+                    String s = rec.getString1();
+                }
+            }
+        });
+    }
+
+    private void fillData() throws Exception {
+        createDomain(RecordIndexReadable.class);
+
+        try (Transaction transaction = domainObjectSource.buildTransaction()) {
+            for (int i = 0; i < RECORD_COUNT; ++i) {
+                RecordIndexEditable rec = transaction.create(RecordIndexEditable.class);
+                rec.setString1("some value " + i);
+                rec.setLong1((i % 50) == 0 ? FIXED_LONG : RandomUtil.random.nextLong());
+                transaction.save(rec);
+            }
+            transaction.commit();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.infomaximum.rocksdb.util;
 
 import com.infomaximum.util.DurationUtils;
 
-import javax.swing.*;
 import java.time.Duration;
 
 public class PerfomanceTest {
@@ -24,8 +23,6 @@ public class PerfomanceTest {
     }
 
     public static void test(int executionCount, Consumer beforeEach, Action action) throws Exception {
-        showMessage("Test on starting.");
-
         long durationNanos = 0;
         for (int i = 0; i < executionCount; ++i) {
             if (beforeEach != null) {
@@ -36,8 +33,6 @@ public class PerfomanceTest {
             durationNanos += (System.nanoTime() - beginTime);
         }
         printResults(executionCount, Duration.ofNanos(durationNanos));
-
-        showMessage("Test on finished.");
     }
 
     private static void printResults(int executionCount, Duration duration) {
@@ -48,11 +43,4 @@ public class PerfomanceTest {
         );
         System.out.println(msg);
     }
-
-    private static void showMessage(String message) {
-        JOptionPane optionPane = new JOptionPane(message);
-        JDialog dialog = optionPane.createDialog("Perfomance test");
-        dialog.setAlwaysOnTop(true);
-        dialog.setVisible(true);
-    }
 }